@@ -0,0 +1,130 @@
+package com.hsbc.fraud.detection.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import com.hsbc.fraud.detection.rule.FraudRule;
+import com.hsbc.fraud.detection.rule.LargeAmountRule;
+import com.hsbc.fraud.detection.rule.RapidFireRule;
+import com.hsbc.fraud.detection.rule.SuspiciousAccountRule;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic transaction samples and rule setups shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    /**
+     * Samples per benchmark; a power of two so the next sample is an index mask away.
+     */
+    static final int SAMPLES = 1024;
+    static final int SAMPLE_MASK = SAMPLES - 1;
+
+    static final List<String> BLACKLIST = List.of("ACCT001", "ACCT666", "ACCT999");
+
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "HKD"};
+    private static final String[] CATEGORIES = {"RETAIL", "GROCERY", "TRAVEL", "ONLINE", "FUEL"};
+    private static final String[] LOCATIONS = {"New York", "London", "Hong Kong", "Paris", "Singapore"};
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Same configuration as the service's JacksonConfig.
+     */
+    static ObjectMapper objectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
+
+    /**
+     * The rules registered in the service, with its default configuration.
+     */
+    static List<FraudRule> defaultRules() {
+        return List.of(
+                new LargeAmountRule(new BigDecimal("10000")),
+                new SuspiciousAccountRule(BLACKLIST),
+                new RapidFireRule(5, 262_144));
+    }
+
+    /**
+     * Build {@link #SAMPLES} sample transactions on distinct accounts (so velocity checks stay quiet).
+     *
+     * @param fraudPercent share of samples that are large or from a blacklisted account
+     */
+    static Transaction[] transactions(int fraudPercent) {
+        return transactions(fraudPercent, SAMPLES);
+    }
+
+    /**
+     * Build {@link #SAMPLES} samples, or one per account if there are more accounts,
+     * cycling through {@code accounts} distinct accounts.
+     *
+     * @param fraudPercent share of samples that are large or from a blacklisted account
+     */
+    static Transaction[] transactions(int fraudPercent, int accounts) {
+        SplittableRandom random = new SplittableRandom(42);
+        Instant now = Instant.parse("2024-01-31T12:00:00.000Z");
+        int samples = Math.max(SAMPLES, accounts);
+        Transaction[] transactions = new Transaction[samples];
+        for (int i = 0; i < samples; i++) {
+            boolean fraudulent = random.nextInt(100) < fraudPercent;
+            boolean blacklisted = fraudulent && random.nextBoolean();
+            BigDecimal amount = fraudulent && !blacklisted
+                    ? BigDecimal.valueOf(10_001 + random.nextInt(90_000))
+                    : BigDecimal.valueOf(100 + random.nextInt(899_900), 2);
+            transactions[i] = Transaction.builder()
+                    .transactionId("TX-" + i)
+                    .accountId(blacklisted ? BLACKLIST.get(random.nextInt(BLACKLIST.size())) : "ACCT" + (100_000 + i % accounts))
+                    .amount(amount)
+                    .currency(CURRENCIES[random.nextInt(CURRENCIES.length)])
+                    .timestamp(now.plusMillis(i))
+                    .merchantId("MERCHANT" + random.nextInt(500))
+                    .merchantCategory(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .location(LOCATIONS[random.nextInt(LOCATIONS.length)])
+                    .type(TYPES[random.nextInt(TYPES.length)])
+                    .build();
+        }
+        return transactions;
+    }
+
+    /**
+     * Move all samples to the next pass: 13 seconds later, so five passes (the
+     * default RAPID_FIRE limit) span more than its one-minute window. Allocates a
+     * single Instant per pass over the samples.
+     *
+     * @param views views to move along, or null
+     * @return the new event time
+     */
+    static long nextPass(Transaction[] transactions, TransactionView[] views, long clock) {
+        long next = clock + 13_000;
+        Instant timestamp = Instant.ofEpochMilli(next);
+        for (Transaction transaction : transactions) {
+            transaction.setTimestamp(timestamp);
+        }
+        if (views != null) {
+            for (TransactionView view : views) {
+                view.setTimestampMillis(next);
+            }
+        }
+        return next;
+    }
+
+    static TransactionView[] views(Transaction[] transactions) {
+        TransactionView[] views = new TransactionView[transactions.length];
+        for (int i = 0; i < transactions.length; i++) {
+            views[i] = new TransactionView();
+            views[i].copyFrom(transactions[i]);
+        }
+        return views;
+    }
+}
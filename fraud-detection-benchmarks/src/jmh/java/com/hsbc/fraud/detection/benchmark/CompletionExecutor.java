@@ -0,0 +1,65 @@
+package com.hsbc.fraud.detection.benchmark;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Executor for the executor processing mode that reports when each task has run.
+ *
+ * TransactionEventHandler frees the ring buffer slot as soon as it hands a
+ * transaction to its pool, so the end of the Disruptor pipeline says nothing
+ * about when processing finished. Without batching it submits one task per
+ * transaction, in ring buffer order and from its single consumer thread, so
+ * the n-th task submitted is transaction n.
+ */
+final class CompletionExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final LongConsumer completed;
+    private long submitted;
+
+    /**
+     * @param completed called with the transaction number once its task has run, on the worker thread
+     */
+    CompletionExecutor(ExecutorService delegate, LongConsumer completed) {
+        this.delegate = delegate;
+        this.completed = completed;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long n = submitted++;
+        delegate.execute(() -> {
+            command.run();
+            completed.accept(n);
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,146 @@
+package com.hsbc.fraud.detection.benchmark;
+
+import com.hsbc.fraud.detection.disruptor.DisruptorService;
+import com.hsbc.fraud.detection.disruptor.ProcessingMode;
+import com.hsbc.fraud.detection.disruptor.ShardedTransactionEventHandler;
+import com.hsbc.fraud.detection.disruptor.TransactionEvent;
+import com.hsbc.fraud.detection.disruptor.TransactionEventCleaner;
+import com.hsbc.fraud.detection.disruptor.TransactionEventFactory;
+import com.hsbc.fraud.detection.disruptor.TransactionEventHandler;
+import com.hsbc.fraud.detection.disruptor.TransactionProcessor;
+import com.hsbc.fraud.detection.disruptor.WaitStrategyType;
+import com.hsbc.fraud.detection.metrics.MetricsCollector;
+import com.hsbc.fraud.detection.model.FraudAlert;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.service.AlertService;
+import com.hsbc.fraud.detection.service.FraudDetectionEngine;
+import com.hsbc.fraud.detection.service.ShortCircuitMode;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One transaction published through DisruptorService, processed by the
+ * production handler chain for the processing mode and observed as complete
+ * by the publishing thread:
+ * - executor: TransactionEventHandler hands it to a one-thread pool, as
+ *   configured in DisruptorConfig; complete when the pool task has run
+ * - sharded: a ShardedTransactionEventHandler runs the rules on the consumer
+ *   thread, then the cleaner; complete at the end of the chain
+ *
+ * Measures hand-off and wake-up cost per mode and wait strategy on top of
+ * detection; compare with FraudDetectionEngineBenchmark for the detection
+ * share. Reports throughput and the sampled latency distribution (p99 and
+ * above) for each. Blocking strategies need a free core for the consumer,
+ * spinning ones need two.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DisruptorRoundTripBenchmark {
+
+    private static final int RING_BUFFER_SIZE = 1024;
+
+    @Param({"executor", "sharded"})
+    public String processingMode;
+
+    @Param({"BLOCKING", "SLEEPING", "YIELDING", "BUSY_SPIN"})
+    public WaitStrategyType waitStrategy;
+
+    private final CompletionHandler completion = new CompletionHandler();
+    private DisruptorService disruptorService;
+    private ExecutorService pool;
+    private Transaction[] transactions;
+    private long clock;
+    private long published = -1;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricsCollector metricsCollector = new MetricsCollector(meterRegistry);
+        FraudDetectionEngine engine = new FraudDetectionEngine(BenchmarkData.defaultRules(), meterRegistry,
+                ShortCircuitMode.NONE, FraudAlert.FraudSeverity.CRITICAL, true);
+        AlertService alertService = new AlertService(metricsCollector);
+
+        Disruptor<TransactionEvent> disruptor = new Disruptor<>(
+                new TransactionEventFactory(),
+                RING_BUFFER_SIZE,
+                DaemonThreadFactory.INSTANCE,
+                ProducerType.SINGLE,
+                waitStrategy.create(100));
+        if (ProcessingMode.valueOf(processingMode.toUpperCase()) == ProcessingMode.SHARDED) {
+            TransactionProcessor processor = new TransactionProcessor(
+                    engine, alertService, meterRegistry, metricsCollector);
+            disruptor.handleEventsWith(new ShardedTransactionEventHandler(processor, 0, 1))
+                    .then(new TransactionEventCleaner())
+                    .then(completion);
+        } else {
+            pool = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(4096),
+                    DaemonThreadFactory.INSTANCE, new ThreadPoolExecutor.CallerRunsPolicy());
+            disruptor.handleEventsWith(new TransactionEventHandler(engine, alertService, meterRegistry,
+                    new CompletionExecutor(pool, completion::completed), metricsCollector));
+        }
+        disruptorService = new DisruptorService(disruptor, meterRegistry, 5);
+
+        transactions = BenchmarkData.transactions(0);
+        clock = transactions[0].getTimestamp().toEpochMilli();
+    }
+
+    @TearDown
+    public void tearDown() {
+        disruptorService.shutdown();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public long roundTrip() {
+        int i = next++ & BenchmarkData.SAMPLE_MASK;
+        if (i == 0) {
+            // Safe to rewrite: the previous round trip has completed
+            clock = BenchmarkData.nextPass(transactions, null, clock);
+        }
+        disruptorService.publishEvent(transactions[i], null);
+        long expected = ++published;
+        while (completion.sequence < expected) {
+            Thread.onSpinWait();
+        }
+        return expected;
+    }
+
+    /**
+     * Last completed transaction: ring buffer sequence n, or pool task n, is the n-th published.
+     */
+    private static final class CompletionHandler implements EventHandler<TransactionEvent> {
+
+        volatile long sequence = -1;
+
+        @Override
+        public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) {
+            completed(sequence);
+        }
+
+        void completed(long n) {
+            sequence = n;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.hsbc.fraud.detection.benchmark;
+
+import com.hsbc.fraud.detection.model.FraudAlert;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import com.hsbc.fraud.detection.service.FraudDetectionEngine;
+import com.hsbc.fraud.detection.service.ShortCircuitMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FraudDetectionEngine.analyzeTransaction with the default rules on clean and
+ * fraudulent mixes, interpreted and with the compiled rule plan.
+ *
+ * Alerts are returned, not rendered, so fraudulent mixes measure alert
+ * construction but not reason formatting (that happens in the alert sink).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FraudDetectionEngineBenchmark {
+
+    @Param({"0", "1", "10"})
+    public int fraudPercent;
+
+    @Param({"true", "false"})
+    public boolean compiledPlan;
+
+    private FraudDetectionEngine engine;
+    private Transaction[] transactions;
+    private TransactionView[] views;
+    private long clock;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        engine = new FraudDetectionEngine(BenchmarkData.defaultRules(), new SimpleMeterRegistry(),
+                ShortCircuitMode.NONE, FraudAlert.FraudSeverity.CRITICAL, compiledPlan);
+        transactions = BenchmarkData.transactions(fraudPercent);
+        views = BenchmarkData.views(transactions);
+        clock = transactions[0].getTimestamp().toEpochMilli();
+    }
+
+    @Benchmark
+    public FraudAlert transaction() {
+        int i = next++ & BenchmarkData.SAMPLE_MASK;
+        if (i == 0) {
+            clock = BenchmarkData.nextPass(transactions, views, clock);
+        }
+        return engine.analyzeTransaction(transactions[i]);
+    }
+
+    @Benchmark
+    public FraudAlert view() {
+        int i = next++ & BenchmarkData.SAMPLE_MASK;
+        if (i == 0) {
+            clock = BenchmarkData.nextPass(transactions, views, clock);
+        }
+        return engine.analyzeTransaction(views[i]);
+    }
+}
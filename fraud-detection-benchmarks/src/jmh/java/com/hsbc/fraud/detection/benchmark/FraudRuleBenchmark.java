@@ -0,0 +1,86 @@
+package com.hsbc.fraud.detection.benchmark;
+
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import com.hsbc.fraud.detection.rule.FraudRule;
+import com.hsbc.fraud.detection.rule.LargeAmountRule;
+import com.hsbc.fraud.detection.rule.RapidFireRule;
+import com.hsbc.fraud.detection.rule.SuspiciousAccountRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each fraud rule on its own, through both the transaction and the view overload.
+ *
+ * Event time moves forward with every pass over the samples (see
+ * {@link BenchmarkData#nextPass}), so the velocity rule measures its
+ * bookkeeping rather than alerts.
+ *
+ * {@code accounts} sets how many distinct accounts the samples cycle through.
+ * At 1024 the samples and the velocity table stay in cache; at a million most
+ * lookups miss, as in production. The velocity table is sized for that many
+ * active accounts, and a million samples need the bigger heap below.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FraudRuleBenchmark {
+
+    @Param({"LARGE_AMOUNT", "SUSPICIOUS_ACCOUNT", "RAPID_FIRE"})
+    public String rule;
+
+    @Param({"1024", "65536", "1000000"})
+    public int accounts;
+
+    private FraudRule fraudRule;
+    private Transaction[] transactions;
+    private TransactionView[] views;
+    private long clock;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        fraudRule = switch (rule) {
+            case "LARGE_AMOUNT" -> new LargeAmountRule(new BigDecimal("10000"));
+            case "SUSPICIOUS_ACCOUNT" -> new SuspiciousAccountRule(BenchmarkData.BLACKLIST);
+            // Every account is active within the window; the tracker wants twice that many slots
+            case "RAPID_FIRE" -> new RapidFireRule(5, Math.max(262_144, 2 * accounts));
+            default -> throw new IllegalArgumentException(rule);
+        };
+        transactions = BenchmarkData.transactions(10, accounts);
+        views = BenchmarkData.views(transactions);
+        clock = transactions[0].getTimestamp().toEpochMilli();
+    }
+
+    @Benchmark
+    public boolean transaction() {
+        int i = next;
+        next = i + 1 < transactions.length ? i + 1 : 0;
+        if (i == 0) {
+            clock = BenchmarkData.nextPass(transactions, views, clock);
+        }
+        return fraudRule.isFraudulent(transactions[i]);
+    }
+
+    @Benchmark
+    public boolean view() {
+        int i = next;
+        next = i + 1 < transactions.length ? i + 1 : 0;
+        if (i == 0) {
+            clock = BenchmarkData.nextPass(transactions, views, clock);
+        }
+        return fraudRule.isFraudulent(views[i]);
+    }
+}
@@ -0,0 +1,127 @@
+package com.hsbc.fraud.detection.benchmark;
+
+import com.hsbc.fraud.detection.disruptor.TransactionEvent;
+import com.lmax.disruptor.EventHandler;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records when each transaction of the load harness finished processing against
+ * when it was meant to start and when it was actually handed to the service.
+ *
+ * In sharded mode it is the final Disruptor stage, and ring buffer sequence n is
+ * the n-th transaction sent, since the harness is the only publisher. In executor
+ * mode the pool's workers report completions through a {@link CompletionExecutor},
+ * in any order. Either way the two start times are looked up by transaction number.
+ */
+final class LatencyRecorder implements EventHandler<TransactionEvent> {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final long[] intendedStart;
+    private final long[] actualStart;
+    private final int mask;
+    private final long warmupCount;
+
+    /**
+     * From intended start: includes time spent waiting behind earlier transactions.
+     */
+    private final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+
+    /**
+     * From actual hand-off: what a closed-loop client would report.
+     */
+    private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong measureEndNanos = new AtomicLong();
+    private volatile long measureStartNanos;
+
+    /**
+     * @param capacity maximum transactions in flight, rounded up to a power of 2
+     * @param warmupCount leading transactions excluded from the histograms
+     */
+    LatencyRecorder(int capacity, long warmupCount) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.intendedStart = new long[size];
+        this.actualStart = new long[size];
+        this.mask = size - 1;
+        this.warmupCount = warmupCount;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Called by the publishing thread just before handing transaction {@code n} over.
+     */
+    void started(long n, long intendedNanos, long actualNanos) {
+        int index = (int) (n & mask);
+        intendedStart[index] = intendedNanos;
+        actualStart[index] = actualNanos;
+    }
+
+    /**
+     * Transactions finished so far. In executor mode they finish slightly out of
+     * order, by at most the pool's queue and worker count, far below the capacity.
+     */
+    long completedCount() {
+        return completed.get();
+    }
+
+    @Override
+    public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) {
+        completed(sequence);
+    }
+
+    /**
+     * Transaction {@code n} finished processing. Safe to call from several threads.
+     */
+    void completed(long n) {
+        long now = System.nanoTime();
+        if (n >= warmupCount) {
+            int index = (int) (n & mask);
+            if (n == warmupCount) {
+                measureStartNanos = intendedStart[index];
+            }
+            responseTime.recordValue(Math.min(now - intendedStart[index], HIGHEST_TRACKABLE_NANOS));
+            serviceTime.recordValue(Math.min(now - actualStart[index], HIGHEST_TRACKABLE_NANOS));
+            measureEndNanos.accumulateAndGet(now, Math::max);
+        }
+        completed.incrementAndGet();
+    }
+
+    /**
+     * Spin-sleep until {@code count} transactions completed or the deadline passes.
+     *
+     * @return whether all completed
+     */
+    boolean awaitCompleted(long count, long deadlineNanos) throws InterruptedException {
+        while (completedCount() < count) {
+            if (System.nanoTime() > deadlineNanos) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    Histogram getResponseTime() {
+        return responseTime;
+    }
+
+    Histogram getServiceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * Wall time from the first measured intended start to the last measured completion.
+     */
+    long measuredNanos() {
+        return measureEndNanos.get() - measureStartNanos;
+    }
+}
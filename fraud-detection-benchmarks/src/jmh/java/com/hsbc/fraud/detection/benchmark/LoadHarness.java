@@ -0,0 +1,312 @@
+package com.hsbc.fraud.detection.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.fraud.detection.disruptor.DisruptorService;
+import com.hsbc.fraud.detection.disruptor.ProcessingMode;
+import com.hsbc.fraud.detection.disruptor.ShardedTransactionEventHandler;
+import com.hsbc.fraud.detection.disruptor.TransactionEvent;
+import com.hsbc.fraud.detection.disruptor.TransactionEventCleaner;
+import com.hsbc.fraud.detection.disruptor.TransactionEventFactory;
+import com.hsbc.fraud.detection.disruptor.TransactionEventHandler;
+import com.hsbc.fraud.detection.disruptor.TransactionProcessor;
+import com.hsbc.fraud.detection.disruptor.WaitStrategyType;
+import com.hsbc.fraud.detection.messaging.local.LocalMessageConsumer;
+import com.hsbc.fraud.detection.messaging.local.MpscMessageQueue;
+import com.hsbc.fraud.detection.metrics.MetricsCollector;
+import com.hsbc.fraud.detection.model.FraudAlert;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.service.AlertService;
+import com.hsbc.fraud.detection.service.FraudDetectionEngine;
+import com.hsbc.fraud.detection.service.ShortCircuitMode;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load harness: drives the detection pipeline in process at fixed
+ * arrival rates and reports response time corrected for coordinated omission.
+ *
+ * Transaction n is due at {@code start + n / rate}, whether or not earlier ones
+ * have finished. Latency is measured from that intended start to the end of the
+ * Disruptor pipeline, so time spent queueing behind a slow transaction counts
+ * against every transaction it delayed. The service time from the actual
+ * hand-off, which is what a closed-loop client sees, is reported alongside.
+ *
+ * Each rate runs on a fresh pipeline in the chosen {@code disruptor.processing-mode}:
+ * warm-up, then the measured interval. The run stops at the first rate the
+ * pipeline cannot sustain. In executor mode the pool is set up as in
+ * DisruptorConfig (fixed size, bounded queue, caller runs when full), and a
+ * transaction completes when its pool task has run.
+ *
+ * <pre>
+ * ./gradlew :fraud-detection-benchmarks:loadHarness -PloadArgs="--rates=10000,50000,100000 --ingest=local"
+ *
+ *   --rates=1000,5000,...     arrival rates in transactions per second, run in order
+ *   --warmup=5 --duration=30  seconds per rate
+ *   --ingest=direct|local     DisruptorService.publishEvent, or JSON through LocalMessageConsumer
+ *   --processing-mode=sharded|executor
+ *   --shards=4                sharded: account shards, one consumer thread each
+ *   --workers=4 --queue-capacity=4096   executor: pool threads and queue bound
+ *   --wait-strategy=blocking --ring-buffer-size=8192
+ *   --accounts=10000000 --fraud-percent=1
+ *   --max-in-flight=4194304   backlog at which a rate is declared unsustainable
+ *   --output=build/results/load
+ * </pre>
+ *
+ * Writes one HdrHistogram percentile distribution per mode, rate and latency type
+ * ({@code *.hgrm}, microseconds) and a {@code <mode>-summary.csv} with the
+ * throughput/latency curve, so runs in both modes can be compared side by side.
+ */
+public final class LoadHarness {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final long PARK_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Map<String, String> options;
+    private final ObjectMapper objectMapper = BenchmarkData.objectMapper();
+
+    private LoadHarness(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                System.err.println("Expected --name=value, got " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        new LoadHarness(options).run();
+    }
+
+    private void run() throws Exception {
+        long[] rates = Arrays.stream(option("rates", "1000,5000,10000,50000,100000").split(","))
+                .map(String::trim)
+                .mapToLong(Long::parseLong)
+                .toArray();
+        Path output = Path.of(option("output", "build/results/load"));
+        Files.createDirectories(output);
+        String mode = processingMode().name().toLowerCase();
+
+        System.out.println("Processing mode: " + mode);
+        System.out.printf("%-10s %-12s %10s %10s %10s %10s %10s %10s %12s%n",
+                "rate/s", "achieved/s", "p50 us", "p90 us", "p99 us", "p99.9 us", "p99.99 us", "max us",
+                "svc p99 us");
+        try (PrintWriter summary = new PrintWriter(Files.newBufferedWriter(output.resolve(mode + "-summary.csv")))) {
+            summary.println("rate,achieved,sustained,p50_us,p90_us,p99_us,p99_9_us,p99_99_us,max_us,service_p99_us");
+
+            for (long rate : rates) {
+                StepResult result = runStep(rate);
+                Histogram response = result.recorder().getResponseTime();
+                Histogram service = result.recorder().getServiceTime();
+
+                StringBuilder row = new StringBuilder(String.format("%-10d %-12.0f", rate, result.achieved()));
+                StringBuilder csv = new StringBuilder(String.format("%d,%.0f,%b", rate, result.achieved(), result.sustained()));
+                for (double percentile : PERCENTILES) {
+                    double micros = micros(response.getValueAtPercentile(percentile));
+                    row.append(String.format(" %10.1f", micros));
+                    csv.append(String.format(",%.1f", micros));
+                }
+                double serviceP99 = micros(service.getValueAtPercentile(99));
+                row.append(String.format(" %10.1f %12.1f", micros(response.getMaxValue()), serviceP99));
+                csv.append(String.format(",%.1f,%.1f", micros(response.getMaxValue()), serviceP99));
+                System.out.println(row + (result.sustained() ? "" : "  NOT SUSTAINED"));
+                summary.println(csv);
+
+                writeDistribution(output.resolve(mode + "-" + rate + "-response.hgrm"), response);
+                writeDistribution(output.resolve(mode + "-" + rate + "-service.hgrm"), service);
+
+                if (!result.sustained()) {
+                    break;
+                }
+            }
+        }
+        System.out.println("Percentile distributions and " + mode + "-summary.csv written to " + output.toAbsolutePath());
+    }
+
+    private StepResult runStep(long rate) throws Exception {
+        long warmupCount = rate * Long.parseLong(option("warmup", "5"));
+        long total = warmupCount + rate * Long.parseLong(option("duration", "30"));
+        boolean local = "local".equals(option("ingest", "direct"));
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricsCollector metricsCollector = new MetricsCollector(meterRegistry);
+        FraudDetectionEngine engine = new FraudDetectionEngine(BenchmarkData.defaultRules(), meterRegistry,
+                ShortCircuitMode.NONE, FraudAlert.FraudSeverity.CRITICAL, true);
+        AlertService alertService = new AlertService(metricsCollector);
+        LatencyRecorder recorder = new LatencyRecorder(
+                Integer.parseInt(option("max-in-flight", "4194304")), warmupCount);
+
+        // A single thread publishes in both ingest modes
+        Disruptor<TransactionEvent> disruptor = new Disruptor<>(
+                new TransactionEventFactory(),
+                Integer.parseInt(option("ring-buffer-size", "8192")),
+                DaemonThreadFactory.INSTANCE,
+                ProducerType.SINGLE,
+                WaitStrategyType.valueOf(option("wait-strategy", "blocking").toUpperCase().replace('-', '_'))
+                        .create(1000));
+        ThreadPoolExecutor pool = null;
+        if (processingMode() == ProcessingMode.SHARDED) {
+            TransactionProcessor processor = new TransactionProcessor(
+                    engine, alertService, meterRegistry, metricsCollector);
+            int shards = Integer.parseInt(option("shards", "4"));
+            @SuppressWarnings("unchecked")
+            EventHandler<TransactionEvent>[] shardHandlers = new EventHandler[shards];
+            for (int i = 0; i < shards; i++) {
+                shardHandlers[i] = new ShardedTransactionEventHandler(processor, i, shards);
+            }
+            disruptor.handleEventsWith(shardHandlers)
+                    .then(recorder)
+                    .then(new TransactionEventCleaner());
+        } else {
+            int workers = Integer.parseInt(option("workers", "4"));
+            pool = new ThreadPoolExecutor(workers, workers, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(Integer.parseInt(option("queue-capacity", "4096"))),
+                    DaemonThreadFactory.INSTANCE, new ThreadPoolExecutor.CallerRunsPolicy());
+            // Without batching the handler submits one pool task per transaction
+            disruptor.handleEventsWith(new TransactionEventHandler(engine, alertService, meterRegistry,
+                    new CompletionExecutor(pool, recorder::completed), metricsCollector));
+        }
+        DisruptorService disruptorService = new DisruptorService(disruptor, meterRegistry, 5);
+
+        LocalMessageConsumer consumer = null;
+        MpscMessageQueue queue = LocalMessageConsumer.getMessageQueue();
+        if (local) {
+            consumer = new LocalMessageConsumer(objectMapper, disruptorService);
+            consumer.startListening();
+        }
+
+        SplittableRandom random = new SplittableRandom(rate);
+        int accounts = Integer.parseInt(option("accounts", "10000000"));
+        int fraudPercent = Integer.parseInt(option("fraud-percent", "1"));
+        long wallStartMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        long sent = 0;
+        boolean sustained = true;
+
+        try {
+            for (long n = 0; n < total; n++) {
+                long intendedNanos = startNanos + n * TimeUnit.SECONDS.toNanos(1) / rate;
+                Transaction transaction = nextTransaction(random, n, accounts, fraudPercent,
+                        wallStartMillis + TimeUnit.NANOSECONDS.toMillis(intendedNanos - startNanos));
+                String payload = local ? objectMapper.writeValueAsString(transaction) : null;
+
+                waitUntil(intendedNanos);
+                if (n - recorder.completedCount() >= recorder.capacity()) {
+                    // Backlog keeps growing: latency is now bounded only by the run length
+                    sustained = false;
+                    break;
+                }
+
+                recorder.started(n, intendedNanos, System.nanoTime());
+                if (local) {
+                    queue.put(payload);
+                } else {
+                    disruptorService.publishEvent(transaction, null);
+                }
+                sent++;
+            }
+            if (!recorder.awaitCompleted(sent, System.nanoTime() + DRAIN_TIMEOUT_NANOS)) {
+                sustained = false;
+            }
+        } finally {
+            if (consumer != null) {
+                consumer.stopListening();
+            }
+            disruptorService.shutdown();
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+
+        long measured = Math.max(0, recorder.completedCount() - warmupCount);
+        double achieved = recorder.measuredNanos() > 0
+                ? measured * (double) TimeUnit.SECONDS.toNanos(1) / recorder.measuredNanos()
+                : 0;
+        // Keeping up with the arrival rate within 5% over the measured interval
+        return new StepResult(recorder, achieved, sustained && achieved >= rate * 0.95);
+    }
+
+    private Transaction nextTransaction(SplittableRandom random, long n, int accounts, int fraudPercent,
+                                        long timestampMillis) {
+        boolean fraudulent = random.nextInt(100) < fraudPercent;
+        boolean blacklisted = fraudulent && random.nextBoolean();
+        BigDecimal amount = fraudulent && !blacklisted
+                ? BigDecimal.valueOf(10_001 + random.nextInt(90_000))
+                : BigDecimal.valueOf(100 + random.nextInt(899_900), 2);
+        String accountId = blacklisted
+                ? BenchmarkData.BLACKLIST.get(random.nextInt(BenchmarkData.BLACKLIST.size()))
+                : "ACCT" + (1_000_000 + random.nextInt(accounts));
+        return Transaction.builder()
+                .transactionId("LOAD-" + n)
+                .accountId(accountId)
+                .amount(amount)
+                .currency("USD")
+                .timestamp(Instant.ofEpochMilli(timestampMillis))
+                .merchantId("MERCHANT" + random.nextInt(500))
+                .merchantCategory("RETAIL")
+                .location("London")
+                .type(Transaction.TransactionType.PURCHASE)
+                .build();
+    }
+
+    /**
+     * Park for most of the gap and spin the rest; being late is harmless for the
+     * results, since latency is measured from the intended time.
+     */
+    private static void waitUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            if (remaining > PARK_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - PARK_THRESHOLD_NANOS / 2);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private ProcessingMode processingMode() {
+        return ProcessingMode.valueOf(option("processing-mode", "sharded").toUpperCase());
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private record StepResult(LatencyRecorder recorder, double achieved, boolean sustained) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.hsbc.fraud.detection.benchmark;
+
+import com.hsbc.fraud.detection.metrics.MetricsCollector;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-transaction metric recording against the Prometheus registry used in
+ * production, from four threads to include contention on shared meters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class MetricsCollectorBenchmark {
+
+    private MetricsCollector metricsCollector;
+
+    @Setup
+    public void setUp() {
+        metricsCollector = new MetricsCollector(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+    }
+
+    @Benchmark
+    public void transactionReceived() {
+        metricsCollector.recordTransactionReceived();
+    }
+
+    @Benchmark
+    public void transactionProcessed() {
+        metricsCollector.recordTransactionProcessed(3);
+    }
+
+    @Benchmark
+    public void transactionCleared() {
+        metricsCollector.recordTransactionCleared();
+    }
+
+    @Benchmark
+    public void fraudDetected() {
+        metricsCollector.recordFraudDetected(MetricsCollector.SEVERITY_HIGH, "ACCT100", 15_000.0);
+    }
+
+    @Benchmark
+    public void ruleViolation() {
+        metricsCollector.recordRuleViolation(MetricsCollector.RULE_LARGE_AMOUNT, "ACCT100");
+    }
+}
@@ -0,0 +1,58 @@
+package com.hsbc.fraud.detection.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hsbc.fraud.producer.model.Transaction;
+import com.hsbc.fraud.producer.service.TransactionGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of producing one message body in the producer, from four sender threads.
+ *
+ * {@code objectAndJackson} is the object payload (build a Transaction, serialize
+ * it with the producer's Jackson settings); {@code json} renders the same message
+ * directly. Run with {@code -prof gc} to compare allocation per message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class TransactionGeneratorBenchmark {
+
+    private TransactionGenerator generator;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        generator = new TransactionGenerator();
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public Transaction object() {
+        return generator.generateTransaction();
+    }
+
+    @Benchmark
+    public String objectAndJackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(generator.generateTransaction());
+    }
+
+    @Benchmark
+    public String json() {
+        return generator.generateJson();
+    }
+}
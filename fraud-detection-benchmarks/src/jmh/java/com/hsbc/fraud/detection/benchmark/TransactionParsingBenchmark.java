@@ -0,0 +1,68 @@
+package com.hsbc.fraud.detection.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.fraud.detection.disruptor.TransactionJsonParser;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON decoding of a transaction message: Jackson data binding (the listener path)
+ * against the streaming parser filling a reused transaction or a slot view.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionParsingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private TransactionJsonParser parser;
+    private String[] payloads;
+    private char[][] buffers;
+    private Transaction transaction;
+    private TransactionView view;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = BenchmarkData.objectMapper();
+        parser = new TransactionJsonParser(objectMapper);
+        Transaction[] transactions = BenchmarkData.transactions(0);
+        payloads = new String[transactions.length];
+        buffers = new char[transactions.length][];
+        for (int i = 0; i < transactions.length; i++) {
+            payloads[i] = objectMapper.writeValueAsString(transactions[i]);
+            buffers[i] = payloads[i].toCharArray();
+        }
+        transaction = new Transaction();
+        view = new TransactionView();
+    }
+
+    @Benchmark
+    public Transaction dataBinding() throws IOException {
+        return objectMapper.readValue(payloads[next++ & BenchmarkData.SAMPLE_MASK], Transaction.class);
+    }
+
+    @Benchmark
+    public Transaction streamingIntoTransaction() throws IOException {
+        char[] json = buffers[next++ & BenchmarkData.SAMPLE_MASK];
+        parser.parseInto(json, json.length, transaction);
+        return transaction;
+    }
+
+    @Benchmark
+    public TransactionView streamingIntoView() throws IOException {
+        char[] json = buffers[next++ & BenchmarkData.SAMPLE_MASK];
+        parser.parseInto(json, json.length, view);
+        return view;
+    }
+}
@@ -0,0 +1,226 @@
+package com.hsbc.fraud.detection.alert;
+
+import com.hsbc.fraud.detection.model.FraudAlert;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.service.AlertIdGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Collapses alert storms, such as a compromised account tripping the same rules
+ * on every transaction, before they reach the sinks.
+ * 
+ * Alerts are keyed on account and rule set. The first alert for a key is passed
+ * on at once and opens a window of window-seconds; further alerts for the key
+ * within the window are only counted. Once the window has passed, {@link #flush}
+ * emits one summary alert carrying the count (aggregatedCount) and the latest
+ * folded transaction, and the next alert for the key opens a new window.
+ * 
+ * Windows live in a ConcurrentHashMap of at most max-windows entries and are
+ * evicted when they expire. Folding is one CAS on the window's counter. When
+ * the map is full, alerts for new keys pass through unaggregated, so nothing
+ * is lost under memory pressure.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "alert.aggregation.enabled", havingValue = "true", matchIfMissing = true)
+public class AlertAggregator {
+    
+    private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<FraudAlert> summaries = new ConcurrentLinkedQueue<>();
+    private final AlertIdGenerator alertIdGenerator = new AlertIdGenerator();
+    private final long windowMillis;
+    private final int maxWindows;
+    private final LongSupplier clock;
+    
+    private final Counter foldedCounter;
+    private final Counter summaryCounter;
+    private final Counter overflowCounter;
+    
+    @Autowired
+    public AlertAggregator(
+            MeterRegistry meterRegistry,
+            @Value("${alert.aggregation.window-seconds:60}") long windowSeconds,
+            @Value("${alert.aggregation.max-windows:100000}") int maxWindows) {
+        this(TimeUnit.SECONDS.toMillis(windowSeconds), maxWindows, meterRegistry, System::currentTimeMillis);
+    }
+    
+    AlertAggregator(long windowMillis, int maxWindows, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.windowMillis = windowMillis;
+        this.maxWindows = maxWindows;
+        this.clock = clock;
+        this.foldedCounter = Counter.builder("alert.aggregation.folded")
+                .description("Alerts folded into a summary instead of being delivered")
+                .register(meterRegistry);
+        this.summaryCounter = Counter.builder("alert.aggregation.summaries")
+                .description("Summary alerts emitted for closed aggregation windows")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("alert.aggregation.overflow")
+                .description("Alerts passed through unaggregated because the window map was full")
+                .register(meterRegistry);
+        Gauge.builder("alert.aggregation.windows", windows, Map::size)
+                .description("Open aggregation windows")
+                .register(meterRegistry);
+        log.info("Alert aggregation enabled (window: {} ms, max windows: {})", windowMillis, maxWindows);
+    }
+    
+    /**
+     * Pass an alert through the aggregation window for its account and rule set.
+     * 
+     * @param alert The fraud alert
+     * @return the alert if it is to be delivered now, or null if it was folded into its window
+     */
+    public FraudAlert aggregate(FraudAlert alert) {
+        Transaction transaction = alert.getTransaction();
+        if (transaction == null || transaction.getAccountId() == null) {
+            return alert;
+        }
+        Key key = new Key(transaction.getAccountId(), ruleSet(alert));
+        long now = clock.getAsLong();
+        
+        while (true) {
+            Window window = windows.get(key);
+            if (window == null) {
+                if (windows.size() >= maxWindows) {
+                    overflowCounter.increment();
+                    return alert;
+                }
+                if (windows.putIfAbsent(key, new Window(alert, now + windowMillis)) == null) {
+                    return alert;
+                }
+            } else if (now >= window.end) {
+                close(key, window);
+            } else if (window.fold(alert)) {
+                foldedCounter.increment();
+                return null;
+            }
+            // Lost a race with another thread opening or closing the window; look again
+        }
+    }
+    
+    /**
+     * Close the windows that have expired and hand their summaries to downstream.
+     * 
+     * @param downstream Receives one summary per window that folded any alerts
+     */
+    public void flush(Consumer<FraudAlert> downstream) {
+        flush(downstream, clock.getAsLong());
+    }
+    
+    /**
+     * Close every window, expired or not, e.g. on shutdown.
+     * 
+     * @param downstream Receives one summary per window that folded any alerts
+     */
+    public void flushAll(Consumer<FraudAlert> downstream) {
+        flush(downstream, Long.MAX_VALUE);
+    }
+    
+    private void flush(Consumer<FraudAlert> downstream, long now) {
+        windows.forEach((key, window) -> {
+            if (now >= window.end) {
+                close(key, window);
+            }
+        });
+        FraudAlert summary;
+        while ((summary = summaries.poll()) != null) {
+            downstream.accept(summary);
+        }
+    }
+    
+    /**
+     * Evict a window and queue its summary. Safe to race: only the caller that
+     * closes the window's counter builds the summary.
+     */
+    private void close(Key key, Window window) {
+        long folded = window.close();
+        windows.remove(key, window);
+        if (folded > 0) {
+            summaries.add(summary(key, window, folded));
+            summaryCounter.increment();
+        }
+    }
+    
+    private FraudAlert summary(Key key, Window window, long folded) {
+        FraudAlert first = window.first;
+        FraudAlert last = window.last != null ? window.last : first;
+        return FraudAlert.builder()
+                .alertId(alertIdGenerator.nextId())
+                .transaction(last.getTransaction())
+                .ruleIds(first.getRuleIds())
+                .violatedRules(last.getViolatedRules())
+                .severity(last.getSeverity())
+                .detectedAt(last.getDetectedAt())
+                .aggregatedCount(folded)
+                .aggregatedSince(first.getDetectedAt())
+                .message(String.format("FRAUD DETECTED: %d further alerts for account %s since %s: %s",
+                        folded, key.accountId(), first.getDetectedAt(), String.join(", ", key.rules())))
+                .build();
+    }
+    
+    /**
+     * The alert's rules as an order-independent set; the engine may reorder its rules at runtime.
+     */
+    private static Set<String> ruleSet(FraudAlert alert) {
+        List<String> rules = alert.getRuleIds() != null ? alert.getRuleIds() : alert.getViolatedRules();
+        return rules != null ? Set.copyOf(rules) : Set.of();
+    }
+    
+    private record Key(String accountId, Set<String> rules) {
+    }
+    
+    /**
+     * One key's aggregation window. The counter turns negative once the window is
+     * closed, so a fold either lands before the close and is in the summary, or fails.
+     */
+    private static final class Window {
+        
+        private static final long CLOSED = -1;
+        
+        final FraudAlert first;
+        final long end;
+        final AtomicLong folded = new AtomicLong();
+        volatile FraudAlert last;
+        
+        Window(FraudAlert first, long end) {
+            this.first = first;
+            this.end = end;
+        }
+        
+        boolean fold(FraudAlert alert) {
+            long count;
+            do {
+                count = folded.get();
+                if (count == CLOSED) {
+                    return false;
+                }
+            } while (!folded.compareAndSet(count, count + 1));
+            last = alert;
+            return true;
+        }
+        
+        /**
+         * @return the number of folded alerts, or CLOSED if the window was already closed
+         */
+        long close() {
+            return folded.getAndSet(CLOSED);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.hsbc.fraud.detection.alert;
+
+import com.hsbc.fraud.detection.model.FraudAlert;
+
+/**
+ * An alert on its way to a sink, with the context of the thread that raised it.
+ * 
+ * @param alert the alert
+ * @param correlationId correlation ID of the transaction's processing, if any
+ * @param enqueuedNanos System.nanoTime() when the alert was published; 0 if it
+ *                      was spilled to disk by a previous run
+ */
+public record AlertEnvelope(FraudAlert alert, String correlationId, long enqueuedNanos) {
+}
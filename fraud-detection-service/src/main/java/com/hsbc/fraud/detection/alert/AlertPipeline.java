@@ -0,0 +1,183 @@
+package com.hsbc.fraud.detection.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.fraud.detection.disruptor.WaitStrategyType;
+import com.hsbc.fraud.detection.logging.LoggingContext;
+import com.hsbc.fraud.detection.model.FraudAlert;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves fraud alerts off the transaction scoring threads and fans them out to
+ * every {@link AlertSink}.
+ * 
+ * Flow:
+ * 1. A scoring thread publishes the alert to a dedicated multi-producer Disruptor
+ * 2. One dispatcher thread hands it to each sink's bounded queue, applying that
+ *    sink's backpressure policy when the queue is full
+ * 3. Each sink's own thread drains its queue in batches of up to batch-size
+ * 
+ * Publishing is one ring buffer claim and never waits: if the intake ring buffer
+ * is full, which takes a BLOCK sink that has fallen behind, the alert is dropped
+ * and counted in alert.pipeline.dropped rather than stalling the scoring thread.
+ * DROP_OLDEST and SPILL_TO_DISK sinks never stall the dispatcher, so the ring
+ * buffer only fills if the dispatcher itself cannot keep up.
+ * 
+ * Policies come from alert.sinks.&lt;name&gt;.policy (block | drop-oldest | spill-to-disk),
+ * defaulting to the sink's own choice (SPILL_TO_DISK unless the sink overrides it).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "alert.pipeline.enabled", havingValue = "true", matchIfMissing = true)
+public class AlertPipeline {
+    
+    private final Disruptor<Slot> disruptor;
+    private final RingBuffer<Slot> ringBuffer;
+    private final List<SinkChannel> channels = new ArrayList<>();
+    private final int shutdownTimeoutSeconds;
+    private final Counter droppedCounter;
+    
+    public AlertPipeline(
+            List<AlertSink> sinks,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            Environment environment,
+            @Value("${alert.pipeline.ring-buffer-size:16384}") int ringBufferSize,
+            @Value("${alert.pipeline.wait-strategy:sleeping}") WaitStrategyType waitStrategy,
+            @Value("${alert.pipeline.queue-capacity:10000}") int queueCapacity,
+            @Value("${alert.pipeline.batch-size:100}") int batchSize,
+            @Value("${alert.pipeline.spill-directory:${java.io.tmpdir}/fraud-alert-spill}") String spillDirectory,
+            @Value("${alert.pipeline.shutdown-timeout:10}") int shutdownTimeoutSeconds) throws IOException {
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+        this.droppedCounter = Counter.builder("alert.pipeline.dropped")
+                .description("Alerts dropped at publication because the alert ring buffer was full")
+                .register(meterRegistry);
+        
+        for (AlertSink sink : sinks) {
+            BackpressurePolicy policy = environment.getProperty(
+                    "alert.sinks." + sink.getName() + ".policy", BackpressurePolicy.class, sink.getDefaultPolicy());
+            SpillFile spill = policy == BackpressurePolicy.SPILL_TO_DISK
+                    ? new SpillFile(Path.of(spillDirectory, sink.getName() + ".spill"), objectMapper)
+                    : null;
+            channels.add(new SinkChannel(sink, policy, queueCapacity, batchSize, spill, meterRegistry));
+            log.info("Alert sink {} registered (policy: {}, queue capacity: {}, batch size: {})",
+                    sink.getName(), policy, queueCapacity, batchSize);
+        }
+        
+        this.disruptor = new Disruptor<>(
+                Slot::new,
+                Integer.highestOneBit(Math.max(2, ringBufferSize) - 1) << 1,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "alert-dispatcher");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                ProducerType.MULTI,  // Every scoring thread publishes
+                waitStrategy.create(1000));
+        disruptor.handleEventsWith(new Dispatcher(channels));
+        this.ringBuffer = disruptor.getRingBuffer();
+        
+        channels.forEach(SinkChannel::start);
+        disruptor.start();
+    }
+    
+    /**
+     * Queue an alert for all sinks without waiting. Captures the caller's correlation
+     * ID for the sinks' logs.
+     * 
+     * @param alert The fraud alert to deliver
+     * @return false if the ring buffer was full and the alert was dropped
+     */
+    public boolean publish(FraudAlert alert) {
+        AlertEnvelope envelope = new AlertEnvelope(alert, LoggingContext.getCorrelationId(), System.nanoTime());
+        long sequence;
+        try {
+            sequence = ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            droppedCounter.increment();
+            return false;
+        }
+        try {
+            ringBuffer.get(sequence).envelope = envelope;
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+        return true;
+    }
+    
+    /**
+     * Deliver what has been published, then stop the sinks.
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            disruptor.shutdown(shutdownTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Alert dispatcher did not drain within {}s: {}", shutdownTimeoutSeconds, e.getMessage());
+            disruptor.halt();
+        }
+        for (SinkChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        log.info("Alert pipeline stopped");
+    }
+    
+    /**
+     * Reusable ring buffer slot.
+     */
+    static final class Slot {
+        AlertEnvelope envelope;
+    }
+    
+    /**
+     * Fans each published alert out to the sink channels.
+     */
+    private static final class Dispatcher implements EventHandler<Slot> {
+        
+        private final List<SinkChannel> channels;
+        
+        Dispatcher(List<SinkChannel> channels) {
+            this.channels = channels;
+        }
+        
+        @Override
+        public void onEvent(Slot slot, long sequence, boolean endOfBatch) {
+            AlertEnvelope envelope = slot.envelope;
+            slot.envelope = null;
+            int offered = 0;
+            try {
+                for (; offered < channels.size(); offered++) {
+                    channels.get(offered).offer(envelope);
+                }
+            } catch (InterruptedException e) {
+                // Halted while waiting for a BLOCK sink; the alert never reaches it or the sinks after it
+                for (int i = offered; i < channels.size(); i++) {
+                    channels.get(i).dropped(envelope);
+                }
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
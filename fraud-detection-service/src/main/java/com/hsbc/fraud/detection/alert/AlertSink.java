@@ -0,0 +1,37 @@
+package com.hsbc.fraud.detection.alert;
+
+import java.util.List;
+
+/**
+ * Destination for fraud alerts, e.g. logs, a case database, paging or a dashboard.
+ * 
+ * Every AlertSink bean is registered with the AlertPipeline, which runs each
+ * sink on its own thread behind its own bounded queue. Sinks therefore never
+ * run on the threads that score transactions, and a slow sink only delays itself.
+ * 
+ * The queue's behaviour when full is the sink's default policy unless
+ * alert.sinks.&lt;name&gt;.policy overrides it.
+ */
+public interface AlertSink {
+    
+    /**
+     * Short name used in configuration keys, metric tags and spill file names.
+     */
+    String getName();
+    
+    /**
+     * Deliver a batch of alerts, oldest first. Called from the sink's thread only.
+     * A thrown exception counts the whole batch as failed; it is not retried.
+     * 
+     * @param alerts up to alert.pipeline.batch-size alerts
+     */
+    void deliver(List<AlertEnvelope> alerts) throws Exception;
+    
+    /**
+     * What the pipeline does when this sink falls behind and its queue is full.
+     * Spilling keeps every alert without ever stalling the other sinks.
+     */
+    default BackpressurePolicy getDefaultPolicy() {
+        return BackpressurePolicy.SPILL_TO_DISK;
+    }
+}
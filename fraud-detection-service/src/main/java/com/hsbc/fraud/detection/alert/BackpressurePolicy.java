@@ -0,0 +1,25 @@
+package com.hsbc.fraud.detection.alert;
+
+/**
+ * What the alert pipeline does with a new alert when a sink's queue is full.
+ */
+public enum BackpressurePolicy {
+    
+    /**
+     * Wait for the sink to catch up. The dispatcher stalls, and once the intake ring
+     * buffer is also full, new alerts are dropped at publication for every sink.
+     */
+    BLOCK,
+    
+    /**
+     * Discard the oldest queued alert to make room; publishing never waits.
+     */
+    DROP_OLDEST,
+    
+    /**
+     * Append the alert to a spill file in alert.pipeline.spill-directory. The sink
+     * reads it back, in order, once its queue is empty. Publishing never waits and
+     * spilled alerts survive a restart.
+     */
+    SPILL_TO_DISK
+}
@@ -0,0 +1,180 @@
+package com.hsbc.fraud.detection.alert;
+
+import com.hsbc.fraud.detection.logging.LoggingContext;
+import com.hsbc.fraud.detection.logging.StructuredLogger;
+import com.hsbc.fraud.detection.metrics.MetricsCollector;
+import com.hsbc.fraud.detection.model.FraudAlert;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alert sink that records fraud metrics and writes the alert to the logs.
+ * Uses distributed logging with correlation IDs for tracing across services.
+ * Emits CloudWatch metrics via structured logging for monitoring.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoggingAlertSink implements AlertSink {
+    
+    private static final String RULE_SUFFIX = "_RULE";
+    
+    private final MetricsCollector metricsCollector;
+    private final StructuredLogger structuredLogger = StructuredLogger.getLogger(LoggingAlertSink.class);
+    
+    @Override
+    public String getName() {
+        return "log";
+    }
+    
+    @Override
+    public void deliver(List<AlertEnvelope> alerts) {
+        for (AlertEnvelope envelope : alerts) {
+            String correlationId = envelope.correlationId();
+            if (correlationId != null) {
+                LoggingContext.setCorrelationId(correlationId);
+            }
+            try {
+                handle(envelope.alert());
+            } finally {
+                if (correlationId != null) {
+                    LoggingContext.remove(LoggingContext.CORRELATION_ID);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Processes a fraud alert by recording metrics and logging it.
+     * Uses structured logging for easy parsing by CloudWatch/Stackdriver.
+     * Emits CloudWatch metrics via log metric filters.
+     * 
+     * @param alert The fraud alert to process
+     */
+    public void handle(FraudAlert alert) {
+        // Set MDC context for structured logging
+        LoggingContext.put("alertId", alert.getAlertId());
+        LoggingContext.put("transactionId", alert.getTransaction().getTransactionId());
+        LoggingContext.put("accountId", alert.getTransaction().getAccountId());
+        LoggingContext.put("severity", alert.getSeverity().name());
+        
+        try {
+            // Record Prometheus metric: Fraud Detected with severity
+            if (alert.getAggregatedCount() > 0) {
+                // A summary stands in for the alerts folded into it
+                metricsCollector.recordFraudDetected(alert.getSeverity().name(), alert.getAggregatedCount());
+            } else {
+                double amount = alert.getTransaction().getAmount() != null 
+                    ? alert.getTransaction().getAmount().doubleValue() 
+                    : 0.0;
+                metricsCollector.recordFraudDetected(
+                    alert.getSeverity().name(),
+                    alert.getTransaction().getAccountId(),
+                    amount
+                );
+            }
+            
+            // Record Prometheus metrics for each rule violation
+            emitRuleViolationMetrics(alert);
+            
+            logRuleViolations(alert);
+            
+            // Use structured logger for cloud-native logging
+            structuredLogger.logFraudAlert(
+                alert.getAlertId(),
+                alert.getTransaction().getTransactionId(),
+                alert.getTransaction().getAccountId(),
+                alert.getSeverity().name(),
+                alert.getViolationCount(),
+                createAdditionalContext(alert)
+            );
+            
+            // Also log with traditional logger for backward compatibility
+            log.error("FRAUD_DETECTED: alertId={}, transactionId={}, accountId={}, amount={}, severity={}, rules={}, message={}",
+                    alert.getAlertId(),
+                    alert.getTransaction().getTransactionId(),
+                    alert.getTransaction().getAccountId(),
+                    alert.getTransaction().getAmount(),
+                    alert.getSeverity(),
+                    alert.getViolationCount(),
+                    alert.getMessage());
+            
+        } finally {
+            // Clear only alert-specific context, keep correlation IDs
+            LoggingContext.remove("alertId");
+            LoggingContext.remove("severity");
+        }
+    }
+    
+    /**
+     * Records Prometheus metrics for each rule violation in the alert, or in each
+     * alert folded into a summary.
+     * Uses the compact rule ids when present, so no reason text is rendered for metrics.
+     */
+    private void emitRuleViolationMetrics(FraudAlert alert) {
+        String accountId = alert.getTransaction().getAccountId();
+        List<String> rules = alert.getRuleIds() != null ? alert.getRuleIds() : alert.getViolatedRules();
+        
+        for (String violation : rules) {
+            String rule = ruleType(violation);
+            if (alert.getAggregatedCount() > 0) {
+                metricsCollector.recordRuleViolations(rule, alert.getAggregatedCount());
+                continue;
+            }
+            switch (rule) {
+                case "LARGE_AMOUNT":
+                    metricsCollector.recordRuleViolation(MetricsCollector.RULE_LARGE_AMOUNT, accountId);
+                    break;
+                case "SUSPICIOUS_ACCOUNT":
+                    metricsCollector.recordRuleViolation(MetricsCollector.RULE_SUSPICIOUS_ACCOUNT, accountId);
+                    break;
+                case "RAPID_FIRE":
+                    metricsCollector.recordRuleViolation(MetricsCollector.RULE_RAPID_FIRE, accountId);
+                    break;
+                default:
+                    metricsCollector.recordRuleViolation(rule, accountId);
+            }
+        }
+    }
+    
+    /**
+     * Logs each violated rule with its reason. The engine only renders the reasons,
+     * so this is the one place a violation is logged.
+     */
+    private void logRuleViolations(FraudAlert alert) {
+        for (String violation : alert.getViolatedRules()) {
+            int separator = violation.indexOf(':');
+            Map<String, Object> ruleContext = new HashMap<>();
+            ruleContext.put("ruleName", separator >= 0 ? violation.substring(0, separator).trim() : violation);
+            ruleContext.put("reason", separator >= 0 ? violation.substring(separator + 1).trim() : "");
+            structuredLogger.warn("Transaction violated fraud rule", ruleContext);
+        }
+    }
+    
+    /**
+     * Maps "LARGE_AMOUNT_RULE" or "LARGE_AMOUNT_RULE: reason" to the metric rule type "LARGE_AMOUNT".
+     */
+    private static String ruleType(String violation) {
+        int separator = violation.indexOf(':');
+        String rule = (separator >= 0 ? violation.substring(0, separator) : violation).trim().toUpperCase();
+        return rule.endsWith(RULE_SUFFIX) ? rule.substring(0, rule.length() - RULE_SUFFIX.length()) : rule;
+    }
+    
+    /**
+     * Creates additional context for structured logging.
+     */
+    private Map<String, Object> createAdditionalContext(FraudAlert alert) {
+        Map<String, Object> context = new HashMap<>();
+        context.put("amount", alert.getTransaction().getAmount());
+        context.put("timestamp", alert.getDetectedAt());
+        context.put("message", alert.getMessage());
+        context.put("violatedRules", String.join(", ", alert.getViolatedRules()));
+        return context;
+    }
+}
+
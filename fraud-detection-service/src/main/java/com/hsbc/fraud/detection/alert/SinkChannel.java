@@ -0,0 +1,219 @@
+package com.hsbc.fraud.detection.alert;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One sink's lane in the AlertPipeline: a bounded queue filled by the dispatcher
+ * thread and a dedicated thread that drains it in batches into the sink.
+ * 
+ * The backpressure policy decides what {@link #offer} does when the queue is full.
+ * With SPILL_TO_DISK, once anything is spilled, new alerts go to the spill file
+ * too until the sink has read it all back, which keeps delivery in order.
+ * 
+ * Metrics, tagged with the sink name:
+ * - alert.sink.latency: publish to delivered, per alert
+ * - alert.sink.batch.duration: time spent in {@link AlertSink#deliver}, per batch
+ * - alert.sink.delivered / failed / dropped / spilled: alert counts
+ * - alert.sink.queue.size: alerts waiting in memory
+ */
+@Slf4j
+final class SinkChannel implements AutoCloseable {
+    
+    private static final long POLL_MILLIS = 100;
+    
+    private final AlertSink sink;
+    private final BackpressurePolicy policy;
+    private final int batchSize;
+    private final BlockingQueue<AlertEnvelope> queue;
+    private final SpillFile spill;
+    
+    private final Timer latencyTimer;
+    private final Timer batchTimer;
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+    private final Counter spilledCounter;
+    
+    private final Thread thread;
+    private volatile boolean running = true;
+    
+    /**
+     * @param spill overflow file; required for SPILL_TO_DISK, ignored otherwise
+     */
+    SinkChannel(AlertSink sink, BackpressurePolicy policy, int capacity, int batchSize,
+                SpillFile spill, MeterRegistry meterRegistry) {
+        if (policy == BackpressurePolicy.SPILL_TO_DISK && spill == null) {
+            throw new IllegalArgumentException("Sink " + sink.getName() + " needs a spill file");
+        }
+        this.sink = sink;
+        this.policy = policy;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.spill = policy == BackpressurePolicy.SPILL_TO_DISK ? spill : null;
+        
+        String name = sink.getName();
+        this.latencyTimer = Timer.builder("alert.sink.latency")
+                .description("Time from alert publication to delivery by the sink")
+                .tag("sink", name)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("alert.sink.batch.duration")
+                .description("Time the sink takes to deliver one batch")
+                .tag("sink", name)
+                .register(meterRegistry);
+        this.deliveredCounter = counter("alert.sink.delivered", "Alerts delivered by the sink", name, meterRegistry);
+        this.failedCounter = counter("alert.sink.failed", "Alerts in batches the sink failed to deliver", name, meterRegistry);
+        this.droppedCounter = counter("alert.sink.dropped", "Alerts dropped because the sink fell behind", name, meterRegistry);
+        this.spilledCounter = counter("alert.sink.spilled", "Alerts spilled to disk because the sink fell behind", name, meterRegistry);
+        Gauge.builder("alert.sink.queue.size", queue, BlockingQueue::size)
+                .description("Alerts waiting in memory for the sink")
+                .tag("sink", name)
+                .register(meterRegistry);
+        
+        this.thread = new Thread(this::run, "alert-sink-" + name);
+        this.thread.setDaemon(true);
+    }
+    
+    void start() {
+        thread.start();
+    }
+    
+    /**
+     * Queue an alert for the sink, applying the backpressure policy if it is full.
+     * Called from the dispatcher thread only.
+     */
+    void offer(AlertEnvelope envelope) throws InterruptedException {
+        switch (policy) {
+            case BLOCK -> queue.put(envelope);
+            case DROP_OLDEST -> {
+                while (!queue.offer(envelope)) {
+                    if (queue.poll() != null) {
+                        droppedCounter.increment();
+                    }
+                }
+            }
+            case SPILL_TO_DISK -> {
+                if (!spill.hasPending() && queue.offer(envelope)) {
+                    return;
+                }
+                try {
+                    spill.append(envelope);
+                    spilledCounter.increment();
+                } catch (IOException e) {
+                    droppedCounter.increment();
+                    log.error("Failed to spill alert {} for sink {}", envelope.alert().getAlertId(), sink.getName(), e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Count an alert the dispatcher gave up offering, e.g. when halted while blocked.
+     */
+    void dropped(AlertEnvelope envelope) {
+        droppedCounter.increment();
+        log.warn("Dropped alert {} for sink {} on dispatcher halt", envelope.alert().getAlertId(), sink.getName());
+    }
+    
+    /**
+     * Stop after delivering what is queued in memory; spilled alerts stay on disk.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                log.warn("Failed to close spill file of sink {}", sink.getName(), e);
+            }
+        }
+    }
+    
+    private void run() {
+        List<AlertEnvelope> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AlertEnvelope first = queue.poll();
+                if (first == null) {
+                    // Queued alerts are older than spilled ones
+                    if (running && spill != null && spill.hasPending()) {
+                        deliver(spill.read(batchSize));
+                        continue;
+                    }
+                    first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+                
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+                
+            } catch (IOException e) {
+                log.error("Failed to read spilled alerts of sink {}, retrying", sink.getName(), e);
+                sleepQuietly();
+                
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void deliver(List<AlertEnvelope> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            sink.deliver(batch);
+            long now = System.nanoTime();
+            batchTimer.record(now - start, TimeUnit.NANOSECONDS);
+            deliveredCounter.increment(batch.size());
+            for (AlertEnvelope envelope : batch) {
+                if (envelope.enqueuedNanos() != 0) {
+                    latencyTimer.record(now - envelope.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            
+        } catch (Exception e) {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            failedCounter.increment(batch.size());
+            log.error("Sink {} failed to deliver {} alerts", sink.getName(), batch.size(), e);
+        }
+    }
+    
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static Counter counter(String name, String description, String sink, MeterRegistry meterRegistry) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("sink", sink)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,155 @@
+package com.hsbc.fraud.detection.alert;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Overflow file for one SPILL_TO_DISK sink: alerts as JSON lines, appended by
+ * the dispatcher and read back in order by the sink thread. Once everything has
+ * been read the file is truncated, so it only grows while the sink is behind.
+ * 
+ * Alerts left in the file by a previous run are delivered first, with an
+ * enqueue time of 0 since their nanoTime is meaningless in this JVM.
+ * Writes go to the page cache without fsync: they survive a process crash,
+ * not a machine failure.
+ */
+@Slf4j
+final class SpillFile implements Closeable {
+    
+    private static final int READ_CHUNK_BYTES = 64 * 1024;
+    
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+    
+    private long readPosition;
+    private long writePosition;
+    private long previousRunEnd;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(READ_CHUNK_BYTES);
+    
+    SpillFile(Path path, ObjectMapper objectMapper) throws IOException {
+        this.path = path;
+        // Alerts carry derived properties such as violationCount
+        this.objectMapper = objectMapper.copy().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.writePosition = completeLinesEnd();
+        this.previousRunEnd = writePosition;
+        if (writePosition < channel.size()) {
+            // Unterminated last line, cut off by a crash of the previous run
+            log.warn("Discarding {} bytes of incomplete spilled alert in {}", channel.size() - writePosition, path);
+            channel.truncate(writePosition);
+        }
+    }
+    
+    synchronized boolean hasPending() {
+        return readPosition < writePosition;
+    }
+    
+    synchronized void append(AlertEnvelope envelope) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(envelope);
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (line.hasRemaining()) {
+            writePosition += channel.write(line, writePosition);
+        }
+    }
+    
+    /**
+     * Read up to max spilled alerts, oldest first.
+     */
+    synchronized List<AlertEnvelope> read(int max) throws IOException {
+        List<AlertEnvelope> alerts = new ArrayList<>(Math.min(max, 64));
+        while (alerts.size() < max && readPosition < writePosition) {
+            readBuffer.clear();
+            int limit = (int) Math.min(readBuffer.capacity(), writePosition - readPosition);
+            readBuffer.limit(limit);
+            while (readBuffer.hasRemaining()) {
+                if (channel.read(readBuffer, readPosition + readBuffer.position()) < 0) {
+                    throw new IOException("Spill file " + path + " is shorter than expected");
+                }
+            }
+            
+            byte[] bytes = readBuffer.array();
+            int start = 0;
+            for (int i = 0; i < limit && alerts.size() < max; i++) {
+                if (bytes[i] == '\n') {
+                    AlertEnvelope envelope = parse(bytes, start, i - start, readPosition + start);
+                    if (envelope != null) {
+                        alerts.add(envelope);
+                    }
+                    start = i + 1;
+                }
+            }
+            if (start == 0) {
+                // A line longer than the buffer; every line ends with a newline
+                readBuffer = ByteBuffer.allocate(readBuffer.capacity() * 2);
+                continue;
+            }
+            readPosition += start;
+        }
+        
+        if (readPosition == writePosition && writePosition > 0) {
+            channel.truncate(0);
+            readPosition = 0;
+            writePosition = 0;
+            previousRunEnd = 0;
+        }
+        return alerts;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+    
+    /**
+     * Length of the file up to and including its last newline.
+     */
+    private long completeLinesEnd() throws IOException {
+        ByteBuffer tail = ByteBuffer.allocate(4096);
+        long end = channel.size();
+        while (end > 0) {
+            int length = (int) Math.min(tail.capacity(), end);
+            tail.clear().limit(length);
+            while (tail.hasRemaining()) {
+                channel.read(tail, end - length + tail.position());
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                if (tail.get(i) == '\n') {
+                    return end - length + i + 1;
+                }
+            }
+            end -= length;
+        }
+        return 0;
+    }
+    
+    /**
+     * @return the alert, or null if the line is not a valid spilled alert
+     */
+    private AlertEnvelope parse(byte[] bytes, int offset, int length, long position) throws IOException {
+        AlertEnvelope envelope;
+        try {
+            envelope = objectMapper.readValue(bytes, offset, length, AlertEnvelope.class);
+        } catch (JsonProcessingException e) {
+            log.error("Skipping unreadable spilled alert at offset {} of {}", position, path, e);
+            return null;
+        }
+        return position < previousRunEnd
+                ? new AlertEnvelope(envelope.alert(), envelope.correlationId(), 0)
+                : envelope;
+    }
+}
@@ -0,0 +1,311 @@
+package com.hsbc.fraud.detection.alert.journal;
+
+import com.hsbc.fraud.detection.model.FraudAlert;
+import com.hsbc.fraud.detection.model.IdHash;
+import com.hsbc.fraud.detection.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Durable, queryable record of every fraud alert, kept in memory-mapped files
+ * in the service's own directory, so recent alerts survive a restart without a database.
+ * 
+ * Each alert is a fixed 64-byte record (see JournalSegment): alert id, account id
+ * hash, severity, rule bitmask, amount and timestamp. Files are rolled every
+ * segment-minutes of wall-clock time, or earlier when full, and deleted once
+ * older than retention-hours.
+ * 
+ * {@link #append} is called directly from the threads that score transactions.
+ * It takes no locks: one getAndIncrement claims a slot and a release store commits
+ * it. Only rolling to a new file, once per segment, is serialized. Writes reach
+ * the page cache, so they survive a process crash; files are forced to disk when
+ * rolled and on shutdown.
+ * 
+ * {@link #query} scans newest to oldest, skipping files and 64-record blocks
+ * whose time range or account Bloom filter rule them out.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "alert.journal.enabled", havingValue = "true", matchIfMissing = true)
+public class AlertJournal {
+    
+    private static final String RULES_FILE = "rules";
+    
+    private final Path directory;
+    private final long segmentMillis;
+    private final int segmentRecords;
+    private final long retentionMillis;
+    private final LongSupplier clock;
+    private final RuleDictionary rules;
+    
+    private final Counter appendedCounter;
+    private final Counter failedCounter;
+    
+    /**
+     * Oldest first; replaced, never modified, so queries can read a snapshot.
+     */
+    private volatile JournalSegment[] segments;
+    private volatile JournalSegment current;
+    
+    @Autowired
+    public AlertJournal(
+            MeterRegistry meterRegistry,
+            @Value("${alert.journal.directory:${java.io.tmpdir}/fraud-alert-journal}") String directory,
+            @Value("${alert.journal.segment-minutes:60}") long segmentMinutes,
+            @Value("${alert.journal.segment-records:65536}") int segmentRecords,
+            @Value("${alert.journal.retention-hours:24}") long retentionHours) throws IOException {
+        this(Path.of(directory), TimeUnit.MINUTES.toMillis(segmentMinutes), segmentRecords,
+                TimeUnit.HOURS.toMillis(retentionHours), meterRegistry, System::currentTimeMillis);
+    }
+    
+    AlertJournal(Path directory, long segmentMillis, int segmentRecords, long retentionMillis,
+                 MeterRegistry meterRegistry, LongSupplier clock) throws IOException {
+        if (segmentMillis <= 0 || segmentRecords <= 0) {
+            throw new IllegalArgumentException("Alert journal segments need a positive duration and size");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentMillis = segmentMillis;
+        this.segmentRecords = segmentRecords;
+        this.retentionMillis = retentionMillis;
+        this.clock = clock;
+        this.rules = new RuleDictionary(directory.resolve(RULES_FILE));
+        
+        long now = clock.getAsLong();
+        JournalSegment[] existing = expire(openSegments(), now);
+        JournalSegment last = existing.length > 0 ? existing[existing.length - 1] : null;
+        if (last != null && now < last.getEndMillis()) {
+            this.segments = existing;
+            this.current = last;
+        } else {
+            JournalSegment created = createSegment(last != null ? last.getIndex() + 1 : 0, now);
+            this.segments = append(existing, created);
+            this.current = created;
+        }
+        
+        this.appendedCounter = Counter.builder("alert.journal.appended")
+                .description("Alerts written to the alert journal")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("alert.journal.failed")
+                .description("Alerts that could not be written to the alert journal")
+                .register(meterRegistry);
+        Gauge.builder("alert.journal.segments", this, journal -> journal.segments.length)
+                .description("Alert journal files retained")
+                .register(meterRegistry);
+        
+        log.info("Alert journal opened in {} ({} segments, {} min per segment, {} records each)",
+                directory, segments.length, TimeUnit.MILLISECONDS.toMinutes(segmentMillis), segmentRecords);
+    }
+    
+    /**
+     * Write an alert to the journal. Never throws; failures are logged and counted.
+     * 
+     * @param alert The fraud alert to record
+     */
+    public void append(FraudAlert alert) {
+        try {
+            Transaction transaction = alert.getTransaction();
+            long timestamp = alert.getDetectedAt() != null ? alert.getDetectedAt().toEpochMilli() : clock.getAsLong();
+            long accountHash = accountHash(transaction != null ? transaction.getAccountId() : null);
+            long amount = transaction != null && transaction.getAmount() != null
+                    ? transaction.getAmount().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue()
+                    : 0;
+            int severity = alert.getSeverity() != null ? alert.getSeverity().ordinal() : -1;
+            long ruleMask = rules.mask(ruleIds(alert));
+            byte[] alertId = alert.getAlertId() != null
+                    ? alert.getAlertId().getBytes(StandardCharsets.US_ASCII)
+                    : new byte[0];
+            
+            while (true) {
+                JournalSegment segment = current;
+                long now = clock.getAsLong();
+                int slot = now < segment.getEndMillis() ? segment.claim() : -1;
+                if (slot >= 0) {
+                    segment.write(slot, alertId, severity, timestamp, accountHash, amount, ruleMask);
+                    appendedCounter.increment();
+                    return;
+                }
+                roll(segment, now);
+            }
+            
+        } catch (IOException | RuntimeException e) {
+            failedCounter.increment();
+            log.error("Failed to write alert {} to the alert journal", alert.getAlertId(), e);
+        }
+    }
+    
+    /**
+     * Alerts in a time window, optionally for one account, newest first in journal order.
+     * 
+     * @param accountId only alerts for this account, or null for all
+     * @param from      earliest detection time, inclusive, or null
+     * @param to        latest detection time, inclusive, or null
+     * @param limit     most alerts to return
+     */
+    public List<JournalEntry> query(String accountId, Instant from, Instant to, int limit) {
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        long accountHash = accountId != null ? accountHash(accountId) : 0;
+        List<JournalEntry> entries = new ArrayList<>(Math.min(limit, 256));
+        
+        JournalSegment[] snapshot = segments;
+        for (int i = snapshot.length - 1; i >= 0 && entries.size() < limit; i--) {
+            JournalSegment segment = snapshot[i];
+            if (!segment.overlaps(fromMillis, toMillis)) {
+                continue;
+            }
+            int size = segment.size();
+            int blocks = (size + JournalSegment.BLOCK_RECORDS - 1) / JournalSegment.BLOCK_RECORDS;
+            for (int block = blocks - 1; block >= 0 && entries.size() < limit; block--) {
+                if (!segment.blockOverlaps(block, fromMillis, toMillis)
+                        || (accountId != null && !segment.blockMayContain(block, accountHash))) {
+                    continue;
+                }
+                int first = block * JournalSegment.BLOCK_RECORDS;
+                int last = Math.min(size, first + JournalSegment.BLOCK_RECORDS) - 1;
+                for (int slot = last; slot >= first && entries.size() < limit; slot--) {
+                    if (!segment.isCommitted(slot)) {
+                        continue;
+                    }
+                    long timestamp = segment.timestamp(slot);
+                    if (timestamp < fromMillis || timestamp > toMillis
+                            || (accountId != null && segment.accountHash(slot) != accountHash)) {
+                        continue;
+                    }
+                    entries.add(entry(segment, slot, timestamp));
+                }
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * {@link IdHash} of an account id, as stored in the journal; 0 for none.
+     */
+    public static long accountHash(String accountId) {
+        return IdHash.of(accountId);
+    }
+    
+    @PreDestroy
+    public void close() {
+        current.force();
+        log.info("Alert journal closed");
+    }
+    
+    /**
+     * Move to a new segment once the current one is full or its time is up.
+     * A no-op if another writer has already rolled past it.
+     */
+    private synchronized void roll(JournalSegment full, long now) throws IOException {
+        if (current != full) {
+            return;
+        }
+        JournalSegment next = createSegment(full.getIndex() + 1, now);
+        full.force();
+        segments = expire(append(segments, next), now);
+        current = next;
+    }
+    
+    private JournalSegment createSegment(long index, long now) throws IOException {
+        // Aligned to the duration, so a segment rolled early because it filled up ends with its window
+        long start = now - Math.floorMod(now, segmentMillis);
+        return JournalSegment.create(segmentPath(index), index, start, segmentMillis, segmentRecords);
+    }
+    
+    /**
+     * Delete segments whose window ended more than the retention period ago,
+     * always keeping the newest.
+     */
+    private JournalSegment[] expire(JournalSegment[] candidates, long now) throws IOException {
+        int expired = 0;
+        while (expired < candidates.length - 1 && candidates[expired].getEndMillis() <= now - retentionMillis) {
+            Files.deleteIfExists(candidates[expired].getPath());
+            log.info("Deleted expired alert journal segment {}", candidates[expired].getPath());
+            expired++;
+        }
+        return expired == 0 ? candidates : Arrays.copyOfRange(candidates, expired, candidates.length);
+    }
+    
+    private JournalSegment[] openSegments() throws IOException {
+        List<JournalSegment> opened = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(file -> file.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                    .sorted()
+                    .toList()) {
+                String name = path.getFileName().toString();
+                long index = Long.parseLong(name.substring(0, name.length() - JournalSegment.SUFFIX.length()));
+                try {
+                    opened.add(JournalSegment.open(path, index));
+                } catch (IOException e) {
+                    // Moved aside, so its index is not reused by a later roll
+                    Path corrupt = path.resolveSibling(name + ".corrupt");
+                    log.error("Moving unreadable alert journal segment {} to {}", path, corrupt, e);
+                    Files.move(path, corrupt, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        return opened.toArray(new JournalSegment[0]);
+    }
+    
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%09d%s", index, JournalSegment.SUFFIX));
+    }
+    
+    private JournalEntry entry(JournalSegment segment, int slot, long timestamp) {
+        int severity = segment.severity(slot);
+        FraudAlert.FraudSeverity[] severities = FraudAlert.FraudSeverity.values();
+        return new JournalEntry(
+                segment.alertId(slot),
+                segment.accountHash(slot),
+                severity >= 0 && severity < severities.length ? severities[severity] : null,
+                rules.names(segment.rules(slot)),
+                BigDecimal.valueOf(segment.amount(slot), 2),
+                Instant.ofEpochMilli(timestamp));
+    }
+    
+    /**
+     * Rule names without reasons: the compact rule ids, or the violated rules up to their ':'.
+     */
+    private static List<String> ruleIds(FraudAlert alert) {
+        if (alert.getRuleIds() != null) {
+            return alert.getRuleIds();
+        }
+        List<String> violations = alert.getViolatedRules();
+        if (violations == null) {
+            return List.of();
+        }
+        List<String> ruleIds = new ArrayList<>(violations.size());
+        for (String violation : violations) {
+            int separator = violation.indexOf(':');
+            ruleIds.add((separator >= 0 ? violation.substring(0, separator) : violation).trim());
+        }
+        return ruleIds;
+    }
+    
+    private static JournalSegment[] append(JournalSegment[] segments, JournalSegment segment) {
+        JournalSegment[] grown = Arrays.copyOf(segments, segments.length + 1);
+        grown[segments.length] = segment;
+        return grown;
+    }
+}
@@ -0,0 +1,38 @@
+package com.hsbc.fraud.detection.alert.journal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Read-only REST access to the AlertJournal.
+ * 
+ * GET /api/alerts?accountId=ACCT100&amp;from=2024-01-01T00:00:00Z&amp;to=2024-01-02T00:00:00Z&amp;limit=100
+ * All parameters are optional; without any, it returns the latest alerts.
+ */
+@RestController
+@RequestMapping("/api/alerts")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "alert.journal.enabled", havingValue = "true", matchIfMissing = true)
+public class AlertJournalController {
+    
+    private static final int MAX_LIMIT = 1000;
+    
+    private final AlertJournal alertJournal;
+    
+    @GetMapping
+    public List<JournalEntry> findAlerts(
+            @RequestParam(required = false) String accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "100") int limit) {
+        return alertJournal.query(accountId, from, to, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+}
@@ -0,0 +1,26 @@
+package com.hsbc.fraud.detection.alert.journal;
+
+import com.hsbc.fraud.detection.model.FraudAlert;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An alert as read back from the AlertJournal.
+ * 
+ * @param alertId     the alert id, cut to 24 characters
+ * @param accountHash hash of the account id; see {@link AlertJournal#accountHash(String)}
+ * @param severity    the alert's severity
+ * @param ruleIds     the violated rules
+ * @param amount      the transaction amount, to two decimal places
+ * @param detectedAt  when the alert was raised, to the millisecond
+ */
+public record JournalEntry(
+        String alertId,
+        long accountHash,
+        FraudAlert.FraudSeverity severity,
+        List<String> ruleIds,
+        BigDecimal amount,
+        Instant detectedAt) {
+}
@@ -0,0 +1,288 @@
+package com.hsbc.fraud.detection.alert.journal;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One memory-mapped file of the AlertJournal, covering a fixed window of wall-clock time.
+ * 
+ * Layout, little-endian:
+ * <pre>
+ *   header   magic "FAJL", version, record size, capacity (all int), start millis, duration millis (long),
+ *            zeros up to 64 bytes
+ *   records  capacity x 64 bytes:
+ *              0  committed (int, 1 once the record is complete)
+ *              4  severity ordinal (int)
+ *              8  timestamp, epoch millis (long)
+ *             16  account id hash (long)
+ *             24  amount in minor units, i.e. x100 (long)
+ *             32  rule bitmask (long), bits assigned by RuleDictionary
+ *             40  alert id, up to 24 ASCII bytes, zero padded
+ * </pre>
+ * 
+ * Writers claim a slot with one getAndIncrement, fill it and set the committed
+ * flag with release semantics; readers check it with acquire semantics and skip
+ * slots that are not committed. A crash can therefore leave holes, never torn records.
+ * 
+ * The sparse index lives on the heap and is rebuilt from the file on open. For
+ * every block of 64 slots it keeps the lowest and highest timestamp and a 512-bit
+ * Bloom filter of account hashes, so range queries skip most blocks unread.
+ */
+final class JournalSegment {
+    
+    static final String SUFFIX = ".journal";
+    static final int RECORD_BYTES = 64;
+    static final int ALERT_ID_BYTES = 24;
+    static final int BLOCK_RECORDS = 64;
+    
+    private static final int MAGIC = 0x4C4A4146; // "FAJL" little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int COMMITTED = 1;
+    private static final int BLOOM_WORDS = 8;
+    private static final int BLOOM_BITS = BLOOM_WORDS * Long.SIZE;
+    
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    
+    private final long index;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final long startMillis;
+    private final long endMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    
+    private final AtomicLong minTimestamp = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxTimestamp = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLongArray blockMin;
+    private final AtomicLongArray blockMax;
+    private final AtomicLongArray blockBloom;
+    
+    private JournalSegment(long index, Path path, MappedByteBuffer buffer) {
+        this.index = index;
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = buffer.getInt(12);
+        this.startMillis = buffer.getLong(16);
+        this.endMillis = startMillis + buffer.getLong(24);
+        
+        int blocks = (capacity + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        this.blockMin = new AtomicLongArray(blocks);
+        this.blockMax = new AtomicLongArray(blocks);
+        this.blockBloom = new AtomicLongArray(blocks * BLOOM_WORDS);
+        for (int block = 0; block < blocks; block++) {
+            blockMin.set(block, Long.MAX_VALUE);
+            blockMax.set(block, Long.MIN_VALUE);
+        }
+    }
+    
+    /**
+     * Create a new segment file sized for capacity records.
+     */
+    static JournalSegment create(Path path, long index, long startMillis, long durationMillis, int capacity)
+            throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * RECORD_BYTES);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, RECORD_BYTES);
+        buffer.putInt(12, capacity);
+        buffer.putLong(16, startMillis);
+        buffer.putLong(24, durationMillis);
+        INT.setRelease(buffer, 0, MAGIC);
+        return new JournalSegment(index, path, buffer);
+    }
+    
+    /**
+     * Map an existing segment file and rebuild its index. New records are appended
+     * after the last committed one.
+     */
+    static JournalSegment open(Path path, long index) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Truncated alert journal segment " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an alert journal segment: " + path);
+        }
+        if (buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_BYTES) {
+            throw new IOException("Unsupported alert journal segment version " + buffer.getInt(4) + ": " + path);
+        }
+        if (HEADER_BYTES + (long) buffer.getInt(12) * RECORD_BYTES > buffer.capacity()) {
+            throw new IOException("Truncated alert journal segment " + path);
+        }
+        
+        JournalSegment segment = new JournalSegment(index, path, buffer);
+        int end = 0;
+        for (int slot = 0; slot < segment.capacity; slot++) {
+            if (segment.isCommitted(slot)) {
+                segment.indexRecord(slot, segment.timestamp(slot), segment.accountHash(slot));
+                end = slot + 1;
+            }
+        }
+        segment.next.set(end);
+        return segment;
+    }
+    
+    long getIndex() {
+        return index;
+    }
+    
+    Path getPath() {
+        return path;
+    }
+    
+    long getEndMillis() {
+        return endMillis;
+    }
+    
+    /**
+     * Whether any record in this segment may fall within [fromMillis, toMillis].
+     */
+    boolean overlaps(long fromMillis, long toMillis) {
+        return minTimestamp.get() <= toMillis && maxTimestamp.get() >= fromMillis;
+    }
+    
+    /**
+     * Claim the next free slot.
+     * 
+     * @return the slot, or -1 if the segment is full
+     */
+    int claim() {
+        int slot = next.getAndIncrement();
+        return slot < capacity ? slot : -1;
+    }
+    
+    void write(int slot, byte[] alertId, int severity, long timestamp, long accountHash, long amount, long rules) {
+        int base = HEADER_BYTES + slot * RECORD_BYTES;
+        buffer.putInt(base + 4, severity);
+        buffer.putLong(base + 8, timestamp);
+        buffer.putLong(base + 16, accountHash);
+        buffer.putLong(base + 24, amount);
+        buffer.putLong(base + 32, rules);
+        int length = Math.min(alertId.length, ALERT_ID_BYTES);
+        buffer.put(base + 40, alertId, 0, length);
+        for (int i = length; i < ALERT_ID_BYTES; i++) {
+            buffer.put(base + 40 + i, (byte) 0);
+        }
+        // Indexed before the commit, so a committed record is always findable
+        indexRecord(slot, timestamp, accountHash);
+        INT.setRelease(buffer, base, COMMITTED);
+    }
+    
+    /**
+     * Slots claimed so far; some may not be committed yet.
+     */
+    int size() {
+        return Math.min(next.get(), capacity);
+    }
+    
+    boolean blockOverlaps(int block, long fromMillis, long toMillis) {
+        return blockMin.get(block) <= toMillis && blockMax.get(block) >= fromMillis;
+    }
+    
+    /**
+     * False if no record in the block has this account hash; true means it may.
+     */
+    boolean blockMayContain(int block, long accountHash) {
+        for (int probe = 0; probe < 2; probe++) {
+            int bit = bloomBit(accountHash, probe);
+            if ((blockBloom.get(block * BLOOM_WORDS + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    boolean isCommitted(int slot) {
+        return (int) INT.getAcquire(buffer, HEADER_BYTES + slot * RECORD_BYTES) == COMMITTED;
+    }
+    
+    int severity(int slot) {
+        return buffer.getInt(HEADER_BYTES + slot * RECORD_BYTES + 4);
+    }
+    
+    long timestamp(int slot) {
+        return buffer.getLong(HEADER_BYTES + slot * RECORD_BYTES + 8);
+    }
+    
+    long accountHash(int slot) {
+        return buffer.getLong(HEADER_BYTES + slot * RECORD_BYTES + 16);
+    }
+    
+    long amount(int slot) {
+        return buffer.getLong(HEADER_BYTES + slot * RECORD_BYTES + 24);
+    }
+    
+    long rules(int slot) {
+        return buffer.getLong(HEADER_BYTES + slot * RECORD_BYTES + 32);
+    }
+    
+    String alertId(int slot) {
+        int base = HEADER_BYTES + slot * RECORD_BYTES + 40;
+        byte[] bytes = new byte[ALERT_ID_BYTES];
+        buffer.get(base, bytes);
+        int length = 0;
+        while (length < ALERT_ID_BYTES && bytes[length] != 0) {
+            length++;
+        }
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+    
+    /**
+     * Flush written records to disk.
+     */
+    void force() {
+        buffer.force();
+    }
+    
+    private void indexRecord(int slot, long timestamp, long accountHash) {
+        // Alerts arrive roughly in time order, so the bounds rarely need a CAS
+        int block = slot / BLOCK_RECORDS;
+        if (timestamp < minTimestamp.get()) {
+            minTimestamp.accumulateAndGet(timestamp, Math::min);
+        }
+        if (timestamp > maxTimestamp.get()) {
+            maxTimestamp.accumulateAndGet(timestamp, Math::max);
+        }
+        if (timestamp < blockMin.get(block)) {
+            blockMin.accumulateAndGet(block, timestamp, Math::min);
+        }
+        if (timestamp > blockMax.get(block)) {
+            blockMax.accumulateAndGet(block, timestamp, Math::max);
+        }
+        
+        for (int probe = 0; probe < 2; probe++) {
+            int bit = bloomBit(accountHash, probe);
+            long mask = 1L << bit;
+            int word = block * BLOOM_WORDS + (bit >>> 6);
+            if ((blockBloom.get(word) & mask) == 0) {
+                blockBloom.getAndAccumulate(word, mask, (current, update) -> current | update);
+            }
+        }
+    }
+    
+    /**
+     * Account hashes are already well mixed, so each probe takes 9 bits of a different half.
+     */
+    private static int bloomBit(long accountHash, int probe) {
+        return (int) (accountHash >>> (probe * 32)) & (BLOOM_BITS - 1);
+    }
+}
@@ -0,0 +1,89 @@
+package com.hsbc.fraud.detection.alert.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns each rule name a bit of the journal's 64-bit rule mask.
+ * 
+ * Names are kept one per line in the journal directory, bit n being line n, so
+ * the masks in existing segments keep their meaning across restarts. Looking up
+ * a known rule is a map read; only the first alert for a new rule takes a lock.
+ */
+@Slf4j
+final class RuleDictionary {
+    
+    private final Path path;
+    private final Map<String, Integer> bits = new ConcurrentHashMap<>();
+    private volatile String[] names;
+    
+    RuleDictionary(Path path) throws IOException {
+        this.path = path;
+        List<String> lines = Files.exists(path) ? Files.readAllLines(path, StandardCharsets.UTF_8) : List.of();
+        List<String> loaded = new ArrayList<>();
+        for (String line : lines) {
+            if (!line.isBlank() && loaded.size() < Long.SIZE) {
+                bits.putIfAbsent(line, loaded.size());
+                loaded.add(line);
+            }
+        }
+        this.names = loaded.toArray(new String[0]);
+    }
+    
+    /**
+     * Mask with the bits of the given rules; rules beyond the 64th are left out.
+     */
+    long mask(List<String> rules) throws IOException {
+        long mask = 0;
+        for (String rule : rules) {
+            Integer bit = bits.get(rule);
+            if (bit == null) {
+                bit = register(rule);
+            }
+            if (bit >= 0) {
+                mask |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+    
+    List<String> names(long mask) {
+        String[] known = names;
+        List<String> rules = new ArrayList<>(Long.bitCount(mask));
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            int bit = Long.numberOfTrailingZeros(remaining);
+            rules.add(bit < known.length ? known[bit] : "UNKNOWN_" + bit);
+        }
+        return rules;
+    }
+    
+    private synchronized int register(String rule) throws IOException {
+        Integer existing = bits.get(rule);
+        if (existing != null) {
+            return existing;
+        }
+        if (names.length == Long.SIZE) {
+            log.warn("Alert journal rule mask is full, not recording rule {}", rule);
+            bits.put(rule, -1);
+            return -1;
+        }
+        Files.writeString(path, rule + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        int bit = names.length;
+        String[] grown = new String[bit + 1];
+        System.arraycopy(names, 0, grown, 0, bit);
+        grown[bit] = rule;
+        names = grown;
+        bits.put(rule, bit);
+        return bit;
+    }
+}
@@ -76,8 +76,17 @@ public class AwsSqsConfig {
         // Ensure messagesPerPoll doesn't exceed maxConcurrentMessages
         final int messagesPerPoll = Math.min(configuredMessagesPerPoll, maxConcurrentMessages);
         
-        log.info("Configuring SQS listener factory: visibilityTimeout={}s, maxConcurrentMessages={}, messagesPerPoll={}", 
-                visibilityTimeout, maxConcurrentMessages, messagesPerPoll);
+        // Acknowledgements are buffered and flushed as DeleteMessageBatch calls (max 10 entries each)
+        // once the threshold is reached or the interval elapses, whichever comes first
+        int acknowledgementThreshold = Integer.parseInt(
+                env.getProperty("cloud.aws.sqs.acknowledgement-threshold", "10"));
+        long acknowledgementIntervalMs = Long.parseLong(
+                env.getProperty("cloud.aws.sqs.acknowledgement-interval-ms", "1000"));
+        
+        log.info("Configuring SQS listener factory: visibilityTimeout={}s, maxConcurrentMessages={}, messagesPerPoll={}, "
+                + "acknowledgementThreshold={}, acknowledgementIntervalMs={}", 
+                visibilityTimeout, maxConcurrentMessages, messagesPerPoll, 
+                acknowledgementThreshold, acknowledgementIntervalMs);
         
         return SqsMessageListenerContainerFactory
                 .builder()
@@ -87,6 +96,8 @@ public class AwsSqsConfig {
                         .maxConcurrentMessages(maxConcurrentMessages)
                         .maxMessagesPerPoll(messagesPerPoll)
                         .pollTimeout(java.time.Duration.ofSeconds(20))  // Long polling
+                        .acknowledgementThreshold(acknowledgementThreshold)
+                        .acknowledgementInterval(java.time.Duration.ofMillis(acknowledgementIntervalMs))
                 )
                 .build();
     }
@@ -1,21 +1,35 @@
 package com.hsbc.fraud.detection.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.fraud.detection.disruptor.IngestMode;
+import com.hsbc.fraud.detection.disruptor.LatencyProfile;
+import com.hsbc.fraud.detection.disruptor.ProcessingMode;
+import com.hsbc.fraud.detection.disruptor.ShardedTransactionEventHandler;
 import com.hsbc.fraud.detection.disruptor.TransactionEvent;
+import com.hsbc.fraud.detection.disruptor.TransactionEventCleaner;
 import com.hsbc.fraud.detection.disruptor.TransactionEventExceptionHandler;
 import com.hsbc.fraud.detection.disruptor.TransactionEventFactory;
 import com.hsbc.fraud.detection.disruptor.TransactionEventHandler;
+import com.hsbc.fraud.detection.disruptor.TransactionJsonParser;
+import com.hsbc.fraud.detection.disruptor.TransactionParseHandler;
+import com.hsbc.fraud.detection.disruptor.ThreadAffinity;
+import com.hsbc.fraud.detection.disruptor.TransactionProcessor;
+import com.hsbc.fraud.detection.disruptor.WaitStrategyType;
 import com.hsbc.fraud.detection.metrics.MetricsCollector;
 import com.hsbc.fraud.detection.service.AlertService;
 import com.hsbc.fraud.detection.service.FraudDetectionEngine;
-import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
 import com.lmax.disruptor.dsl.ProducerType;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Arrays;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -23,7 +37,16 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Configuration for LMAX Disruptor ring buffer.
  * 
  * Configures the Disruptor for low-latency, high-throughput transaction processing.
- * Uses BlockingWaitStrategy for balanced CPU usage and latency.
+ * 
+ * The wait strategy, producer type and thread pinning come from a latency profile
+ * (disruptor.latency-profile: lowest-latency | balanced | cpu-frugal), each of which
+ * can be overridden individually. The default cpu-frugal profile uses
+ * BlockingWaitStrategy.
+ * 
+ * Two processing modes are supported (disruptor.processing-mode):
+ * - executor: one handler hands events off to a bounded thread pool (default)
+ * - sharded: disruptor.shard-count handlers each own a hash partition of accountId
+ *   and run the rules on the Disruptor threads, followed by a cleanup stage
  */
 @Slf4j
 @Configuration
@@ -41,6 +64,42 @@ public class DisruptorConfig {
     @Value("${disruptor.worker-pool-size:4}")
     private int workerPoolSize;
     
+    @Value("${disruptor.processing-mode:executor}")
+    private ProcessingMode processingMode;
+    
+    @Value("${disruptor.shard-count:0}")
+    private int shardCount;
+    
+    @Value("${disruptor.ingest-mode:parsed}")
+    private IngestMode ingestMode;
+    
+    @Value("${disruptor.parser-count:2}")
+    private int parserCount;
+    
+    @Value("${disruptor.batch.enabled:false}")
+    private boolean batchEnabled;
+    
+    @Value("${disruptor.batch.max-size:100}")
+    private int batchMaxSize;
+    
+    @Value("${disruptor.latency-profile:cpu-frugal}")
+    private LatencyProfile latencyProfile;
+    
+    @Value("${disruptor.wait-strategy:}")
+    private WaitStrategyType waitStrategyOverride;
+    
+    @Value("${disruptor.producer-type:}")
+    private ProducerType producerTypeOverride;
+    
+    @Value("${disruptor.pin-threads:#{null}}")
+    private Boolean pinThreadsOverride;
+    
+    @Value("${disruptor.pin-cpus:}")
+    private String pinCpus;
+    
+    @Value("${disruptor.wait-strategy-timeout-micros:1000}")
+    private long waitStrategyTimeoutMicros;
+    
     /**
      * Create a thread pool for parallel event processing within EventHandler.
      * This executor will be used by the EventHandler to process events concurrently.
@@ -57,7 +116,7 @@ public class DisruptorConfig {
                 60L,                         // keep alive time
                 TimeUnit.SECONDS,
                 new LinkedBlockingQueue<>(queueCapacity),  // bounded queue
-                new DisruptorThreadFactory(threadNamePrefix + "worker-"),
+                new DisruptorThreadFactory(threadNamePrefix + "worker-", null),
                 new ThreadPoolExecutor.CallerRunsPolicy()  // backpressure: run in caller thread when full
         );
         
@@ -77,7 +136,8 @@ public class DisruptorConfig {
             AlertService alertService,
             MeterRegistry meterRegistry,
             ExecutorService eventProcessingExecutor,
-            MetricsCollector metricsCollector) {
+            MetricsCollector metricsCollector,
+            ObjectMapper objectMapper) {
         
         // Validate ring buffer size is power of 2
         if (!isPowerOfTwo(ringBufferSize)) {
@@ -85,41 +145,128 @@ public class DisruptorConfig {
             ringBufferSize = nextPowerOfTwo(ringBufferSize);
         }
         
-        log.info("Initializing Disruptor with ring buffer size: {} and {} processing threads", 
-                ringBufferSize, workerPoolSize);
+        int processingThreads = processingMode == ProcessingMode.SHARDED ? effectiveShardCount() : workerPoolSize;
+        log.info("Initializing Disruptor with ring buffer size: {}, mode: {} and {} processing threads", 
+                ringBufferSize, processingMode, processingThreads);
+        
+        WaitStrategyType waitStrategy = latencyProfile.resolveWaitStrategy(waitStrategyOverride);
+        ProducerType producerType = latencyProfile.resolveProducerType(producerTypeOverride);
+        boolean pinThreads = latencyProfile.resolvePinThreads(pinThreadsOverride);
+        
+        int maxBatchSize = batchEnabled ? Math.max(1, batchMaxSize) : 0;
+        if (batchEnabled) {
+            log.info("Batch processing enabled with max batch size {}", maxBatchSize);
+        }
+        
+        log.info("Disruptor latency profile: {} (waitStrategy={}, producerType={}, pinThreads={})",
+                latencyProfile, waitStrategy, producerType, pinThreads);
+        
+        // Sharded mode runs one consumer per shard plus the cleaner; executor mode a single consumer
+        int consumerThreads = processingMode == ProcessingMode.SHARDED ? effectiveShardCount() + 1 : 1;
+        if (ingestMode == IngestMode.RAW) {
+            consumerThreads += effectiveParserCount();
+        }
+        int cpus = Runtime.getRuntime().availableProcessors();
+        if (waitStrategy.isSpinning() && consumerThreads >= cpus) {
+            log.warn("Wait strategy {} keeps {} consumer threads spinning on {} available processors; "
+                    + "expect CPU starvation of other threads", waitStrategy, consumerThreads, cpus);
+        }
+        
+        ThreadAffinity affinity = pinThreads ? ThreadAffinity.of(pinCpus) : null;
+        if (affinity != null) {
+            int[] pinnedCpus = affinity.getCpus();
+            log.info("Pinning {} Disruptor consumer threads to CPUs {}", consumerThreads, Arrays.toString(pinnedCpus));
+            if (pinnedCpus.length < consumerThreads) {
+                log.warn("Only {} CPUs to pin {} consumer threads to; some threads share a CPU",
+                        pinnedCpus.length, consumerThreads);
+            }
+        }
         
         // Create custom thread factory for Disruptor's main event thread
-        ThreadFactory threadFactory = new DisruptorThreadFactory(threadNamePrefix);
+        ThreadFactory threadFactory = new DisruptorThreadFactory(threadNamePrefix, affinity);
         
         // Create the Disruptor
         Disruptor<TransactionEvent> disruptor = new Disruptor<>(
                 new TransactionEventFactory(),
                 ringBufferSize,
                 threadFactory,
-                ProducerType.MULTI,  // Multiple SQS listener threads may publish
-                new BlockingWaitStrategy()  // Balanced CPU/latency trade-off
+                producerType,  // MULTI unless explicitly overridden: multiple SQS listener threads may publish
+                waitStrategy.create(waitStrategyTimeoutMicros)
         );
         
-        // Set up event handler with internal thread pool for parallel processing
-        TransactionEventHandler eventHandler = new TransactionEventHandler(
-                fraudDetectionEngine,
-                alertService,
-                meterRegistry,
-                eventProcessingExecutor,
-                metricsCollector
-        );
+        // In raw ingest mode a parse stage runs before the processing handlers
+        EventHandlerGroup<TransactionEvent> parseStage = null;
+        if (ingestMode == IngestMode.RAW) {
+            parseStage = disruptor.handleEventsWith(createParseHandlers(objectMapper, meterRegistry));
+        }
         
-        disruptor.handleEventsWith(eventHandler);
+        if (processingMode == ProcessingMode.SHARDED) {
+            // Rules run directly on one Disruptor thread per account shard
+            TransactionProcessor transactionProcessor = new TransactionProcessor(
+                    fraudDetectionEngine, alertService, meterRegistry, metricsCollector);
+            
+            int shards = effectiveShardCount();
+            @SuppressWarnings("unchecked")
+            EventHandler<TransactionEvent>[] shardHandlers = new EventHandler[shards];
+            for (int i = 0; i < shards; i++) {
+                shardHandlers[i] = new ShardedTransactionEventHandler(transactionProcessor, i, shards, maxBatchSize);
+            }
+            
+            (parseStage != null ? parseStage.then(shardHandlers) : disruptor.handleEventsWith(shardHandlers))
+                    .then(new TransactionEventCleaner());
+        } else {
+            // Set up event handler with internal thread pool for parallel processing
+            TransactionEventHandler eventHandler = new TransactionEventHandler(
+                    fraudDetectionEngine,
+                    alertService,
+                    meterRegistry,
+                    eventProcessingExecutor,
+                    metricsCollector,
+                    maxBatchSize
+            );
+            
+            if (parseStage != null) {
+                parseStage.then(eventHandler);
+            } else {
+                disruptor.handleEventsWith(eventHandler);
+            }
+        }
         
         // Set exception handler
         disruptor.setDefaultExceptionHandler(
                 new TransactionEventExceptionHandler(meterRegistry)
         );
         
-        log.info("Disruptor configured successfully with {} processing threads", workerPoolSize);
+        log.info("Disruptor configured successfully with {} processing threads", processingThreads);
         return disruptor;
     }
     
+    /**
+     * Create the raw-payload parse stage. Parsers split the sequence space
+     * round-robin; in sharded mode they parse into the slot-owned view.
+     */
+    @SuppressWarnings("unchecked")
+    private EventHandler<TransactionEvent>[] createParseHandlers(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        TransactionJsonParser parser = new TransactionJsonParser(objectMapper);
+        Counter parseFailedCounter = Counter.builder("disruptor.transaction.parse.failure")
+                .description("Number of raw payloads that could not be parsed")
+                .register(meterRegistry);
+        boolean parseIntoView = processingMode == ProcessingMode.SHARDED;
+        
+        int parsers = effectiveParserCount();
+        EventHandler<TransactionEvent>[] handlers = new EventHandler[parsers];
+        for (int i = 0; i < parsers; i++) {
+            handlers[i] = new TransactionParseHandler(parser, i, parsers, parseIntoView, parseFailedCounter);
+        }
+        log.info("Raw ingest enabled with {} parser threads (parse into slot views: {})", 
+                parsers, parseIntoView);
+        return handlers;
+    }
+    
+    private int effectiveParserCount() {
+        return Math.max(1, parserCount);
+    }
+    
     /**
      * Expose shutdown timeout for DisruptorService.
      */
@@ -130,24 +277,34 @@ public class DisruptorConfig {
     
     /**
      * Custom thread factory for Disruptor worker threads.
+     * With an affinity, each thread pins itself to the next CPU when it starts.
      */
     private static class DisruptorThreadFactory implements ThreadFactory {
         private final AtomicInteger threadNumber = new AtomicInteger(1);
         private final String namePrefix;
+        private final ThreadAffinity affinity;
         
-        public DisruptorThreadFactory(String namePrefix) {
+        public DisruptorThreadFactory(String namePrefix, ThreadAffinity affinity) {
             this.namePrefix = namePrefix;
+            this.affinity = affinity;
         }
         
         @Override
         public Thread newThread(Runnable r) {
-            Thread thread = new Thread(r, namePrefix + threadNumber.getAndIncrement());
+            Runnable task = affinity != null ? affinity.pinning(r) : r;
+            Thread thread = new Thread(task, namePrefix + threadNumber.getAndIncrement());
             thread.setDaemon(false);  // Non-daemon to prevent premature shutdown
-            thread.setPriority(Thread.NORM_PRIORITY);
             return thread;
         }
     }
     
+    /**
+     * Number of account shards; defaults to the worker pool size when not set.
+     */
+    private int effectiveShardCount() {
+        return shardCount > 0 ? shardCount : workerPoolSize;
+    }
+    
     /**
      * Check if a number is a power of 2.
      */
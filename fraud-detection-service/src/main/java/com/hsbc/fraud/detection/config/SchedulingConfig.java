@@ -0,0 +1,29 @@
+package com.hsbc.fraud.detection.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Scheduling for every cloud provider.
+ * 
+ * Periodic work (alert aggregation flush, blacklist index reload, account feature
+ * snapshots, ring buffer metrics) runs on a small dedicated pool, so a slow
+ * snapshot or index reload does not hold up the one-second alert flush.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${scheduling.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(2, poolSize));
+        scheduler.setThreadNamePrefix("fraud-scheduler-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
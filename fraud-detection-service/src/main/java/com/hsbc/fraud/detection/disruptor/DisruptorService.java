@@ -7,9 +7,12 @@ import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PreDestroy;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -17,7 +20,8 @@ import java.util.concurrent.TimeUnit;
  * 
  * Responsibilities:
  * - Initialize and start the Disruptor
- * - Provide thread-safe publishing of transaction events
+ * - Provide thread-safe publishing of transaction events, singly or in batches
+ * - In raw ingest mode, publish undecoded payloads for consumer-side parsing
  * - Graceful shutdown with configurable timeout
  * - Track publishing metrics
  */
@@ -30,14 +34,25 @@ public class DisruptorService {
     private final Counter publishedCounter;
     private final Counter publishFailedCounter;
     private final int shutdownTimeoutSeconds;
+    private final IngestMode ingestMode;
     
     public DisruptorService(
             Disruptor<TransactionEvent> disruptor,
             MeterRegistry meterRegistry,
             int shutdownTimeoutSeconds) {
+        this(disruptor, meterRegistry, shutdownTimeoutSeconds, IngestMode.PARSED);
+    }
+    
+    @Autowired
+    public DisruptorService(
+            Disruptor<TransactionEvent> disruptor,
+            MeterRegistry meterRegistry,
+            int shutdownTimeoutSeconds,
+            @Value("${disruptor.ingest-mode:parsed}") IngestMode ingestMode) {
         this.disruptor = disruptor;
         this.ringBuffer = disruptor.getRingBuffer();
         this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+        this.ingestMode = ingestMode;
         
         // Initialize metrics
         this.publishedCounter = Counter.builder("disruptor.events.published")
@@ -50,7 +65,16 @@ public class DisruptorService {
         
         // Start the Disruptor
         disruptor.start();
-        log.info("Disruptor started with ring buffer size: {}", ringBuffer.getBufferSize());
+        log.info("Disruptor started with ring buffer size: {} (ingest mode: {})", 
+                ringBuffer.getBufferSize(), ingestMode);
+    }
+    
+    /**
+     * Whether listeners should publish raw payloads via {@link #publishRawEvent}
+     * instead of parsing on their own thread.
+     */
+    public boolean isRawIngest() {
+        return ingestMode == IngestMode.RAW;
     }
     
     /**
@@ -88,6 +112,101 @@ public class DisruptorService {
         }
     }
     
+    /**
+     * Publish an undecoded JSON payload to the ring buffer.
+     * The payload is copied into the slot's reusable buffer and parsed by the
+     * first Disruptor stage; no transaction is built on the calling thread.
+     * 
+     * @param payload The raw JSON message payload
+     * @param acknowledgement The SQS acknowledgment handle
+     * @throws IllegalStateException if ring buffer is full
+     */
+    public void publishRawEvent(String payload, Acknowledgement acknowledgement) {
+        try {
+            long sequence = ringBuffer.next();
+            
+            try {
+                TransactionEvent event = ringBuffer.get(sequence);
+                event.setRawPayload(payload);
+                event.setAcknowledgement(acknowledgement);
+                event.setSequence(sequence);
+                event.setPublishTimestamp(System.currentTimeMillis());
+                
+                publishedCounter.increment();
+                
+            } finally {
+                ringBuffer.publish(sequence);
+            }
+            
+        } catch (Exception e) {
+            publishFailedCounter.increment();
+            log.error("Failed to publish raw payload to ring buffer: {}", e.getMessage(), e);
+            throw new IllegalStateException("Ring buffer is full or unavailable", e);
+        }
+    }
+    
+    /**
+     * Publish a batch of transactions without acknowledgements, claiming ring
+     * buffer slots in runs of up to the buffer size with one {@code next(n)} each.
+     * Waits while the ring buffer is full, so callers see backpressure rather than loss.
+     * 
+     * @param transactions The transactions to process, in order
+     * @throws IllegalStateException if the ring buffer is unavailable
+     */
+    public void publishEvents(List<Transaction> transactions) {
+        publishBatch(transactions.size(), (event, i) -> event.setTransaction(transactions.get(i)));
+    }
+    
+    /**
+     * Publish a batch of undecoded JSON payloads without acknowledgements;
+     * the raw ingest counterpart of {@link #publishEvents}.
+     * 
+     * @param payloads The raw JSON message payloads, in order
+     * @throws IllegalStateException if the ring buffer is unavailable
+     */
+    public void publishRawEvents(List<String> payloads) {
+        publishBatch(payloads.size(), (event, i) -> event.setRawPayload(payloads.get(i)));
+    }
+    
+    private void publishBatch(int count, SlotWriter fill) {
+        int published = 0;
+        try {
+            while (published < count) {
+                int claim = Math.min(count - published, ringBuffer.getBufferSize());
+                long hi = ringBuffer.next(claim);
+                long lo = hi - claim + 1;
+                long filled = lo;
+                
+                try {
+                    long now = System.currentTimeMillis();
+                    for (; filled <= hi; filled++) {
+                        TransactionEvent event = ringBuffer.get(filled);
+                        fill.write(event, published + (int) (filled - lo));
+                        event.setAcknowledgement(null);
+                        event.setSequence(filled);
+                        event.setPublishTimestamp(now);
+                    }
+                    
+                } finally {
+                    // Claimed slots must be published either way; empty the ones the
+                    // writer never reached (and the one it failed in) so handlers skip
+                    // them instead of reprocessing what the slot held on the last wrap
+                    for (long sequence = filled; sequence <= hi; sequence++) {
+                        ringBuffer.get(sequence).clear();
+                    }
+                    ringBuffer.publish(lo, hi);
+                    published += (int) (filled - lo);
+                    publishedCounter.increment(filled - lo);
+                }
+            }
+            
+        } catch (Exception e) {
+            publishFailedCounter.increment(count - published);
+            log.error("Failed to publish batch of {} events to ring buffer: {}", count - published, e.getMessage(), e);
+            throw new IllegalStateException("Ring buffer is full or unavailable", e);
+        }
+    }
+    
     /**
      * Get current ring buffer utilization percentage.
      * 
@@ -129,6 +248,11 @@ public class DisruptorService {
             log.warn("Disruptor halted forcefully");
         }
     }
+    
+    @FunctionalInterface
+    private interface SlotWriter {
+        void write(TransactionEvent event, int index);
+    }
 }
 
 
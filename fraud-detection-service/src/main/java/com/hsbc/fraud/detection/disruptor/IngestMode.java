@@ -0,0 +1,18 @@
+package com.hsbc.fraud.detection.disruptor;
+
+/**
+ * Where inbound JSON payloads are turned into transactions.
+ */
+public enum IngestMode {
+
+    /**
+     * Listener threads parse the payload and publish a ready {@code Transaction}.
+     */
+    PARSED,
+
+    /**
+     * Listener threads copy the raw payload into the ring buffer slot and a
+     * first Disruptor stage parses it on the consumer side.
+     */
+    RAW
+}
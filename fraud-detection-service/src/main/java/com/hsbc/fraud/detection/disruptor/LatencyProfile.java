@@ -0,0 +1,81 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import com.lmax.disruptor.dsl.ProducerType;
+
+/**
+ * Named presets that trade CPU for latency on the Disruptor consumer side.
+ *
+ * Each preset selects a wait strategy, a producer type and whether consumer
+ * threads are pinned. Any of the three can still be overridden individually
+ * (disruptor.wait-strategy, disruptor.producer-type, disruptor.pin-threads).
+ *
+ * All presets use {@link ProducerType#MULTI} because the SQS listener container
+ * publishes from many threads; SINGLE is only safe as an explicit override when
+ * exactly one thread publishes (e.g. the local consumer).
+ *
+ * Pinned consumer threads are bound to one CPU each through {@link ThreadAffinity},
+ * over disruptor.pin-cpus or the process's allowed CPUs. Keeping other work off
+ * those cores is left to the node (Kubernetes static CPU manager policy with
+ * Guaranteed QoS pods).
+ */
+public enum LatencyProfile {
+
+    /**
+     * Dedicated detector nodes: busy-spin consumers on pinned threads.
+     */
+    LOWEST_LATENCY(WaitStrategyType.BUSY_SPIN, ProducerType.MULTI, true),
+
+    /**
+     * Spin briefly, then yield, then block. Microsecond wake-ups under load,
+     * near-idle CPU when the queue is quiet.
+     */
+    BALANCED(WaitStrategyType.PHASED_BACKOFF, ProducerType.MULTI, false),
+
+    /**
+     * Shared nodes and dev pods: block on a condition variable.
+     */
+    CPU_FRUGAL(WaitStrategyType.BLOCKING, ProducerType.MULTI, false);
+
+    private final WaitStrategyType waitStrategy;
+    private final ProducerType producerType;
+    private final boolean pinThreads;
+
+    LatencyProfile(WaitStrategyType waitStrategy, ProducerType producerType, boolean pinThreads) {
+        this.waitStrategy = waitStrategy;
+        this.producerType = producerType;
+        this.pinThreads = pinThreads;
+    }
+
+    public WaitStrategyType getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public ProducerType getProducerType() {
+        return producerType;
+    }
+
+    public boolean isPinThreads() {
+        return pinThreads;
+    }
+
+    /**
+     * Resolve the wait strategy, falling back to this preset when no override is given.
+     */
+    public WaitStrategyType resolveWaitStrategy(WaitStrategyType override) {
+        return override != null ? override : waitStrategy;
+    }
+
+    /**
+     * Resolve the producer type, falling back to this preset when no override is given.
+     */
+    public ProducerType resolveProducerType(ProducerType override) {
+        return override != null ? override : producerType;
+    }
+
+    /**
+     * Resolve thread pinning, falling back to this preset when no override is given.
+     */
+    public boolean resolvePinThreads(Boolean override) {
+        return override != null ? override : pinThreads;
+    }
+}
@@ -0,0 +1,19 @@
+package com.hsbc.fraud.detection.disruptor;
+
+/**
+ * How transaction events are consumed from the Disruptor ring buffer.
+ */
+public enum ProcessingMode {
+
+    /**
+     * A single event handler hands every event to a bounded thread pool.
+     * Highest parallelism for uneven workloads, but no per-account ordering.
+     */
+    EXECUTOR,
+
+    /**
+     * N event handlers, each owning a hash partition of accountId, run the
+     * rules directly on the Disruptor consumer threads. Preserves per-account order.
+     */
+    SHARDED
+}
@@ -0,0 +1,137 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import com.hsbc.fraud.detection.model.IdHash;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import com.lmax.disruptor.EventHandler;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Event handler that owns one hash partition of the account space.
+ *
+ * N instances are registered side by side on the ring buffer, each on its own
+ * Disruptor consumer thread. Every handler sees every event but only processes
+ * the transactions whose accountId hashes to its shard, directly on the
+ * consumer thread (no executor hand-off, no lambda allocation, no queue lock).
+ *
+ * Consequences:
+ * - Transactions of the same account are always processed by the same thread,
+ *   in ring buffer order, so per-account ordering is preserved.
+ * - Stateful rules can keep per-account state that is only ever touched by one
+ *   thread, without locking.
+ *
+ * In raw ingest mode the parse stage fills the slot's {@link TransactionView}
+ * instead of allocating a transaction, and rules evaluate the view directly.
+ *
+ * With batching enabled, owned transactions are collected into a reusable
+ * {@link TransactionBatch} and processed together when the Disruptor signals
+ * endOfBatch or the batch is full.
+ *
+ * Events are not cleared here because other shards may still be reading them;
+ * {@link TransactionEventCleaner} runs after all shards for that purpose.
+ */
+@Slf4j
+public class ShardedTransactionEventHandler implements EventHandler<TransactionEvent> {
+
+    private final TransactionProcessor transactionProcessor;
+    private final int shardIndex;
+    private final int shardCount;
+    private final TransactionBatch batch;
+
+    public ShardedTransactionEventHandler(TransactionProcessor transactionProcessor,
+                                          int shardIndex,
+                                          int shardCount) {
+        this(transactionProcessor, shardIndex, shardCount, 0);
+    }
+
+    /**
+     * @param maxBatchSize maximum transactions processed together; 0 or less disables batching
+     */
+    public ShardedTransactionEventHandler(TransactionProcessor transactionProcessor,
+                                          int shardIndex,
+                                          int shardCount,
+                                          int maxBatchSize) {
+        if (shardCount <= 0 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException(
+                    "Invalid shard " + shardIndex + " of " + shardCount);
+        }
+        this.transactionProcessor = transactionProcessor;
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.batch = maxBatchSize > 0 ? new TransactionBatch(maxBatchSize) : null;
+    }
+
+    @Override
+    public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) {
+        Transaction transaction = event.getTransaction();
+        TransactionView view = event.getView();
+        boolean owned;
+        if (transaction != null) {
+            owned = shardFor(transaction.getAccountId(), shardCount) == shardIndex;
+        } else {
+            // Parsed in place: the id hash matches IdHash.of on the same string
+            owned = view.isPresent() && shardFor(view.getAccountIdHash(), shardCount) == shardIndex;
+        }
+
+        if (batch != null) {
+            boolean full = owned && batch.add(event, sequence);
+            if ((full || endOfBatch) && !batch.isEmpty()) {
+                transactionProcessor.processBatch(batch);
+                batch.clear();
+            }
+            return;
+        }
+
+        if (!owned) {
+            return;
+        }
+
+        if (transaction != null) {
+            transactionProcessor.process(
+                    transaction,
+                    event.getAcknowledgement(),
+                    event.getPublishTimestamp(),
+                    sequence);
+        } else {
+            transactionProcessor.process(
+                    view,
+                    event.getAcknowledgement(),
+                    event.getPublishTimestamp(),
+                    sequence);
+        }
+    }
+
+    @Override
+    public void onStart() {
+        log.info("Shard {}/{} started on thread {}", shardIndex, shardCount, Thread.currentThread().getName());
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    /**
+     * Map an account to its shard. Transactions without an account all go to shard 0.
+     *
+     * @param accountId the account identifier
+     * @param shardCount total number of shards
+     * @return shard index in [0, shardCount)
+     */
+    public static int shardFor(String accountId, int shardCount) {
+        return shardFor(IdHash.of(accountId), shardCount);
+    }
+
+    /**
+     * Map an account to its shard by the {@link IdHash} of its id.
+     *
+     * @param accountHash hash of the account identifier, {@link IdHash#NONE} for none
+     * @param shardCount total number of shards
+     * @return shard index in [0, shardCount)
+     */
+    public static int shardFor(long accountHash, int shardCount) {
+        if (accountHash == IdHash.NONE) {
+            return 0;
+        }
+        return (int) Long.remainderUnsigned(accountHash, shardCount);
+    }
+}
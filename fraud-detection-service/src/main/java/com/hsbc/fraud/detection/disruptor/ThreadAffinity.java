@@ -0,0 +1,135 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pins Disruptor consumer threads to CPUs, one CPU per thread in turn.
+ *
+ * Java has no affinity API, so each thread pins itself on start by running
+ * {@code taskset -pc <cpu> <tid>}, with its kernel thread id read from
+ * /proc/thread-self. Linux only, with taskset (util-linux, or BusyBox as in the Alpine
+ * runtime image) on the PATH. When no CPU list is configured the allowed CPUs are used
+ * (Cpus_allowed_list in /proc/self/status), which with the Kubernetes static CPU
+ * manager policy are the exclusive cores of a Guaranteed QoS pod.
+ *
+ * Pinning is best effort: if it fails the thread runs unpinned and a warning is
+ * logged once.
+ */
+@Slf4j
+public final class ThreadAffinity {
+
+    private static final Path THREAD_SELF = Path.of("/proc/thread-self");
+    private static final Path PROCESS_STATUS = Path.of("/proc/self/status");
+    private static final String CPUS_ALLOWED = "Cpus_allowed_list:";
+
+    private final int[] cpus;
+    private final AtomicInteger nextCpu = new AtomicInteger();
+    private final AtomicBoolean warned = new AtomicBoolean();
+
+    public ThreadAffinity(int[] cpus) {
+        if (cpus.length == 0) {
+            throw new IllegalArgumentException("At least one CPU is required for thread pinning");
+        }
+        this.cpus = cpus.clone();
+    }
+
+    /**
+     * Affinity over a CPU list such as "2-5,8", or over the process's allowed CPUs
+     * when the list is blank.
+     *
+     * @return null if the allowed CPUs cannot be determined (not Linux)
+     */
+    public static ThreadAffinity of(String cpuList) {
+        String list = cpuList != null && !cpuList.isBlank() ? cpuList : allowedCpuList();
+        if (list == null) {
+            log.warn("Cannot read {}; Disruptor threads are not pinned", PROCESS_STATUS);
+            return null;
+        }
+        return new ThreadAffinity(parseCpuList(list));
+    }
+
+    /**
+     * Wrap a thread's task so the thread pins itself to the next CPU before running it.
+     */
+    public Runnable pinning(Runnable task) {
+        int cpu = cpus[Math.floorMod(nextCpu.getAndIncrement(), cpus.length)];
+        return () -> {
+            pinCurrentThread(cpu);
+            task.run();
+        };
+    }
+
+    public int[] getCpus() {
+        return cpus.clone();
+    }
+
+    /**
+     * Parse a Linux CPU list ("0-3,8,10-11") into CPU numbers.
+     */
+    static int[] parseCpuList(String cpuList) {
+        List<Integer> cpus = new ArrayList<>();
+        for (String range : cpuList.trim().split(",")) {
+            String[] bounds = range.trim().split("-");
+            int first = Integer.parseInt(bounds[0].trim());
+            int last = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : first;
+            if (bounds.length > 2 || first < 0 || last < first) {
+                throw new IllegalArgumentException("Invalid CPU list: " + cpuList);
+            }
+            for (int cpu = first; cpu <= last; cpu++) {
+                cpus.add(cpu);
+            }
+        }
+        return cpus.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void pinCurrentThread(int cpu) {
+        try {
+            // "<pid>/task/<tid>"
+            Path thread = Files.readSymbolicLink(THREAD_SELF);
+            String tid = thread.getFileName().toString();
+            Process taskset = new ProcessBuilder("taskset", "-pc", Integer.toString(cpu), tid)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            int exitCode = taskset.waitFor();
+            if (exitCode != 0) {
+                warnOnce("taskset exited with " + exitCode);
+                return;
+            }
+            log.info("Pinned thread {} to CPU {}", Thread.currentThread().getName(), cpu);
+
+        } catch (IOException | UnsupportedOperationException e) {
+            warnOnce(e.toString());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            warnOnce("interrupted");
+        }
+    }
+
+    private void warnOnce(String reason) {
+        if (warned.compareAndSet(false, true)) {
+            log.warn("Could not pin Disruptor threads to CPUs ({}); they run unpinned", reason);
+        }
+    }
+
+    private static String allowedCpuList() {
+        try {
+            return Files.readAllLines(PROCESS_STATUS).stream()
+                    .filter(line -> line.startsWith(CPUS_ALLOWED))
+                    .map(line -> line.substring(CPUS_ALLOWED.length()).trim())
+                    .findFirst()
+                    .orElse(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+
+/**
+ * Fixed-capacity buffer of transactions copied off the ring buffer.
+ *
+ * Event handlers fill it until the Disruptor signals endOfBatch (or the
+ * buffer is full) and then hand the whole batch to
+ * {@link TransactionProcessor#processBatch(TransactionBatch)}.
+ *
+ * Each entry holds either a transaction or, when the event was parsed in place,
+ * the slot's {@link TransactionView}. Views are only valid while their event
+ * is, so batches holding views must be processed before the handler returns
+ * from the endOfBatch event (sharded mode).
+ *
+ * Not thread-safe: a batch is owned by one thread at a time.
+ */
+public class TransactionBatch {
+
+    private final Transaction[] transactions;
+    private final TransactionView[] views;
+    private final Acknowledgement[] acknowledgements;
+    private final long[] publishTimestamps;
+    private final long[] sequences;
+    private final boolean[] failed;
+    private int size;
+
+    public TransactionBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Batch capacity must be positive: " + capacity);
+        }
+        this.transactions = new Transaction[capacity];
+        this.views = new TransactionView[capacity];
+        this.acknowledgements = new Acknowledgement[capacity];
+        this.publishTimestamps = new long[capacity];
+        this.sequences = new long[capacity];
+        this.failed = new boolean[capacity];
+    }
+
+    /**
+     * Copy the event's payload into the batch.
+     *
+     * @return true if the batch is full after adding
+     */
+    public boolean add(TransactionEvent event, long sequence) {
+        transactions[size] = event.getTransaction();
+        views[size] = event.getTransaction() == null && event.getView().isPresent() ? event.getView() : null;
+        acknowledgements[size] = event.getAcknowledgement();
+        publishTimestamps[size] = event.getPublishTimestamp();
+        sequences[size] = sequence;
+        size++;
+        return isFull();
+    }
+
+    /**
+     * @return the transaction, or null if the entry is a view
+     */
+    public Transaction getTransaction(int index) {
+        return transactions[index];
+    }
+
+    /**
+     * @return the view, or null if the entry is a transaction
+     */
+    public TransactionView getView(int index) {
+        return views[index];
+    }
+
+    public String getTransactionId(int index) {
+        Transaction transaction = transactions[index];
+        return transaction != null ? transaction.getTransactionId() : views[index].getTransactionId();
+    }
+
+    public String getAccountId(int index) {
+        Transaction transaction = transactions[index];
+        return transaction != null ? transaction.getAccountId() : views[index].getAccountId();
+    }
+
+    /**
+     * Event time of the transaction in epoch millis.
+     */
+    public long getTimestampMillis(int index) {
+        Transaction transaction = transactions[index];
+        return transaction != null ? transaction.getTimestamp().toEpochMilli() : views[index].getTimestampMillis();
+    }
+
+    public Acknowledgement getAcknowledgement(int index) {
+        return acknowledgements[index];
+    }
+
+    public long getPublishTimestamp(int index) {
+        return publishTimestamps[index];
+    }
+
+    public long getSequence(int index) {
+        return sequences[index];
+    }
+
+    /**
+     * Mark a transaction as failed so it is neither acknowledged nor counted as processed.
+     */
+    public void markFailed(int index) {
+        failed[index] = true;
+    }
+
+    public boolean isFailed(int index) {
+        return failed[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return transactions.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == transactions.length;
+    }
+
+    /**
+     * Release references so the batch can be refilled.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            transactions[i] = null;
+            views[i] = null;
+            acknowledgements[i] = null;
+            failed[i] = false;
+        }
+        size = 0;
+    }
+}
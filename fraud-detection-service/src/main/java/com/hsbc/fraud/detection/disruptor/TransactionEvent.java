@@ -1,15 +1,24 @@
 package com.hsbc.fraud.detection.disruptor;
 
 import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
 import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * Event object that travels through the Disruptor ring buffer.
  * Contains transaction data and the SQS acknowledgment handle.
  * 
  * Pre-allocated in the ring buffer to avoid garbage collection overhead.
+ * 
+ * In raw ingest mode the event carries the undecoded JSON payload in a
+ * per-slot character buffer that is reused across wraps of the ring buffer;
+ * {@link TransactionParseHandler} fills either {@link #transaction} or the
+ * slot-owned {@link TransactionView} from it.
  */
 @Data
 @NoArgsConstructor
@@ -36,14 +45,61 @@ public class TransactionEvent {
      */
     private long publishTimestamp;
     
+    /**
+     * Reusable buffer holding the raw JSON payload (raw ingest mode only).
+     * Grows to the largest payload seen by this slot and is never shrunk.
+     */
+    @ToString.Exclude
+    @Setter(AccessLevel.NONE)
+    private char[] payload = new char[0];
+    
+    /**
+     * Number of valid characters in {@link #payload}; 0 when no raw payload is present.
+     */
+    @Setter(AccessLevel.NONE)
+    private int payloadLength;
+    
+    /**
+     * Allocation-free view owned by this slot, filled in place by the parse stage
+     * when the transaction does not outlive the event (sharded mode).
+     */
+    @ToString.Exclude
+    private final TransactionView view = new TransactionView();
+    
+    /**
+     * Copy a raw payload into this slot's buffer.
+     */
+    public void setRawPayload(String json) {
+        int length = json.length();
+        if (payload.length < length) {
+            payload = new char[Math.max(length, payload.length * 2)];
+        }
+        json.getChars(0, length, payload, 0);
+        payloadLength = length;
+    }
+    
+    public boolean hasRawPayload() {
+        return payloadLength > 0;
+    }
+    
+    /**
+     * Whether the event carries a transaction, either as an object or in the slot view.
+     */
+    public boolean hasTransaction() {
+        return transaction != null || view.isPresent();
+    }
+    
     /**
      * Clear the event data for reuse (called automatically by Disruptor).
+     * The payload buffer and view buffers are kept for the next wrap.
      */
     public void clear() {
         this.transaction = null;
         this.acknowledgement = null;
         this.sequence = 0;
         this.publishTimestamp = 0;
+        this.payloadLength = 0;
+        this.view.clear();
     }
 }
 
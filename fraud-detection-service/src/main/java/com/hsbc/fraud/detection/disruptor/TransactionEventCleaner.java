@@ -0,0 +1,17 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import com.lmax.disruptor.EventHandler;
+
+/**
+ * Final pipeline stage that releases references held by a ring buffer slot.
+ *
+ * Runs after all processing handlers have seen the event, so the transaction
+ * and acknowledgement handle can be garbage collected before the slot wraps.
+ */
+public class TransactionEventCleaner implements EventHandler<TransactionEvent> {
+
+    @Override
+    public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) {
+        event.clear();
+    }
+}
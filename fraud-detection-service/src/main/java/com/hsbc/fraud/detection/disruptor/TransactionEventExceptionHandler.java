@@ -1,5 +1,6 @@
 package com.hsbc.fraud.detection.disruptor;
 
+import com.hsbc.fraud.detection.messaging.RejectableAcknowledgement;
 import com.lmax.disruptor.ExceptionHandler;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -10,7 +11,8 @@ import lombok.extern.slf4j.Slf4j;
  * Handles exceptions that occur during event processing.
  * 
  * Important: This handler prevents the Disruptor from shutting down on exceptions.
- * Failed messages will not be acknowledged and will be retried by SQS.
+ * Failed messages will not be acknowledged and will be retried by SQS, or are
+ * rejected back to the intake journal or mapped log consumer that owns them.
  */
 @Slf4j
 public class TransactionEventExceptionHandler implements ExceptionHandler<TransactionEvent> {
@@ -35,6 +37,10 @@ public class TransactionEventExceptionHandler implements ExceptionHandler<Transa
         
         // Note: Message will not be acknowledged, so SQS will retry
         // After max retries, message will move to DLQ automatically
+        // Journaled messages were acknowledged to SQS already; the journal retries them instead
+        if (event.getAcknowledgement() instanceof RejectableAcknowledgement rejectable) {
+            rejectable.reject(ex);
+        }
     }
     
     @Override
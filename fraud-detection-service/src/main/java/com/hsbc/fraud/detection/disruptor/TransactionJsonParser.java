@@ -0,0 +1,375 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Streaming parser that fills an existing {@link Transaction} from a JSON character buffer.
+ *
+ * Accepts the same documents as {@code objectMapper.readValue(json, Transaction.class)}
+ * (rejecting unknown properties, objects or arrays as field values, and trailing
+ * content when the mapper has FAIL_ON_TRAILING_TOKENS), but writes straight into a
+ * mutable, preallocated target instead of building a new object graph through data
+ * binding.
+ *
+ * It can also fill a {@link TransactionView}: strings are interned or copied
+ * straight from the parser's character buffer, the amount is decoded into
+ * fixed-point units and timestamps in the default format are converted to epoch
+ * millis by hand, so a well-formed message creates no String, BigDecimal or
+ * Instant.
+ *
+ * Instances are stateless apart from the shared {@link JsonFactory} and the
+ * mapper's settings, and may be used from several threads.
+ */
+public class TransactionJsonParser {
+
+    /**
+     * Same pattern as the {@code @JsonFormat} on {@link Transaction#getTimestamp()}.
+     */
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSX").withZone(ZoneOffset.UTC);
+
+    /**
+     * Length of a UTC timestamp in that pattern, e.g. {@code 2024-01-31T12:00:00.000Z}.
+     */
+    private static final int UTC_TIMESTAMP_LENGTH = 24;
+
+    /**
+     * Integer digits accepted by the fast amount path before falling back to BigDecimal.
+     */
+    private static final int MAX_FAST_INTEGER_DIGITS = 14;
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+
+    private final JsonFactory jsonFactory;
+    private final boolean failOnTrailingTokens;
+
+    public TransactionJsonParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.failOnTrailingTokens = objectMapper.isEnabled(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+    }
+
+    /**
+     * Parse a JSON object into the target transaction. All fields of the target
+     * are reset first, so absent properties end up null as with data binding.
+     *
+     * @param json buffer holding the document
+     * @param length number of valid characters in the buffer
+     * @param target transaction to fill
+     * @throws IOException if the document is malformed or has unknown properties
+     */
+    public void parseInto(char[] json, int length, Transaction target) throws IOException {
+        reset(target);
+
+        try (JsonParser parser = jsonFactory.createParser(json, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected JSON object for transaction");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                requireScalar(field, value);
+                boolean isNull = value == JsonToken.VALUE_NULL;
+
+                switch (field) {
+                    case "transactionId" -> target.setTransactionId(isNull ? null : parser.getText());
+                    case "accountId" -> target.setAccountId(isNull ? null : parser.getText());
+                    case "amount" -> target.setAmount(isNull ? null : readDecimal(parser, value));
+                    case "currency" -> target.setCurrency(isNull ? null : parser.getText());
+                    case "timestamp" -> target.setTimestamp(isNull ? null : readInstant(parser, value));
+                    case "merchantId" -> target.setMerchantId(isNull ? null : parser.getText());
+                    case "merchantCategory" -> target.setMerchantCategory(isNull ? null : parser.getText());
+                    case "location" -> target.setLocation(isNull ? null : parser.getText());
+                    case "type" -> target.setType(isNull ? null : readType(parser));
+                    default -> throw new IOException("Unrecognized field \"" + field + "\" in transaction");
+                }
+            }
+
+            requireEnd(parser);
+        }
+    }
+
+    /**
+     * Parse a JSON object into the target view. Accepts the same documents as
+     * {@link #parseInto(char[], int, Transaction)}.
+     *
+     * @param json buffer holding the document
+     * @param length number of valid characters in the buffer
+     * @param target view to fill; reset first and marked present
+     * @throws IOException if the document is malformed or has unknown properties
+     */
+    public void parseInto(char[] json, int length, TransactionView target) throws IOException {
+        target.reset();
+
+        try (JsonParser parser = jsonFactory.createParser(json, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected JSON object for transaction");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                requireScalar(field, value);
+                if (value == JsonToken.VALUE_NULL) {
+                    if (!isTransactionField(field)) {
+                        throw new IOException("Unrecognized field \"" + field + "\" in transaction");
+                    }
+                    continue;
+                }
+
+                char[] text = parser.getTextCharacters();
+                int offset = parser.getTextOffset();
+                int textLength = parser.getTextLength();
+
+                switch (field) {
+                    case "transactionId" -> target.setTransactionId(text, offset, textLength);
+                    case "accountId" -> target.setAccountId(text, offset, textLength);
+                    case "amount" -> readAmount(parser, text, offset, textLength, target);
+                    case "currency" -> target.setCurrencyCode(TransactionView.CURRENCIES.intern(text, offset, textLength));
+                    case "timestamp" -> readTimestamp(parser, value, text, offset, textLength, target);
+                    case "merchantId" -> target.setMerchantId(text, offset, textLength);
+                    case "merchantCategory" -> target.setCategoryCode(TransactionView.CATEGORIES.intern(text, offset, textLength));
+                    case "location" -> target.setLocation(text, offset, textLength);
+                    case "type" -> target.setType(readType(parser, text, offset, textLength));
+                    default -> throw new IOException("Unrecognized field \"" + field + "\" in transaction");
+                }
+            }
+
+            requireEnd(parser);
+        }
+    }
+
+    /**
+     * Reject the end of the document, as readValue does unless FAIL_ON_TRAILING_TOKENS is off.
+     */
+    private void requireEnd(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new IOException("Malformed transaction JSON");
+        }
+        if (failOnTrailingTokens && parser.nextToken() != null) {
+            throw new IOException("Trailing content after transaction JSON");
+        }
+    }
+
+    /**
+     * All fields are scalars, so data binding rejects objects and arrays for them;
+     * reading on would treat the nested fields as the transaction's own.
+     */
+    private static void requireScalar(String field, JsonToken value) throws IOException {
+        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+            throw new IOException("Unexpected " + (value == JsonToken.START_OBJECT ? "object" : "array")
+                    + " for field \"" + field + "\" in transaction");
+        }
+    }
+
+    private static boolean isTransactionField(String field) {
+        return switch (field) {
+            case "transactionId", "accountId", "amount", "currency", "timestamp",
+                    "merchantId", "merchantCategory", "location", "type" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Decode a plain decimal ({@code -123.45}) straight into fixed-point units; anything
+     * else (exponents, very large values) goes through BigDecimal.
+     */
+    private static void readAmount(JsonParser parser, char[] text, int offset, int length,
+                                   TransactionView target) throws IOException {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && Character.isWhitespace(text[start])) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text[end - 1])) {
+            end--;
+        }
+
+        boolean negative = start < end && text[start] == '-';
+        int i = negative ? start + 1 : start;
+        long units = 0;
+        int integerDigits = 0;
+        int fractionDigits = -1;
+        boolean roundUp = false;
+        boolean fast = i < end;
+
+        for (; i < end && fast; i++) {
+            char c = text[i];
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (fractionDigits < 0) {
+                    fast = ++integerDigits <= MAX_FAST_INTEGER_DIGITS;
+                    units = units * 10 + (c - '0');
+                } else if (fractionDigits < TransactionView.AMOUNT_SCALE) {
+                    fractionDigits++;
+                    units = units * 10 + (c - '0');
+                } else if (c != '0') {
+                    roundUp = true;
+                }
+            } else {
+                fast = false;
+            }
+        }
+
+        if (!fast || (integerDigits == 0 && fractionDigits <= 0)) {
+            readAmountSlow(parser, target);
+            return;
+        }
+
+        int scale = Math.max(fractionDigits, 0);
+        units *= POWERS_OF_TEN[TransactionView.AMOUNT_SCALE - scale];
+        if (negative) {
+            units = -units;
+        } else if (roundUp) {
+            // Round towards positive infinity, as TransactionView.toAmountUnits does
+            units++;
+        }
+        target.setAmount(units, scale);
+    }
+
+    private static void readAmountSlow(JsonParser parser, TransactionView target) throws IOException {
+        BigDecimal amount = readDecimal(parser, parser.currentToken());
+        try {
+            target.setAmount(amount);
+        } catch (ArithmeticException e) {
+            throw new IOException("Amount out of range: " + amount, e);
+        }
+    }
+
+    /**
+     * Convert {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'} by hand; other offsets and
+     * out-of-range fields go through the formatter so results match data binding.
+     */
+    private static void readTimestamp(JsonParser parser, JsonToken value, char[] text, int offset, int length,
+                                      TransactionView target) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            target.setTimestampMillis(parser.getLongValue());
+            return;
+        }
+
+        long millis = length == UTC_TIMESTAMP_LENGTH ? utcTimestampMillis(text, offset) : Long.MIN_VALUE;
+        if (millis == Long.MIN_VALUE) {
+            millis = readInstant(parser, value).toEpochMilli();
+        }
+        target.setTimestampMillis(millis);
+    }
+
+    /**
+     * @return epoch millis, or {@link Long#MIN_VALUE} if the text is not a valid UTC timestamp
+     */
+    static long utcTimestampMillis(char[] text, int offset) {
+        if (text[offset + 4] != '-' || text[offset + 7] != '-' || text[offset + 10] != 'T'
+                || text[offset + 13] != ':' || text[offset + 16] != ':' || text[offset + 19] != '.'
+                || text[offset + 23] != 'Z') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        int hour = digits(text, offset + 11, 2);
+        int minute = digits(text, offset + 14, 2);
+        int second = digits(text, offset + 17, 2);
+        int millis = digits(text, offset + 20, 3);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59 || millis < 0
+                || day > Month.of(month).length(Year.isLeap(year))) {
+            return Long.MIN_VALUE;
+        }
+        long seconds = epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+        return seconds * 1_000L + millis;
+    }
+
+    /**
+     * @return the decimal value of {@code count} digits, or -1 if any is not a digit
+     */
+    private static int digits(char[] text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = text[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date (civil-from-days inverse).
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static Transaction.TransactionType readType(JsonParser parser, char[] text, int offset, int length)
+            throws IOException {
+        Transaction.TransactionType type = TransactionView.typeOf(text, offset, length);
+        if (type == null) {
+            throw new IOException("Invalid transaction type: " + parser.getText());
+        }
+        return type;
+    }
+
+    private static void reset(Transaction target) {
+        target.setTransactionId(null);
+        target.setAccountId(null);
+        target.setAmount(null);
+        target.setCurrency(null);
+        target.setTimestamp(null);
+        target.setMerchantId(null);
+        target.setMerchantCategory(null);
+        target.setLocation(null);
+        target.setType(null);
+    }
+
+    private static BigDecimal readDecimal(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return new BigDecimal(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid amount: " + parser.getText(), e);
+            }
+        }
+        return parser.getDecimalValue();
+    }
+
+    private static Instant readInstant(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return Instant.ofEpochMilli(parser.getLongValue());
+        }
+        try {
+            return Instant.from(TIMESTAMP_FORMAT.parse(parser.getText()));
+        } catch (DateTimeParseException e) {
+            throw new IOException("Invalid timestamp: " + parser.getText(), e);
+        }
+    }
+
+    private static Transaction.TransactionType readType(JsonParser parser) throws IOException {
+        try {
+            return Transaction.TransactionType.valueOf(parser.getText());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid transaction type: " + parser.getText(), e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import com.lmax.disruptor.EventHandler;
+import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * First pipeline stage in raw ingest mode: decodes the JSON payload carried by
+ * the event into a transaction, on a Disruptor consumer thread.
+ *
+ * N instances run side by side; instance i parses the sequences where
+ * {@code sequence % N == i}, so parsing scales with the number of parsers
+ * instead of being serialized on the listener threads.
+ *
+ * When {@code parseIntoView} is set the payload is parsed in place into the
+ * {@link TransactionView} owned by the ring buffer slot, without allocating a
+ * transaction. That is only safe when the transaction does not outlive the
+ * event (sharded mode, where processing is inline); in executor mode a fresh
+ * transaction is parsed per event because the reference is handed to the
+ * worker pool.
+ *
+ * Malformed payloads are acknowledged (bad data is not retried, as in the
+ * listeners) and left without a transaction, so later stages skip them.
+ */
+@Slf4j
+public class TransactionParseHandler implements EventHandler<TransactionEvent> {
+
+    private final TransactionJsonParser parser;
+    private final int parserIndex;
+    private final int parserCount;
+    private final boolean parseIntoView;
+    private final Counter parseFailedCounter;
+
+    public TransactionParseHandler(TransactionJsonParser parser,
+                                   int parserIndex,
+                                   int parserCount,
+                                   boolean parseIntoView,
+                                   Counter parseFailedCounter) {
+        if (parserCount <= 0 || parserIndex < 0 || parserIndex >= parserCount) {
+            throw new IllegalArgumentException(
+                    "Invalid parser " + parserIndex + " of " + parserCount);
+        }
+        this.parser = parser;
+        this.parserIndex = parserIndex;
+        this.parserCount = parserCount;
+        this.parseIntoView = parseIntoView;
+        this.parseFailedCounter = parseFailedCounter;
+    }
+
+    @Override
+    public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) {
+        if (!event.hasRawPayload() || (sequence % parserCount) != parserIndex) {
+            return;
+        }
+
+        try {
+            if (parseIntoView) {
+                parser.parseInto(event.getPayload(), event.getPayloadLength(), event.getView());
+            } else {
+                Transaction target = new Transaction();
+                parser.parseInto(event.getPayload(), event.getPayloadLength(), target);
+                event.setTransaction(target);
+            }
+        } catch (Exception e) {
+            parseFailedCounter.increment();
+            log.error("Failed to parse transaction JSON at sequence {}: {}",
+                    sequence, new String(event.getPayload(), 0, event.getPayloadLength()), e);
+            event.setTransaction(null);
+            event.getView().clear();
+
+            // Invalid JSON - acknowledge to remove from queue (don't retry bad data)
+            Acknowledgement acknowledgement = event.getAcknowledgement();
+            if (acknowledgement != null) {
+                acknowledgement.acknowledgeAsync();
+            }
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import com.hsbc.fraud.detection.logging.LoggingContext;
+import com.hsbc.fraud.detection.messaging.RejectableAcknowledgement;
+import com.hsbc.fraud.detection.metrics.MetricsCollector;
+import com.hsbc.fraud.detection.model.FraudAlert;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import com.hsbc.fraud.detection.service.AlertService;
+import com.hsbc.fraud.detection.service.FraudDetectionEngine;
+import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes a single transaction taken off the Disruptor ring buffer.
+ *
+ * Shared by every event handler flavour (thread-pool hand-off or account-sharded)
+ * so that all processing modes record the same metrics and follow the same
+ * acknowledgement rules.
+ *
+ * Responsibilities:
+ * 1. Analyze transaction through fraud detection engine
+ * 2. Handle fraud alerts via alert service
+ * 3. Acknowledge SQS message on success
+ * 4. Leave message unacknowledged on failure for SQS to redeliver, or reject it
+ *    back to the intake journal, which retries it itself
+ * 5. Track metrics for monitoring (Prometheus + CloudWatch via log metrics)
+ */
+@Slf4j
+public class TransactionProcessor {
+
+    private static final long HIGH_LATENCY_THRESHOLD_MS = 100;
+
+    private final FraudDetectionEngine fraudDetectionEngine;
+    private final AlertService alertService;
+    private final MetricsCollector metricsCollector;
+    private final Timer processingTimer;
+    private final Counter successCounter;
+    private final Counter failureCounter;
+    private final Timer batchProcessingTimer;
+    private final DistributionSummary batchSizeSummary;
+
+    public TransactionProcessor(
+            FraudDetectionEngine fraudDetectionEngine,
+            AlertService alertService,
+            MeterRegistry meterRegistry,
+            MetricsCollector metricsCollector) {
+        this.fraudDetectionEngine = fraudDetectionEngine;
+        this.alertService = alertService;
+        this.metricsCollector = metricsCollector;
+
+        // Initialize metrics
+        this.processingTimer = Timer.builder("disruptor.transaction.processing.time")
+                .description("Time taken to process a transaction through fraud detection")
+                .register(meterRegistry);
+
+        this.successCounter = Counter.builder("disruptor.transaction.processed.success")
+                .description("Number of transactions processed successfully")
+                .register(meterRegistry);
+
+        this.failureCounter = Counter.builder("disruptor.transaction.processed.failure")
+                .description("Number of transactions that failed processing")
+                .register(meterRegistry);
+
+        this.batchProcessingTimer = Timer.builder("disruptor.batch.processing.time")
+                .description("Time taken to process a batch of transactions through fraud detection")
+                .register(meterRegistry);
+
+        this.batchSizeSummary = DistributionSummary.builder("disruptor.batch.size")
+                .description("Number of transactions per processed batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Process a single transaction on the calling thread.
+     *
+     * @param transaction The transaction to analyze
+     * @param acknowledgement The SQS acknowledgement handle (null for local messages)
+     * @param publishTimestamp Time the event was published to the ring buffer
+     * @param sequence Ring buffer sequence, used for logging only
+     */
+    public void process(Transaction transaction,
+                        Acknowledgement acknowledgement,
+                        long publishTimestamp,
+                        long sequence) {
+        Timer.Sample sample = Timer.start();
+        long eventStartTime = transaction.getTimestamp().toEpochMilli();
+
+        String transactionId = transaction.getTransactionId();
+        String accountId = transaction.getAccountId();
+
+        LoggingContext.setTransactionContext(transactionId, accountId);
+
+        try {
+            log.debug("Processing transaction {} from ring buffer (sequence: {})",
+                    transactionId, sequence);
+
+            // Record Prometheus metric: Transaction Received
+            metricsCollector.recordTransactionReceived();
+
+            // Analyze transaction for fraud
+            FraudAlert alert = fraudDetectionEngine.analyzeTransaction(transaction);
+
+            // Handle fraud alert if detected
+            if (alert != null) {
+                alertService.handleAlert(alert);
+                // Note: metricsCollector.recordFraudDetected is called by LoggingAlertSink
+            } else {
+                // Record Prometheus metric: Transaction Cleared
+                metricsCollector.recordTransactionCleared(accountId);
+            }
+
+            // Acknowledge SQS message only after successful processing
+            if (acknowledgement != null) {
+                acknowledgement.acknowledge();
+                log.debug("Acknowledged SQS message for transaction {}", transactionId);
+            }
+
+            successCounter.increment();
+            sample.stop(processingTimer);
+
+            long latencyMs = System.currentTimeMillis() - publishTimestamp;
+            long processingTime = System.currentTimeMillis() - eventStartTime;
+
+            // Record Prometheus metric: Transaction Processed with duration
+            metricsCollector.recordTransactionProcessed(processingTime);
+            metricsCollector.recordTotalLatency(latencyMs);
+            if (processingTime > HIGH_LATENCY_THRESHOLD_MS) {
+                LoggingContext.put("endToEndLatencyMs", String.valueOf(latencyMs));
+                LoggingContext.put("processingTimeMs", String.valueOf(processingTime));
+
+                // Record Prometheus metric: High Latency
+                metricsCollector.recordHighLatency(MetricsCollector.OPERATION_TRANSACTION_PROCESSING, processingTime, transactionId);
+
+                log.warn("High latency detected: {}ms for transaction {}", latencyMs, transactionId);
+            }
+
+        } catch (Exception e) {
+            log.error("Failed to process transaction {} (sequence: {}): {}",
+                    transactionId, sequence, e.getMessage(), e);
+
+            // Record Prometheus metric: Processing Error
+            metricsCollector.recordProcessingError(MetricsCollector.ERROR_TYPE_TRANSACTION_PROCESSING, transactionId, e);
+
+            failureCounter.increment();
+            sample.stop(processingTimer);
+
+            reject(acknowledgement, e);
+
+        } finally {
+            // Clear transaction-specific context
+            LoggingContext.remove("transactionId");
+            LoggingContext.remove("accountId");
+        }
+    }
+
+    /**
+     * Process a transaction held in a slot-owned view on the calling thread.
+     *
+     * Same semantics as {@link #process(Transaction, Acknowledgement, long, long)},
+     * but allocation-free for clean transactions: no timer sample, and MDC is only
+     * populated for failing transactions. The view must not be retained.
+     *
+     * @param view The transaction view to analyze
+     * @param acknowledgement The SQS acknowledgement handle (null for local messages)
+     * @param publishTimestamp Time the event was published to the ring buffer
+     * @param sequence Ring buffer sequence, used for logging only
+     */
+    public void process(TransactionView view,
+                        Acknowledgement acknowledgement,
+                        long publishTimestamp,
+                        long sequence) {
+        long startNanos = System.nanoTime();
+
+        try {
+            metricsCollector.recordTransactionReceived();
+
+            FraudAlert alert = fraudDetectionEngine.analyzeTransaction(view);
+            if (alert != null) {
+                alertService.handleAlert(alert);
+            } else {
+                metricsCollector.recordTransactionCleared();
+            }
+
+            if (acknowledgement != null) {
+                acknowledgement.acknowledge();
+            }
+
+            successCounter.increment();
+            processingTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+
+            long now = System.currentTimeMillis();
+            long latencyMs = now - publishTimestamp;
+            long processingTime = view.hasTimestamp() ? now - view.getTimestampMillis() : latencyMs;
+
+            metricsCollector.recordTransactionProcessed(processingTime);
+            metricsCollector.recordTotalLatency(latencyMs);
+            if (processingTime > HIGH_LATENCY_THRESHOLD_MS) {
+                String transactionId = view.getTransactionId();
+                metricsCollector.recordHighLatency(MetricsCollector.OPERATION_TRANSACTION_PROCESSING, processingTime, transactionId);
+                log.warn("High latency detected: {}ms for transaction {}", latencyMs, transactionId);
+            }
+
+        } catch (Exception e) {
+            String transactionId = view.getTransactionId();
+            LoggingContext.setTransactionContext(transactionId, view.getAccountId());
+            log.error("Failed to process transaction {} (sequence: {}): {}",
+                    transactionId, sequence, e.getMessage(), e);
+            metricsCollector.recordProcessingError(MetricsCollector.ERROR_TYPE_TRANSACTION_PROCESSING, transactionId, e);
+
+            failureCounter.increment();
+            processingTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+
+            reject(acknowledgement, e);
+
+        } finally {
+            // Set on failure, or by the engine when it materializes an alert
+            LoggingContext.remove("transactionId");
+            LoggingContext.remove("accountId");
+        }
+    }
+
+    /**
+     * Process a batch of transactions on the calling thread.
+     *
+     * Same semantics as {@link #process} per transaction (failed transactions
+     * are rejected, not acknowledged), but counters, timers and clock reads are taken once
+     * per batch, MDC is only populated for slow or failing transactions, and
+     * acknowledgements are issued asynchronously so the SQS container can
+     * coalesce them into DeleteMessageBatch calls.
+     *
+     * @param batch The batch to process; left untouched for the caller to clear
+     */
+    public void processBatch(TransactionBatch batch) {
+        int size = batch.size();
+        if (size == 0) {
+            return;
+        }
+
+        long batchStartNanos = System.nanoTime();
+        metricsCollector.recordTransactionsReceived(size);
+
+        int cleared = 0;
+        int failed = 0;
+        for (int i = 0; i < size; i++) {
+            Transaction transaction = batch.getTransaction(i);
+            try {
+                FraudAlert alert = transaction != null
+                        ? fraudDetectionEngine.analyzeTransaction(transaction)
+                        : fraudDetectionEngine.analyzeTransaction(batch.getView(i));
+                if (alert != null) {
+                    alertService.handleAlert(alert);
+                } else {
+                    cleared++;
+                }
+
+                Acknowledgement acknowledgement = batch.getAcknowledgement(i);
+                if (acknowledgement != null) {
+                    // Queued in the container's acknowledgement processor and deleted in batches
+                    acknowledgement.acknowledgeAsync();
+                }
+            } catch (Exception e) {
+                failed++;
+                batch.markFailed(i);
+                String transactionId = batch.getTransactionId(i);
+                LoggingContext.setTransactionContext(transactionId, batch.getAccountId(i));
+                try {
+                    log.error("Failed to process transaction {} (sequence: {}): {}",
+                            transactionId, batch.getSequence(i), e.getMessage(), e);
+                    metricsCollector.recordProcessingError(
+                            MetricsCollector.ERROR_TYPE_TRANSACTION_PROCESSING, transactionId, e);
+                    reject(batch.getAcknowledgement(i), e);
+                } finally {
+                    LoggingContext.remove("transactionId");
+                    LoggingContext.remove("accountId");
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            if (batch.isFailed(i)) {
+                continue;
+            }
+            long latencyMs = now - batch.getPublishTimestamp(i);
+            long processingTime = now - batch.getTimestampMillis(i);
+            metricsCollector.recordTransactionProcessed(processingTime);
+            metricsCollector.recordTotalLatency(latencyMs);
+            if (processingTime > HIGH_LATENCY_THRESHOLD_MS) {
+                String transactionId = batch.getTransactionId(i);
+                metricsCollector.recordHighLatency(MetricsCollector.OPERATION_TRANSACTION_PROCESSING,
+                        processingTime, transactionId);
+                log.warn("High latency detected: {}ms for transaction {}", latencyMs, transactionId);
+            }
+        }
+
+        if (cleared > 0) {
+            metricsCollector.recordTransactionsCleared(cleared);
+        }
+        successCounter.increment(size - failed);
+        if (failed > 0) {
+            failureCounter.increment(failed);
+        }
+        batchSizeSummary.record(size);
+        batchProcessingTimer.record(System.nanoTime() - batchStartNanos, TimeUnit.NANOSECONDS);
+
+        log.debug("Processed batch of {} transactions ({} failed)", size, failed);
+    }
+
+    /**
+     * Hand a failed message back for another attempt. SQS messages are left
+     * unacknowledged; journaled ones were acknowledged to SQS already, so they
+     * are rejected to the journal. Local messages have no handle and are dropped.
+     */
+    private static void reject(Acknowledgement acknowledgement, Exception cause) {
+        if (acknowledgement instanceof RejectableAcknowledgement rejectable) {
+            rejectable.reject(cause);
+            log.warn("Message rejected back to its consumer, which retries or skips it");
+        } else if (acknowledgement != null) {
+            // DO NOT acknowledge - let SQS retry or move to DLQ
+            log.warn("Message will be retried by SQS or moved to DLQ after max attempts");
+        } else {
+            log.warn("Message has no acknowledgement handle and will not be retried");
+        }
+    }
+}
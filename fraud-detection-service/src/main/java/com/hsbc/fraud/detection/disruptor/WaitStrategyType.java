@@ -0,0 +1,73 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.PhasedBackoffWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Supported Disruptor wait strategies, ordered from most CPU-frugal to lowest latency.
+ */
+public enum WaitStrategyType {
+
+    /**
+     * Lock and condition variable. No CPU when idle, highest wake-up latency.
+     */
+    BLOCKING,
+
+    /**
+     * Blocking with a periodic timeout, so consumers wake up even without new events.
+     */
+    TIMEOUT_BLOCKING,
+
+    /**
+     * Spin, then yield, then park for short periods. Low CPU, tens of microseconds latency.
+     */
+    SLEEPING,
+
+    /**
+     * Spin for the configured period, then yield, then fall back to a lite lock.
+     */
+    PHASED_BACKOFF,
+
+    /**
+     * Spin then Thread.yield(). Low latency, burns a core when idle.
+     */
+    YIELDING,
+
+    /**
+     * Pure busy spin. Lowest latency, one fully busy core per consumer thread.
+     * Only use with dedicated cores.
+     */
+    BUSY_SPIN;
+
+    /**
+     * Create a new wait strategy instance.
+     *
+     * @param timeoutMicros timeout for TIMEOUT_BLOCKING, spin period for PHASED_BACKOFF
+     * @return the wait strategy
+     */
+    public WaitStrategy create(long timeoutMicros) {
+        return switch (this) {
+            case BLOCKING -> new BlockingWaitStrategy();
+            case TIMEOUT_BLOCKING -> new TimeoutBlockingWaitStrategy(timeoutMicros, TimeUnit.MICROSECONDS);
+            case SLEEPING -> new SleepingWaitStrategy();
+            case PHASED_BACKOFF -> PhasedBackoffWaitStrategy.withLiteLock(
+                    timeoutMicros, timeoutMicros * 10, TimeUnit.MICROSECONDS);
+            case YIELDING -> new YieldingWaitStrategy();
+            case BUSY_SPIN -> new BusySpinWaitStrategy();
+        };
+    }
+
+    /**
+     * Whether consumer threads using this strategy keep a core busy while idle.
+     */
+    public boolean isSpinning() {
+        return this == YIELDING || this == BUSY_SPIN;
+    }
+}
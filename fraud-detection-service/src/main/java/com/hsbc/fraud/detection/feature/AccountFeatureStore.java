@@ -0,0 +1,476 @@
+package com.hsbc.fraud.detection.feature;
+
+import com.hsbc.fraud.detection.model.IdHash;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process store of per-account features for rules that need an account's
+ * history: transaction count, rolling count and amount, and the time, amount,
+ * location and merchant of the latest transaction. The FraudDetectionEngine
+ * records every transaction after its rules have run, so rules see the account
+ * as it was before the transaction they are scoring.
+ * 
+ * Accounts are keyed by the {@link IdHash} of their id in an open-addressing table
+ * of 64-byte slots, held off-heap in direct buffers of up to 16M slots each, so
+ * tens of millions of accounts cost no heap and no GC work. Two ids that collide
+ * on all 64 bits share features; among 50 million accounts the chance of any such
+ * pair is about one in ten thousand.
+ * 
+ * Each slot carries a sequence lock. A writer takes it with one CAS, and a reader
+ * copies the slot and retries if the lock moved meanwhile, so {@link #read} is O(1),
+ * lock-free, and never sees an update half done. Rolling values are exponentially
+ * decayed sums with rolling-window-minutes as time constant, kept without any
+ * per-transaction history.
+ * 
+ * Location and merchant are kept as 64-bit hashes of their names, computed the
+ * same way, so the table holds no strings and its contents mean the same in every
+ * process. The table is written to snapshot-file every snapshot-interval-ms and on
+ * shutdown, through a temporary file moved into place, and loaded on startup, so a
+ * restarted pod scores with warm features after reading one file. Accounts are never
+ * evicted; when the probe range of a new account is full, it is not tracked (fail open).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "fraud.features.enabled", havingValue = "true")
+public class AccountFeatureStore {
+    
+    static final int SLOT_BYTES = 64;
+    
+    private static final int MAX_PROBES = 32;
+    private static final int MAX_SHARD_SLOTS = 1 << 24;
+    private static final double UNITS_PER_AMOUNT = Math.pow(10, TransactionView.AMOUNT_SCALE);
+    
+    // Slot layout, little-endian; snapshot records are slots with the lock word cleared
+    private static final int KEY = 0;             // account id hash (long), 0 = empty slot
+    private static final int LOCK = 8;            // sequence lock (int), odd while being written
+    private static final int COUNT = 12;          // transactions recorded (int, saturating)
+    private static final int TIMESTAMP = 16;      // time of the latest transaction, epoch millis (long)
+    private static final int DECAYED_COUNT = 24;  // rolling count as of TIMESTAMP (double)
+    private static final int DECAYED_AMOUNT = 32; // rolling amount as of TIMESTAMP (double)
+    private static final int LAST_AMOUNT = 40;    // amount of the latest transaction (double)
+    private static final int LOCATION = 48;       // location hash of the latest transaction (long), 0 = none
+    private static final int MERCHANT = 56;       // merchant hash of the latest transaction (long), 0 = none
+    
+    // Snapshot: header, then one record per account
+    private static final int MAGIC = 0x53464146; // "FAFS" little-endian
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+    private static final int BUFFER_BYTES = 1 << 20;
+    
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    
+    private final ByteBuffer[] shards;
+    private final int shardMask;
+    private final int slotMask;
+    private final double rollingWindowMillis;
+    private final Path snapshotFile;
+    private final AtomicLong accounts = new AtomicLong();
+    
+    private final Counter untrackedCounter;
+    private final Timer snapshotTimer;
+    
+    @Autowired
+    public AccountFeatureStore(
+            MeterRegistry meterRegistry,
+            @Value("${fraud.features.capacity:1048576}") int capacity,
+            @Value("${fraud.features.rolling-window-minutes:60}") long rollingWindowMinutes,
+            @Value("${fraud.features.snapshot-file:${java.io.tmpdir}/fraud-account-features.snapshot}") String snapshotFile) {
+        this(capacity, TimeUnit.MINUTES.toMillis(rollingWindowMinutes), Path.of(snapshotFile), meterRegistry);
+    }
+    
+    /**
+     * @param capacity table slots, rounded up to a power of 2; size it at about twice the number of accounts
+     */
+    AccountFeatureStore(long capacity, long rollingWindowMillis, Path snapshotFile, MeterRegistry meterRegistry) {
+        if (capacity <= 0 || rollingWindowMillis <= 0) {
+            throw new IllegalArgumentException("capacity and rolling window must be positive");
+        }
+        long slots = Long.highestOneBit(Math.max(capacity, MAX_PROBES) - 1) << 1;
+        int shardSlots = (int) Math.min(slots, MAX_SHARD_SLOTS);
+        this.shards = new ByteBuffer[(int) (slots / shardSlots)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = ByteBuffer.allocateDirect(shardSlots * SLOT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        this.shardMask = shards.length - 1;
+        this.slotMask = shardSlots - 1;
+        this.rollingWindowMillis = rollingWindowMillis;
+        this.snapshotFile = snapshotFile;
+        
+        this.untrackedCounter = Counter.builder("fraud.features.untracked")
+                .description("Transactions not recorded because the account table was saturated")
+                .register(meterRegistry);
+        this.snapshotTimer = Timer.builder("fraud.features.snapshot.time")
+                .description("Time taken to write the account feature snapshot")
+                .register(meterRegistry);
+        Gauge.builder("fraud.features.accounts", accounts, AtomicLong::get)
+                .description("Accounts held in the feature store")
+                .register(meterRegistry);
+        
+        restore();
+        log.info("Account feature store initialized with {} slots off-heap ({} MB, {} accounts restored)",
+                slots, slots * SLOT_BYTES >> 20, accounts.get());
+    }
+    
+    /**
+     * Record a transaction in its account's features.
+     */
+    public void record(Transaction transaction) {
+        String accountId = transaction.getAccountId();
+        if (accountId == null) {
+            return;
+        }
+        long timestamp = transaction.getTimestamp() != null
+                ? transaction.getTimestamp().toEpochMilli()
+                : System.currentTimeMillis();
+        double amount = transaction.getAmount() != null ? transaction.getAmount().doubleValue() : 0;
+        record(IdHash.of(accountId), timestamp, amount,
+                IdHash.of(transaction.getLocation()), IdHash.of(transaction.getMerchantId()));
+    }
+    
+    /**
+     * Record a transaction held in a view in its account's features. Does not allocate.
+     */
+    public void record(TransactionView view) {
+        if (!view.hasAccountId()) {
+            return;
+        }
+        long timestamp = view.hasTimestamp() ? view.getTimestampMillis() : System.currentTimeMillis();
+        double amount = view.hasAmount() ? view.getAmountUnits() / UNITS_PER_AMOUNT : 0;
+        record(view.getAccountIdHash(), timestamp, amount, view.getLocationHash(), view.getMerchantIdHash());
+    }
+    
+    /**
+     * Copy an account's features. O(1) and lock-free; does not allocate.
+     * 
+     * @param accountId The account
+     * @param features Filled with the account's features, or cleared if the account is unknown
+     * @return true if the account is known
+     */
+    public boolean read(String accountId, AccountFeatures features) {
+        long key = IdHash.of(accountId);
+        ByteBuffer shard = shards[shardIndex(key)];
+        int offset = key != 0 ? slotOffset(shard, key, false) : -1;
+        if (offset < 0) {
+            features.clear();
+            return false;
+        }
+        
+        while (true) {
+            int version = (int) INT.getAcquire(shard, offset + LOCK);
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int count = shard.getInt(offset + COUNT);
+            long timestamp = shard.getLong(offset + TIMESTAMP);
+            double lastAmount = shard.getDouble(offset + LAST_AMOUNT);
+            long location = shard.getLong(offset + LOCATION);
+            long merchant = shard.getLong(offset + MERCHANT);
+            double decayedCount = shard.getDouble(offset + DECAYED_COUNT);
+            double decayedAmount = shard.getDouble(offset + DECAYED_AMOUNT);
+            VarHandle.loadLoadFence();
+            if ((int) INT.getAcquire(shard, offset + LOCK) != version) {
+                continue;
+            }
+            
+            if (count == 0) {
+                // Slot claimed, first transaction not recorded yet
+                features.clear();
+                return false;
+            }
+            features.set(count, timestamp, lastAmount, location, merchant,
+                    decayedCount, decayedAmount, rollingWindowMillis);
+            return true;
+        }
+    }
+    
+    /**
+     * Number of accounts held.
+     */
+    public long size() {
+        return accounts.get();
+    }
+    
+    /**
+     * Number of table slots, i.e. the hard limit on accounts held.
+     */
+    public long capacity() {
+        return (long) shards.length * (slotMask + 1);
+    }
+    
+    @Scheduled(fixedDelayString = "${fraud.features.snapshot-interval-ms:60000}",
+            initialDelayString = "${fraud.features.snapshot-interval-ms:60000}")
+    public void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write account feature snapshot {}: {}", snapshotFile, e.getMessage(), e);
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        scheduledSnapshot();
+    }
+    
+    /**
+     * Write every account to the snapshot file while updates continue. Each account
+     * is copied consistently; the snapshot as a whole is not a single point in time.
+     */
+    public synchronized void snapshot() throws IOException {
+        long start = System.nanoTime();
+        Path parent = snapshotFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            // Header is written last, once the record count is known
+            out.position(HEADER_BYTES);
+            
+            for (ByteBuffer shard : shards) {
+                for (int slot = 0; slot <= slotMask; slot++) {
+                    int offset = slot * SLOT_BYTES;
+                    if ((long) LONG.getAcquire(shard, offset + KEY) == 0) {
+                        continue;
+                    }
+                    if (out.remaining() < SLOT_BYTES) {
+                        drain(channel, out);
+                    }
+                    if (copySlot(shard, offset, out)) {
+                        written++;
+                    }
+                }
+            }
+            drain(channel, out);
+            
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MAGIC)
+                    .putInt(4, VERSION)
+                    .putLong(8, written)
+                    .putLong(16, System.currentTimeMillis());
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        long elapsed = System.nanoTime() - start;
+        snapshotTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Wrote features of {} accounts to {} in {} ms", written, snapshotFile, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+    
+    private void record(long key, long timestamp, double amount, long location, long merchant) {
+        ByteBuffer shard = shards[shardIndex(key)];
+        int offset = slotOffset(shard, key, true);
+        if (offset < 0) {
+            untrackedCounter.increment();
+            return;
+        }
+        
+        int version = lock(shard, offset);
+        try {
+            int count = shard.getInt(offset + COUNT);
+            long last = shard.getLong(offset + TIMESTAMP);
+            double decayedCount = shard.getDouble(offset + DECAYED_COUNT);
+            double decayedAmount = shard.getDouble(offset + DECAYED_AMOUNT);
+            if (count == 0 || timestamp >= last) {
+                // Decay the sums to the new latest time, then add
+                double decay = count == 0 ? 0 : Math.exp(-(timestamp - last) / rollingWindowMillis);
+                shard.putDouble(offset + DECAYED_COUNT, decayedCount * decay + 1);
+                shard.putDouble(offset + DECAYED_AMOUNT, decayedAmount * decay + amount);
+                shard.putLong(offset + TIMESTAMP, timestamp);
+                shard.putDouble(offset + LAST_AMOUNT, amount);
+                shard.putLong(offset + LOCATION, location);
+                shard.putLong(offset + MERCHANT, merchant);
+            } else {
+                // Late transaction: add it decayed to the latest time, leave the latest values alone
+                double decay = Math.exp(-(last - timestamp) / rollingWindowMillis);
+                shard.putDouble(offset + DECAYED_COUNT, decayedCount + decay);
+                shard.putDouble(offset + DECAYED_AMOUNT, decayedAmount + amount * decay);
+            }
+            shard.putInt(offset + COUNT, count < Integer.MAX_VALUE ? count + 1 : count);
+        } finally {
+            INT.setRelease(shard, offset + LOCK, version + 2);
+        }
+    }
+    
+    /**
+     * Take a slot's sequence lock.
+     * 
+     * @return the even version the lock had before
+     */
+    private static int lock(ByteBuffer shard, int offset) {
+        while (true) {
+            int version = (int) INT.getVolatile(shard, offset + LOCK);
+            if ((version & 1) == 0 && INT.compareAndSet(shard, offset + LOCK, version, version + 1)) {
+                return version;
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * Find the account's slot, claiming the first empty one in its probe range if
+     * it has none and {@code insert} is set.
+     * 
+     * @return byte offset of the slot in the shard, or -1
+     */
+    private int slotOffset(ByteBuffer shard, long key, boolean insert) {
+        int start = (int) key & slotMask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int offset = ((start + probe) & slotMask) * SLOT_BYTES;
+            long current = (long) LONG.getAcquire(shard, offset + KEY);
+            if (current == key) {
+                return offset;
+            }
+            if (current == 0) {
+                if (!insert) {
+                    // Slots are never emptied, so the account cannot sit past an empty slot
+                    return -1;
+                }
+                if (LONG.compareAndSet(shard, offset + KEY, 0L, key)) {
+                    accounts.incrementAndGet();
+                    return offset;
+                }
+                if ((long) LONG.getAcquire(shard, offset + KEY) == key) {
+                    return offset;
+                }
+            }
+        }
+        return -1;
+    }
+    
+    private int shardIndex(long key) {
+        return (int) (key >>> 40) & shardMask;
+    }
+    
+    /**
+     * Copy a slot into the output buffer with its lock word cleared.
+     * 
+     * @return false if the slot holds no transaction yet
+     */
+    private static boolean copySlot(ByteBuffer shard, int offset, ByteBuffer out) {
+        int position = out.position();
+        while (true) {
+            int version = (int) INT.getAcquire(shard, offset + LOCK);
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            out.put(position, shard, offset, SLOT_BYTES);
+            VarHandle.loadLoadFence();
+            if ((int) INT.getAcquire(shard, offset + LOCK) == version) {
+                break;
+            }
+        }
+        if (out.getInt(position + COUNT) == 0) {
+            return false;
+        }
+        out.putInt(position + LOCK, 0);
+        out.position(position + SLOT_BYTES);
+        return true;
+    }
+    
+    /**
+     * Load the snapshot file, if any. A missing or unreadable snapshot leaves the
+     * store cold; a truncated one keeps the accounts read before the end.
+     */
+    private void restore() {
+        if (!Files.exists(snapshotFile)) {
+            log.info("No account feature snapshot at {}, starting cold", snapshotFile);
+            return;
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            in.limit(0);
+            fill(channel, in, HEADER_BYTES);
+            if (in.getInt(0) != MAGIC) {
+                throw new IOException("Not an account feature snapshot");
+            }
+            if (in.getInt(4) != VERSION) {
+                throw new IOException("Unsupported snapshot version " + in.getInt(4));
+            }
+            long records = in.getLong(8);
+            Instant writtenAt = Instant.ofEpochMilli(in.getLong(16));
+            in.position(HEADER_BYTES);
+            
+            for (long i = 0; i < records; i++) {
+                fill(channel, in, SLOT_BYTES);
+                int position = in.position();
+                long key = in.getLong(position + KEY);
+                ByteBuffer shard = shards[shardIndex(key)];
+                int offset = slotOffset(shard, key, true);
+                if (offset >= 0) {
+                    shard.put(offset, in, position, SLOT_BYTES);
+                } else {
+                    untrackedCounter.increment();
+                }
+                in.position(position + SLOT_BYTES);
+            }
+            log.info("Restored features of {} accounts from {} (written {}) in {} ms",
+                    accounts.get(), snapshotFile, writtenAt, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to restore account features from {} ({} accounts loaded): {}",
+                    snapshotFile, accounts.get(), e.getMessage(), e);
+        }
+    }
+    
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+    
+    /**
+     * Make at least {@code bytes} readable in the input buffer.
+     */
+    private static void fill(FileChannel channel, ByteBuffer in, int bytes) throws IOException {
+        if (in.remaining() >= bytes) {
+            return;
+        }
+        in.compact();
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) {
+                throw new EOFException("Account feature snapshot is truncated");
+            }
+        }
+        in.flip();
+    }
+}
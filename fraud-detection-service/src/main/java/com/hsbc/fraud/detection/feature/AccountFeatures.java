@@ -0,0 +1,125 @@
+package com.hsbc.fraud.detection.feature;
+
+import com.hsbc.fraud.detection.model.IdHash;
+
+/**
+ * Mutable copy of one account's features, filled by {@link AccountFeatureStore#read}.
+ * 
+ * Rules keep one per thread and reuse it, so reading features does not allocate.
+ * Rolling values are exponentially decayed with the store's rolling window as time
+ * constant and are brought forward to the time asked for, usually the timestamp
+ * of the transaction being scored. Location and merchant are held as hashes of
+ * their names; compare them with {@link #isLastLocation} and {@link #isLastMerchant}.
+ */
+public final class AccountFeatures {
+    
+    private boolean present;
+    private long count;
+    private long lastTimestampMillis;
+    private double lastAmount;
+    private long lastLocationHash;
+    private long lastMerchantHash;
+    private double decayedCount;
+    private double decayedAmount;
+    private double rollingWindowMillis;
+    
+    void set(long count, long lastTimestampMillis, double lastAmount, long lastLocationHash, long lastMerchantHash,
+             double decayedCount, double decayedAmount, double rollingWindowMillis) {
+        this.present = true;
+        this.count = count;
+        this.lastTimestampMillis = lastTimestampMillis;
+        this.lastAmount = lastAmount;
+        this.lastLocationHash = lastLocationHash;
+        this.lastMerchantHash = lastMerchantHash;
+        this.decayedCount = decayedCount;
+        this.decayedAmount = decayedAmount;
+        this.rollingWindowMillis = rollingWindowMillis;
+    }
+    
+    void clear() {
+        present = false;
+        count = 0;
+        lastTimestampMillis = 0;
+        lastAmount = 0;
+        lastLocationHash = 0;
+        lastMerchantHash = 0;
+        decayedCount = 0;
+        decayedAmount = 0;
+    }
+    
+    /**
+     * Whether the account has been seen; all other values are zero or absent if not.
+     */
+    public boolean isPresent() {
+        return present;
+    }
+    
+    /**
+     * Transactions recorded for the account since it was first seen.
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    public long getLastTimestampMillis() {
+        return lastTimestampMillis;
+    }
+    
+    /**
+     * Time since the account's latest transaction, or Long.MAX_VALUE for an unknown account.
+     */
+    public long millisSinceLast(long nowMillis) {
+        return present ? Math.max(0, nowMillis - lastTimestampMillis) : Long.MAX_VALUE;
+    }
+    
+    /**
+     * Transactions in the rolling window before the given time (exponentially decayed).
+     */
+    public double rollingCount(long nowMillis) {
+        return decayedCount * decay(nowMillis);
+    }
+    
+    /**
+     * Total amount in the rolling window before the given time (exponentially decayed).
+     */
+    public double rollingAmount(long nowMillis) {
+        return decayedAmount * decay(nowMillis);
+    }
+    
+    public double getLastAmount() {
+        return lastAmount;
+    }
+    
+    /**
+     * Hash of the latest transaction's location, or 0 if it had none.
+     */
+    public long getLastLocationHash() {
+        return lastLocationHash;
+    }
+    
+    /**
+     * Whether the latest transaction was made at the given location.
+     */
+    public boolean isLastLocation(String location) {
+        return location != null && IdHash.of(location) == lastLocationHash;
+    }
+    
+    /**
+     * Hash of the latest transaction's merchant id, or 0 if it had none.
+     */
+    public long getLastMerchantHash() {
+        return lastMerchantHash;
+    }
+    
+    /**
+     * Whether the latest transaction was made with the given merchant.
+     */
+    public boolean isLastMerchant(String merchantId) {
+        return merchantId != null && IdHash.of(merchantId) == lastMerchantHash;
+    }
+    
+    private double decay(long nowMillis) {
+        long elapsed = nowMillis - lastTimestampMillis;
+        return present && elapsed > 0 ? Math.exp(-elapsed / rollingWindowMillis) : 1.0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.hsbc.fraud.detection.messaging;
+
+import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+
+/**
+ * Acknowledgement handle whose owner tracks completion itself instead of the
+ * broker redelivering the message: IntakeJournal retries or dead-letters rejected
+ * messages, MappedLogConsumer skips them. Leaving such a handle unacknowledged
+ * after a failure would stall its owner, so consumers reject it instead.
+ */
+public interface RejectableAcknowledgement extends Acknowledgement {
+    
+    /**
+     * Report that processing the message failed. Does not block.
+     * 
+     * @param cause The processing failure
+     */
+    void reject(Throwable cause);
+}
@@ -3,15 +3,19 @@ package com.hsbc.fraud.detection.messaging.aws;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hsbc.fraud.detection.disruptor.DisruptorService;
 import com.hsbc.fraud.detection.messaging.MessageConsumer;
+import com.hsbc.fraud.detection.messaging.journal.IntakeEntry;
+import com.hsbc.fraud.detection.messaging.journal.IntakeJournal;
 import com.hsbc.fraud.detection.model.Transaction;
 import io.awspring.cloud.sqs.annotation.SqsListener;
 import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
+
 /**
  * AWS SQS implementation of MessageConsumer.
  * Uses Spring Cloud AWS with manual acknowledgment and Disruptor for low-latency processing.
@@ -22,15 +26,44 @@ import org.springframework.stereotype.Component;
  * 3. Publish to Disruptor ring buffer
  * 4. Disruptor processes asynchronously
  * 5. Acknowledgment happens in event handler after successful processing
+ * 
+ * In raw ingest mode step 2 is skipped: the payload is published as-is and
+ * parsed on a Disruptor consumer thread.
+ * 
+ * With the intake journal enabled, each message is first appended to the local
+ * journal and the Disruptor gets the journal entry as its acknowledgement handle.
+ * The SQS message is acknowledged once the entry is on disk, and entries left
+ * unprocessed by a crash are replayed before the listener starts. SQS no longer
+ * redelivers such a message, so failures are retried by the journal instead,
+ * through {@link #publish}, and dead-lettered after the last attempt.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 @ConditionalOnProperty(name = "cloud.provider", havingValue = "aws")
 public class AwsSqsConsumer implements MessageConsumer {
     
     private final ObjectMapper objectMapper;
     private final DisruptorService disruptorService;
+    private final IntakeJournal intakeJournal;
+    
+    public AwsSqsConsumer(ObjectMapper objectMapper,
+                          DisruptorService disruptorService,
+                          ObjectProvider<IntakeJournal> intakeJournal) {
+        this.objectMapper = objectMapper;
+        this.disruptorService = disruptorService;
+        this.intakeJournal = intakeJournal.getIfAvailable();
+    }
+    
+    /**
+     * Publish the messages a previous run journaled but did not process, before
+     * SQS delivers anything new.
+     */
+    @PostConstruct
+    public void replayIntakeJournal() {
+        if (intakeJournal != null) {
+            intakeJournal.replay(this::publish);
+        }
+    }
     
     @Override
     public void startListening() {
@@ -49,7 +82,35 @@ public class AwsSqsConsumer implements MessageConsumer {
         String payload = message.getPayload();
         log.debug("Received message from SQS, publishing to Disruptor ring buffer");
         
+        IntakeEntry entry = intakeJournal != null ? intakeJournal.append(payload) : null;
+        if (entry == null) {
+            publish(payload, acknowledgement);
+            return;
+        }
+        
+        if (publish(payload, entry)) {
+            // Acknowledged to SQS as soon as the entry is on disk, usually long before it is processed
+            intakeJournal.acknowledgeWhenDurable(entry, acknowledgement);
+        } else {
+            // Left to SQS redelivery; mark the entry done so it is not replayed as well
+            entry.acknowledge();
+        }
+    }
+    
+    /**
+     * Publish a message to the Disruptor ring buffer with its acknowledgement handle.
+     * 
+     * @return false if the message is left for redelivery, true if it was published
+     *         or acknowledged as bad data
+     */
+    private boolean publish(String payload, Acknowledgement acknowledgement) {
         try {
+            if (disruptorService.isRawIngest()) {
+                // Parsing (and acknowledgement of bad JSON) happens in the Disruptor parse stage
+                disruptorService.publishRawEvent(payload, acknowledgement);
+                return true;
+            }
+            
             // Parse transaction
             Transaction transaction = objectMapper.readValue(payload, Transaction.class);
             
@@ -58,18 +119,22 @@ public class AwsSqsConsumer implements MessageConsumer {
             disruptorService.publishEvent(transaction, acknowledgement);
             
             log.debug("Transaction {} published to Disruptor", transaction.getTransactionId());
+            return true;
             
         } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
             log.error("Failed to parse transaction JSON: {}", payload, e);
             // Invalid JSON - acknowledge to remove from queue (don't retry bad data)
             acknowledgement.acknowledge();
+            return true;
             
         } catch (IllegalStateException e) {
             log.error("Ring buffer is full, message will be retried: {}", e.getMessage());
             // Don't acknowledge - let SQS retry after visibility timeout            
+            return false;
         } catch (Exception e) {
             log.error("Unexpected error processing SQS message: {}", payload, e);
             // Don't acknowledge - let SQS retry or move to DLQ after max attempts
+            return false;
         }
     }
 }
@@ -0,0 +1,64 @@
+package com.hsbc.fraud.detection.messaging.journal;
+
+import com.hsbc.fraud.detection.messaging.RejectableAcknowledgement;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A message in the IntakeJournal, handed to the Disruptor in place of the SQS
+ * acknowledgement handle. Acknowledging it marks the record PROCESSED, so it
+ * is not replayed after a restart; the SQS message itself is acknowledged by
+ * the journal once the record is on disk. Rejecting it hands the message back
+ * to the journal for a retry, since SQS will not redeliver it.
+ */
+public final class IntakeEntry implements RejectableAcknowledgement {
+    
+    private final IntakeJournal journal;
+    private final IntakeSegment segment;
+    private final int offset;
+    
+    /**
+     * Failed processing attempts since startup. Only one thread holds the entry at a
+     * time; it changes hands through the journal's retry queue and the ring buffer.
+     */
+    private int failures;
+    
+    IntakeEntry(IntakeJournal journal, IntakeSegment segment, int offset) {
+        this.journal = journal;
+        this.segment = segment;
+        this.offset = offset;
+    }
+    
+    @Override
+    public void acknowledge() {
+        segment.setState(offset, IntakeSegment.PROCESSED);
+    }
+    
+    @Override
+    public CompletableFuture<Void> acknowledgeAsync() {
+        acknowledge();
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    @Override
+    public void reject(Throwable cause) {
+        failures++;
+        journal.reject(this);
+    }
+    
+    IntakeSegment getSegment() {
+        return segment;
+    }
+    
+    int getOffset() {
+        return offset;
+    }
+    
+    int getFailures() {
+        return failures;
+    }
+    
+    String message() {
+        return segment.message(offset);
+    }
+}
@@ -0,0 +1,444 @@
+package com.hsbc.fraud.detection.messaging.journal;
+
+import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import io.awspring.cloud.sqs.operations.SqsTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Local write-ahead journal of the messages taken off SQS, so they can be
+ * acknowledged to SQS as soon as they are on disk instead of after processing.
+ * 
+ * Without it, a crash leaves everything in the ring buffer and executor queue
+ * unacknowledged, and SQS only redelivers it after the visibility timeout. With it,
+ * the listener appends each message to a memory-mapped segment (see IntakeSegment)
+ * and hands the Disruptor an {@link IntakeEntry} in place of the SQS handle; the
+ * existing acknowledgement points then mark the record PROCESSED. On startup,
+ * {@link #replay} feeds the records that were never processed back to the
+ * Disruptor, straight from local disk.
+ * 
+ * Group commit: a flusher thread wakes every flush-interval-micros, forces the
+ * records appended since its last round to disk with one msync, and only then
+ * acknowledges their SQS messages, so one disk flush covers every message that
+ * arrived in the interval. Appends are serialized by a short lock around the copy
+ * into the mapped file, which keeps every segment a prefix of complete records.
+ * 
+ * SQS no longer redelivers a journaled message, so the journal retries it instead:
+ * a failed entry is rejected back to the journal, and the flusher republishes it
+ * after retry-backoff-millis, up to max-attempts processing attempts in all. After
+ * the last one it sends the message to the dead-letter queue and marks the record
+ * FAILED. A replayed record that is still unfinished at the next start (the service
+ * stopped again while processing or retrying it) goes to the dead-letter queue too.
+ * Segments are deleted by the flusher once all their records are PROCESSED or FAILED.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cloud.aws.sqs.intake-journal.enabled", havingValue = "true")
+public class IntakeJournal {
+    
+    private final Path directory;
+    private final int segmentBytes;
+    private final long flushIntervalNanos;
+    private final int maxAttempts;
+    private final long retryBackoffNanos;
+    private final DeadLetterQueue deadLetterQueue;
+    
+    /**
+     * Oldest first; the last one is the segment being appended to.
+     */
+    private final ConcurrentLinkedDeque<IntakeSegment> segments = new ConcurrentLinkedDeque<>();
+    private final ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Rejected> rejected = new ConcurrentLinkedQueue<>();
+    private volatile List<IntakeSegment> recovered;
+    private volatile IntakeSegment current;
+    private volatile BiPredicate<String, IntakeEntry> publisher;
+    
+    private final Counter appendedCounter;
+    private final Counter failedCounter;
+    private final Counter replayedCounter;
+    private final Counter retriedCounter;
+    private final Counter deadLetteredCounter;
+    private final DistributionSummary commitSizeSummary;
+    
+    private final Thread flusher;
+    private volatile boolean running = true;
+    
+    @Autowired
+    public IntakeJournal(
+            MeterRegistry meterRegistry,
+            @Value("${cloud.aws.sqs.intake-journal.directory:${java.io.tmpdir}/fraud-intake-journal}") String directory,
+            @Value("${cloud.aws.sqs.intake-journal.segment-megabytes:64}") int segmentMegabytes,
+            @Value("${cloud.aws.sqs.intake-journal.flush-interval-micros:1000}") long flushIntervalMicros,
+            @Value("${cloud.aws.sqs.intake-journal.max-attempts:${cloud.aws.sqs.max-receive-count:3}}") int maxAttempts,
+            @Value("${cloud.aws.sqs.intake-journal.retry-backoff-millis:1000}") long retryBackoffMillis,
+            @Value("${cloud.aws.sqs.dlq-name}") String deadLetterQueueName,
+            SqsTemplate sqsTemplate) throws IOException {
+        this(Path.of(directory), segmentMegabytes << 20, TimeUnit.MICROSECONDS.toNanos(flushIntervalMicros),
+                maxAttempts, TimeUnit.MILLISECONDS.toNanos(retryBackoffMillis),
+                message -> sqsTemplate.sendAsync(deadLetterQueueName, message), meterRegistry);
+    }
+    
+    IntakeJournal(Path directory, int segmentBytes, long flushIntervalNanos, int maxAttempts, long retryBackoffNanos,
+                  DeadLetterQueue deadLetterQueue, MeterRegistry meterRegistry) throws IOException {
+        if (segmentBytes <= IntakeSegment.HEADER_BYTES) {
+            throw new IllegalArgumentException("Intake journal segments must be larger than their header");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Intake journal entries need at least one processing attempt");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.flushIntervalNanos = Math.max(1, flushIntervalNanos);
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffNanos = retryBackoffNanos;
+        this.deadLetterQueue = deadLetterQueue;
+        
+        this.recovered = openSegments();
+        segments.addAll(recovered);
+        long next = recovered.isEmpty() ? 0 : recovered.get(recovered.size() - 1).getIndex() + 1;
+        this.current = createSegment(next);
+        
+        this.appendedCounter = Counter.builder("intake.journal.appended")
+                .description("Messages written to the intake journal")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("intake.journal.failed")
+                .description("Messages that could not be written to the intake journal and wait for processing before acknowledgement")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder("intake.journal.replayed")
+                .description("Unprocessed messages replayed from the intake journal on startup")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("intake.journal.retried")
+                .description("Journaled messages republished after failed processing")
+                .register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("intake.journal.dead.lettered")
+                .description("Journaled messages sent to the dead-letter queue after their last attempt")
+                .register(meterRegistry);
+        this.commitSizeSummary = DistributionSummary.builder("intake.journal.commit.size")
+                .description("Messages made durable and acknowledged per disk flush")
+                .register(meterRegistry);
+        Gauge.builder("intake.journal.segments", segments, ConcurrentLinkedDeque::size)
+                .description("Intake journal files retained")
+                .register(meterRegistry);
+        
+        this.flusher = new Thread(this::flushLoop, "intake-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        
+        log.info("Intake journal opened in {} ({} segments to recover, {} MB per segment, flush every {} us, {} attempts)",
+                directory, recovered.size(), segmentBytes >> 20, TimeUnit.NANOSECONDS.toMicros(this.flushIntervalNanos),
+                maxAttempts);
+    }
+    
+    /**
+     * Write a message to the journal. Never throws; failures are logged and counted.
+     * 
+     * @param message The raw message payload
+     * @return the journal entry, or null if the message could not be written
+     */
+    public IntakeEntry append(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        try {
+            synchronized (this) {
+                int offset = current.append(bytes);
+                if (offset < 0 && current.getTail() > IntakeSegment.HEADER_BYTES) {
+                    roll();
+                    offset = current.append(bytes);
+                }
+                if (offset < 0) {
+                    throw new IOException("Message of " + bytes.length + " bytes does not fit in a journal segment");
+                }
+                appendedCounter.increment();
+                return new IntakeEntry(this, current, offset);
+            }
+            
+        } catch (IOException | RuntimeException e) {
+            failedCounter.increment();
+            log.error("Failed to write message to the intake journal: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+    
+    /**
+     * Acknowledge a message to SQS once its journal entry has been forced to disk.
+     * 
+     * @param entry The entry returned by {@link #append}
+     * @param acknowledgement The message's SQS acknowledgement handle
+     */
+    public void acknowledgeWhenDurable(IntakeEntry entry, Acknowledgement acknowledgement) {
+        pending.add(new Pending(entry, acknowledgement));
+    }
+    
+    /**
+     * Hand every record that was not processed before the last shutdown to the
+     * publisher, oldest first, and keep the publisher for retries. Records replayed
+     * and not finished at an earlier startup are sent to the dead-letter queue
+     * instead. Only the first call replays anything.
+     * 
+     * @param publisher Publishes a message to the Disruptor with its entry as acknowledgement
+     *                  handle, returning false if it could not
+     * @return the number of records replayed
+     */
+    public int replay(BiPredicate<String, IntakeEntry> publisher) {
+        this.publisher = publisher;
+        List<IntakeSegment> toReplay = recovered;
+        recovered = List.of();
+        long started = System.nanoTime();
+        int replayed = 0;
+        int deadLettered = 0;
+        for (IntakeSegment segment : toReplay) {
+            int tail = segment.getTail();
+            for (int offset = IntakeSegment.HEADER_BYTES; offset < tail; offset = segment.next(offset)) {
+                int state = segment.state(offset);
+                if (state == IntakeSegment.WRITTEN) {
+                    segment.setState(offset, IntakeSegment.REPLAYED);
+                    IntakeEntry entry = new IntakeEntry(this, segment, offset);
+                    if (!publisher.test(entry.message(), entry)) {
+                        retryLater(entry, false);
+                    }
+                    replayed++;
+                } else if (state == IntakeSegment.REPLAYED) {
+                    deadLetter(new IntakeEntry(this, segment, offset));
+                    deadLettered++;
+                }
+            }
+        }
+        replayedCounter.increment(replayed);
+        if (deadLettered > 0) {
+            log.warn("Sending {} intake journal entries that were replayed before and still not processed to the dead-letter queue",
+                    deadLettered);
+        }
+        if (!toReplay.isEmpty()) {
+            log.info("Replayed {} unprocessed messages from {} intake journal segments in {} ms",
+                    replayed, toReplay.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        return replayed;
+    }
+    
+    /**
+     * Stop the flusher after a last group commit, so every message accepted so far
+     * is acknowledged to SQS.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        log.info("Intake journal closed");
+    }
+    
+    /**
+     * Called by {@link IntakeEntry#reject} when processing fails.
+     */
+    void reject(IntakeEntry entry) {
+        retryLater(entry, entry.getFailures() >= maxAttempts);
+    }
+    
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (running) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            flush(batch);
+            retryRejected();
+        }
+        flush(batch);
+    }
+    
+    /**
+     * One group commit: force the segments of the pending entries, then acknowledge
+     * them to SQS. Entries are queued only after their record is complete, so the
+     * force covers them. If it fails, the messages are left to SQS redelivery.
+     */
+    private void flush(List<Pending> batch) {
+        try {
+            Pending next;
+            while ((next = pending.poll()) != null) {
+                batch.add(next);
+            }
+            if (!batch.isEmpty()) {
+                IntakeSegment forced = null;
+                for (Pending entry : batch) {
+                    if (entry.entry().getSegment() != forced) {
+                        forced = entry.entry().getSegment();
+                        forced.force();
+                    }
+                }
+                for (Pending entry : batch) {
+                    // Queued in the container's acknowledgement processor and deleted in batches
+                    entry.acknowledgement().acknowledgeAsync();
+                }
+                commitSizeSummary.record(batch.size());
+            }
+            deleteProcessedSegments();
+            
+        } catch (RuntimeException e) {
+            log.error("Intake journal flush failed, {} messages are left to SQS redelivery: {}",
+                    batch.size(), e.getMessage(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+    
+    /**
+     * Republish the rejected entries whose backoff has passed, and dead-letter those
+     * out of attempts. Entries still waiting at shutdown keep their state on disk and
+     * are handled by the next {@link #replay}. Republishing waits while the ring buffer
+     * is full, which also holds back the next group commit.
+     */
+    private void retryRejected() {
+        BiPredicate<String, IntakeEntry> publish = publisher;
+        if (publish == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        Rejected next;
+        while ((next = rejected.peek()) != null && now - next.retryAt() >= 0) {
+            rejected.poll();
+            IntakeEntry entry = next.entry();
+            if (next.deadLetter()) {
+                deadLetter(entry);
+                continue;
+            }
+            try {
+                if (publish.test(entry.message(), entry)) {
+                    retriedCounter.increment();
+                    log.warn("Retrying journaled message after {} of {} attempts failed", entry.getFailures(), maxAttempts);
+                } else {
+                    retryLater(entry, false);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to republish journaled message, trying again in {} ms: {}",
+                        TimeUnit.NANOSECONDS.toMillis(retryBackoffNanos), e.getMessage(), e);
+                retryLater(entry, false);
+            }
+        }
+    }
+    
+    private void retryLater(IntakeEntry entry, boolean deadLetter) {
+        rejected.add(new Rejected(entry, System.nanoTime() + retryBackoffNanos, deadLetter));
+    }
+    
+    /**
+     * Send the entry's message to the dead-letter queue and mark it FAILED once sent.
+     * If the send fails, it is tried again after the retry backoff.
+     */
+    private void deadLetter(IntakeEntry entry) {
+        CompletableFuture<?> sent;
+        try {
+            sent = deadLetterQueue.send(entry.message());
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((result, e) -> {
+            if (e == null) {
+                entry.getSegment().setState(entry.getOffset(), IntakeSegment.FAILED);
+                deadLetteredCounter.increment();
+                log.error("Sent journaled message to the dead-letter queue ({} failed attempts since startup)",
+                        entry.getFailures());
+            } else {
+                log.error("Failed to send journaled message to the dead-letter queue, trying again in {} ms: {}",
+                        TimeUnit.NANOSECONDS.toMillis(retryBackoffNanos), e.getMessage(), e);
+                retryLater(entry, true);
+            }
+        });
+    }
+    
+    /**
+     * Called with the append lock held.
+     */
+    private void roll() throws IOException {
+        current = createSegment(current.getIndex() + 1);
+    }
+    
+    private IntakeSegment createSegment(long index) throws IOException {
+        IntakeSegment segment = IntakeSegment.create(segmentPath(index), index, segmentBytes);
+        segments.add(segment);
+        return segment;
+    }
+    
+    /**
+     * Delete every segment but the current one whose records are all processed or failed.
+     * Segments still waiting for {@link #replay} are kept.
+     */
+    private void deleteProcessedSegments() {
+        List<IntakeSegment> replaying = recovered;
+        IntakeSegment appending = current;
+        Iterator<IntakeSegment> iterator = segments.iterator();
+        while (iterator.hasNext()) {
+            IntakeSegment segment = iterator.next();
+            if (segment.getIndex() >= appending.getIndex()) {
+                break;
+            }
+            if (!replaying.contains(segment) && segment.isFullyProcessed()) {
+                try {
+                    Files.deleteIfExists(segment.getPath());
+                    iterator.remove();
+                    log.debug("Deleted processed intake journal segment {}", segment.getPath());
+                } catch (IOException e) {
+                    log.warn("Failed to delete processed intake journal segment {}: {}", segment.getPath(), e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private List<IntakeSegment> openSegments() throws IOException {
+        List<IntakeSegment> opened = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(file -> file.getFileName().toString().endsWith(IntakeSegment.SUFFIX))
+                    .sorted()
+                    .toList()) {
+                String name = path.getFileName().toString();
+                long index = Long.parseLong(name.substring(0, name.length() - IntakeSegment.SUFFIX.length()));
+                try {
+                    opened.add(IntakeSegment.open(path, index));
+                } catch (IOException e) {
+                    // Moved aside, so its index is not reused by a later roll
+                    Path corrupt = path.resolveSibling(name + ".corrupt");
+                    log.error("Moving unreadable intake journal segment {} to {}", path, corrupt, e);
+                    Files.move(path, corrupt, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        return opened;
+    }
+    
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%09d%s", index, IntakeSegment.SUFFIX));
+    }
+    
+    /**
+     * Where messages go after their last attempt.
+     */
+    interface DeadLetterQueue {
+        CompletableFuture<?> send(String message);
+    }
+    
+    private record Pending(IntakeEntry entry, Acknowledgement acknowledgement) {
+    }
+    
+    private record Rejected(IntakeEntry entry, long retryAt, boolean deadLetter) {
+    }
+}
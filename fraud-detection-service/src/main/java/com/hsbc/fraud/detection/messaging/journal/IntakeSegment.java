@@ -0,0 +1,209 @@
+package com.hsbc.fraud.detection.messaging.journal;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One memory-mapped file of the IntakeJournal.
+ * 
+ * Layout, little-endian:
+ * <pre>
+ *   header   magic "FIJL", version, capacity in bytes (all int), segment index (long), zeros up to 64 bytes
+ *   records  state (int), length (int), UTF-8 message, zero padding to a multiple of 8 bytes
+ * </pre>
+ * The state of a record only moves forward: WRITTEN once the message is complete,
+ * REPLAYED when it has been handed to the Disruptor again after a restart, and
+ * PROCESSED once the Disruptor is done with it, or FAILED once it has been sent to
+ * the dead-letter queue after its last attempt. A state of EMPTY ends the segment.
+ * 
+ * Appends are not thread-safe; the journal serializes them. State changes are
+ * single release stores and may come from any thread.
+ */
+final class IntakeSegment {
+    
+    static final String SUFFIX = ".intake";
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_HEADER_BYTES = 8;
+    
+    static final int EMPTY = 0;
+    static final int WRITTEN = 1;
+    static final int REPLAYED = 2;
+    static final int PROCESSED = 3;
+    static final int FAILED = 4;
+    
+    private static final int MAGIC = 0x4C4A4946; // "FIJL" little-endian
+    private static final int VERSION = 1;
+    
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    
+    private final long index;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    
+    /**
+     * End of the last complete record; only advanced by the appending thread.
+     */
+    private volatile int tail;
+    
+    /**
+     * Start of the oldest record that may not be processed yet; only used by the journal's flusher.
+     */
+    private int cleanedTo = HEADER_BYTES;
+    
+    /**
+     * End of the range already forced to disk; only used by the journal's flusher.
+     */
+    private int forcedTo = HEADER_BYTES;
+    
+    private IntakeSegment(long index, Path path, MappedByteBuffer buffer) {
+        this.index = index;
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+        this.tail = HEADER_BYTES;
+    }
+    
+    static IntakeSegment create(Path path, long index, int capacity) throws IOException {
+        MappedByteBuffer buffer = map(path, capacity);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, capacity);
+        buffer.putLong(16, index);
+        INT.setRelease(buffer, 0, MAGIC);
+        buffer.force(0, HEADER_BYTES);
+        return new IntakeSegment(index, path, buffer);
+    }
+    
+    /**
+     * Map an existing segment and find the end of its complete records. A record
+     * torn by a crash is never marked WRITTEN, so it ends the segment.
+     */
+    static IntakeSegment open(Path path, long index) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Intake journal segment " + path + " is truncated");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if ((int) INT.getAcquire(buffer, 0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != buffer.capacity()) {
+            throw new IOException("Not an intake journal segment: " + path);
+        }
+        
+        IntakeSegment segment = new IntakeSegment(index, path, buffer);
+        int offset = HEADER_BYTES;
+        while (segment.isRecord(offset)) {
+            offset = segment.next(offset);
+        }
+        segment.tail = offset;
+        segment.forcedTo = offset;
+        return segment;
+    }
+    
+    /**
+     * Write a message and mark it WRITTEN.
+     * 
+     * @return the record's offset, or -1 if the segment has no room for it
+     */
+    int append(byte[] message) {
+        int offset = tail;
+        int end = offset + recordBytes(message.length);
+        if (end > capacity) {
+            return -1;
+        }
+        buffer.putInt(offset + Integer.BYTES, message.length);
+        buffer.put(offset + RECORD_HEADER_BYTES, message);
+        INT.setRelease(buffer, offset, WRITTEN);
+        tail = end;
+        return offset;
+    }
+    
+    int state(int offset) {
+        return (int) INT.getAcquire(buffer, offset);
+    }
+    
+    void setState(int offset, int state) {
+        INT.setRelease(buffer, offset, state);
+    }
+    
+    String message(int offset) {
+        byte[] bytes = new byte[buffer.getInt(offset + Integer.BYTES)];
+        buffer.get(offset + RECORD_HEADER_BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Offset of the record after the one at the given offset.
+     */
+    int next(int offset) {
+        return offset + recordBytes(buffer.getInt(offset + Integer.BYTES));
+    }
+    
+    /**
+     * Whether a complete record starts at the offset.
+     */
+    boolean isRecord(int offset) {
+        if (offset + RECORD_HEADER_BYTES > capacity || state(offset) == EMPTY) {
+            return false;
+        }
+        int length = buffer.getInt(offset + Integer.BYTES);
+        return length > 0 && length <= capacity - offset - RECORD_HEADER_BYTES;
+    }
+    
+    /**
+     * Whether every record up to the tail is PROCESSED or FAILED. Advances past
+     * finished records, so repeated calls only look at records not seen finished before.
+     */
+    boolean isFullyProcessed() {
+        int end = tail;
+        while (cleanedTo < end && state(cleanedTo) >= PROCESSED) {
+            cleanedTo = next(cleanedTo);
+        }
+        return cleanedTo >= end;
+    }
+    
+    /**
+     * Force the records written since the last call to disk.
+     */
+    void force() {
+        int end = tail;
+        if (end > forcedTo) {
+            buffer.force(forcedTo, end - forcedTo);
+            forcedTo = end;
+        }
+    }
+    
+    long getIndex() {
+        return index;
+    }
+    
+    Path getPath() {
+        return path;
+    }
+    
+    int getTail() {
+        return tail;
+    }
+    
+    private static int recordBytes(int length) {
+        return (RECORD_HEADER_BYTES + length + 7) & ~7;
+    }
+    
+    private static MappedByteBuffer map(Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+}
@@ -6,14 +6,17 @@ import com.hsbc.fraud.detection.messaging.MessageConsumer;
 import com.hsbc.fraud.detection.model.Transaction;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Local in-memory implementation of MessageConsumer for development/testing.
@@ -21,44 +24,67 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * Uses Disruptor for low-latency processing, consistent with AwsSqsConsumer.
  * 
  * Flow:
- * 1. Receive message from local queue
- * 2. Parse transaction
- * 3. Publish to Disruptor ring buffer
+ * 1. Drain up to batch-size messages from the bounded local queue
+ * 2. Parse transactions
+ * 3. Publish them to the Disruptor ring buffer with one batch claim
  * 4. Disruptor processes asynchronously
+ * 
+ * Nothing is dropped under load: a full ring buffer blocks the batch claim,
+ * the queue fills up, and {@link MpscMessageQueue#put} makes publishers wait,
+ * like an SQS queue that grows while the listener is saturated.
  */
 @Slf4j
 @Component
 @ConditionalOnProperty(name = "cloud.provider", havingValue = "local", matchIfMissing = true)
 public class LocalMessageConsumer implements MessageConsumer {
     
+    static final int SHARED_QUEUE_CAPACITY = 65_536;
+    static final int DEFAULT_BATCH_SIZE = 256;
+    
+    private static final int SPIN_TRIES = 1_000;
+    private static final int YIELD_TRIES = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    
     private final ObjectMapper objectMapper;
     private final DisruptorService disruptorService;
     
     // Shared queue with producer for local testing
-    private static final BlockingQueue<String> SHARED_MESSAGE_QUEUE = new LinkedBlockingQueue<>();
-    private final BlockingQueue<String> messageQueue;
+    private static final MpscMessageQueue SHARED_MESSAGE_QUEUE = new MpscMessageQueue(SHARED_QUEUE_CAPACITY);
+    private final MpscMessageQueue messageQueue;
+    private final int batchSize;
     
     private final AtomicBoolean running = new AtomicBoolean(false);
     private Thread consumerThread;
     
-    @Autowired
     public LocalMessageConsumer(ObjectMapper objectMapper, DisruptorService disruptorService) {
-        this(objectMapper, disruptorService, SHARED_MESSAGE_QUEUE);
+        this(objectMapper, disruptorService, SHARED_MESSAGE_QUEUE, DEFAULT_BATCH_SIZE);
+    }
+    
+    @Autowired
+    public LocalMessageConsumer(ObjectMapper objectMapper,
+                                DisruptorService disruptorService,
+                                @Value("${cloud.local.batch-size:256}") int batchSize) {
+        this(objectMapper, disruptorService, SHARED_MESSAGE_QUEUE, batchSize);
     }
     
     LocalMessageConsumer(ObjectMapper objectMapper,
                          DisruptorService disruptorService,
-                         BlockingQueue<String> messageQueue) {
+                         MpscMessageQueue messageQueue,
+                         int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
         this.objectMapper = objectMapper;
         this.disruptorService = disruptorService;
         this.messageQueue = messageQueue;
+        this.batchSize = batchSize;
     }
     
     @PostConstruct
     @Override
     public void startListening() {
         if (running.compareAndSet(false, true)) {
-            log.info("Starting local message consumer with Disruptor processing");
+            log.info("Starting local message consumer with Disruptor processing (batch size: {})", batchSize);
             consumerThread = new Thread(this::consumeMessages);
             consumerThread.setName("LocalMessageConsumer");
             consumerThread.setDaemon(true);
@@ -76,52 +102,73 @@ public class LocalMessageConsumer implements MessageConsumer {
     }
     
     private void consumeMessages() {
+        List<String> batch = new ArrayList<>(batchSize);
+        int idle = 0;
         while (running.get()) {
-            try {
-                String message = messageQueue.take();
-                log.debug("Received message from local queue, publishing to Disruptor ring buffer");
-                
-                processMessage(message);
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+            if (messageQueue.drainTo(batch, batchSize) == 0) {
+                idle(idle++);
+                continue;
             }
+            idle = 0;
+            log.debug("Drained {} messages from local queue, publishing to Disruptor ring buffer", batch.size());
+            
+            processBatch(batch);
+            batch.clear();
         }
     }
     
     /**
-     * Process a message from the local queue.
-     * Mirrors the logic from AwsSqsConsumer for consistency.
+     * Spin, then yield, then park briefly while the queue is empty.
+     * Publishers never signal the consumer, so enqueueing stays lock-free.
+     */
+    private void idle(int count) {
+        if (count < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (count < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+    
+    /**
+     * Process a batch of messages from the local queue.
+     * Mirrors the logic from AwsSqsConsumer for consistency: invalid JSON is
+     * logged and skipped, the rest is published to the Disruptor in order.
+     * Blocks while the ring buffer is full.
      * 
-     * @param payload the JSON message payload
+     * @param payloads the JSON message payloads
      */
-    void processMessage(String payload) {
+    void processBatch(List<String> payloads) {
         try {
-            // Parse transaction
-            Transaction transaction = objectMapper.readValue(payload, Transaction.class);
-            
-            // Publish to Disruptor ring buffer
-            // No acknowledgement needed for local queue (null)
-            disruptorService.publishEvent(transaction, null);
-            
-            log.debug("Transaction {} published to Disruptor", transaction.getTransactionId());
+            if (disruptorService.isRawIngest()) {
+                // Parsed on a Disruptor consumer thread
+                disruptorService.publishRawEvents(payloads);
+                return;
+            }
             
-        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
-            log.error("Failed to parse transaction JSON: {}", payload, e);
-            // Invalid JSON - skip (equivalent to acknowledging bad data in SQS)
+            List<Transaction> transactions = new ArrayList<>(payloads.size());
+            for (String payload : payloads) {
+                try {
+                    transactions.add(objectMapper.readValue(payload, Transaction.class));
+                    
+                } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+                    log.error("Failed to parse transaction JSON: {}", payload, e);
+                    // Invalid JSON - skip (equivalent to acknowledging bad data in SQS)
+                }
+            }
             
-        } catch (IllegalStateException e) {
-            log.error("Ring buffer is full, message will be dropped: {}", e.getMessage());
-            // For local testing, we just log and continue
-            // In production (SQS), message would be retried
+            // No acknowledgement needed for local queue
+            if (!transactions.isEmpty()) {
+                disruptorService.publishEvents(transactions);
+            }
             
         } catch (Exception e) {
-            log.error("Unexpected error processing local message: {}", payload, e);
+            log.error("Unexpected error publishing {} local messages", payloads.size(), e);
         }
     }
     
-    public static BlockingQueue<String> getMessageQueue() {
+    public static MpscMessageQueue getMessageQueue() {
         return SHARED_MESSAGE_QUEUE;
     }
     
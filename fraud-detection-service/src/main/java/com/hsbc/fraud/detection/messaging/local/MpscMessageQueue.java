@@ -0,0 +1,172 @@
+package com.hsbc.fraud.detection.messaging.local;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, lock-free multi-producer single-consumer queue for the local transport.
+ *
+ * Each slot carries a sequence number (Vyukov's bounded queue): producers claim
+ * a slot with a CAS on the tail and publish it by advancing the slot's sequence
+ * with release semantics; the single consumer reads slots in order without any
+ * CAS and hands them back by advancing the sequence a lap ahead.
+ *
+ * {@link #put} applies backpressure when the queue is full: the producer spins,
+ * yields, then parks briefly until the consumer frees a slot, instead of the
+ * message being dropped or the queue growing without bound. Neither side is
+ * woken explicitly; both poll, so there are no locks or signals on the hot path.
+ *
+ * {@link #poll}, {@link #drainTo} and {@link #clear} must only be called by one
+ * consumer thread at a time.
+ */
+public final class MpscMessageQueue {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 10;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final String[] messages;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity maximum number of queued messages, rounded up to a power of two
+     */
+    public MpscMessageQueue(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30");
+        }
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.sequences = new AtomicLongArray(this.capacity);
+        this.messages = new String[this.capacity];
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Enqueue a message if there is room.
+     *
+     * @return false if the queue is full
+     */
+    public boolean offer(String message) {
+        if (message == null) {
+            throw new NullPointerException("message");
+        }
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long available = sequences.getAcquire(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    messages[index] = message;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                // The consumer has not freed this slot yet: a full lap behind
+                return false;
+            } else {
+                // Another producer claimed the slot first
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Enqueue a message, waiting while the queue is full.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void put(String message) throws InterruptedException {
+        int tries = 0;
+        while (!offer(message)) {
+            if (tries < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            tries++;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Dequeue the next message; consumer thread only.
+     *
+     * @return the message, or null if the queue is empty
+     */
+    public String poll() {
+        long position = head.get();
+        int index = (int) (position & mask);
+        if (sequences.getAcquire(index) != position + 1) {
+            return null;
+        }
+        String message = messages[index];
+        messages[index] = null;
+        sequences.setRelease(index, position + capacity);
+        head.setRelease(position + 1);
+        return message;
+    }
+
+    /**
+     * Move up to max queued messages into the batch, in order; consumer thread only.
+     *
+     * @return the number of messages added
+     */
+    public int drainTo(List<String> batch, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) ((position + drained) & mask);
+            if (sequences.getAcquire(index) != position + drained + 1) {
+                break;
+            }
+            batch.add(messages[index]);
+            messages[index] = null;
+            sequences.setRelease(index, position + drained + capacity);
+            drained++;
+        }
+        if (drained > 0) {
+            head.setRelease(position + drained);
+        }
+        return drained;
+    }
+
+    /**
+     * Discard all queued messages; consumer thread only.
+     */
+    public void clear() {
+        while (poll() != null) {
+            // Discard
+        }
+    }
+
+    /**
+     * Approximate number of queued messages, including slots claimed but not yet filled.
+     */
+    public int size() {
+        long size = tail.get() - head.getAcquire();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,219 @@
+package com.hsbc.fraud.detection.messaging.mapped;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.fraud.detection.disruptor.DisruptorService;
+import com.hsbc.fraud.detection.messaging.MessageConsumer;
+import com.hsbc.fraud.detection.messaging.RejectableAcknowledgement;
+import com.hsbc.fraud.detection.model.Transaction;
+import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * MessageConsumer that tails the memory-mapped log the producer writes on the
+ * same machine (cloud.provider=mapped), so the two services connect across JVMs
+ * without SQS. Messages go to the Disruptor like in LocalMessageConsumer.
+ *
+ * When the log is idle the consumer thread spins, then yields, then parks for
+ * up to idle-park-micros, trading a little CPU for microsecond pickup latency.
+ *
+ * Each message is published with an acknowledgement handle that the processing
+ * stage completes once the message is processed, or rejected if processing failed.
+ * The consumer commits the read position up to the oldest message still in flight,
+ * so a restart redelivers everything the Disruptor had not finished
+ * (at-least-once). Messages that fail processing or cannot be parsed are logged
+ * and skipped, like in LocalMessageConsumer, not retried. At most
+ * {@link #MAX_IN_FLIGHT} messages are read ahead of the commit.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cloud.provider", havingValue = "mapped")
+public class MappedLogConsumer implements MessageConsumer {
+
+    private static final int SPIN_TRIES = 1_000;
+    private static final int YIELD_TRIES = 100;
+
+    /**
+     * Uncommitted messages tracked at once; reading pauses while this many are
+     * in flight, so a stalled message holds back at most this much redelivery.
+     */
+    static final int MAX_IN_FLIGHT = 1 << 17;
+
+    private final ObjectMapper objectMapper;
+    private final DisruptorService disruptorService;
+    private final MappedLogReader reader;
+    private final long idleParkNanos;
+
+    /**
+     * Log position after each in-flight message, by message number; consumer thread only.
+     */
+    private final long[] positions = new long[MAX_IN_FLIGHT];
+
+    /**
+     * Message number + 1 once the message is processed, by message number.
+     */
+    private final AtomicLongArray completed = new AtomicLongArray(MAX_IN_FLIGHT);
+
+    /**
+     * Messages read so far and messages committed so far; consumer thread only.
+     */
+    private long read;
+    private long committed;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private Thread consumerThread;
+
+    public MappedLogConsumer(ObjectMapper objectMapper,
+                             DisruptorService disruptorService,
+                             @Value("${cloud.mapped.directory}") String directory,
+                             @Value("${cloud.mapped.consumer-name:fraud-detection}") String consumerName,
+                             @Value("${cloud.mapped.idle-park-micros:100}") long idleParkMicros) throws IOException {
+        this.objectMapper = objectMapper;
+        this.disruptorService = disruptorService;
+        this.reader = new MappedLogReader(Path.of(directory), consumerName);
+        this.idleParkNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(1, idleParkMicros));
+    }
+
+    @PostConstruct
+    @Override
+    public void startListening() {
+        if (running.compareAndSet(false, true)) {
+            log.info("Starting mapped log consumer with Disruptor processing");
+            consumerThread = new Thread(this::consumeMessages);
+            consumerThread.setName("MappedLogConsumer");
+            consumerThread.setDaemon(true);
+            consumerThread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stopListening() throws InterruptedException {
+        running.set(false);
+        if (consumerThread != null) {
+            consumerThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        commitCompleted();
+        reader.close();
+        log.info("Stopped mapped log consumer");
+    }
+
+    private void consumeMessages() {
+        int idle = 0;
+        while (running.get()) {
+            try {
+                commitCompleted();
+                String message = read - committed < MAX_IN_FLIGHT ? reader.poll() : null;
+                if (message == null) {
+                    idle(idle++);
+                    continue;
+                }
+                idle = 0;
+                long number = read++;
+                positions[(int) (number & (MAX_IN_FLIGHT - 1))] = reader.position();
+                processMessage(message, new Completion(number));
+
+            } catch (IOException e) {
+                log.error("Failed to read mapped log, retrying", e);
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private void idle(int count) {
+        if (count < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (count < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(idleParkNanos);
+        }
+    }
+
+    /**
+     * Commit the read position past every message processed so far, stopping at
+     * the oldest one still in flight.
+     */
+    private void commitCompleted() {
+        long next = committed;
+        while (next < read && completed.get((int) (next & (MAX_IN_FLIGHT - 1))) == next + 1) {
+            next++;
+        }
+        if (next != committed) {
+            committed = next;
+            reader.commit(positions[(int) ((next - 1) & (MAX_IN_FLIGHT - 1))]);
+        }
+    }
+
+    /**
+     * Mirrors LocalMessageConsumer: invalid messages are logged and skipped.
+     */
+    void processMessage(String payload, Acknowledgement acknowledgement) {
+        try {
+            if (disruptorService.isRawIngest()) {
+                disruptorService.publishRawEvent(payload, acknowledgement);
+                return;
+            }
+
+            Transaction transaction = objectMapper.readValue(payload, Transaction.class);
+            disruptorService.publishEvent(transaction, acknowledgement);
+
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            log.error("Failed to parse transaction JSON: {}", payload, e);
+            acknowledgement.acknowledge();
+
+        } catch (Exception e) {
+            log.error("Unexpected error processing mapped log message: {}", payload, e);
+            acknowledgement.acknowledge();
+        }
+    }
+
+    /**
+     * Check if the consumer is currently running.
+     *
+     * @return true if the consumer thread is active
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Completes one message for {@link #commitCompleted}; rejected messages are skipped.
+     */
+    private final class Completion implements RejectableAcknowledgement {
+
+        private final long number;
+
+        Completion(long number) {
+            this.number = number;
+        }
+
+        @Override
+        public void acknowledge() {
+            completed.set((int) (number & (MAX_IN_FLIGHT - 1)), number + 1);
+        }
+
+        @Override
+        public CompletableFuture<Void> acknowledgeAsync() {
+            acknowledge();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void reject(Throwable cause) {
+            log.warn("Skipping mapped log message {} that failed processing", number);
+            acknowledge();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.hsbc.fraud.detection.messaging.mapped;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * Tails the memory-mapped, segmented log written by the producer's MappedLogWriter,
+ * possibly while it is being written by another process.
+ *
+ * Segment layout, little-endian; kept identical to the producer's writer:
+ * <pre>
+ *   header   magic "FTLQ", version, segment size (all int), segment index (long), zeros up to 64 bytes
+ *   records  length (int), UTF-8 message, zero padding to a multiple of 8 bytes
+ *   end      -1 (int), within the last 8 bytes at the latest
+ * </pre>
+ * A length of 0 means the next record is not written yet. Lengths are read with
+ * acquire semantics, so the message bytes are complete once the length is seen.
+ *
+ * The read position is committed to {@code <consumer>.offset} in the log directory,
+ * a mapped 8-byte file, and a reopened reader continues from it. A position in a
+ * segment the writer has since deleted skips ahead to the oldest retained segment.
+ *
+ * While the current segment is mapped, an idle poll is one volatile read. Only after
+ * its end marker, or before the first segment exists, does the reader look for the
+ * next segment on disk, and then at most once per backoff, which doubles from
+ * 10 microseconds to 10 milliseconds while the segment is missing.
+ *
+ * Not thread-safe; one reader per consumer thread.
+ */
+public final class MappedLogReader implements Closeable {
+
+    static final int MAGIC = 0x514C5446; // "FTLQ" little-endian
+    static final int HEADER_BYTES = 64;
+    static final int END_OF_SEGMENT = -1;
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final int POSITION_BITS = 40;
+    private static final long MIN_OPEN_BACKOFF_NANOS = 10_000;
+    private static final long MAX_OPEN_BACKOFF_NANOS = 10_000_000;
+
+    private final Path directory;
+    private final MappedByteBuffer offsetFile;
+
+    private long segmentIndex = -1;
+    private MappedByteBuffer segment;
+    private int position;
+    private long skipped;
+    private long openBackoffNanos;
+    private long nextOpenNanos;
+
+    public MappedLogReader(Path directory, String consumerName) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        try (FileChannel channel = FileChannel.open(directory.resolve(consumerName + ".offset"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.offsetFile = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        }
+        offsetFile.order(ByteOrder.LITTLE_ENDIAN);
+
+        long committed = offsetFile.getLong(0);
+        if (committed != 0) {
+            segmentIndex = committed >>> POSITION_BITS;
+            position = (int) (committed & ((1L << POSITION_BITS) - 1));
+        }
+    }
+
+    /**
+     * The next message, or null if none has been written yet.
+     */
+    public String poll() throws IOException {
+        while (true) {
+            if (segment == null && !tryOpenSegment()) {
+                return null;
+            }
+            int length = position + Integer.BYTES <= segment.capacity()
+                    ? (int) INT.getAcquire(segment, position)
+                    : END_OF_SEGMENT;
+            if (length == 0) {
+                return null;
+            }
+            if (length == END_OF_SEGMENT) {
+                segmentIndex++;
+                position = HEADER_BYTES;
+                segment = null;
+                continue;
+            }
+
+            byte[] bytes = new byte[length];
+            segment.get(position + Integer.BYTES, bytes);
+            position += (Integer.BYTES + length + 7) & ~7;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Position after the last polled message, for a later {@link #commit(long)}.
+     */
+    public long position() {
+        return segmentIndex >= 0 ? segmentIndex << POSITION_BITS | position : 0;
+    }
+
+    /**
+     * Persist the position after the last polled message. A crash before the
+     * commit redelivers the messages since the previous one.
+     */
+    public void commit() {
+        commit(position());
+    }
+
+    /**
+     * Persist a position taken earlier with {@link #position()}, so a reopened
+     * reader continues from there.
+     */
+    public void commit(long position) {
+        if (position != 0) {
+            offsetFile.putLong(0, position);
+        }
+    }
+
+    /**
+     * Segments deleted by the writer's retention before they were read.
+     */
+    public long getSkippedSegments() {
+        return skipped;
+    }
+
+    /**
+     * Flush the committed position to disk; positions polled since are not committed.
+     */
+    @Override
+    public void close() {
+        offsetFile.force();
+    }
+
+    /**
+     * {@link #openSegment()}, unless the last attempt failed less than a backoff ago.
+     */
+    private boolean tryOpenSegment() throws IOException {
+        if (openBackoffNanos != 0 && System.nanoTime() - nextOpenNanos < 0) {
+            return false;
+        }
+        if (openSegment()) {
+            openBackoffNanos = 0;
+            return true;
+        }
+        openBackoffNanos = Math.min(Math.max(MIN_OPEN_BACKOFF_NANOS, openBackoffNanos * 2), MAX_OPEN_BACKOFF_NANOS);
+        nextOpenNanos = System.nanoTime() + openBackoffNanos;
+        return false;
+    }
+
+    /**
+     * Map the current segment, starting at the oldest one on first use.
+     *
+     * @return false if the segment does not exist or is not initialized yet
+     */
+    private boolean openSegment() throws IOException {
+        if (segmentIndex < 0) {
+            long oldest = oldestSegmentIndex();
+            if (oldest < 0) {
+                return false;
+            }
+            segmentIndex = oldest;
+            position = HEADER_BYTES;
+        }
+
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentIndex), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return false;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            // Not created yet, or already deleted by retention
+            long oldest = oldestSegmentIndex();
+            if (oldest > segmentIndex) {
+                skipped += oldest - segmentIndex;
+                segmentIndex = oldest;
+                position = HEADER_BYTES;
+                return openSegment();
+            }
+            return false;
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if ((int) INT.getAcquire(mapped, 0) != MAGIC) {
+            return false;
+        }
+        segment = mapped;
+        position = Math.max(position, HEADER_BYTES);
+        return true;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%09d%s", index, SEGMENT_SUFFIX));
+    }
+
+    private long oldestSegmentIndex() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .min()
+                    .orElse(-1);
+        }
+    }
+}
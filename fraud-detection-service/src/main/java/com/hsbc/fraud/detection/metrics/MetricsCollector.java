@@ -1,6 +1,9 @@
 package com.hsbc.fraud.detection.metrics;
 
+import com.hsbc.fraud.detection.model.SymbolTable;
+import com.hsbc.fraud.detection.model.TransactionView;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
@@ -22,7 +25,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * Collects fraud detection service metrics:
  * - Counter metrics: fraud_detected_total, transactions_received_total, 
  *   transactions_processed_total, transactions_cleared_total, 
- *   processing_errors_total, rule_violations_total
+ *   processing_errors_total, rule_violations_total, symbols_rejected_total
  * - Timer/Histogram metrics: transaction_processing_duration_seconds
  * - Gauge metrics: ring_buffer_utilization_percent
  * 
@@ -55,6 +58,7 @@ public class MetricsCollector {
 
     private static final String RULE_VIOLATIONS = "rule_violations_total";
     private static final String RING_BUFFER_UTILIZATION = "ring_buffer_utilization_percent";
+    private static final String SYMBOLS_REJECTED = "symbols_rejected_total";
     
     // Severity constants
     public static final String SEVERITY_HIGH = "HIGH";
@@ -173,6 +177,13 @@ public class MetricsCollector {
                 .tag("operation", TAG_VALUE_UNKNOWN)
                 .register(meterRegistry);
         initializeHighLatencyCounters();
+
+        for (SymbolTable table : List.of(TransactionView.CURRENCIES, TransactionView.CATEGORIES)) {
+            FunctionCounter.builder(SYMBOLS_REJECTED, table, SymbolTable::getRejected)
+                    .description("Currency and category values not interned because the table was full")
+                    .tag("table", table.getName())
+                    .register(meterRegistry);
+        }
     }
     
     // ========================================================================
@@ -204,6 +215,16 @@ public class MetricsCollector {
         fraudCounter.increment();
     }
     
+    /**
+     * Records fraud detection events that were folded into one summary alert.
+     * 
+     * @param severity Fraud severity level
+     * @param count Number of folded alerts
+     */
+    public void recordFraudDetected(String severity, long count) {
+        getSeverityCounter(severity).increment(count);
+    }
+    
     // ========================================================================
     // Transaction Flow Metrics
     // ========================================================================
@@ -216,6 +237,15 @@ public class MetricsCollector {
         transactionsReceivedCounter.increment();
     }
     
+    /**
+     * Records that a batch of transactions was received for processing.
+     * 
+     * @param count Number of transactions in the batch
+     */
+    public void recordTransactionsReceived(int count) {
+        transactionsReceivedCounter.increment(count);
+    }
+    
 
     /**
      * Records that a transaction was processed (fraud check complete).
@@ -251,6 +281,15 @@ public class MetricsCollector {
         recordTransactionCleared();
     }
     
+    /**
+     * Records that a batch of transactions was cleared (no fraud detected).
+     * 
+     * @param count Number of cleared transactions
+     */
+    public void recordTransactionsCleared(int count) {
+        transactionsClearedCounter.increment(count);
+    }
+    
     // ========================================================================
     // Error Metrics
     // ========================================================================
@@ -315,6 +354,17 @@ public class MetricsCollector {
         recordRuleViolation(ruleType);
     }
     
+    /**
+     * Records rule violations of alerts that were folded into one summary alert.
+     * 
+     * @param ruleType The type of rule violated
+     * @param count Number of folded alerts
+     */
+    public void recordRuleViolations(String ruleType, long count) {
+        Counter counter = ruleViolationCountersByType.getOrDefault(ruleType, defaultRuleViolationCounter);
+        counter.increment(count);
+    }
+    
     // ========================================================================
     // Performance Metrics
     // ========================================================================
@@ -1,15 +1,27 @@
 package com.hsbc.fraud.detection.model;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Represents a fraud detection alert with details about violated rules.
+ * 
+ * The detection engine only fills in compact data: rule ids, severity and a
+ * renderer for the human-readable reasons. {@link #getViolatedRules()} and
+ * {@link #getMessage()} render on first access, i.e. when a sink actually
+ * serializes the alert, and cache the result. Sinks on different threads may
+ * ask at the same time; the renderer runs exactly once.
  */
 @Data
 @Builder
@@ -18,13 +30,77 @@ import java.util.List;
 public class FraudAlert {
     private String alertId;
     private Transaction transaction;
-    private List<String> violatedRules;
+    private volatile List<String> violatedRules;
     private FraudSeverity severity;
     private Instant detectedAt;
-    private String message;
+    private volatile String message;
+    
+    /**
+     * Names of the violated rules, e.g. LARGE_AMOUNT_RULE.
+     */
+    private List<String> ruleIds;
+    
+    /**
+     * For a summary from the AlertAggregator, the number of alerts folded into it;
+     * 0 for an ordinary alert.
+     */
+    private long aggregatedCount;
+    
+    /**
+     * For a summary, when the alert that opened its aggregation window was detected.
+     */
+    private Instant aggregatedSince;
+    
+    /**
+     * Produces {@link #violatedRules} on demand; cleared once it has run.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile Supplier<List<String>> violationRenderer;
+    
+    public List<String> getViolatedRules() {
+        // violatedRules is written before the renderer is cleared, so a cleared renderer means it is visible
+        if (violationRenderer == null) {
+            return violatedRules;
+        }
+        synchronized (this) {
+            Supplier<List<String>> renderer = violationRenderer;
+            if (renderer != null) {
+                if (violatedRules == null) {
+                    violatedRules = renderer.get();
+                }
+                violationRenderer = null;
+            }
+            return violatedRules;
+        }
+    }
+    
+    public String getMessage() {
+        String rendered = message;
+        if (rendered == null) {
+            List<String> rules = getViolatedRules();
+            if (rules != null) {
+                rendered = "FRAUD DETECTED: " + String.join(", ", rules);
+                message = rendered;
+            }
+        }
+        return rendered;
+    }
+    
+    /**
+     * Number of violated rules, without rendering any text.
+     */
+    public int getViolationCount() {
+        if (ruleIds != null) {
+            return ruleIds.size();
+        }
+        List<String> rules = violatedRules;
+        return rules != null ? rules.size() : 0;
+    }
     
     public enum FraudSeverity {
         LOW, MEDIUM, HIGH, CRITICAL
     }
 }
-
@@ -0,0 +1,56 @@
+package com.hsbc.fraud.detection.model;
+
+/**
+ * 64-bit hash for identifiers of unbounded cardinality (account, merchant, location).
+ * 
+ * FNV-1a over the UTF-16 chars followed by the Murmur3 64-bit finalizer. A string
+ * and the same characters in a parser buffer hash alike, so ids parsed in place can
+ * be looked up without materializing a String. Never 0, which stands for an absent id.
+ */
+public final class IdHash {
+    
+    /**
+     * Hash of an absent (null) id.
+     */
+    public static final long NONE = 0;
+    
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    
+    private IdHash() {
+    }
+    
+    /**
+     * @return the hash of the id, or {@link #NONE} for null
+     */
+    public static long of(String id) {
+        if (id == null) {
+            return NONE;
+        }
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * FNV_PRIME;
+        }
+        return finish(hash);
+    }
+    
+    /**
+     * @return the hash of the id held in {@code chars[offset, offset + length)}
+     */
+    public static long of(char[] chars, int offset, int length) {
+        long hash = FNV_OFFSET;
+        for (int i = offset; i < offset + length; i++) {
+            hash = (hash ^ chars[i]) * FNV_PRIME;
+        }
+        return finish(hash);
+    }
+    
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash != NONE ? hash : 1;
+    }
+}
@@ -0,0 +1,251 @@
+package com.hsbc.fraud.detection.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe table that interns strings to dense int codes.
+ *
+ * Lookups by character range do not allocate, so the hot path can resolve
+ * currencies and similar values straight out of a parser buffer. Codes are
+ * assigned in insertion order starting at 0 and are never reused; memory grows
+ * with the number of distinct values, so only intern small, closed sets (not
+ * transaction, account or merchant ids; those are carried as an {@link IdHash}).
+ *
+ * Values come from untrusted messages, so the table holds at most maxSize
+ * symbols. Once full, new values are not interned: {@link #intern} returns
+ * {@link #NO_SYMBOL} and counts them in {@link #getRejected()}.
+ *
+ * Reads are lock-free. Inserts are serialized; a reader racing with an insert
+ * may miss the new symbol, in which case {@link #intern} falls back to the
+ * locked path and finds it there.
+ */
+public final class SymbolTable {
+
+    /**
+     * Code returned for null or unknown symbols.
+     */
+    public static final int NO_SYMBOL = -1;
+
+    /**
+     * Default bound on distinct symbols.
+     */
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String name;
+    private final int maxSize;
+    private final LongAdder rejected = new LongAdder();
+    private volatile Entry[] buckets = new Entry[INITIAL_CAPACITY];
+    private volatile String[] symbols = new String[INITIAL_CAPACITY];
+    private volatile int size;
+
+    public SymbolTable(String name) {
+        this(name, DEFAULT_MAX_SIZE);
+    }
+
+    public SymbolTable(String name, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Symbol table size must be positive: " + maxSize);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Intern the characters in {@code chars[offset, offset + length)}.
+     * Allocates only the first time a symbol is seen.
+     *
+     * @return the symbol's code, or {@link #NO_SYMBOL} if it is new and the table is full
+     */
+    public int intern(char[] chars, int offset, int length) {
+        int hash = hash(chars, offset, length);
+        int code = find(chars, offset, length, hash);
+        if (code != NO_SYMBOL) {
+            return code;
+        }
+        return isFull() ? reject() : add(new String(chars, offset, length), hash);
+    }
+
+    /**
+     * Intern a string.
+     *
+     * @return the symbol's code, or {@link #NO_SYMBOL} for null and for new symbols
+     *         once the table is full
+     */
+    public int intern(String symbol) {
+        if (symbol == null) {
+            return NO_SYMBOL;
+        }
+        int code = find(symbol);
+        if (code != NO_SYMBOL) {
+            return code;
+        }
+        return isFull() ? reject() : add(symbol, symbol.hashCode());
+    }
+
+    /**
+     * Look up a symbol without interning it.
+     *
+     * @return the symbol's code, or {@link #NO_SYMBOL} if it was never interned
+     */
+    public int find(String symbol) {
+        if (symbol == null) {
+            return NO_SYMBOL;
+        }
+        int hash = symbol.hashCode();
+        Entry[] table = buckets;
+        for (Entry e = table[hash & (table.length - 1)]; e != null; e = e.next) {
+            if (e.hash == hash && e.symbol.equals(symbol)) {
+                return e.code;
+            }
+        }
+        return NO_SYMBOL;
+    }
+
+    /**
+     * Resolve a code back to its string. Does not allocate.
+     *
+     * @return the interned string, or null for {@link #NO_SYMBOL}
+     */
+    public String symbol(int code) {
+        if (code < 0) {
+            return null;
+        }
+        String[] current = symbols;
+        String symbol = code < current.length ? current[code] : null;
+        if (symbol != null) {
+            return symbol;
+        }
+        // Code was obtained through a racy bucket read before the array write became visible
+        synchronized (this) {
+            if (code >= size) {
+                throw new IllegalArgumentException("Unknown " + name + " code: " + code);
+            }
+            return symbols[code];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Values not interned because the table was full.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private int find(char[] chars, int offset, int length, int hash) {
+        Entry[] table = buckets;
+        for (Entry e = table[hash & (table.length - 1)]; e != null; e = e.next) {
+            if (e.hash == hash && e.matches(chars, offset, length)) {
+                return e.code;
+            }
+        }
+        return NO_SYMBOL;
+    }
+
+    /**
+     * Checked before taking the lock, so values past the cap do not contend on it.
+     */
+    private boolean isFull() {
+        return size >= maxSize;
+    }
+
+    private int reject() {
+        rejected.increment();
+        return NO_SYMBOL;
+    }
+
+    private synchronized int add(String symbol, int hash) {
+        int existing = find(symbol);
+        if (existing != NO_SYMBOL) {
+            return existing;
+        }
+
+        int code = size;
+        if (code >= maxSize) {
+            return reject();
+        }
+        String[] currentSymbols = symbols;
+        if (code == currentSymbols.length) {
+            currentSymbols = Arrays.copyOf(currentSymbols, code * 2);
+        }
+        currentSymbols[code] = symbol;
+
+        Entry[] table = buckets;
+        if ((code + 1) * 4 > table.length * 3) {
+            table = rehash(table);
+        }
+        int index = hash & (table.length - 1);
+        table[index] = new Entry(symbol, hash, code, table[index]);
+
+        // Volatile writes publish the new symbol to lock-free readers
+        symbols = currentSymbols;
+        buckets = table;
+        size = code + 1;
+        return code;
+    }
+
+    private static Entry[] rehash(Entry[] table) {
+        Entry[] resized = new Entry[table.length * 2];
+        for (Entry head : table) {
+            for (Entry e = head; e != null; e = e.next) {
+                int index = e.hash & (resized.length - 1);
+                resized[index] = new Entry(e.symbol, e.hash, e.code, resized[index]);
+            }
+        }
+        return resized;
+    }
+
+    /**
+     * Same hash as {@link String#hashCode()} so that char-range and string lookups agree.
+     */
+    private static int hash(char[] chars, int offset, int length) {
+        int h = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = 31 * h + chars[i];
+        }
+        return h;
+    }
+
+    /**
+     * Immutable chain node; final fields make racy publication through the bucket array safe.
+     */
+    private static final class Entry {
+        final String symbol;
+        final int hash;
+        final int code;
+        final Entry next;
+
+        Entry(String symbol, int hash, int code, Entry next) {
+            this.symbol = symbol;
+            this.hash = hash;
+            this.code = code;
+            this.next = next;
+        }
+
+        boolean matches(char[] chars, int offset, int length) {
+            if (symbol.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (symbol.charAt(i) != chars[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
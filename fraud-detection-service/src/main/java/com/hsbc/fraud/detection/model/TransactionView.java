@@ -0,0 +1,412 @@
+package com.hsbc.fraud.detection.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+/**
+ * Mutable, allocation-free representation of a {@link Transaction} for the hot path.
+ *
+ * One instance lives in each preallocated ring buffer slot and is refilled in
+ * place for every message:
+ * - amount as a fixed-point long with {@link #AMOUNT_SCALE} decimal places
+ * - timestamp as epoch milliseconds
+ * - type as the enum ordinal
+ * - currency and merchant category as codes interned in the shared
+ *   {@link SymbolTable}s below; both are small, closed sets, and values past
+ *   a table's bound read as absent
+ * - transaction, account and merchant ids and location copied into reusable
+ *   character buffers, the last three with an {@link IdHash} computed once per
+ *   message, so ids of unbounded cardinality are never retained as Strings
+ *
+ * Rules read it through {@link com.hsbc.fraud.detection.rule.FraudRule#isFraudulent(TransactionView)};
+ * {@link #toTransaction()} materializes a regular transaction for the cold path
+ * (alerts, logging).
+ *
+ * Not thread-safe: a view is owned by whichever stage currently holds its event.
+ */
+public final class TransactionView {
+
+    /**
+     * Number of decimal places kept in {@link #getAmountUnits()}.
+     */
+    public static final int AMOUNT_SCALE = 4;
+
+    /**
+     * Generous bounds: ISO 4217 has under 200 active codes and merchant
+     * categories are a short list of names.
+     */
+    public static final SymbolTable CURRENCIES = new SymbolTable("currency", 512);
+    public static final SymbolTable CATEGORIES = new SymbolTable("merchantCategory", 1024);
+
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+
+    private boolean present;
+
+    private char[] transactionId = new char[64];
+    private int transactionIdLength = -1;
+
+    private final Id accountId = new Id();
+
+    private boolean hasAmount;
+    private long amountUnits;
+    private int amountScale;
+
+    private int currencyCode = SymbolTable.NO_SYMBOL;
+
+    private boolean hasTimestamp;
+    private long timestampMillis;
+
+    private final Id merchantId = new Id();
+    private int categoryCode = SymbolTable.NO_SYMBOL;
+    private final Id location = new Id();
+    private int typeOrdinal = -1;
+
+    /**
+     * Reset all fields to absent and mark the view as holding a transaction.
+     */
+    public void reset() {
+        present = true;
+        transactionIdLength = -1;
+        accountId.clear();
+        hasAmount = false;
+        amountUnits = 0;
+        amountScale = 0;
+        currencyCode = SymbolTable.NO_SYMBOL;
+        hasTimestamp = false;
+        timestampMillis = 0;
+        merchantId.clear();
+        categoryCode = SymbolTable.NO_SYMBOL;
+        location.clear();
+        typeOrdinal = -1;
+    }
+
+    /**
+     * Mark the view as empty. Buffers are kept for the next message.
+     */
+    public void clear() {
+        present = false;
+    }
+
+    /**
+     * Whether the view currently holds a transaction.
+     */
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * Fill the view from a regular transaction, interning its symbols.
+     */
+    public void copyFrom(Transaction transaction) {
+        reset();
+        String id = transaction.getTransactionId();
+        if (id != null) {
+            int length = id.length();
+            ensureTransactionIdCapacity(length);
+            id.getChars(0, length, transactionId, 0);
+            transactionIdLength = length;
+        }
+        accountId.set(transaction.getAccountId());
+        if (transaction.getAmount() != null) {
+            setAmount(transaction.getAmount());
+        }
+        currencyCode = CURRENCIES.intern(transaction.getCurrency());
+        if (transaction.getTimestamp() != null) {
+            setTimestampMillis(transaction.getTimestamp().toEpochMilli());
+        }
+        merchantId.set(transaction.getMerchantId());
+        categoryCode = CATEGORIES.intern(transaction.getMerchantCategory());
+        location.set(transaction.getLocation());
+        typeOrdinal = transaction.getType() != null ? transaction.getType().ordinal() : -1;
+    }
+
+    /**
+     * Materialize a regular transaction. Allocates; meant for alerts and other cold paths.
+     */
+    public Transaction toTransaction() {
+        return Transaction.builder()
+                .transactionId(getTransactionId())
+                .accountId(getAccountId())
+                .amount(getAmount())
+                .currency(CURRENCIES.symbol(currencyCode))
+                .timestamp(hasTimestamp ? Instant.ofEpochMilli(timestampMillis) : null)
+                .merchantId(getMerchantId())
+                .merchantCategory(CATEGORIES.symbol(categoryCode))
+                .location(getLocation())
+                .type(getType())
+                .build();
+    }
+
+    // ------------------------------------------------------------------
+    // Transaction id
+    // ------------------------------------------------------------------
+
+    public void setTransactionId(char[] chars, int offset, int length) {
+        ensureTransactionIdCapacity(length);
+        System.arraycopy(chars, offset, transactionId, 0, length);
+        transactionIdLength = length;
+    }
+
+    public boolean hasTransactionId() {
+        return transactionIdLength >= 0;
+    }
+
+    /**
+     * The transaction id as a new string (allocates), or null if absent.
+     */
+    public String getTransactionId() {
+        return transactionIdLength >= 0 ? new String(transactionId, 0, transactionIdLength) : null;
+    }
+
+    // ------------------------------------------------------------------
+    // Account, merchant and location
+    // ------------------------------------------------------------------
+
+    public void setAccountId(char[] chars, int offset, int length) {
+        accountId.set(chars, offset, length);
+    }
+
+    public boolean hasAccountId() {
+        return accountId.length >= 0;
+    }
+
+    /**
+     * {@link IdHash} of the account id, or {@link IdHash#NONE} if absent.
+     */
+    public long getAccountIdHash() {
+        return accountId.hash;
+    }
+
+    /**
+     * The view's account id buffer, valid up to {@link #getAccountIdLength()}. Read only;
+     * lets lookups compare ids without allocating.
+     */
+    public char[] getAccountIdChars() {
+        return accountId.chars;
+    }
+
+    /**
+     * Length of the account id, or -1 if absent.
+     */
+    public int getAccountIdLength() {
+        return accountId.length;
+    }
+
+    /**
+     * The account id as a new string (allocates), or null if absent.
+     */
+    public String getAccountId() {
+        return accountId.toString();
+    }
+
+    public void setMerchantId(char[] chars, int offset, int length) {
+        merchantId.set(chars, offset, length);
+    }
+
+    /**
+     * {@link IdHash} of the merchant id, or {@link IdHash#NONE} if absent.
+     */
+    public long getMerchantIdHash() {
+        return merchantId.hash;
+    }
+
+    /**
+     * The merchant id as a new string (allocates), or null if absent.
+     */
+    public String getMerchantId() {
+        return merchantId.toString();
+    }
+
+    public int getCategoryCode() {
+        return categoryCode;
+    }
+
+    public void setCategoryCode(int categoryCode) {
+        this.categoryCode = categoryCode;
+    }
+
+    public void setLocation(char[] chars, int offset, int length) {
+        location.set(chars, offset, length);
+    }
+
+    /**
+     * {@link IdHash} of the location, or {@link IdHash#NONE} if absent.
+     */
+    public long getLocationHash() {
+        return location.hash;
+    }
+
+    /**
+     * The location as a new string (allocates), or null if absent.
+     */
+    public String getLocation() {
+        return location.toString();
+    }
+
+    // ------------------------------------------------------------------
+    // Amount and currency
+    // ------------------------------------------------------------------
+
+    public boolean hasAmount() {
+        return hasAmount;
+    }
+
+    /**
+     * Amount in units of 10^-{@value #AMOUNT_SCALE}; only meaningful when {@link #hasAmount()}.
+     */
+    public long getAmountUnits() {
+        return amountUnits;
+    }
+
+    /**
+     * @param units amount in units of 10^-{@value #AMOUNT_SCALE}
+     * @param scale decimal places of the source value (0 to {@value #AMOUNT_SCALE}), kept for {@link #getAmount()}
+     */
+    public void setAmount(long units, int scale) {
+        this.hasAmount = true;
+        this.amountUnits = units;
+        this.amountScale = scale;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        setAmount(toAmountUnits(amount), Math.max(0, Math.min(amount.scale(), AMOUNT_SCALE)));
+    }
+
+    /**
+     * The amount as a BigDecimal (allocates), or null if absent.
+     */
+    public BigDecimal getAmount() {
+        return hasAmount ? BigDecimal.valueOf(amountUnits, AMOUNT_SCALE).setScale(amountScale, RoundingMode.CEILING) : null;
+    }
+
+    public int getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public void setCurrencyCode(int currencyCode) {
+        this.currencyCode = currencyCode;
+    }
+
+    /**
+     * Convert an amount to units of 10^-{@value #AMOUNT_SCALE}. Extra decimal places
+     * are rounded up, so {@code amount > threshold} comparisons stay exact for
+     * thresholds with at most {@value #AMOUNT_SCALE} decimal places.
+     *
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public static long toAmountUnits(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.CEILING).unscaledValue().longValueExact();
+    }
+
+    // ------------------------------------------------------------------
+    // Timestamp and type
+    // ------------------------------------------------------------------
+
+    public boolean hasTimestamp() {
+        return hasTimestamp;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public void setTimestampMillis(long timestampMillis) {
+        this.hasTimestamp = true;
+        this.timestampMillis = timestampMillis;
+    }
+
+    public int getTypeOrdinal() {
+        return typeOrdinal;
+    }
+
+    public void setType(Transaction.TransactionType type) {
+        this.typeOrdinal = type != null ? type.ordinal() : -1;
+    }
+
+    public Transaction.TransactionType getType() {
+        return typeOrdinal >= 0 ? TYPES[typeOrdinal] : null;
+    }
+
+    /**
+     * Resolve a transaction type from a character range without allocating.
+     *
+     * @return the type, or null if the characters name no type
+     */
+    public static Transaction.TransactionType typeOf(char[] chars, int offset, int length) {
+        for (Transaction.TransactionType type : TYPES) {
+            if (matches(type.name(), chars, offset, length)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(String name, char[] chars, int offset, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureTransactionIdCapacity(int length) {
+        if (transactionId.length < length) {
+            transactionId = new char[Math.max(length, transactionId.length * 2)];
+        }
+    }
+
+    /**
+     * An id of unbounded cardinality: characters in a reusable buffer plus their hash.
+     */
+    private static final class Id {
+
+        private char[] chars = new char[32];
+        private int length = -1;
+        private long hash = IdHash.NONE;
+
+        void set(char[] source, int offset, int length) {
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            System.arraycopy(source, offset, chars, 0, length);
+            this.length = length;
+            this.hash = IdHash.of(chars, 0, length);
+        }
+
+        void set(String value) {
+            if (value == null) {
+                clear();
+                return;
+            }
+            if (chars.length < value.length()) {
+                chars = new char[Math.max(value.length(), chars.length * 2)];
+            }
+            value.getChars(0, value.length(), chars, 0);
+            length = value.length();
+            hash = IdHash.of(chars, 0, length);
+        }
+
+        void clear() {
+            length = -1;
+            hash = IdHash.NONE;
+        }
+
+        @Override
+        public String toString() {
+            return length >= 0 ? new String(chars, 0, length) : null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return present
+                ? "TransactionView(transactionId=" + getTransactionId() + ", accountId=" + getAccountId()
+                        + ", amount=" + getAmount() + ")"
+                : "TransactionView(empty)";
+    }
+}
@@ -0,0 +1,199 @@
+package com.hsbc.fraud.detection.rule;
+
+import com.hsbc.fraud.detection.model.IdHash;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, fixed-capacity sliding-window counter of transactions per account.
+ *
+ * Each account owns a slot in an open-addressing table keyed by the {@link IdHash}
+ * of its id, so the table holds no strings; two ids that collide on all 64 bits
+ * share a window. A slot holds a ring of the last {@code maxEvents} event
+ * timestamps in a flat {@link AtomicLongArray}. Recording an event claims the
+ * next ring position with an atomic increment and swaps in the new timestamp;
+ * the value it replaces is the timestamp of the event {@code maxEvents} positions
+ * earlier. If that event is still inside the window, the account has exceeded
+ * {@code maxEvents} within the window. Updates are O(1), allocation-free and
+ * exact under any number of concurrent writers for the same account, with one
+ * exception below.
+ *
+ * A new account claims an empty slot in its probe range with a CAS from empty,
+ * then probes the range again; if a racing insert of the same account claimed a
+ * different slot meanwhile, it gives its own back and retries, so an account
+ * never has two windows that split its count.
+ *
+ * Memory is bounded by the capacity. Accounts idle for longer than the window
+ * are evicted lazily: when a new account finds no empty slot in its probe range,
+ * it clears an idle account's key and then claims that slot like any other empty
+ * one. Stale timestamps left in a reused slot are older than the window and
+ * therefore never count. When every slot in a probe range is active, the event
+ * is not tracked (fail open) and {@link #getUntrackedCount()} is bumped.
+ *
+ * Counts are approximate only when an event for an account races the eviction
+ * of that same account, i.e. arrives just as it has been idle for a whole
+ * window. A writer re-checks the slot's key after writing the ring and, if the
+ * slot was reclaimed meanwhile, takes its timestamp back and records again
+ * under the account's new slot. If the reclaim lands after that re-check, the
+ * timestamp stays in the new owner's ring and can count toward its limit once,
+ * so that account may be flagged one event early.
+ */
+public final class AccountVelocityTracker {
+
+    private static final int MAX_PROBES = 32;
+
+    private final int maxEvents;
+    private final long windowMillis;
+    private final int mask;
+    private final AtomicLongArray keys;
+    private final AtomicLongArray lastSeen;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray timestamps;
+    private final AtomicLong untrackedCount = new AtomicLong();
+
+    /**
+     * @param maxEvents events allowed per window; the next one within the window is a violation
+     * @param windowMillis window length in milliseconds
+     * @param capacity number of table slots, rounded up to a power of 2; size it at about
+     *                 twice the number of accounts active within one window
+     */
+    public AccountVelocityTracker(int maxEvents, long windowMillis, int capacity) {
+        if (maxEvents <= 0 || windowMillis <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("maxEvents, windowMillis and capacity must be positive");
+        }
+        int slots = Integer.highestOneBit(Math.max(capacity, MAX_PROBES) - 1) << 1;
+        this.maxEvents = maxEvents;
+        this.windowMillis = windowMillis;
+        this.mask = slots - 1;
+        this.keys = new AtomicLongArray(slots);
+        this.lastSeen = new AtomicLongArray(slots);
+        this.sequences = new AtomicLongArray(slots);
+        this.timestamps = new AtomicLongArray(Math.multiplyExact(slots, maxEvents));
+        for (int i = 0; i < timestamps.length(); i++) {
+            timestamps.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Record an event for the account and report whether it exceeds the limit.
+     *
+     * @param accountId account key
+     * @param timestampMillis event time in epoch millis
+     * @return true if more than {@code maxEvents} events of this account fall within the window
+     */
+    public boolean record(String accountId, long timestampMillis) {
+        return record(IdHash.of(accountId), timestampMillis);
+    }
+
+    /**
+     * Record an event for the account and report whether it exceeds the limit. Does not allocate.
+     *
+     * @param accountHash {@link IdHash} of the account id; {@link IdHash#NONE} is not tracked
+     * @param timestampMillis event time in epoch millis
+     * @return true if more than {@code maxEvents} events of this account fall within the window
+     */
+    public boolean record(long accountHash, long timestampMillis) {
+        while (true) {
+            int slot = accountHash != IdHash.NONE ? slotFor(accountHash, timestampMillis) : -1;
+            if (slot < 0) {
+                untrackedCount.incrementAndGet();
+                return false;
+            }
+
+            lastSeen.accumulateAndGet(slot, timestampMillis, Math::max);
+            long sequence = sequences.getAndIncrement(slot);
+            int position = slot * maxEvents + (int) (sequence % maxEvents);
+            long replaced = timestamps.getAndSet(position, timestampMillis);
+            if (keys.get(slot) == accountHash) {
+                return replaced > timestampMillis - windowMillis;
+            }
+            // Reclaimed for another account while we wrote: undo unless already overwritten, and retry
+            timestamps.compareAndSet(position, timestampMillis, replaced);
+        }
+    }
+
+    /**
+     * Number of events that could not be tracked because the table was saturated.
+     */
+    public long getUntrackedCount() {
+        return untrackedCount.get();
+    }
+
+    /**
+     * Number of table slots, i.e. the hard limit on concurrently tracked accounts.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public int getMaxEvents() {
+        return maxEvents;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Find the account's slot, claiming an empty slot in its probe range if it has
+     * none, and evicting an idle account first if no slot is empty.
+     *
+     * @return slot index, or -1 if the probe range is saturated with active accounts
+     */
+    private int slotFor(long accountHash, long now) {
+        // IdHash is already finalized, so its low bits spread sequential ids
+        int start = (int) accountHash & mask;
+
+        while (true) {
+            int empty = -1;
+            int idle = -1;
+            long idleKey = IdHash.NONE;
+            // Evicted slots become empty again, so the whole range is probed, not just up to the first gap
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                int slot = (start + probe) & mask;
+                long key = keys.get(slot);
+                if (key == accountHash) {
+                    return slot;
+                }
+                if (key == IdHash.NONE) {
+                    if (empty < 0) {
+                        empty = slot;
+                    }
+                } else if (idle < 0 && lastSeen.get(slot) <= now - windowMillis) {
+                    idle = slot;
+                    idleKey = key;
+                }
+            }
+
+            if (empty >= 0) {
+                if (keys.compareAndSet(empty, IdHash.NONE, accountHash)) {
+                    if (!isClaimedElsewhere(start, empty, accountHash)) {
+                        return empty;
+                    }
+                    // A racing insert of the same account holds another slot: give ours back and find theirs
+                    keys.compareAndSet(empty, accountHash, IdHash.NONE);
+                }
+            } else if (idle >= 0) {
+                // Whether the account is idle depends on this event's time, so only evict here;
+                // the slot is then claimed from empty like any other
+                keys.compareAndSet(idle, idleKey, IdHash.NONE);
+            } else {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Whether a slot other than {@code claimed} in the probe range holds the account.
+     */
+    private boolean isClaimedElsewhere(int start, int claimed, long accountHash) {
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (start + probe) & mask;
+            if (slot != claimed && keys.get(slot) == accountHash) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,303 @@
+package com.hsbc.fraud.detection.rule;
+
+import com.hsbc.fraud.detection.model.IdHash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Immutable hashed index of account ids, usually memory-mapped from a file.
+ *
+ * Opening a file maps it read-only and parses nothing, so a blacklist with
+ * millions of ids costs no heap and no startup time. {@link #contains(String)}
+ * reads the mapping in place without allocating, and {@link #contains(long, char[], int)}
+ * looks up an id still in a parser buffer by its {@link IdHash}. Instances are immutable and
+ * safe to share between threads.
+ *
+ * File layout (little-endian):
+ * <pre>
+ *   header   magic "FBLX", version, entry count, table slots, bloom words (all int), 12 bytes reserved
+ *   bloom    bloom words x long     optional Bloom filter, 3 probes per id
+ *   table    table slots x 16 bytes open addressing: long hash, int key offset, int key length (0 = empty)
+ *   keys     UTF-16 chars           ids referenced by the table
+ * </pre>
+ *
+ * The Bloom filter turns most misses, i.e. most transactions, into a hash and up
+ * to three bit reads. Without it a miss probes the table until an empty slot, which
+ * the load factor of at most 0.5 keeps short. Files are limited to 2 GB, about
+ * 40 million ids of typical length.
+ */
+public final class BlacklistIndex {
+
+    /**
+     * Bloom filter size used by {@link #of(Collection)}; about 1% false positives.
+     */
+    public static final int DEFAULT_BLOOM_BITS_PER_ENTRY = 10;
+
+    private static final int MAGIC = 0x584C4246; // "FBLX" little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 16;
+    private static final int BLOOM_PROBES = 3;
+
+    private static final BlacklistIndex EMPTY = of(Set.of(), 0);
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int slotMask;
+    private final int bloomWords;
+    private final int tableOffset;
+
+    private BlacklistIndex(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a blacklist index");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported blacklist index version " + buffer.getInt(4));
+        }
+        int slots = buffer.getInt(12);
+        if (Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Corrupt blacklist index: " + slots + " table slots");
+        }
+        this.size = buffer.getInt(8);
+        this.slotMask = slots - 1;
+        this.bloomWords = buffer.getInt(16);
+        this.tableOffset = HEADER_BYTES + bloomWords * Long.BYTES;
+        if ((long) tableOffset + (long) slots * SLOT_BYTES > buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated blacklist index");
+        }
+    }
+
+    public static BlacklistIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build an index on the heap; meant for short lists such as a configuration property.
+     */
+    public static BlacklistIndex of(Collection<String> accountIds) {
+        return of(accountIds, DEFAULT_BLOOM_BITS_PER_ENTRY);
+    }
+
+    public static BlacklistIndex of(Collection<String> accountIds, int bloomBitsPerEntry) {
+        return new BlacklistIndex(encode(accountIds, bloomBitsPerEntry));
+    }
+
+    /**
+     * Map an index file written by {@link #write}. The mapping stays valid after the
+     * channel is closed and is released when the index is garbage collected.
+     */
+    public static BlacklistIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new BlacklistIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write an index file. Writes to a sibling temporary file and moves it into place,
+     * so a concurrent reload never maps a partially written index.
+     *
+     * @param bloomBitsPerEntry Bloom filter bits per id; 0 writes no filter
+     */
+    public static void write(Path file, Collection<String> accountIds, int bloomBitsPerEntry) throws IOException {
+        ByteBuffer encoded = encode(accountIds, bloomBitsPerEntry);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Build an index file from a text file with one account id per line:
+     * {@code java -cp <service jar> com.hsbc.fraud.detection.rule.BlacklistIndex ids.txt blacklist.idx}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BlacklistIndex <account-ids.txt> <index-file>");
+            System.exit(2);
+        }
+        List<String> ids;
+        try (Stream<String> lines = Files.lines(Path.of(args[0]))) {
+            ids = lines.map(String::trim).filter(line -> !line.isEmpty() && !line.startsWith("#")).toList();
+        }
+        write(Path.of(args[1]), ids, DEFAULT_BLOOM_BITS_PER_ENTRY);
+        System.out.println("Wrote " + open(Path.of(args[1])).size() + " account ids to " + args[1]);
+    }
+
+    /**
+     * Whether the id is in the index. Does not allocate.
+     */
+    public boolean contains(String accountId) {
+        if (accountId == null || accountId.isEmpty()) {
+            return false;
+        }
+        long hash = IdHash.of(accountId);
+        int slot = find(hash, accountId.length());
+        while (slot >= 0) {
+            if (keyEquals(buffer.getInt(tableOffset + slot * SLOT_BYTES + 8), accountId)) {
+                return true;
+            }
+            slot = next(slot, hash, accountId.length());
+        }
+        return false;
+    }
+
+    /**
+     * Whether the id held in {@code chars[0, length)} is in the index. Does not allocate.
+     *
+     * @param hash {@link IdHash} of the id
+     */
+    public boolean contains(long hash, char[] chars, int length) {
+        if (length <= 0) {
+            return false;
+        }
+        int slot = find(hash, length);
+        while (slot >= 0) {
+            if (keyEquals(buffer.getInt(tableOffset + slot * SLOT_BYTES + 8), chars, length)) {
+                return true;
+            }
+            slot = next(slot, hash, length);
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * First table slot holding an entry with this hash and length.
+     *
+     * @return slot index, or -1 if there is none
+     */
+    private int find(long hash, int length) {
+        if (bloomWords > 0 && !mightContain(hash)) {
+            return -1;
+        }
+        return probe((int) hash & slotMask, hash, length);
+    }
+
+    private int next(int slot, long hash, int length) {
+        return probe((slot + 1) & slotMask, hash, length);
+    }
+
+    private int probe(int slot, long hash, int length) {
+        for (; ; slot = (slot + 1) & slotMask) {
+            int position = tableOffset + slot * SLOT_BYTES;
+            int keyLength = buffer.getInt(position + 12);
+            if (keyLength == 0) {
+                return -1;
+            }
+            if (buffer.getLong(position) == hash && keyLength == length) {
+                return slot;
+            }
+        }
+    }
+
+    private boolean mightContain(long hash) {
+        for (int probe = 1; probe <= BLOOM_PROBES; probe++) {
+            long bit = bloomBit(hash, probe, bloomWords);
+            if ((buffer.getLong(bloomWordOffset(bit)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Double hashing (Kirsch-Mitzenmacher): probe i uses h1 + i * h2.
+     */
+    private static long bloomBit(long hash, int probe, int bloomWords) {
+        return Integer.toUnsignedLong((int) hash + probe * (int) (hash >>> 32)) % ((long) bloomWords * Long.SIZE);
+    }
+
+    private static int bloomWordOffset(long bit) {
+        return HEADER_BYTES + (int) (bit >>> 6) * Long.BYTES;
+    }
+
+    private boolean keyEquals(int offset, String accountId) {
+        for (int i = 0; i < accountId.length(); i++) {
+            if (buffer.getChar(offset + i * Character.BYTES) != accountId.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean keyEquals(int offset, char[] chars, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer.getChar(offset + i * Character.BYTES) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ByteBuffer encode(Collection<String> accountIds, int bloomBitsPerEntry) {
+        Set<String> ids = new LinkedHashSet<>();
+        long keyBytes = 0;
+        for (String id : accountIds) {
+            if (id != null && !id.isEmpty() && ids.add(id)) {
+                keyBytes += (long) id.length() * Character.BYTES;
+            }
+        }
+
+        int slots = Integer.highestOneBit(Math.max(ids.size() * 2, 2) - 1) << 1;
+        int bloomWords = bloomBitsPerEntry > 0
+                ? (int) Math.max(1, ((long) ids.size() * bloomBitsPerEntry + Long.SIZE - 1) / Long.SIZE)
+                : 0;
+        int tableOffset = HEADER_BYTES + bloomWords * Long.BYTES;
+        long keysOffset = tableOffset + (long) slots * SLOT_BYTES;
+        if (keysOffset + keyBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Blacklist too large for one index: " + ids.size() + " ids");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) (keysOffset + keyBytes)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC)
+                .putInt(4, VERSION)
+                .putInt(8, ids.size())
+                .putInt(12, slots)
+                .putInt(16, bloomWords);
+
+        int keyOffset = (int) keysOffset;
+        for (String id : ids) {
+            long hash = IdHash.of(id);
+            for (int probe = 1; bloomWords > 0 && probe <= BLOOM_PROBES; probe++) {
+                long bit = bloomBit(hash, probe, bloomWords);
+                int word = bloomWordOffset(bit);
+                buffer.putLong(word, buffer.getLong(word) | (1L << bit));
+            }
+
+            int slot = (int) hash & (slots - 1);
+            while (buffer.getInt(tableOffset + slot * SLOT_BYTES + 12) != 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            int position = tableOffset + slot * SLOT_BYTES;
+            buffer.putLong(position, hash)
+                    .putInt(position + 8, keyOffset)
+                    .putInt(position + 12, id.length());
+
+            for (int i = 0; i < id.length(); i++) {
+                buffer.putChar(keyOffset + i * Character.BYTES, id.charAt(i));
+            }
+            keyOffset += id.length() * Character.BYTES;
+        }
+        return buffer;
+    }}
@@ -1,6 +1,7 @@
 package com.hsbc.fraud.detection.rule;
 
 import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
 
 /**
  * Strategy Pattern: Interface for fraud detection rules.
@@ -16,6 +17,28 @@ public interface FraudRule {
      */
     boolean isFraudulent(Transaction transaction);
     
+    /**
+     * Evaluates the rule against the allocation-free view used on the hot path.
+     * Must agree with {@link #isFraudulent(Transaction)}. The default materializes
+     * a transaction; rules should override it to read the view directly.
+     * 
+     * @param view The transaction view to evaluate
+     * @return true if the transaction is potentially fraudulent according to this rule
+     */
+    default boolean isFraudulent(TransactionView view) {
+        return isFraudulent(view.toTransaction());
+    }
+    
+    /**
+     * Whether evaluating the rule updates state it depends on later (e.g. velocity counters).
+     * Stateful rules are evaluated for every transaction even when the engine short-circuits.
+     * 
+     * @return true if the rule must see every transaction
+     */
+    default boolean isStateful() {
+        return false;
+    }
+    
     /**
      * Returns the name of this fraud rule for reporting purposes.
      * 
@@ -1,6 +1,7 @@
 package com.hsbc.fraud.detection.rule;
 
 import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -16,10 +17,12 @@ import java.math.BigDecimal;
 public class LargeAmountRule implements FraudRule {
     
     private final BigDecimal threshold;
+    private final long thresholdUnits;
     
     public LargeAmountRule(
             @Value("${fraud.rules.large-amount.threshold:10000}") BigDecimal threshold) {
         this.threshold = threshold;
+        this.thresholdUnits = TransactionView.toAmountUnits(threshold);
         log.info("LargeAmountRule initialized with threshold: {}", threshold);
     }
     
@@ -33,7 +36,22 @@ public class LargeAmountRule implements FraudRule {
         
         // Simulate processing load for testing
 
-        return transaction.getAmount().compareTo(threshold) > 0;
+        return exceedsThreshold(transaction);
+    }
+    
+    @Override
+    public boolean isFraudulent(TransactionView view) {
+        simulateProcessingLoad();
+        
+        return exceedsThreshold(view);
+    }
+    
+    private boolean exceedsThreshold(Transaction transaction) {
+        return transaction.getAmount() != null && transaction.getAmount().compareTo(threshold) > 0;
+    }
+    
+    private boolean exceedsThreshold(TransactionView view) {
+        return view.hasAmount() && view.getAmountUnits() > thresholdUnits;
     }
     
     /**
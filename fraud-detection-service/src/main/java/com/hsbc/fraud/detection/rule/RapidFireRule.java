@@ -0,0 +1,79 @@
+package com.hsbc.fraud.detection.rule;
+
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Velocity rule that flags accounts making more than a configured number of
+ * transactions within one minute.
+ *
+ * Stateful: every evaluation records the transaction in an
+ * {@link AccountVelocityTracker}, so each transaction must be evaluated exactly
+ * once. The window is measured in transaction (event) time, falling back to the
+ * wall clock for transactions without a timestamp.
+ */
+@Slf4j
+@Component
+public class RapidFireRule implements FraudRule {
+
+    private static final long WINDOW_MILLIS = 60_000L;
+
+    private final AccountVelocityTracker tracker;
+    private final int maxPerMinute;
+
+    public RapidFireRule(
+            @Value("${fraud.rules.rapid-fire.max-per-minute:5}") int maxPerMinute,
+            @Value("${fraud.rules.rapid-fire.table-size:262144}") int tableSize) {
+        this.maxPerMinute = maxPerMinute;
+        this.tracker = new AccountVelocityTracker(maxPerMinute, WINDOW_MILLIS, tableSize);
+        log.info("RapidFireRule initialized with max {} transactions per minute, {} account slots",
+                maxPerMinute, tracker.capacity());
+    }
+
+    @Override
+    public boolean isFraudulent(Transaction transaction) {
+        if (transaction.getAccountId() == null) {
+            return false;
+        }
+        long timestamp = transaction.getTimestamp() != null
+                ? transaction.getTimestamp().toEpochMilli()
+                : System.currentTimeMillis();
+        return tracker.record(transaction.getAccountId(), timestamp);
+    }
+
+    @Override
+    public boolean isFraudulent(TransactionView view) {
+        if (!view.hasAccountId()) {
+            return false;
+        }
+        long timestamp = view.hasTimestamp() ? view.getTimestampMillis() : System.currentTimeMillis();
+        return tracker.record(view.getAccountIdHash(), timestamp);
+    }
+
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
+    @Override
+    public String getRuleName() {
+        return "RAPID_FIRE_RULE";
+    }
+
+    @Override
+    public String getReason(Transaction transaction) {
+        return String.format("Account %s made more than %d transactions within one minute",
+                transaction.getAccountId(),
+                maxPerMinute);
+    }
+
+    /**
+     * Number of transactions not tracked because the account table was saturated.
+     */
+    public long getUntrackedCount() {
+        return tracker.getUntrackedCount();
+    }
+}
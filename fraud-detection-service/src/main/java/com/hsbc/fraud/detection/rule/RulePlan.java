@@ -0,0 +1,146 @@
+package com.hsbc.fraud.detection.rule;
+
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single fused evaluator for the built-in rules, compiled from the registered rule beans.
+ *
+ * The threshold ({@link LargeAmountRule}), blacklist ({@link SuspiciousAccountRule})
+ * and velocity ({@link RapidFireRule}) checks are inlined into one method that
+ * returns a bitmask of violated rules. Calls go to the concrete classes, so there
+ * is no interface dispatch, and the plan itself builds no strings and allocates
+ * nothing on the clean path. Reasons are only produced later, from {@link #violatedRules(long)},
+ * when an alert is emitted.
+ *
+ * Each check does the same work as the rule's own {@link FraudRule#isFraudulent},
+ * including {@link LargeAmountRule}'s simulated processing load, so the plan only
+ * changes how rules are dispatched, not what they do. Blacklist changes are read
+ * live, so they need no recompilation.
+ *
+ * Any other rule (and any second instance of a built-in type) is left in
+ * {@link #getResidualRules()} for regular evaluation through {@link FraudRule}.
+ */
+public final class RulePlan {
+
+    private final LargeAmountRule largeAmount;
+    private final long largeAmountBit;
+    private final SuspiciousAccountRule suspiciousAccount;
+    private final long suspiciousAccountBit;
+    private final RapidFireRule rapidFire;
+    private final long rapidFireBit;
+
+    private final FraudRule[] fusedRules;
+    private final List<FraudRule> residualRules;
+
+    private RulePlan(LargeAmountRule largeAmount, SuspiciousAccountRule suspiciousAccount,
+                     RapidFireRule rapidFire, List<FraudRule> fused, List<FraudRule> residual) {
+        this.largeAmount = largeAmount;
+        this.largeAmountBit = bitOf(fused, largeAmount);
+        this.suspiciousAccount = suspiciousAccount;
+        this.suspiciousAccountBit = bitOf(fused, suspiciousAccount);
+        this.rapidFire = rapidFire;
+        this.rapidFireBit = bitOf(fused, rapidFire);
+        this.fusedRules = fused.toArray(new FraudRule[0]);
+        this.residualRules = List.copyOf(residual);
+    }
+
+    /**
+     * Compile a plan for the given rules. Fused rules keep their relative registration order.
+     */
+    public static RulePlan compile(List<FraudRule> rules) {
+        LargeAmountRule largeAmount = null;
+        SuspiciousAccountRule suspiciousAccount = null;
+        RapidFireRule rapidFire = null;
+        List<FraudRule> fused = new ArrayList<>();
+        List<FraudRule> residual = new ArrayList<>();
+
+        for (FraudRule rule : rules) {
+            if (rule instanceof LargeAmountRule threshold && largeAmount == null) {
+                largeAmount = threshold;
+                fused.add(rule);
+            } else if (rule instanceof SuspiciousAccountRule blacklist && suspiciousAccount == null) {
+                suspiciousAccount = blacklist;
+                fused.add(rule);
+            } else if (rule instanceof RapidFireRule velocity && rapidFire == null) {
+                rapidFire = velocity;
+                fused.add(rule);
+            } else {
+                residual.add(rule);
+            }
+        }
+        return new RulePlan(largeAmount, suspiciousAccount, rapidFire, fused, residual);
+    }
+
+    /**
+     * Evaluate every fused rule against the view.
+     *
+     * @return bitmask of violated rules, 0 for a clean transaction
+     */
+    public long evaluate(TransactionView view) {
+        long violations = 0;
+        if (largeAmount != null && largeAmount.isFraudulent(view)) {
+            violations |= largeAmountBit;
+        }
+        if (suspiciousAccount != null && suspiciousAccount.isBlacklisted(view)) {
+            violations |= suspiciousAccountBit;
+        }
+        // Stateful: always recorded, even if another rule already fired
+        if (rapidFire != null && rapidFire.isFraudulent(view)) {
+            violations |= rapidFireBit;
+        }
+        return violations;
+    }
+
+    /**
+     * Evaluate every fused rule against the transaction.
+     *
+     * @return bitmask of violated rules, 0 for a clean transaction
+     */
+    public long evaluate(Transaction transaction) {
+        long violations = 0;
+        if (largeAmount != null && largeAmount.isFraudulent(transaction)) {
+            violations |= largeAmountBit;
+        }
+        if (suspiciousAccount != null && suspiciousAccount.isBlacklisted(transaction)) {
+            violations |= suspiciousAccountBit;
+        }
+        if (rapidFire != null && rapidFire.isFraudulent(transaction)) {
+            violations |= rapidFireBit;
+        }
+        return violations;
+    }
+
+    /**
+     * Resolve a bitmask from {@link #evaluate} to its rules, in registration order.
+     *
+     * @return a new, mutable list
+     */
+    public List<FraudRule> violatedRules(long violations) {
+        List<FraudRule> violated = new ArrayList<>(Long.bitCount(violations));
+        for (int bit = 0; bit < fusedRules.length; bit++) {
+            if ((violations & (1L << bit)) != 0) {
+                violated.add(fusedRules[bit]);
+            }
+        }
+        return violated;
+    }
+
+    public List<FraudRule> getFusedRules() {
+        return List.of(fusedRules);
+    }
+
+    /**
+     * Rules the plan could not fuse; evaluate these through {@link FraudRule}.
+     */
+    public List<FraudRule> getResidualRules() {
+        return residualRules;
+    }
+
+    private static long bitOf(List<FraudRule> fused, FraudRule rule) {
+        return rule != null ? 1L << fused.indexOf(rule) : 0;
+    }
+}
@@ -1,36 +1,94 @@
 package com.hsbc.fraud.detection.rule;
 
 import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Fraud rule that flags transactions from accounts on a blacklist.
  * Uses Strategy Pattern for flexible rule composition.
+ * 
+ * Large blacklists come from a memory-mapped {@link BlacklistIndex} file
+ * (fraud.rules.suspicious-accounts-file), which is polled for changes and swapped
+ * atomically, so readers never see a partially loaded list. Accounts from the
+ * fraud.rules.suspicious-accounts property and from {@link #addToBlacklist(String)}
+ * are kept in a small concurrent set that survives reloads, mirrored into an
+ * in-memory index so a {@link TransactionView} is checked by the hash of its
+ * account id without building a String.
  */
 @Slf4j
 @Component
 public class SuspiciousAccountRule implements FraudRule {
     
-    private final Set<String> blacklistedAccounts;
+    private final Set<String> blacklistedAccounts = ConcurrentHashMap.newKeySet();
+    private final Path indexFile;
     
+    private volatile BlacklistIndex index = BlacklistIndex.empty();
+    private volatile BlacklistIndex configured;
+    private FileTime indexModifiedTime;
+    private long indexFileSize = -1;
+    
+    public SuspiciousAccountRule(List<String> accounts) {
+        this(accounts, "");
+    }
+    
+    @Autowired
     public SuspiciousAccountRule(
-            @Value("${fraud.rules.suspicious-accounts:ACCT001,ACCT666,ACCT999}") List<String> accounts) {
-        this.blacklistedAccounts = new HashSet<>(accounts);
-        log.info("SuspiciousAccountRule initialized with {} blacklisted accounts", blacklistedAccounts.size());
+            @Value("${fraud.rules.suspicious-accounts:ACCT001,ACCT666,ACCT999}") List<String> accounts,
+            @Value("${fraud.rules.suspicious-accounts-file:}") String indexFile) {
+        this.blacklistedAccounts.addAll(accounts);
+        this.configured = BlacklistIndex.of(blacklistedAccounts);
+        this.indexFile = indexFile.isBlank() ? null : Path.of(indexFile);
+        if (this.indexFile != null) {
+            try {
+                reloadIfChanged();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot load blacklist index " + indexFile, e);
+            }
+        }
+        log.info("SuspiciousAccountRule initialized with {} blacklisted accounts and {} indexed",
+                blacklistedAccounts.size(), index.size());
     }
     
     @Override
     public boolean isFraudulent(Transaction transaction) {
-        if (transaction.getAccountId() == null) {
+        return isBlacklisted(transaction.getAccountId());
+    }
+    
+    @Override
+    public boolean isFraudulent(TransactionView view) {
+        return isBlacklisted(view);
+    }
+    
+    boolean isBlacklisted(Transaction transaction) {
+        return isBlacklisted(transaction.getAccountId());
+    }
+    
+    boolean isBlacklisted(TransactionView view) {
+        if (!view.hasAccountId()) {
             return false;
         }
-        return blacklistedAccounts.contains(transaction.getAccountId());
+        long hash = view.getAccountIdHash();
+        char[] chars = view.getAccountIdChars();
+        int length = view.getAccountIdLength();
+        return index.contains(hash, chars, length) || configured.contains(hash, chars, length);
+    }
+    
+    private boolean isBlacklisted(String accountId) {
+        return accountId != null && (index.contains(accountId) || blacklistedAccounts.contains(accountId));
     }
     
     @Override
@@ -47,9 +105,47 @@ public class SuspiciousAccountRule implements FraudRule {
     /**
      * Allows dynamic addition of accounts to blacklist.
      */
-    public void addToBlacklist(String accountId) {
+    public synchronized void addToBlacklist(String accountId) {
         blacklistedAccounts.add(accountId);
+        configured = BlacklistIndex.of(blacklistedAccounts);
         log.warn("Added account to blacklist: {}", accountId);
     }
+    
+    /**
+     * Number of accounts in the current index file, excluding configured and added accounts.
+     */
+    public int getIndexedAccountCount() {
+        return index.size();
+    }
+    
+    /**
+     * Poll the index file and swap in a new mapping when it changed. A failed reload
+     * keeps the previous index. Replace the file atomically (see {@link BlacklistIndex#write}).
+     */
+    @Scheduled(fixedDelayString = "${fraud.rules.suspicious-accounts-reload-interval:30000}")
+    public void reload() {
+        if (indexFile == null) {
+            return;
+        }
+        try {
+            reloadIfChanged();
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed to reload blacklist index {}, keeping {} accounts: {}",
+                    indexFile, index.size(), e.getMessage());
+        }
+    }
+    
+    private synchronized void reloadIfChanged() throws IOException {
+        FileTime modifiedTime = Files.getLastModifiedTime(indexFile);
+        long size = Files.size(indexFile);
+        if (modifiedTime.equals(indexModifiedTime) && size == indexFileSize) {
+            return;
+        }
+        
+        BlacklistIndex reloaded = BlacklistIndex.open(indexFile);
+        index = reloaded;
+        indexModifiedTime = modifiedTime;
+        indexFileSize = size;
+        log.info("Loaded blacklist index {} with {} accounts", indexFile, reloaded.size());
+    }
 }
-
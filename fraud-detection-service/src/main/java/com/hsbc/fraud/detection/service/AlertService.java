@@ -1,124 +1,106 @@
 package com.hsbc.fraud.detection.service;
 
-import com.hsbc.fraud.detection.logging.LoggingContext;
-import com.hsbc.fraud.detection.logging.StructuredLogger;
+import com.hsbc.fraud.detection.alert.AlertAggregator;
+import com.hsbc.fraud.detection.alert.AlertPipeline;
+import com.hsbc.fraud.detection.alert.LoggingAlertSink;
+import com.hsbc.fraud.detection.alert.journal.AlertJournal;
 import com.hsbc.fraud.detection.metrics.MetricsCollector;
 import com.hsbc.fraud.detection.model.FraudAlert;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import jakarta.annotation.PreDestroy;
 
 /**
  * Service responsible for handling fraud alerts through various channels.
- * In production, this would integrate with alerting systems, databases, etc.
- * Uses distributed logging with correlation IDs for tracing across services.
- * Emits CloudWatch metrics via structured logging for monitoring.
+ * 
+ * Each alert is first written to the AlertJournal on the calling thread, a
+ * lock-free append of one record, so it can be queried as soon as it is raised.
+ * 
+ * It is then handed to the AlertPipeline, which delivers it to every AlertSink
+ * (logs and metrics via LoggingAlertSink, plus any other sink beans) on the
+ * sinks' own threads, so the thread that scored the transaction returns at once.
+ * With alert.pipeline.enabled=false alerts are logged inline instead.
+ * 
+ * In between, the AlertAggregator folds repeats of an alert (same account and
+ * rules within its window) into one summary, delivered when the window closes.
+ * The journal still records every alert.
+ * 
+ * The pipeline, journal and aggregator are injected directly, not looked up, so
+ * Spring registers them as dependencies and destroys this service first: windows
+ * still open at shutdown are flushed into a pipeline that is still running.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AlertService {
     
-    private final MetricsCollector metricsCollector;
-    private final StructuredLogger structuredLogger = StructuredLogger.getLogger(AlertService.class);
+    private final LoggingAlertSink loggingSink;
+    private final AlertPipeline pipeline;
+    private final AlertJournal journal;
+    private final AlertAggregator aggregator;
     
     /**
-     * Processes a fraud alert by logging and potentially notifying external systems.
-     * Uses structured logging for easy parsing by CloudWatch/Stackdriver.
-     * Emits CloudWatch metrics via log metric filters.
+     * Handles alerts inline on the calling thread.
+     */
+    public AlertService(MetricsCollector metricsCollector) {
+        this(new LoggingAlertSink(metricsCollector), null, null, null);
+    }
+    
+    /**
+     * Each optional bean is null when disabled by configuration.
+     */
+    @Autowired
+    public AlertService(LoggingAlertSink loggingSink,
+                        @Nullable AlertPipeline pipeline,
+                        @Nullable AlertJournal journal,
+                        @Nullable AlertAggregator aggregator) {
+        this.loggingSink = loggingSink;
+        this.pipeline = pipeline;
+        this.journal = journal;
+        this.aggregator = aggregator;
+        log.info("Alerts are {}", pipeline != null ? "delivered asynchronously through the alert pipeline" : "logged inline");
+    }
+    
+    /**
+     * Processes a fraud alert by journaling it and notifying the configured sinks.
      * 
      * @param alert The fraud alert to process
      */
     public void handleAlert(FraudAlert alert) {
-        // Set MDC context for structured logging
-        LoggingContext.put("alertId", alert.getAlertId());
-        LoggingContext.put("transactionId", alert.getTransaction().getTransactionId());
-        LoggingContext.put("accountId", alert.getTransaction().getAccountId());
-        LoggingContext.put("severity", alert.getSeverity().name());
-        
-        try {
-            // Record Prometheus metric: Fraud Detected with severity
-            double amount = alert.getTransaction().getAmount() != null 
-                ? alert.getTransaction().getAmount().doubleValue() 
-                : 0.0;
-            metricsCollector.recordFraudDetected(
-                alert.getSeverity().name(),
-                alert.getTransaction().getAccountId(),
-                amount
-            );
-            
-            // Record Prometheus metrics for each rule violation
-            emitRuleViolationMetrics(alert);
-            
-            // Use structured logger for cloud-native logging
-            structuredLogger.logFraudAlert(
-                alert.getAlertId(),
-                alert.getTransaction().getTransactionId(),
-                alert.getTransaction().getAccountId(),
-                alert.getSeverity().name(),
-                alert.getViolatedRules().size(),
-                createAdditionalContext(alert)
-            );
-            
-            // Also log with traditional logger for backward compatibility
-            log.error("FRAUD_DETECTED: alertId={}, transactionId={}, accountId={}, amount={}, severity={}, rules={}, message={}",
-                    alert.getAlertId(),
-                    alert.getTransaction().getTransactionId(),
-                    alert.getTransaction().getAccountId(),
-                    alert.getTransaction().getAmount(),
-                    alert.getSeverity(),
-                    alert.getViolatedRules().size(),
-                    alert.getMessage());
-            
-            // In production, you would:
-            // - Store in database
-            // - Send to monitoring/alerting system (PagerDuty, Opsgenie)
-            // - Trigger workflow for manual review
-            // - Update real-time dashboard
-            
-        } finally {
-            // Clear only alert-specific context, keep correlation IDs
-            LoggingContext.remove("alertId");
-            LoggingContext.remove("severity");
+        if (journal != null) {
+            journal.append(alert);
         }
+        if (aggregator != null && aggregator.aggregate(alert) == null) {
+            return;
+        }
+        deliver(alert);
     }
     
     /**
-     * Records Prometheus metrics for each rule violation in the alert.
+     * Delivers summaries of aggregation windows that have closed.
      */
-    private void emitRuleViolationMetrics(FraudAlert alert) {
-        String accountId = alert.getTransaction().getAccountId();
-        
-        for (String rule : alert.getViolatedRules()) {
-            switch (rule.toUpperCase()) {
-                case "LARGE_AMOUNT":
-                    metricsCollector.recordRuleViolation(MetricsCollector.RULE_LARGE_AMOUNT, accountId);
-                    break;
-                case "SUSPICIOUS_ACCOUNT":
-                    metricsCollector.recordRuleViolation(MetricsCollector.RULE_SUSPICIOUS_ACCOUNT, accountId);
-                    break;
-                case "RAPID_FIRE":
-                    metricsCollector.recordRuleViolation(MetricsCollector.RULE_RAPID_FIRE, accountId);
-                    break;
-                default:
-                    metricsCollector.recordRuleViolation(rule, accountId);
-            }
+    @Scheduled(fixedDelayString = "${alert.aggregation.flush-interval-ms:1000}")
+    public void flushAggregatedAlerts() {
+        if (aggregator != null) {
+            aggregator.flush(this::deliver);
         }
     }
     
-    /**
-     * Creates additional context for structured logging.
-     */
-    private Map<String, Object> createAdditionalContext(FraudAlert alert) {
-        Map<String, Object> context = new HashMap<>();
-        context.put("amount", alert.getTransaction().getAmount());
-        context.put("timestamp", alert.getDetectedAt());
-        context.put("message", alert.getMessage());
-        context.put("violatedRules", String.join(", ", alert.getViolatedRules()));
-        return context;
+    @PreDestroy
+    public void shutdown() {
+        if (aggregator != null) {
+            aggregator.flushAll(this::deliver);
+        }
+    }
+    
+    private void deliver(FraudAlert alert) {
+        if (pipeline != null) {
+            pipeline.publish(alert);
+        } else {
+            loggingSink.handle(alert);
+        }
     }
 }
-
@@ -1,34 +1,143 @@
 package com.hsbc.fraud.detection.service;
 
+import com.hsbc.fraud.detection.feature.AccountFeatureStore;
 import com.hsbc.fraud.detection.logging.LoggingContext;
 import com.hsbc.fraud.detection.logging.StructuredLogger;
 import com.hsbc.fraud.detection.model.FraudAlert;
 import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
 import com.hsbc.fraud.detection.rule.FraudRule;
-import lombok.RequiredArgsConstructor;
+import com.hsbc.fraud.detection.rule.RulePlan;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Core fraud detection engine that orchestrates multiple fraud rules.
  * Follows Open/Closed Principle: open for extension (add new rules), closed for modification.
  * Uses distributed logging for tracing across the system.
+ * 
+ * Every rule evaluation is timed into a per-rule histogram (fraud.rule.evaluation.time)
+ * and counted towards the rule's hit rate. With a short-circuit mode
+ * (fraud.engine.short-circuit: first-match | severity-cap), evaluation stops once enough
+ * rules have fired, and the evaluation order is periodically re-sorted from those
+ * statistics so cheap, selective rules run first. Stateful rules
+ * ({@link FraudRule#isStateful()}) are never skipped.
+ * 
+ * With fraud.engine.compiled-plan (off by default), the built-in rules are fused into a
+ * single {@link RulePlan} evaluated ahead of the remaining rules; it is timed as one
+ * entry (rule=COMPILED_PLAN) and always runs in full, so the per-rule statistics,
+ * reordering and short-circuiting above only apply to the rules it leaves over.
+ * 
+ * With fraud.features.enabled, every transaction is recorded in the
+ * {@link AccountFeatureStore} once the rules have run, so rules reading it see the
+ * account's history up to, not including, the transaction being scored.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class FraudDetectionEngine {
     
+    /**
+     * Analyses between re-sorts of the evaluation order.
+     */
+    private static final int REORDER_INTERVAL = 4096;
+    
+    /**
+     * Weight of the latest interval in the per-rule cost and hit-rate averages.
+     */
+    private static final double SMOOTHING = 0.3;
+    
+    /**
+     * Floor for hit rates so rules that never fire still get a finite rank.
+     */
+    private static final double MIN_HIT_RATE = 1e-4;
+    
     private final StructuredLogger structuredLogger = StructuredLogger.getLogger(FraudDetectionEngine.class);
+    private final AlertIdGenerator alertIdGenerator = new AlertIdGenerator();
+    
+    private static final String COMPILED_PLAN = "COMPILED_PLAN";
     
     private final List<FraudRule> fraudRules;
+    private final RulePlan plan;
+    private final Timer planTimer;
+    private final ShortCircuitMode shortCircuitMode;
+    private final int stopAfterViolations;
+    private final AccountFeatureStore featureStore;
+    private final AtomicLong analyses = new AtomicLong();
+    private volatile RuleStatistics[] evaluationOrder;
+    
+    public FraudDetectionEngine(List<FraudRule> fraudRules) {
+        this(fraudRules, new SimpleMeterRegistry(), ShortCircuitMode.NONE, FraudAlert.FraudSeverity.CRITICAL, true);
+    }
+    
+    public FraudDetectionEngine(
+            List<FraudRule> fraudRules,
+            MeterRegistry meterRegistry,
+            ShortCircuitMode shortCircuitMode,
+            FraudAlert.FraudSeverity severityCap,
+            boolean compiledPlan) {
+        this(fraudRules, meterRegistry, shortCircuitMode, severityCap, compiledPlan, (AccountFeatureStore) null);
+    }
+    
+    @Autowired
+    public FraudDetectionEngine(
+            List<FraudRule> fraudRules,
+            MeterRegistry meterRegistry,
+            @Value("${fraud.engine.short-circuit:none}") ShortCircuitMode shortCircuitMode,
+            @Value("${fraud.engine.severity-cap:CRITICAL}") FraudAlert.FraudSeverity severityCap,
+            @Value("${fraud.engine.compiled-plan:false}") boolean compiledPlan,
+            ObjectProvider<AccountFeatureStore> featureStore) {
+        this(fraudRules, meterRegistry, shortCircuitMode, severityCap, compiledPlan, featureStore.getIfAvailable());
+    }
+    
+    FraudDetectionEngine(
+            List<FraudRule> fraudRules,
+            MeterRegistry meterRegistry,
+            ShortCircuitMode shortCircuitMode,
+            FraudAlert.FraudSeverity severityCap,
+            boolean compiledPlan,
+            AccountFeatureStore featureStore) {
+        this.fraudRules = fraudRules;
+        this.featureStore = featureStore;
+        this.shortCircuitMode = shortCircuitMode;
+        this.stopAfterViolations = shortCircuitMode.stopAfterViolations(severityCap);
+        
+        List<FraudRule> interpretedRules = fraudRules;
+        if (compiledPlan) {
+            this.plan = RulePlan.compile(fraudRules);
+            this.planTimer = RuleStatistics.evaluationTimer(COMPILED_PLAN, meterRegistry);
+            interpretedRules = plan.getResidualRules();
+        } else {
+            this.plan = null;
+            this.planTimer = null;
+        }
+        
+        RuleStatistics[] statistics = new RuleStatistics[interpretedRules.size()];
+        for (int i = 0; i < statistics.length; i++) {
+            statistics[i] = new RuleStatistics(interpretedRules.get(i), meterRegistry);
+        }
+        this.evaluationOrder = statistics;
+        
+        log.info("FraudDetectionEngine initialized with {} rules, {} compiled (short-circuit: {}, stop after {} violations)",
+                fraudRules.size(), plan != null ? plan.getFusedRules().size() : 0, shortCircuitMode,
+                stopAfterViolations == Integer.MAX_VALUE ? "all" : stopAfterViolations);
+    }
     
     /**
      * Analyzes a transaction against all configured fraud rules.
@@ -45,48 +154,12 @@ public class FraudDetectionEngine {
         try {
             log.debug("Analyzing transaction: {}", transaction.getTransactionId());
             
-            List<String> violatedRules = new ArrayList<>();
-            
-            for (FraudRule rule : fraudRules) {
-                try {
-                    if (rule.isFraudulent(transaction)) {
-                        String reason = rule.getReason(transaction);
-                        violatedRules.add(rule.getRuleName() + ": " + reason);
-                        
-                        Map<String, Object> ruleContext = new HashMap<>();
-                        ruleContext.put("ruleName", rule.getRuleName());
-                        ruleContext.put("reason", reason);
-                        structuredLogger.warn("Transaction violated fraud rule", ruleContext);
-                    }
-                } catch (Exception e) {
-                    Map<String, Object> errorContext = new HashMap<>();
-                    errorContext.put("ruleName", rule.getRuleName());
-                    errorContext.put("error", e.getMessage());
-                    structuredLogger.error("Error executing fraud rule", e, errorContext);
-                }
-            }
+            List<FraudRule> violated = evaluateRules(transaction, null);
             
             long duration = System.currentTimeMillis() - startTime;
             
-            if (!violatedRules.isEmpty()) {
-                FraudAlert alert = FraudAlert.builder()
-                        .alertId(UUID.randomUUID().toString())
-                        .transaction(transaction)
-                        .violatedRules(violatedRules)
-                        .severity(determineSeverity(violatedRules.size()))
-                        .detectedAt(Instant.now())
-                        .message("FRAUD DETECTED: " + String.join(", ", violatedRules))
-                        .build();
-                
-                Map<String, Object> alertContext = new HashMap<>();
-                alertContext.put("ruleCount", violatedRules.size());
-                alertContext.put("durationMs", duration);
-                structuredLogger.error("Fraud alert generated", alertContext);
-                
-                log.error("🚨 FRAUD ALERT: Transaction {} flagged by {} rules",
-                        transaction.getTransactionId(), violatedRules.size());
-                
-                return alert;
+            if (violated != null) {
+                return buildAlert(transaction, violated, duration);
             }
             
             // Log performance metrics
@@ -101,11 +174,262 @@ public class FraudDetectionEngine {
         }
     }
     
+    /**
+     * Analyzes a transaction held in an allocation-free view against all configured fraud rules.
+     * 
+     * Rules are evaluated through {@link FraudRule#isFraudulent(TransactionView)}. A
+     * {@link Transaction} is only materialized when at least one rule fires, to build the
+     * alert, so clean transactions allocate nothing here. Unlike
+     * {@link #analyzeTransaction(Transaction)}, no MDC context or per-transaction performance
+     * log is written for clean transactions; their latency is covered by the processing timers.
+     * 
+     * @param view The transaction view to analyze; not retained
+     * @return FraudAlert if fraud is detected, null otherwise
+     */
+    public FraudAlert analyzeTransaction(TransactionView view) {
+        long startTime = System.currentTimeMillis();
+        List<FraudRule> violated = evaluateRules(null, view);
+        
+        if (violated == null) {
+            return null;
+        }
+        
+        Transaction transaction = view.toTransaction();
+        LoggingContext.setTransactionContext(transaction.getTransactionId(), transaction.getAccountId());
+        
+        return buildAlert(transaction, violated, System.currentTimeMillis() - startTime);
+    }
+    
+    /**
+     * Run the compiled plan, then the remaining rules in the current evaluation order,
+     * against either the transaction or the view.
+     * 
+     * @return the rules that fired, or null if none did (allocates only on a hit)
+     */
+    private List<FraudRule> evaluateRules(Transaction transaction, TransactionView view) {
+        RuleStatistics[] order = evaluationOrder;
+        List<FraudRule> violated = null;
+        int violations = 0;
+        
+        if (plan != null) {
+            long start = System.nanoTime();
+            try {
+                long mask = transaction != null ? plan.evaluate(transaction) : plan.evaluate(view);
+                if (mask != 0) {
+                    violated = plan.violatedRules(mask);
+                    violations = violated.size();
+                }
+            } catch (Exception e) {
+                logRuleError(COMPILED_PLAN, e);
+            }
+            planTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        
+        for (RuleStatistics statistics : order) {
+            FraudRule rule = statistics.rule;
+            if (violations >= stopAfterViolations && !statistics.stateful) {
+                continue;
+            }
+            
+            long start = System.nanoTime();
+            boolean hit;
+            try {
+                hit = transaction != null ? rule.isFraudulent(transaction) : rule.isFraudulent(view);
+            } catch (Exception e) {
+                statistics.record(System.nanoTime() - start, false);
+                logRuleError(rule, e);
+                continue;
+            }
+            statistics.record(System.nanoTime() - start, hit);
+            
+            if (hit) {
+                if (violated == null) {
+                    violated = new ArrayList<>(order.length);
+                }
+                violated.add(rule);
+                violations++;
+            }
+        }
+        
+        if (featureStore != null) {
+            if (transaction != null) {
+                featureStore.record(transaction);
+            } else {
+                featureStore.record(view);
+            }
+        }
+        
+        if (shortCircuitMode != ShortCircuitMode.NONE
+                && analyses.incrementAndGet() % REORDER_INTERVAL == 0) {
+            reorder();
+        }
+        return violated;
+    }
+    
+    /**
+     * Re-sort the evaluation order by expected cost per hit (mean cost / hit rate),
+     * the optimal order for stopping at the first hit when rules are independent.
+     * Runs on whichever thread crosses the interval; readers keep using the old array.
+     */
+    private synchronized void reorder() {
+        RuleStatistics[] current = evaluationOrder;
+        for (RuleStatistics statistics : current) {
+            statistics.updateAverages();
+        }
+        
+        RuleStatistics[] sorted = current.clone();
+        Arrays.sort(sorted, Comparator.comparingDouble(RuleStatistics::rank));
+        if (!Arrays.equals(sorted, current)) {
+            evaluationOrder = sorted;
+            log.info("Fraud rule evaluation order changed to {}", getEvaluationOrder());
+        }
+    }
+    
+    /**
+     * Current rule evaluation order, by rule name.
+     */
+    public List<String> getEvaluationOrder() {
+        RuleStatistics[] order = evaluationOrder;
+        List<String> names = new ArrayList<>(order.length);
+        if (plan != null) {
+            plan.getFusedRules().forEach(rule -> names.add(rule.getRuleName()));
+        }
+        for (RuleStatistics statistics : order) {
+            names.add(statistics.rule.getRuleName());
+        }
+        return names;
+    }
+    
+    /**
+     * Render "RULE_NAME: reason" for each violated rule. Runs on whichever sink thread
+     * first reads the alert, so it has no side effects; LoggingAlertSink logs the
+     * violations. A rule whose reason fails is rendered as "RULE_NAME: reason unavailable".
+     */
+    private static List<String> renderViolations(Transaction transaction, List<FraudRule> violated) {
+        List<String> violatedRules = new ArrayList<>(violated.size());
+        for (FraudRule rule : violated) {
+            String reason;
+            try {
+                reason = rule.getReason(transaction);
+            } catch (Exception e) {
+                reason = "reason unavailable (" + e + ")";
+            }
+            violatedRules.add(rule.getRuleName() + ": " + reason);
+        }
+        return violatedRules;
+    }
+    
+    private void logRuleError(FraudRule rule, Exception e) {
+        logRuleError(rule.getRuleName(), e);
+    }
+    
+    private void logRuleError(String ruleName, Exception e) {
+        Map<String, Object> errorContext = new HashMap<>();
+        errorContext.put("ruleName", ruleName);
+        errorContext.put("error", e.getMessage());
+        structuredLogger.error("Error executing fraud rule", e, errorContext);
+    }
+    
+    /**
+     * Build an alert carrying rule ids only; reasons and message are rendered lazily by
+     * {@link FraudAlert} when a sink first reads them.
+     */
+    private FraudAlert buildAlert(Transaction transaction, List<FraudRule> violated, long duration) {
+        List<String> ruleIds = new ArrayList<>(violated.size());
+        for (FraudRule rule : violated) {
+            ruleIds.add(rule.getRuleName());
+        }
+        
+        FraudAlert alert = FraudAlert.builder()
+                .alertId(alertIdGenerator.nextId())
+                .transaction(transaction)
+                .ruleIds(ruleIds)
+                .violationRenderer(() -> renderViolations(transaction, violated))
+                .severity(determineSeverity(ruleIds.size()))
+                .detectedAt(Instant.now())
+                .build();
+        
+        log.error("🚨 FRAUD ALERT: Transaction {} flagged by {} rules in {}ms",
+                transaction.getTransactionId(), ruleIds.size(), duration);
+        
+        return alert;
+    }
+    
     private FraudAlert.FraudSeverity determineSeverity(int violatedRulesCount) {
         if (violatedRulesCount >= 3) return FraudAlert.FraudSeverity.CRITICAL;
         if (violatedRulesCount == 2) return FraudAlert.FraudSeverity.HIGH;
         if (violatedRulesCount == 1) return FraudAlert.FraudSeverity.MEDIUM;
         return FraudAlert.FraudSeverity.LOW;
     }
+    
+    /**
+     * Online cost and selectivity statistics for one rule.
+     * Counters are striped so concurrent workers do not contend; the averages are
+     * only touched under the engine's reorder lock.
+     */
+    private static final class RuleStatistics {
+        
+        private final FraudRule rule;
+        private final boolean stateful;
+        private final Timer evaluationTimer;
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        
+        private long lastEvaluations;
+        private long lastHits;
+        private long lastNanos;
+        private double meanCostNanos;
+        private double hitRate;
+        private boolean initialized;
+        
+        RuleStatistics(FraudRule rule, MeterRegistry meterRegistry) {
+            this.rule = rule;
+            this.stateful = rule.isStateful();
+            this.evaluationTimer = evaluationTimer(String.valueOf(rule.getRuleName()), meterRegistry);
+        }
+        
+        static Timer evaluationTimer(String ruleName, MeterRegistry meterRegistry) {
+            return Timer.builder("fraud.rule.evaluation.time")
+                    .description("Time taken to evaluate a single fraud rule")
+                    .tag("rule", ruleName)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        
+        void record(long durationNanos, boolean hit) {
+            evaluations.increment();
+            nanos.add(durationNanos);
+            if (hit) {
+                hits.increment();
+            }
+            evaluationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+        
+        void updateAverages() {
+            long totalEvaluations = evaluations.sum();
+            long totalHits = hits.sum();
+            long totalNanos = nanos.sum();
+            long deltaEvaluations = totalEvaluations - lastEvaluations;
+            if (deltaEvaluations > 0) {
+                double intervalCost = (double) (totalNanos - lastNanos) / deltaEvaluations;
+                double intervalHitRate = (double) (totalHits - lastHits) / deltaEvaluations;
+                if (initialized) {
+                    meanCostNanos += SMOOTHING * (intervalCost - meanCostNanos);
+                    hitRate += SMOOTHING * (intervalHitRate - hitRate);
+                } else {
+                    meanCostNanos = intervalCost;
+                    hitRate = intervalHitRate;
+                    initialized = true;
+                }
+            }
+            lastEvaluations = totalEvaluations;
+            lastHits = totalHits;
+            lastNanos = totalNanos;
+        }
+        
+        double rank() {
+            return meanCostNanos / Math.max(hitRate, MIN_HIT_RATE);
+        }
+    }
 }
-
@@ -0,0 +1,44 @@
+package com.hsbc.fraud.detection.service;
+
+import com.hsbc.fraud.detection.model.FraudAlert;
+
+/**
+ * When the fraud detection engine may stop evaluating rules for a transaction.
+ *
+ * Skipped rules do not appear in the alert, so short-circuiting trades
+ * completeness of the violated-rules list for latency. Stateful rules are
+ * always evaluated regardless of the mode.
+ */
+public enum ShortCircuitMode {
+
+    /**
+     * Evaluate every rule; the alert lists all violations.
+     */
+    NONE,
+
+    /**
+     * Stop after the first violated rule; the alert has MEDIUM severity.
+     */
+    FIRST_MATCH,
+
+    /**
+     * Stop once enough rules fired to reach the configured severity cap
+     * (fraud.engine.severity-cap), since further hits cannot raise it.
+     */
+    SEVERITY_CAP;
+
+    /**
+     * Number of violations after which the remaining stateless rules are skipped.
+     */
+    int stopAfterViolations(FraudAlert.FraudSeverity severityCap) {
+        return switch (this) {
+            case NONE -> Integer.MAX_VALUE;
+            case FIRST_MATCH -> 1;
+            case SEVERITY_CAP -> switch (severityCap) {
+                case LOW, MEDIUM -> 1;
+                case HIGH -> 2;
+                case CRITICAL -> 3;
+            };
+        };
+    }
+}
@@ -0,0 +1,179 @@
+package com.hsbc.fraud.detection.alert;
+
+import com.hsbc.fraud.detection.model.FraudAlert;
+import com.hsbc.fraud.detection.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AlertAggregator Tests")
+class AlertAggregatorTest {
+    
+    private static final long WINDOW_MILLIS = 60_000;
+    
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final List<FraudAlert> summaries = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private AlertAggregator aggregator;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aggregator = new AlertAggregator(WINDOW_MILLIS, 100, meterRegistry, clock::get);
+    }
+    
+    @Test
+    @DisplayName("Should pass the first alert on and fold repeats into one summary when the window closes")
+    void shouldFoldRepeatsIntoSummary() {
+        // Given
+        FraudAlert first = createAlert("ALERT-0", "ACCT666", "SUSPICIOUS_ACCOUNT_RULE");
+        
+        // When
+        FraudAlert passed = aggregator.aggregate(first);
+        for (int i = 1; i <= 500; i++) {
+            clock.addAndGet(10);
+            assertThat(aggregator.aggregate(createAlert("ALERT-" + i, "ACCT666", "SUSPICIOUS_ACCOUNT_RULE"))).isNull();
+        }
+        aggregator.flush(summaries::add);
+        assertThat(summaries).isEmpty();
+        clock.set(1_000_000 + WINDOW_MILLIS);
+        aggregator.flush(summaries::add);
+        
+        // Then
+        assertThat(passed).isSameAs(first);
+        assertThat(summaries).hasSize(1);
+        FraudAlert summary = summaries.get(0);
+        assertThat(summary.getAggregatedCount()).isEqualTo(500);
+        assertThat(summary.getAggregatedSince()).isEqualTo(first.getDetectedAt());
+        assertThat(summary.getTransaction().getTransactionId()).isEqualTo("TX-ALERT-500");
+        assertThat(summary.getRuleIds()).containsExactly("SUSPICIOUS_ACCOUNT_RULE");
+        assertThat(summary.getAlertId()).isNotEqualTo("ALERT-500");
+        assertThat(summary.getMessage()).contains("500 further alerts for account ACCT666");
+        assertThat(meterRegistry.get("alert.aggregation.folded").counter().count()).isEqualTo(500);
+        assertThat(meterRegistry.get("alert.aggregation.windows").gauge().value()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Should aggregate separately per account and rule set, in any rule order")
+    void shouldKeyOnAccountAndRuleSet() {
+        // When
+        FraudAlert first = aggregator.aggregate(createAlert("A", "ACCT1", "LARGE_AMOUNT_RULE", "RAPID_FIRE_RULE"));
+        FraudAlert reordered = aggregator.aggregate(createAlert("B", "ACCT1", "RAPID_FIRE_RULE", "LARGE_AMOUNT_RULE"));
+        FraudAlert otherRules = aggregator.aggregate(createAlert("C", "ACCT1", "LARGE_AMOUNT_RULE"));
+        FraudAlert otherAccount = aggregator.aggregate(createAlert("D", "ACCT2", "LARGE_AMOUNT_RULE", "RAPID_FIRE_RULE"));
+        
+        // Then
+        assertThat(first).isNotNull();
+        assertThat(reordered).isNull();
+        assertThat(otherRules).isNotNull();
+        assertThat(otherAccount).isNotNull();
+    }
+    
+    @Test
+    @DisplayName("Should emit no summary for a window without repeats and open a new window after expiry")
+    void shouldOpenNewWindowAfterExpiry() {
+        // Given
+        aggregator.aggregate(createAlert("A", "ACCT1", "LARGE_AMOUNT_RULE"));
+        aggregator.aggregate(createAlert("B", "ACCT1", "LARGE_AMOUNT_RULE"));
+        
+        // When - the window is closed by the next alert before any flush
+        clock.addAndGet(WINDOW_MILLIS);
+        FraudAlert next = aggregator.aggregate(createAlert("C", "ACCT1", "LARGE_AMOUNT_RULE"));
+        clock.addAndGet(WINDOW_MILLIS);
+        aggregator.flush(summaries::add);
+        
+        // Then
+        assertThat(next).isNotNull();
+        assertThat(summaries).extracting(FraudAlert::getAggregatedCount).containsExactly(1L);
+    }
+    
+    @Test
+    @DisplayName("Should pass alerts through unaggregated when the window map is full")
+    void shouldPassThroughWhenFull() {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            aggregator.aggregate(createAlert("A-" + i, "ACCT" + i, "LARGE_AMOUNT_RULE"));
+        }
+        
+        // When
+        FraudAlert first = aggregator.aggregate(createAlert("X-1", "ACCT-NEW", "LARGE_AMOUNT_RULE"));
+        FraudAlert repeat = aggregator.aggregate(createAlert("X-2", "ACCT-NEW", "LARGE_AMOUNT_RULE"));
+        
+        // Then
+        assertThat(first).isNotNull();
+        assertThat(repeat).isNotNull();
+        assertThat(meterRegistry.get("alert.aggregation.overflow").counter().count()).isEqualTo(2);
+    }
+    
+    @Test
+    @DisplayName("Should count every alert exactly once while workers race a flush")
+    void shouldCountEveryAlertUnderConcurrency() throws Exception {
+        // Given
+        int threads = 4;
+        int perThread = 5_000;
+        AtomicInteger passed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    if (aggregator.aggregate(createAlert("A", "ACCT666", "SUSPICIOUS_ACCOUNT_RULE")) != null) {
+                        passed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        
+        // When - flushAll closes windows while alerts keep arriving
+        workers.forEach(Thread::start);
+        start.countDown();
+        List<FraudAlert> flushed = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            aggregator.flushAll(flushed::add);
+            Thread.yield();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        aggregator.flushAll(flushed::add);
+        
+        // Then
+        long folded = flushed.stream().mapToLong(FraudAlert::getAggregatedCount).sum();
+        assertThat(passed.get() + folded).isEqualTo(threads * perThread);
+    }
+    
+    private FraudAlert createAlert(String alertId, String accountId, String... ruleIds) {
+        Transaction transaction = Transaction.builder()
+                .transactionId("TX-" + alertId)
+                .accountId(accountId)
+                .amount(new BigDecimal("100.00"))
+                .currency("USD")
+                .timestamp(Instant.ofEpochMilli(clock.get()))
+                .build();
+        
+        return FraudAlert.builder()
+                .alertId(alertId)
+                .transaction(transaction)
+                .ruleIds(List.of(ruleIds))
+                .violatedRules(List.of(ruleIds))
+                .severity(FraudAlert.FraudSeverity.MEDIUM)
+                .detectedAt(Instant.ofEpochMilli(clock.get()))
+                .build();
+    }
+}
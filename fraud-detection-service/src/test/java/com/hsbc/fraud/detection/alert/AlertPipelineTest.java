@@ -0,0 +1,322 @@
+package com.hsbc.fraud.detection.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hsbc.fraud.detection.disruptor.WaitStrategyType;
+import com.hsbc.fraud.detection.logging.LoggingContext;
+import com.hsbc.fraud.detection.model.FraudAlert;
+import com.hsbc.fraud.detection.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@DisplayName("AlertPipeline Tests")
+class AlertPipelineTest {
+    
+    @TempDir
+    Path spillDirectory;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private ObjectMapper objectMapper;
+    private MockEnvironment environment;
+    private AlertPipeline pipeline;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        environment = new MockEnvironment();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+        LoggingContext.remove(LoggingContext.CORRELATION_ID);
+    }
+    
+    @Test
+    @DisplayName("Should deliver every alert to every sink in order, with the caller's correlation ID")
+    void shouldDeliverEveryAlertToEverySink() throws Exception {
+        // Given
+        RecordingSink first = new RecordingSink("first", BackpressurePolicy.BLOCK);
+        RecordingSink second = new RecordingSink("second", BackpressurePolicy.BLOCK);
+        pipeline = createPipeline(List.of(first, second), 1024, 10);
+        LoggingContext.setCorrelationId("corr-1");
+        
+        // When
+        for (int i = 0; i < 50; i++) {
+            pipeline.publish(createAlert("ALERT-" + i));
+        }
+        
+        // Then
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(second.alertIds()).hasSize(50));
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(first.alertIds()).hasSize(50));
+        assertThat(first.alertIds()).isEqualTo(second.alertIds()).startsWith("ALERT-0", "ALERT-1");
+        assertThat(first.maxBatchSize).isLessThanOrEqualTo(10);
+        assertThat(first.correlationIds()).containsOnly("corr-1");
+        assertThat(meterRegistry.get("alert.sink.delivered").tag("sink", "first").counter().count()).isEqualTo(50);
+        assertThat(meterRegistry.get("alert.sink.latency").tag("sink", "first").timer().count()).isEqualTo(50);
+    }
+    
+    @Test
+    @DisplayName("Should not hold up publishing or other sinks while a drop-oldest sink is stuck")
+    void shouldDropOldestWhenSinkIsStuck() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink stuck = new RecordingSink("stuck", BackpressurePolicy.DROP_OLDEST, release);
+        RecordingSink healthy = new RecordingSink("healthy", BackpressurePolicy.BLOCK);
+        pipeline = createPipeline(List.of(stuck, healthy), 4, 2);
+        
+        // When
+        for (int i = 0; i < 100; i++) {
+            pipeline.publish(createAlert("ALERT-" + i));
+        }
+        
+        // Then
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(healthy.alertIds()).hasSize(100));
+        release.countDown();
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(stuck.alertIds()).contains("ALERT-99"));
+        
+        double dropped = meterRegistry.get("alert.sink.dropped").tag("sink", "stuck").counter().count();
+        assertThat(dropped).isGreaterThan(0);
+        assertThat(stuck.alertIds().size() + dropped).isEqualTo(100);
+    }
+    
+    @Test
+    @DisplayName("Should spill to disk while a sink is stuck and deliver everything in order afterwards")
+    void shouldSpillToDiskAndDeliverInOrder() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink("slow", BackpressurePolicy.SPILL_TO_DISK, release);
+        pipeline = createPipeline(List.of(slow), 4, 3);
+        
+        // When
+        List<String> published = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            published.add("ALERT-" + i);
+            pipeline.publish(createAlert("ALERT-" + i));
+        }
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(
+                        meterRegistry.get("alert.sink.spilled").tag("sink", "slow").counter().count()).isGreaterThan(0));
+        assertThat(Files.size(spillDirectory.resolve("slow.spill"))).isGreaterThan(0);
+        release.countDown();
+        
+        // Then
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(slow.alertIds()).hasSize(100));
+        assertThat(slow.alertIds()).containsExactlyElementsOf(published);
+        assertThat(slow.alerts.get(99).alert().getTransaction().getAmount()).isEqualByComparingTo("15000.00");
+        assertThat(meterRegistry.get("alert.sink.dropped").tag("sink", "slow").counter().count()).isZero();
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(Files.size(spillDirectory.resolve("slow.spill"))).isZero());
+    }
+    
+    @Test
+    @DisplayName("Should deliver alerts spilled by a previous run on start")
+    void shouldDeliverAlertsSpilledByPreviousRun() throws Exception {
+        // Given
+        try (SpillFile spill = new SpillFile(spillDirectory.resolve("slow.spill"), objectMapper)) {
+            spill.append(new AlertEnvelope(createAlert("OLD-1"), "corr-old", System.nanoTime()));
+            spill.append(new AlertEnvelope(createAlert("OLD-2"), null, System.nanoTime()));
+        }
+        // Cut off in the middle of a line
+        Files.writeString(spillDirectory.resolve("slow.spill"), "{\"alert\":{\"alertId\":\"TORN",
+                StandardOpenOption.APPEND);
+        RecordingSink sink = new RecordingSink("slow", BackpressurePolicy.SPILL_TO_DISK);
+        
+        // When
+        pipeline = createPipeline(List.of(sink), 4, 10);
+        pipeline.publish(createAlert("NEW-1"));
+        
+        // Then
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(sink.alertIds()).containsExactly("OLD-1", "OLD-2", "NEW-1"));
+        assertThat(sink.correlationIds()).containsExactly("corr-old", null, null);
+        // Only the alert published in this run has a meaningful latency
+        assertThat(meterRegistry.get("alert.sink.latency").tag("sink", "slow").timer().count()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should take the policy from configuration over the sink's default")
+    void shouldTakePolicyFromConfiguration() throws Exception {
+        // Given
+        environment.setProperty("alert.sinks.stuck.policy", "DROP_OLDEST");
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink stuck = new RecordingSink("stuck", BackpressurePolicy.BLOCK, release);
+        pipeline = createPipeline(List.of(stuck), 4, 2);
+        
+        // When - a blocking sink would stall the dispatcher and its queue stay at 4 alerts
+        for (int i = 0; i < 100; i++) {
+            pipeline.publish(createAlert("ALERT-" + i));
+        }
+        
+        // Then
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(
+                        meterRegistry.get("alert.sink.dropped").tag("sink", "stuck").counter().count()).isGreaterThan(0));
+        release.countDown();
+    }
+    
+    @Test
+    @DisplayName("Should drop alerts at publication instead of waiting when a blocking sink fills the ring buffer")
+    void shouldNeverBlockPublishing() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink stuck = new RecordingSink("stuck", BackpressurePolicy.BLOCK, release);
+        pipeline = createPipeline(List.of(stuck), 16, 4, 2);
+        
+        // When - the sink, its queue, the dispatcher and the 16-slot ring buffer hold about 22 alerts
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (pipeline.publish(createAlert("ALERT-" + i))) {
+                accepted++;
+            }
+        }
+        
+        // Then
+        double dropped = meterRegistry.get("alert.pipeline.dropped").counter().count();
+        assertThat(dropped).isGreaterThan(0);
+        assertThat(accepted + dropped).isEqualTo(100);
+        release.countDown();
+        int delivered = accepted;
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(stuck.alertIds()).hasSize(delivered));
+        assertThat(stuck.alertIds()).startsWith("ALERT-0");
+    }
+    
+    @Test
+    @DisplayName("Should count a batch the sink fails to deliver and keep going")
+    void shouldCountFailedBatches() throws Exception {
+        // Given
+        RecordingSink failing = new RecordingSink("failing", BackpressurePolicy.BLOCK) {
+            @Override
+            public void deliver(List<AlertEnvelope> batch) {
+                if (batch.stream().anyMatch(envelope -> envelope.alert().getAlertId().equals("BAD"))) {
+                    throw new IllegalStateException("Downstream unavailable");
+                }
+                super.deliver(batch);
+            }
+        };
+        pipeline = createPipeline(List.of(failing), 1024, 1);
+        
+        // When
+        pipeline.publish(createAlert("BAD"));
+        pipeline.publish(createAlert("GOOD"));
+        
+        // Then
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(failing.alertIds()).containsExactly("GOOD"));
+        assertThat(meterRegistry.get("alert.sink.failed").tag("sink", "failing").counter().count()).isEqualTo(1);
+    }
+    
+    private AlertPipeline createPipeline(List<AlertSink> sinks, int queueCapacity, int batchSize) throws Exception {
+        return createPipeline(sinks, 1024, queueCapacity, batchSize);
+    }
+    
+    private AlertPipeline createPipeline(List<AlertSink> sinks, int ringBufferSize, int queueCapacity, int batchSize)
+            throws Exception {
+        return new AlertPipeline(sinks, meterRegistry, objectMapper, environment,
+                ringBufferSize, WaitStrategyType.SLEEPING, queueCapacity, batchSize, spillDirectory.toString(), 5);
+    }
+    
+    private FraudAlert createAlert(String alertId) {
+        Transaction transaction = Transaction.builder()
+                .transactionId("TX-" + alertId)
+                .accountId("ACCT100")
+                .amount(new BigDecimal("15000.00"))
+                .currency("USD")
+                .timestamp(Instant.now())
+                .build();
+        
+        return FraudAlert.builder()
+                .alertId(alertId)
+                .transaction(transaction)
+                .ruleIds(List.of("LARGE_AMOUNT_RULE"))
+                .severity(FraudAlert.FraudSeverity.MEDIUM)
+                .detectedAt(Instant.now())
+                .build();
+    }
+    
+    /**
+     * Records delivered alerts; optionally waits for a latch before the first delivery.
+     */
+    private static class RecordingSink implements AlertSink {
+        
+        private final String name;
+        private final BackpressurePolicy policy;
+        private final CountDownLatch release;
+        final List<AlertEnvelope> alerts = Collections.synchronizedList(new ArrayList<>());
+        volatile int maxBatchSize;
+        
+        RecordingSink(String name, BackpressurePolicy policy) {
+            this(name, policy, new CountDownLatch(0));
+        }
+        
+        RecordingSink(String name, BackpressurePolicy policy, CountDownLatch release) {
+            this.name = name;
+            this.policy = policy;
+            this.release = release;
+        }
+        
+        @Override
+        public String getName() {
+            return name;
+        }
+        
+        @Override
+        public BackpressurePolicy getDefaultPolicy() {
+            return policy;
+        }
+        
+        @Override
+        public void deliver(List<AlertEnvelope> batch) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            maxBatchSize = Math.max(maxBatchSize, batch.size());
+            alerts.addAll(batch);
+        }
+        
+        List<String> alertIds() {
+            synchronized (alerts) {
+                return alerts.stream().map(envelope -> envelope.alert().getAlertId()).toList();
+            }
+        }
+        
+        List<String> correlationIds() {
+            synchronized (alerts) {
+                return alerts.stream().map(AlertEnvelope::correlationId).toList();
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.hsbc.fraud.detection.alert.journal;
+
+import com.hsbc.fraud.detection.model.FraudAlert;
+import com.hsbc.fraud.detection.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AlertJournal Tests")
+class AlertJournalTest {
+    
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long START = 1_700_000_000_000L - 1_700_000_000_000L % HOUR;
+    
+    @TempDir
+    Path directory;
+    
+    private final AtomicLong clock = new AtomicLong(START);
+    private SimpleMeterRegistry meterRegistry;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+    
+    @Test
+    @DisplayName("Should read back every field of an appended alert")
+    void shouldRoundTripAlert() throws Exception {
+        // Given
+        AlertJournal journal = createJournal(1024, 24 * HOUR);
+        
+        // When
+        journal.append(createAlert("ALERT-1", "ACCT100", "15000.25", START + 5,
+                FraudAlert.FraudSeverity.HIGH, "LARGE_AMOUNT_RULE", "SUSPICIOUS_ACCOUNT_RULE"));
+        
+        // Then
+        List<JournalEntry> entries = journal.query("ACCT100", null, null, 10);
+        assertThat(entries).containsExactly(new JournalEntry(
+                "ALERT-1",
+                AlertJournal.accountHash("ACCT100"),
+                FraudAlert.FraudSeverity.HIGH,
+                List.of("LARGE_AMOUNT_RULE", "SUSPICIOUS_ACCOUNT_RULE"),
+                new BigDecimal("15000.25"),
+                Instant.ofEpochMilli(START + 5)));
+        assertThat(meterRegistry.get("alert.journal.appended").counter().count()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should query by account and time window, newest first")
+    void shouldQueryByAccountAndTimeWindow() throws Exception {
+        // Given
+        AlertJournal journal = createJournal(1024, 24 * HOUR);
+        for (int i = 0; i < 500; i++) {
+            String account = "ACCT" + (i % 5);
+            journal.append(createAlert("ALERT-" + i, account, "100.00", START + i,
+                    FraudAlert.FraudSeverity.MEDIUM, "RAPID_FIRE_RULE"));
+        }
+        
+        // When
+        List<JournalEntry> byAccount = journal.query("ACCT3", null, null, 1000);
+        List<JournalEntry> inWindow = journal.query(null, Instant.ofEpochMilli(START + 100),
+                Instant.ofEpochMilli(START + 199), 1000);
+        List<JournalEntry> both = journal.query("ACCT3", Instant.ofEpochMilli(START + 100),
+                Instant.ofEpochMilli(START + 199), 1000);
+        List<JournalEntry> latest = journal.query(null, null, null, 3);
+        
+        // Then
+        assertThat(byAccount).hasSize(100).allMatch(entry -> entry.accountHash() == AlertJournal.accountHash("ACCT3"));
+        assertThat(byAccount.get(0).alertId()).isEqualTo("ALERT-498");
+        assertThat(inWindow).hasSize(100);
+        assertThat(both).extracting(JournalEntry::alertId).startsWith("ALERT-198", "ALERT-193").hasSize(20);
+        assertThat(latest).extracting(JournalEntry::alertId).containsExactly("ALERT-499", "ALERT-498", "ALERT-497");
+        assertThat(journal.query("ACCT404", null, null, 10)).isEmpty();
+    }
+    
+    @Test
+    @DisplayName("Should roll segments by time and when full, and delete expired ones")
+    void shouldRollAndExpireSegments() throws Exception {
+        // Given
+        AlertJournal journal = createJournal(10, 2 * HOUR);
+        
+        // When - 25 alerts in the first hour fill three segments, then one per later hour
+        for (int i = 0; i < 25; i++) {
+            journal.append(createAlert("FIRST-" + i, "ACCT100", "1.00", clock.get(), FraudAlert.FraudSeverity.LOW));
+        }
+        for (int hour = 1; hour <= 4; hour++) {
+            clock.set(START + hour * HOUR);
+            journal.append(createAlert("HOUR-" + hour, "ACCT100", "1.00", clock.get(), FraudAlert.FraudSeverity.LOW));
+        }
+        
+        // Then - segments of hours 0 and 1 have expired
+        assertThat(segmentFiles()).hasSize(3);
+        assertThat(journal.query(null, null, null, 100)).extracting(JournalEntry::alertId)
+                .containsExactly("HOUR-4", "HOUR-3", "HOUR-2");
+    }
+    
+    @Test
+    @DisplayName("Should keep alerts and rule names across a restart and continue appending")
+    void shouldSurviveRestart() throws Exception {
+        // Given
+        AlertJournal journal = createJournal(1024, 24 * HOUR);
+        journal.append(createAlert("BEFORE", "ACCT100", "10.00", START, FraudAlert.FraudSeverity.CRITICAL,
+                "SUSPICIOUS_ACCOUNT_RULE"));
+        journal.close();
+        
+        // When
+        AlertJournal reopened = createJournal(1024, 24 * HOUR);
+        reopened.append(createAlert("AFTER", "ACCT100", "20.00", START + 1, FraudAlert.FraudSeverity.MEDIUM,
+                "RAPID_FIRE_RULE", "SUSPICIOUS_ACCOUNT_RULE"));
+        
+        // Then
+        List<JournalEntry> entries = reopened.query("ACCT100", null, null, 10);
+        assertThat(entries).extracting(JournalEntry::alertId).containsExactly("AFTER", "BEFORE");
+        assertThat(entries.get(0).ruleIds()).containsExactly("SUSPICIOUS_ACCOUNT_RULE", "RAPID_FIRE_RULE");
+        assertThat(entries.get(1).ruleIds()).containsExactly("SUSPICIOUS_ACCOUNT_RULE");
+        assertThat(segmentFiles()).hasSize(1);
+    }
+    
+    @Test
+    @DisplayName("Should keep every alert appended concurrently by many workers")
+    void shouldAppendConcurrently() throws Exception {
+        // Given
+        AlertJournal journal = createJournal(1000, 24 * HOUR);
+        int threads = 8;
+        int perThread = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String account = "ACCT" + t;
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    journal.append(createAlert(account + "-" + i, account, "1.00", START + i,
+                            FraudAlert.FraudSeverity.LOW, "LARGE_AMOUNT_RULE"));
+                }
+            }));
+        }
+        
+        // When
+        workers.forEach(Thread::start);
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        
+        // Then - segments of 1000 records roll early, under contention
+        assertThat(journal.query(null, null, null, Integer.MAX_VALUE)).hasSize(threads * perThread);
+        assertThat(journal.query("ACCT5", null, null, Integer.MAX_VALUE))
+                .extracting(JournalEntry::alertId)
+                .doesNotHaveDuplicates()
+                .hasSize(perThread);
+        assertThat(segmentFiles()).hasSize(threads * perThread / 1000);
+        assertThat(meterRegistry.get("alert.journal.failed").counter().count()).isZero();
+    }
+    
+    private AlertJournal createJournal(int segmentRecords, long retentionMillis) throws Exception {
+        return new AlertJournal(directory, HOUR, segmentRecords, retentionMillis, meterRegistry, clock::get);
+    }
+    
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".journal")).toList();
+        }
+    }
+    
+    private FraudAlert createAlert(String alertId, String accountId, String amount, long detectedAt,
+                                   FraudAlert.FraudSeverity severity, String... ruleIds) {
+        Transaction transaction = Transaction.builder()
+                .transactionId("TX-" + alertId)
+                .accountId(accountId)
+                .amount(new BigDecimal(amount))
+                .currency("USD")
+                .timestamp(Instant.ofEpochMilli(detectedAt))
+                .build();
+        
+        return FraudAlert.builder()
+                .alertId(alertId)
+                .transaction(transaction)
+                .ruleIds(List.of(ruleIds))
+                .severity(severity)
+                .detectedAt(Instant.ofEpochMilli(detectedAt))
+                .build();
+    }
+}
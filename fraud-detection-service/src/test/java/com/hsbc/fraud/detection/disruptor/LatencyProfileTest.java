@@ -0,0 +1,48 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.PhasedBackoffWaitStrategy;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LatencyProfile Tests")
+class LatencyProfileTest {
+
+    @Test
+    @DisplayName("Should keep the legacy blocking setup for the cpu-frugal profile")
+    void shouldDefaultToBlockingForCpuFrugal() {
+        LatencyProfile profile = LatencyProfile.CPU_FRUGAL;
+
+        assertEquals(WaitStrategyType.BLOCKING, profile.resolveWaitStrategy(null));
+        assertEquals(ProducerType.MULTI, profile.resolveProducerType(null));
+        assertFalse(profile.resolvePinThreads(null));
+        assertInstanceOf(BlockingWaitStrategy.class, profile.resolveWaitStrategy(null).create(1000));
+    }
+
+    @Test
+    @DisplayName("Should busy-spin on pinned threads for the lowest-latency profile")
+    void shouldBusySpinForLowestLatency() {
+        LatencyProfile profile = LatencyProfile.LOWEST_LATENCY;
+
+        assertInstanceOf(BusySpinWaitStrategy.class, profile.resolveWaitStrategy(null).create(1000));
+        assertTrue(profile.resolvePinThreads(null));
+        assertTrue(profile.getWaitStrategy().isSpinning());
+    }
+
+    @Test
+    @DisplayName("Should prefer individual overrides over the profile")
+    void shouldApplyOverrides() {
+        LatencyProfile profile = LatencyProfile.BALANCED;
+
+        assertInstanceOf(PhasedBackoffWaitStrategy.class, profile.resolveWaitStrategy(null).create(100));
+        assertEquals(WaitStrategyType.TIMEOUT_BLOCKING, profile.resolveWaitStrategy(WaitStrategyType.TIMEOUT_BLOCKING));
+        assertEquals(ProducerType.SINGLE, profile.resolveProducerType(ProducerType.SINGLE));
+        assertTrue(profile.resolvePinThreads(Boolean.TRUE));
+        assertInstanceOf(TimeoutBlockingWaitStrategy.class, WaitStrategyType.TIMEOUT_BLOCKING.create(500));
+    }
+}
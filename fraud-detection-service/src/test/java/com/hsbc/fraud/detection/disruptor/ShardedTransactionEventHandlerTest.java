@@ -0,0 +1,192 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import com.hsbc.fraud.detection.metrics.MetricsCollector;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.service.AlertService;
+import com.hsbc.fraud.detection.service.FraudDetectionEngine;
+import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ShardedTransactionEventHandler Tests")
+@ExtendWith(MockitoExtension.class)
+class ShardedTransactionEventHandlerTest {
+
+    private static final int SHARD_COUNT = 4;
+
+    @Mock
+    private FraudDetectionEngine fraudDetectionEngine;
+
+    @Mock
+    private AlertService alertService;
+
+    @Mock
+    private MetricsCollector metricsCollector;
+
+    @Mock
+    private Acknowledgement acknowledgement;
+
+    private TransactionProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        processor = new TransactionProcessor(fraudDetectionEngine, alertService, meterRegistry, metricsCollector);
+    }
+
+    @Test
+    @DisplayName("Should process owned accounts synchronously on the calling thread")
+    void shouldProcessOwnedAccountInline() {
+        // Given
+        Transaction transaction = createTransaction("TX001", "ACCT100");
+        int owner = ShardedTransactionEventHandler.shardFor("ACCT100", SHARD_COUNT);
+        ShardedTransactionEventHandler handler = new ShardedTransactionEventHandler(processor, owner, SHARD_COUNT);
+
+        // When
+        handler.onEvent(createEvent(transaction), 1L, true);
+
+        // Then - no executor involved, work is complete when onEvent returns
+        verify(fraudDetectionEngine).analyzeTransaction(transaction);
+        verify(acknowledgement).acknowledge();
+        verify(metricsCollector).recordTransactionCleared("ACCT100");
+    }
+
+    @Test
+    @DisplayName("Should ignore accounts owned by other shards and leave the event intact")
+    void shouldIgnoreForeignAccounts() {
+        // Given
+        Transaction transaction = createTransaction("TX002", "ACCT200");
+        int owner = ShardedTransactionEventHandler.shardFor("ACCT200", SHARD_COUNT);
+        ShardedTransactionEventHandler handler =
+                new ShardedTransactionEventHandler(processor, (owner + 1) % SHARD_COUNT, SHARD_COUNT);
+        TransactionEvent event = createEvent(transaction);
+
+        // When
+        handler.onEvent(event, 2L, true);
+
+        // Then
+        verifyNoInteractions(fraudDetectionEngine, acknowledgement);
+        assertSame(transaction, event.getTransaction());
+    }
+
+    @Test
+    @DisplayName("Should process every event exactly once across all shards, preserving per-account order")
+    void shouldPartitionEventsAcrossShards() {
+        // Given
+        List<ShardedTransactionEventHandler> handlers = List.of(
+                new ShardedTransactionEventHandler(processor, 0, SHARD_COUNT),
+                new ShardedTransactionEventHandler(processor, 1, SHARD_COUNT),
+                new ShardedTransactionEventHandler(processor, 2, SHARD_COUNT),
+                new ShardedTransactionEventHandler(processor, 3, SHARD_COUNT));
+        int eventCount = 200;
+
+        // When - every handler sees every event, as on the ring buffer
+        for (int i = 0; i < eventCount; i++) {
+            TransactionEvent event = createEvent(createTransaction("TX" + i, "ACCT" + (i % 7)));
+            for (ShardedTransactionEventHandler handler : handlers) {
+                handler.onEvent(event, i, false);
+            }
+        }
+
+        // Then
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(fraudDetectionEngine, times(eventCount)).analyzeTransaction(captor.capture());
+
+        List<String> account3Ids = captor.getAllValues().stream()
+                .filter(tx -> tx.getAccountId().equals("ACCT3"))
+                .map(Transaction::getTransactionId)
+                .toList();
+        List<String> expected = java.util.stream.IntStream.range(0, eventCount)
+                .filter(i -> i % 7 == 3)
+                .mapToObj(i -> "TX" + i)
+                .toList();
+        assertEquals(expected, account3Ids);
+    }
+
+    @Test
+    @DisplayName("Should map the same account to the same shard and null accounts to shard 0")
+    void shouldMapAccountsDeterministically() {
+        int shard = ShardedTransactionEventHandler.shardFor("ACCT666", SHARD_COUNT);
+
+        assertEquals(shard, ShardedTransactionEventHandler.shardFor("ACCT666", SHARD_COUNT));
+        assertTrue(shard >= 0 && shard < SHARD_COUNT);
+        assertEquals(0, ShardedTransactionEventHandler.shardFor(null, SHARD_COUNT));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid shard configuration")
+    void shouldRejectInvalidShard() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShardedTransactionEventHandler(processor, 4, SHARD_COUNT));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShardedTransactionEventHandler(processor, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Should batch owned accounts until endOfBatch and process them inline")
+    void shouldBatchOwnedAccountsUntilEndOfBatch() {
+        // Given
+        int owner = ShardedTransactionEventHandler.shardFor("ACCT100", SHARD_COUNT);
+        ShardedTransactionEventHandler handler = new ShardedTransactionEventHandler(processor, owner, SHARD_COUNT, 16);
+        String foreignAccount = java.util.stream.IntStream.range(0, 100)
+                .mapToObj(i -> "ACCT" + i)
+                .filter(acct -> ShardedTransactionEventHandler.shardFor(acct, SHARD_COUNT) != owner)
+                .findFirst()
+                .orElseThrow();
+
+        // When
+        handler.onEvent(createEvent(createTransaction("TX1", "ACCT100")), 1L, false);
+        handler.onEvent(createEvent(createTransaction("TX2", "ACCT100")), 2L, false);
+        verifyNoInteractions(fraudDetectionEngine);
+        // The batch ends on an event owned by another shard, which must still flush this shard's batch
+        handler.onEvent(createEvent(createTransaction("TX3", foreignAccount)), 3L, true);
+
+        // Then
+        verify(fraudDetectionEngine, times(2)).analyzeTransaction(any(Transaction.class));
+        verify(acknowledgement, times(2)).acknowledgeAsync();
+        verify(metricsCollector).recordTransactionsReceived(2);
+    }
+
+    @Test
+    @DisplayName("Should clear the event in the cleanup stage")
+    void shouldClearEventInCleanupStage() {
+        TransactionEvent event = createEvent(createTransaction("TX003", "ACCT300"));
+
+        new TransactionEventCleaner().onEvent(event, 3L, true);
+
+        assertNull(event.getTransaction());
+        assertNull(event.getAcknowledgement());
+    }
+
+    private Transaction createTransaction(String transactionId, String accountId) {
+        return Transaction.builder()
+                .transactionId(transactionId)
+                .accountId(accountId)
+                .amount(BigDecimal.valueOf(100))
+                .currency("USD")
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    private TransactionEvent createEvent(Transaction transaction) {
+        TransactionEvent event = new TransactionEvent();
+        event.setTransaction(transaction);
+        event.setAcknowledgement(acknowledgement);
+        event.setPublishTimestamp(System.currentTimeMillis());
+        return event;
+    }
+}
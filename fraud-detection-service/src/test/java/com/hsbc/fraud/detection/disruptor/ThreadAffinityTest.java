@@ -0,0 +1,44 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ThreadAffinity Tests")
+class ThreadAffinityTest {
+
+    @Test
+    @DisplayName("Should expand ranges and single CPUs of a Linux CPU list")
+    void shouldParseCpuList() {
+        assertArrayEquals(new int[] {0, 1, 2, 3, 8, 10, 11}, ThreadAffinity.parseCpuList("0-3,8,10-11"));
+        assertArrayEquals(new int[] {5}, ThreadAffinity.parseCpuList(" 5\n"));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed CPU lists")
+    void shouldRejectInvalidCpuList() {
+        assertThrows(IllegalArgumentException.class, () -> ThreadAffinity.parseCpuList("3-1"));
+        assertThrows(IllegalArgumentException.class, () -> ThreadAffinity.parseCpuList("1-2-3"));
+        assertThrows(NumberFormatException.class, () -> ThreadAffinity.parseCpuList("cpu0"));
+    }
+
+    @Test
+    @DisplayName("Should use a configured CPU list over the allowed CPUs")
+    void shouldPreferConfiguredCpus() {
+        ThreadAffinity affinity = ThreadAffinity.of("2-3");
+
+        assertArrayEquals(new int[] {2, 3}, affinity.getCpus());
+    }
+
+    @Test
+    @DisplayName("Should still run the task when pinning is not possible")
+    void shouldRunTaskWhenPinningFails() {
+        ThreadAffinity affinity = new ThreadAffinity(new int[] {Integer.MAX_VALUE});
+        boolean[] ran = new boolean[1];
+
+        affinity.pinning(() -> ran[0] = true).run();
+
+        assertTrue(ran[0]);
+    }
+}
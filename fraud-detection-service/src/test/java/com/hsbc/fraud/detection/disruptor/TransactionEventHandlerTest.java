@@ -239,7 +239,7 @@ class TransactionEventHandlerTest {
         int eventCount = 5;
         CountDownLatch latch = new CountDownLatch(eventCount);
         
-        when(fraudDetectionEngine.analyzeTransaction(any())).thenAnswer(invocation -> {
+        when(fraudDetectionEngine.analyzeTransaction(any(Transaction.class))).thenAnswer(invocation -> {
             latch.countDown();
             return null;
         });
@@ -258,7 +258,7 @@ class TransactionEventHandlerTest {
         assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
         
         // Then
-        verify(fraudDetectionEngine, times(eventCount)).analyzeTransaction(any());
+        verify(fraudDetectionEngine, times(eventCount)).analyzeTransaction(any(Transaction.class));
         verify(metricsCollector, times(eventCount)).recordTransactionReceived();
         
         Counter successCounter = meterRegistry.find("disruptor.transaction.processed.success").counter();
@@ -338,6 +338,93 @@ class TransactionEventHandlerTest {
         assertEquals(1.0, failureCounter.count());
     }
     
+    @Test
+    @DisplayName("Should process a whole Disruptor batch in one task and acknowledge only successful messages")
+    void shouldProcessBatchOnEndOfBatch() throws Exception {
+        // Given
+        ExecutorService batchExecutor = spy(Executors.newSingleThreadExecutor());
+        TransactionEventHandler batchHandler = new TransactionEventHandler(
+                fraudDetectionEngine, alertService, meterRegistry, batchExecutor, metricsCollector, 10);
+        Acknowledgement failingAck = mock(Acknowledgement.class);
+        
+        Transaction tx1 = createTransaction("TX101", "ACCT101", BigDecimal.valueOf(100));
+        Transaction tx2 = createTransaction("TX102", "ACCT102", BigDecimal.valueOf(200));
+        Transaction tx3 = createTransaction("TX103", "ACCT103", BigDecimal.valueOf(300));
+        lenient().when(fraudDetectionEngine.analyzeTransaction(tx2)).thenThrow(new RuntimeException("Rule failure"));
+        
+        // When
+        batchHandler.onEvent(createEvent(tx1, acknowledgement), 1L, false);
+        batchHandler.onEvent(createEvent(tx2, failingAck), 2L, false);
+        TransactionEvent last = createEvent(tx3, acknowledgement);
+        batchHandler.onEvent(last, 3L, true);
+        
+        batchExecutor.shutdown();
+        assertTrue(batchExecutor.awaitTermination(5, TimeUnit.SECONDS));
+        
+        // Then
+        verify(batchExecutor, times(1)).execute(any(Runnable.class));
+        verify(acknowledgement, times(2)).acknowledgeAsync();
+        verify(acknowledgement, never()).acknowledge();
+        verifyNoInteractions(failingAck);
+        verify(metricsCollector).recordTransactionsReceived(3);
+        verify(metricsCollector).recordTransactionsCleared(2);
+        assertNull(last.getTransaction());
+        
+        assertEquals(2.0, meterRegistry.find("disruptor.transaction.processed.success").counter().count());
+        assertEquals(1.0, meterRegistry.find("disruptor.transaction.processed.failure").counter().count());
+        assertEquals(3.0, meterRegistry.find("disruptor.batch.size").summary().totalAmount());
+    }
+    
+    @Test
+    @DisplayName("Should flush a batch when the max batch size is reached before endOfBatch")
+    void shouldFlushBatchWhenFull() throws Exception {
+        // Given
+        ExecutorService batchExecutor = spy(Executors.newSingleThreadExecutor());
+        TransactionEventHandler batchHandler = new TransactionEventHandler(
+                fraudDetectionEngine, alertService, meterRegistry, batchExecutor, metricsCollector, 2);
+        
+        // When
+        for (int i = 0; i < 5; i++) {
+            Transaction transaction = createTransaction("TX2" + i, "ACCT2" + i, BigDecimal.valueOf(100));
+            batchHandler.onEvent(createEvent(transaction, acknowledgement), i, i == 4);
+        }
+        
+        batchExecutor.shutdown();
+        assertTrue(batchExecutor.awaitTermination(5, TimeUnit.SECONDS));
+        
+        // Then - batches of 2, 2 and 1
+        verify(batchExecutor, times(3)).execute(any(Runnable.class));
+        verify(fraudDetectionEngine, times(5)).analyzeTransaction(any(Transaction.class));
+        verify(acknowledgement, times(5)).acknowledgeAsync();
+    }
+    
+    @Test
+    @DisplayName("Should reuse a processed batch for the next one instead of allocating")
+    void shouldRecycleProcessedBatches() {
+        // Given - an executor that runs each task inline, so it is done before the next batch
+        ExecutorService inlineExecutor = mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(inlineExecutor).execute(any(Runnable.class));
+        TransactionEventHandler batchHandler = new TransactionEventHandler(
+                fraudDetectionEngine, alertService, meterRegistry, inlineExecutor, metricsCollector, 10);
+        
+        // When - three Disruptor batches of one event each
+        for (int i = 0; i < 3; i++) {
+            Transaction transaction = createTransaction("TX3" + i, "ACCT3" + i, BigDecimal.valueOf(100));
+            batchHandler.onEvent(createEvent(transaction, acknowledgement), i, true);
+        }
+        
+        // Then
+        ArgumentCaptor<Runnable> tasks = ArgumentCaptor.forClass(Runnable.class);
+        verify(inlineExecutor, times(3)).execute(tasks.capture());
+        assertNotSame(tasks.getAllValues().get(0), tasks.getAllValues().get(1));
+        assertSame(tasks.getAllValues().get(0), tasks.getAllValues().get(2));
+        verify(fraudDetectionEngine, times(3)).analyzeTransaction(any(Transaction.class));
+        verify(acknowledgement, times(3)).acknowledgeAsync();
+    }
+    
     // Helper methods
     
     private Transaction createTransaction(String transactionId, String accountId, BigDecimal amount) {
@@ -0,0 +1,234 @@
+package com.hsbc.fraud.detection.disruptor;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hsbc.fraud.detection.model.IdHash;
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TransactionParseHandler Tests")
+@ExtendWith(MockitoExtension.class)
+class TransactionParseHandlerTest {
+
+    @Mock
+    private Acknowledgement acknowledgement;
+
+    private ObjectMapper objectMapper;
+    private TransactionJsonParser parser;
+    private Counter parseFailedCounter;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        parser = new TransactionJsonParser(objectMapper);
+        parseFailedCounter = new SimpleMeterRegistry().counter("parse.failed");
+    }
+
+    @Test
+    @DisplayName("Should parse the same transaction as Jackson data binding")
+    void shouldMatchDataBinding() throws Exception {
+        // Given
+        String json = objectMapper.writeValueAsString(createTransaction("TX001", "ACCT100"));
+        Transaction expected = objectMapper.readValue(json, Transaction.class);
+
+        // When
+        Transaction actual = new Transaction();
+        parser.parseInto(json.toCharArray(), json.length(), actual);
+
+        // Then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("Should reset fields of a reused transaction and reject unknown properties")
+    void shouldResetReusedTransactionAndRejectUnknownFields() throws Exception {
+        Transaction reused = createTransaction("OLD", "ACCT999");
+        String json = "{\"transactionId\":\"TX002\",\"amount\":\"12.50\"}";
+
+        parser.parseInto(json.toCharArray(), json.length(), reused);
+
+        assertEquals("TX002", reused.getTransactionId());
+        assertEquals(new BigDecimal("12.50"), reused.getAmount());
+        assertNull(reused.getAccountId());
+        assertNull(reused.getTimestamp());
+
+        String unknown = "{\"transactionId\":\"TX003\",\"unexpected\":1}";
+        assertThrows(IOException.class,
+                () -> parser.parseInto(unknown.toCharArray(), unknown.length(), new Transaction()));
+    }
+
+    @Test
+    @DisplayName("Should parse only its own sequences, in place into the slot view")
+    void shouldParseOwnSequencesInPlace() throws Exception {
+        // Given
+        TransactionParseHandler even = new TransactionParseHandler(parser, 0, 2, true, parseFailedCounter);
+        TransactionEvent event = new TransactionEvent();
+        event.setRawPayload(objectMapper.writeValueAsString(createTransaction("TX004", "ACCT400")));
+
+        // When - odd sequence belongs to the other parser
+        even.onEvent(event, 1L, false);
+        assertFalse(event.hasTransaction());
+        even.onEvent(event, 2L, true);
+
+        // Then - no transaction object, the slot view holds the data
+        assertNull(event.getTransaction());
+        assertTrue(event.getView().isPresent());
+        assertEquals("TX004", event.getView().getTransactionId());
+        assertEquals("ACCT400", event.getView().getAccountId());
+
+        event.clear();
+        assertFalse(event.hasTransaction());
+    }
+
+    @Test
+    @DisplayName("Should fill a view that materializes to the data-bound transaction")
+    void shouldParseViewMatchingDataBinding() throws Exception {
+        // Given
+        String json = objectMapper.writeValueAsString(createTransaction("TX006", "ACCT600"));
+        Transaction expected = objectMapper.readValue(json, Transaction.class);
+
+        // When
+        TransactionView view = new TransactionView();
+        parser.parseInto(json.toCharArray(), json.length(), view);
+
+        // Then
+        assertEquals(expected, view.toTransaction());
+        assertEquals(12_345_600L, view.getAmountUnits());
+        assertEquals(expected.getTimestamp().toEpochMilli(), view.getTimestampMillis());
+        assertEquals(IdHash.of("ACCT600"), view.getAccountIdHash());
+        assertEquals(IdHash.of(expected.getMerchantId()), view.getMerchantIdHash());
+        assertEquals(IdHash.of(expected.getLocation()), view.getLocationHash());
+    }
+
+    @Test
+    @DisplayName("Should fall back to BigDecimal and the formatter for unusual amounts and offsets")
+    void shouldParseViewFallbacks() throws Exception {
+        TransactionView view = new TransactionView();
+        String json = "{\"amount\":1.5E+4,\"timestamp\":\"2024-02-29T23:30:00.250+0100\",\"type\":\"REFUND\"}";
+
+        parser.parseInto(json.toCharArray(), json.length(), view);
+
+        assertEquals(150_000_000L, view.getAmountUnits());
+        assertEquals(Instant.parse("2024-02-29T22:30:00.250Z").toEpochMilli(), view.getTimestampMillis());
+        assertEquals(Transaction.TransactionType.REFUND, view.getType());
+        assertNull(view.getTransactionId());
+
+        String excessPrecision = "{\"amount\":\" 10000.00001 \"}";
+        parser.parseInto(excessPrecision.toCharArray(), excessPrecision.length(), view);
+        assertEquals(100_000_001L, view.getAmountUnits());
+
+        String badType = "{\"type\":\"UNKNOWN\"}";
+        assertThrows(IOException.class,
+                () -> parser.parseInto(badType.toCharArray(), badType.length(), new TransactionView()));
+    }
+
+    @Test
+    @DisplayName("Should reject objects and arrays as field values like data binding")
+    void shouldRejectStructuredValues() {
+        String nested = "{\"currency\":{\"accountId\":\"ACCT100\"},\"transactionId\":\"TX004\"}";
+        String array = "{\"amount\":[1,2],\"transactionId\":\"TX005\"}";
+
+        for (String json : new String[] {nested, array}) {
+            assertThrows(Exception.class, () -> objectMapper.readValue(json, Transaction.class));
+            assertThrows(IOException.class,
+                    () -> parser.parseInto(json.toCharArray(), json.length(), new Transaction()));
+            assertThrows(IOException.class,
+                    () -> parser.parseInto(json.toCharArray(), json.length(), new TransactionView()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject trailing content only when the mapper does")
+    void shouldFollowTrailingTokensSetting() throws Exception {
+        String json = "{\"transactionId\":\"TX006\"} {\"transactionId\":\"TX007\"}";
+        Transaction transaction = new Transaction();
+
+        parser.parseInto(json.toCharArray(), json.length(), transaction);
+        assertEquals("TX006", transaction.getTransactionId());
+
+        TransactionJsonParser strict = new TransactionJsonParser(
+                objectMapper.copy().enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS));
+        assertThrows(IOException.class,
+                () -> strict.parseInto(json.toCharArray(), json.length(), new TransactionView()));
+    }
+
+    @Test
+    @DisplayName("Should convert UTC timestamps by hand exactly like java.time")
+    void shouldConvertUtcTimestamps() {
+        for (String timestamp : new String[] {
+                "1970-01-01T00:00:00.000Z", "1999-12-31T23:59:59.999Z",
+                "2000-02-29T12:00:00.001Z", "2100-03-01T00:00:00.000Z"}) {
+            assertEquals(Instant.parse(timestamp).toEpochMilli(),
+                    TransactionJsonParser.utcTimestampMillis(timestamp.toCharArray(), 0), timestamp);
+        }
+        assertEquals(Long.MIN_VALUE,
+                TransactionJsonParser.utcTimestampMillis("2023-02-29T00:00:00.000Z".toCharArray(), 0));
+    }
+
+    @Test
+    @DisplayName("Should acknowledge and skip malformed payloads")
+    void shouldAcknowledgeMalformedPayload() {
+        // Given
+        TransactionParseHandler handler = new TransactionParseHandler(parser, 0, 1, false, parseFailedCounter);
+        TransactionEvent event = new TransactionEvent();
+        event.setRawPayload("{not json");
+        event.setAcknowledgement(acknowledgement);
+
+        // When
+        handler.onEvent(event, 5L, true);
+
+        // Then
+        assertNull(event.getTransaction());
+        verify(acknowledgement).acknowledgeAsync();
+        assertEquals(1.0, parseFailedCounter.count());
+    }
+
+    @Test
+    @DisplayName("Should keep the payload buffer across clear and grow it for larger payloads")
+    void shouldReusePayloadBuffer() {
+        TransactionEvent event = new TransactionEvent();
+        event.setRawPayload("{\"transactionId\":\"TX005\"}");
+        char[] buffer = event.getPayload();
+
+        event.clear();
+        assertFalse(event.hasRawPayload());
+
+        event.setRawPayload("{}");
+        assertSame(buffer, event.getPayload());
+        assertEquals(2, event.getPayloadLength());
+    }
+
+    private Transaction createTransaction(String transactionId, String accountId) {
+        return Transaction.builder()
+                .transactionId(transactionId)
+                .accountId(accountId)
+                .amount(new BigDecimal("1234.56"))
+                .currency("USD")
+                .timestamp(Instant.now())
+                .merchantId("MERCHANT001")
+                .merchantCategory("RETAIL")
+                .location("New York")
+                .type(Transaction.TransactionType.PURCHASE)
+                .build();
+    }
+}
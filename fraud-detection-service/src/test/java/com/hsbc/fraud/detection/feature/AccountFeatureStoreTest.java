@@ -0,0 +1,260 @@
+package com.hsbc.fraud.detection.feature;
+
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("AccountFeatureStore Tests")
+class AccountFeatureStoreTest {
+    
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(60);
+    private static final long T0 = Instant.parse("2024-01-15T10:00:00Z").toEpochMilli();
+    
+    @TempDir
+    Path directory;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private Path snapshotFile;
+    private final AccountFeatures features = new AccountFeatures();
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        snapshotFile = directory.resolve("features.snapshot");
+    }
+    
+    @Test
+    @DisplayName("Should keep counts, rolling sums and the latest transaction per account")
+    void shouldRecordAndReadFeatures() {
+        // Given
+        AccountFeatureStore store = newStore(1024);
+        long oneMinute = TimeUnit.MINUTES.toMillis(1);
+        
+        // When
+        store.record(transaction("ACC1", T0, 100, "London", "M1"));
+        store.record(transaction("ACC1", T0 + oneMinute, 50, "Paris", "M2"));
+        
+        // Then
+        assertThat(store.read("ACC1", features)).isTrue();
+        assertThat(features.getCount()).isEqualTo(2);
+        assertThat(features.getLastAmount()).isEqualTo(50);
+        assertThat(features.isLastLocation("Paris")).isTrue();
+        assertThat(features.isLastMerchant("M2")).isTrue();
+        assertThat(features.millisSinceLast(T0 + 3 * oneMinute)).isEqualTo(2 * oneMinute);
+        
+        double decay = Math.exp(-(double) oneMinute / WINDOW_MILLIS);
+        assertThat(features.rollingCount(T0 + oneMinute)).isCloseTo(1 + decay, within(1e-9));
+        assertThat(features.rollingAmount(T0 + oneMinute)).isCloseTo(50 + 100 * decay, within(1e-9));
+        assertThat(features.rollingCount(T0 + oneMinute + WINDOW_MILLIS))
+                .isCloseTo((1 + decay) * Math.exp(-1), within(1e-9));
+    }
+    
+    @Test
+    @DisplayName("Should report an unknown account as absent")
+    void shouldReportUnknownAccount() {
+        // Given
+        AccountFeatureStore store = newStore(1024);
+        store.record(transaction("ACC1", T0, 100, "London", "M1"));
+        
+        // When
+        boolean found = store.read("ACC2", features);
+        
+        // Then
+        assertThat(found).isFalse();
+        assertThat(features.isPresent()).isFalse();
+        assertThat(features.getCount()).isZero();
+        assertThat(features.millisSinceLast(T0)).isEqualTo(Long.MAX_VALUE);
+    }
+    
+    @Test
+    @DisplayName("Should count a late transaction without replacing the latest one")
+    void shouldHandleOutOfOrderTransactions() {
+        // Given
+        AccountFeatureStore store = newStore(1024);
+        long tenMinutes = TimeUnit.MINUTES.toMillis(10);
+        store.record(transaction("ACC1", T0 + tenMinutes, 100, "London", "M1"));
+        
+        // When
+        store.record(transaction("ACC1", T0, 40, "Tokyo", "M9"));
+        
+        // Then
+        store.read("ACC1", features);
+        assertThat(features.getCount()).isEqualTo(2);
+        assertThat(features.getLastTimestampMillis()).isEqualTo(T0 + tenMinutes);
+        assertThat(features.isLastLocation("London")).isTrue();
+        assertThat(features.isLastMerchant("M1")).isTrue();
+        double decay = Math.exp(-(double) tenMinutes / WINDOW_MILLIS);
+        assertThat(features.rollingAmount(T0 + tenMinutes)).isCloseTo(100 + 40 * decay, within(1e-9));
+    }
+    
+    @Test
+    @DisplayName("Should record transactions held in a view the same way")
+    void shouldRecordTransactionView() {
+        // Given
+        AccountFeatureStore store = newStore(1024);
+        TransactionView view = new TransactionView();
+        view.copyFrom(transaction("ACC1", T0, 123.4567, "Berlin", "M3"));
+        
+        // When
+        store.record(view);
+        
+        // Then
+        store.read("ACC1", features);
+        assertThat(features.getCount()).isEqualTo(1);
+        assertThat(features.getLastAmount()).isCloseTo(123.4567, within(1e-9));
+        assertThat(features.isLastLocation("Berlin")).isTrue();
+        assertThat(features.getLastTimestampMillis()).isEqualTo(T0);
+    }
+    
+    @Test
+    @DisplayName("Should restore every account from a snapshot after a restart")
+    void shouldRestoreFromSnapshot() throws Exception {
+        // Given
+        AccountFeatureStore store = newStore(4096);
+        for (int i = 0; i < 1000; i++) {
+            store.record(transaction("ACC" + i, T0 + i, i, "City" + (i % 7), "M" + (i % 13)));
+            store.record(transaction("ACC" + i, T0 + 2 * i, 2 * i, "City" + (i % 5), "M" + (i % 11)));
+        }
+        store.snapshot();
+        
+        // When
+        AccountFeatureStore restarted = newStore(4096);
+        
+        // Then
+        assertThat(restarted.size()).isEqualTo(1000);
+        AccountFeatures original = new AccountFeatures();
+        for (int i = 0; i < 1000; i += 37) {
+            store.read("ACC" + i, original);
+            assertThat(restarted.read("ACC" + i, features)).isTrue();
+            assertThat(features.getCount()).isEqualTo(2);
+            assertThat(features.getLastAmount()).isEqualTo(original.getLastAmount());
+            assertThat(features.isLastLocation("City" + (i % 5))).isTrue();
+            assertThat(features.isLastMerchant("M" + (i % 11))).isTrue();
+            assertThat(features.rollingAmount(T0 + 2000)).isEqualTo(original.rollingAmount(T0 + 2000));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should start cold from a snapshot that cannot be read")
+    void shouldStartColdFromCorruptSnapshot() throws Exception {
+        // Given
+        Files.write(snapshotFile, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        
+        // When
+        AccountFeatureStore store = newStore(1024);
+        
+        // Then
+        assertThat(store.size()).isZero();
+        store.record(transaction("ACC1", T0, 100, "London", "M1"));
+        assertThat(store.read("ACC1", features)).isTrue();
+    }
+    
+    @Test
+    @DisplayName("Should start cold from a snapshot written in an older format")
+    void shouldStartColdFromOlderSnapshotVersion() throws Exception {
+        // Given - a version 1 header, whose records held process-local location codes
+        ByteBuffer header = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, 0x53464146).putInt(4, 1).putLong(8, 1);
+        Files.write(snapshotFile, header.array());
+        
+        // When
+        AccountFeatureStore store = newStore(1024);
+        
+        // Then
+        assertThat(store.size()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Should stop tracking new accounts when the table is saturated")
+    void shouldFailOpenWhenSaturated() {
+        // Given - the smallest table, 32 slots
+        AccountFeatureStore store = newStore(1);
+        
+        // When
+        for (int i = 0; i < 40; i++) {
+            store.record(transaction("ACC" + i, T0, 1, "London", "M1"));
+        }
+        
+        // Then
+        assertThat(store.capacity()).isEqualTo(32);
+        assertThat(store.size()).isEqualTo(32);
+        assertThat(meterRegistry.get("fraud.features.untracked").counter().count()).isEqualTo(8);
+    }
+    
+    @Test
+    @DisplayName("Should not lose updates made concurrently to the same accounts")
+    void shouldRecordConcurrently() throws Exception {
+        // Given
+        AccountFeatureStore store = newStore(1024);
+        int threads = 8;
+        int perThread = 10_000;
+        int accounts = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                AccountFeatures read = new AccountFeatures();
+                for (int i = 0; i < perThread; i++) {
+                    String accountId = "ACC" + (i % accounts);
+                    store.record(transaction(accountId, T0 + i, 1, "London", "M1"));
+                    store.read(accountId, read);
+                }
+            }));
+        }
+        
+        // When
+        workers.forEach(Thread::start);
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        
+        // Then
+        long total = 0;
+        for (int a = 0; a < accounts; a++) {
+            store.read("ACC" + a, features);
+            total += features.getCount();
+        }
+        assertThat(total).isEqualTo((long) threads * perThread);
+    }
+    
+    private AccountFeatureStore newStore(long capacity) {
+        return new AccountFeatureStore(capacity, WINDOW_MILLIS, snapshotFile, meterRegistry);
+    }
+    
+    private static Transaction transaction(String accountId, long timestamp, double amount,
+                                           String location, String merchantId) {
+        return Transaction.builder()
+                .transactionId(accountId + "-" + timestamp)
+                .accountId(accountId)
+                .amount(BigDecimal.valueOf(amount))
+                .currency("USD")
+                .merchantId(merchantId)
+                .location(location)
+                .timestamp(Instant.ofEpochMilli(timestamp))
+                .build();
+    }
+}
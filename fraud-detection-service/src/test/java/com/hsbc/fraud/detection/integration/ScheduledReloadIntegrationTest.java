@@ -0,0 +1,88 @@
+package com.hsbc.fraud.detection.integration;
+
+import com.hsbc.fraud.detection.rule.BlacklistIndex;
+import com.hsbc.fraud.detection.rule.SuspiciousAccountRule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Scheduled tasks must run with the local provider, not only with aws.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Scheduled Reload Integration Tests")
+class ScheduledReloadIntegrationTest {
+    
+    private static Path indexFile;
+    private static Path snapshotFile;
+    
+    @Autowired
+    private SuspiciousAccountRule suspiciousAccountRule;
+    
+    @Autowired
+    private ThreadPoolTaskScheduler taskScheduler;
+    
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        try {
+            Path directory = Files.createTempDirectory("scheduled-reload");
+            indexFile = directory.resolve("blacklist.idx");
+            snapshotFile = directory.resolve("features.snapshot");
+            BlacklistIndex.write(indexFile, List.of("ACCT500"), BlacklistIndex.DEFAULT_BLOOM_BITS_PER_ENTRY);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("cloud.provider", () -> "local");
+        registry.add("fraud.rules.suspicious-accounts-file", indexFile::toString);
+        registry.add("fraud.rules.suspicious-accounts-reload-interval", () -> "100");
+        registry.add("fraud.features.enabled", () -> "true");
+        registry.add("fraud.features.capacity", () -> "1024");
+        registry.add("fraud.features.snapshot-file", snapshotFile::toString);
+        registry.add("fraud.features.snapshot-interval-ms", () -> "100");
+    }
+    
+    @Test
+    @DisplayName("Should hot-reload the blacklist index without the aws provider")
+    void shouldReloadBlacklistOnSchedule() throws IOException {
+        // Given
+        assertThat(suspiciousAccountRule.getIndexedAccountCount()).isEqualTo(1);
+        
+        // When
+        BlacklistIndex.write(indexFile, List.of("ACCT501", "ACCT502", "ACCT503"),
+                BlacklistIndex.DEFAULT_BLOOM_BITS_PER_ENTRY);
+        Files.setLastModifiedTime(indexFile, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        
+        // Then
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> suspiciousAccountRule.getIndexedAccountCount() == 3);
+    }
+    
+    @Test
+    @DisplayName("Should snapshot account features periodically without the aws provider")
+    void shouldSnapshotFeaturesOnSchedule() {
+        await().atMost(5, TimeUnit.SECONDS).until(() -> Files.exists(snapshotFile));
+    }
+    
+    @Test
+    @DisplayName("Should run scheduled tasks on more than one thread")
+    void shouldUseSchedulerPool() {
+        assertThat(taskScheduler.getScheduledThreadPoolExecutor().getCorePoolSize()).isGreaterThan(1);
+    }
+}
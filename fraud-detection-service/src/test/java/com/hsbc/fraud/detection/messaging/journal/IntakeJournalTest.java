@@ -0,0 +1,279 @@
+package com.hsbc.fraud.detection.messaging.journal;
+
+import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@DisplayName("IntakeJournal Tests")
+class IntakeJournalTest {
+    
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_ATTEMPTS = 3;
+    
+    @TempDir
+    Path directory;
+    
+    private final List<IntakeJournal> opened = new ArrayList<>();
+    private final ConcurrentLinkedQueue<String> deadLetters = new ConcurrentLinkedQueue<>();
+    private SimpleMeterRegistry meterRegistry;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        for (IntakeJournal journal : opened) {
+            journal.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should acknowledge SQS once the entry is durable, before it is processed")
+    void shouldAcknowledgeWhenDurable() throws Exception {
+        // Given
+        IntakeJournal journal = openJournal(1 << 20);
+        CountingAcknowledgement sqs = new CountingAcknowledgement();
+        
+        // When
+        IntakeEntry entry = journal.append("{\"transactionId\":\"TX1\"}");
+        journal.acknowledgeWhenDurable(entry, sqs);
+        
+        // Then
+        await().atMost(5, TimeUnit.SECONDS).until(() -> sqs.count.get() == 1);
+        assertThat(meterRegistry.get("intake.journal.appended").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("intake.journal.commit.size").summary().totalAmount()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should replay only the entries that were not processed before a restart")
+    void shouldReplayOnlyUnprocessedEntries() throws Exception {
+        // Given
+        IntakeJournal journal = openJournal(1 << 20);
+        IntakeEntry first = journal.append("TX1");
+        IntakeEntry second = journal.append("TX2");
+        journal.append("TX3");
+        first.acknowledge();
+        second.acknowledgeAsync();
+        journal.append("TX4");
+        journal.close();
+        
+        // When
+        IntakeJournal reopened = openJournal(1 << 20);
+        Map<String, IntakeEntry> replayed = replay(reopened);
+        
+        // Then
+        assertThat(replayed).containsOnlyKeys("TX3", "TX4");
+        assertThat(meterRegistry.get("intake.journal.replayed").counter().count()).isEqualTo(2);
+    }
+    
+    @Test
+    @DisplayName("Should dead-letter entries that were replayed once and still not processed")
+    void shouldReplayEntriesOnlyOnce() throws Exception {
+        // Given - TX1 is replayed after the first restart and processed, TX2 is not
+        IntakeJournal journal = openJournal(1 << 20);
+        journal.append("TX1");
+        journal.append("TX2");
+        journal.close();
+        IntakeJournal restarted = openJournal(1 << 20);
+        replay(restarted).get("TX1").acknowledge();
+        restarted.close();
+        
+        // When
+        IntakeJournal reopened = openJournal(1 << 20);
+        Map<String, IntakeEntry> replayed = replay(reopened);
+        
+        // Then
+        assertThat(replayed).isEmpty();
+        assertThat(deadLetters).containsExactly("TX2");
+        assertThat(meterRegistry.get("intake.journal.dead.lettered").counter().count()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should republish a rejected entry until it is processed")
+    void shouldRetryRejectedEntry() throws Exception {
+        // Given - processing succeeds on the second attempt
+        IntakeJournal journal = openJournal(1 << 20);
+        List<String> republished = new CopyOnWriteArrayList<>();
+        journal.replay((message, entry) -> {
+            republished.add(message);
+            entry.acknowledge();
+            return true;
+        });
+        IntakeEntry entry = journal.append("TX1");
+        
+        // When - the first attempt fails
+        entry.reject(new IllegalStateException("alert sink unavailable"));
+        
+        // Then
+        await().atMost(5, TimeUnit.SECONDS).until(() -> republished.size() == 1);
+        assertThat(republished).containsExactly("TX1");
+        assertThat(entry.getSegment().state(entry.getOffset())).isEqualTo(IntakeSegment.PROCESSED);
+        assertThat(meterRegistry.get("intake.journal.retried").counter().count()).isEqualTo(1);
+        assertThat(deadLetters).isEmpty();
+    }
+    
+    @Test
+    @DisplayName("Should dead-letter an entry after its last attempt and then delete its segment")
+    void shouldDeadLetterAfterMaxAttempts() throws Exception {
+        // Given - room for one 64-byte record per segment, and processing always fails
+        IntakeJournal journal = openJournal(IntakeSegment.HEADER_BYTES + 64);
+        journal.replay((message, entry) -> {
+            entry.reject(new IllegalStateException("poison message"));
+            return true;
+        });
+        String message = "x".repeat(64 - IntakeSegment.RECORD_HEADER_BYTES);
+        IntakeEntry failing = journal.append(message);
+        journal.append(message);
+        
+        // When - the first attempt fails as well
+        failing.reject(new IllegalStateException("poison message"));
+        
+        // Then - the segment is deleted once the entry is dead-lettered
+        await().atMost(5, TimeUnit.SECONDS).until(() -> deadLetters.size() == 1);
+        assertThat(meterRegistry.get("intake.journal.retried").counter().count()).isEqualTo(MAX_ATTEMPTS - 1);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> segmentFiles().size() == 1);
+        assertThat(segmentFiles()).extracting(path -> path.getFileName().toString())
+                .containsExactly("000000001.intake");
+    }
+    
+    @Test
+    @DisplayName("Should roll segments when full and delete them once every entry is processed")
+    void shouldDeleteProcessedSegments() throws Exception {
+        // Given - room for three 64-byte records per segment
+        IntakeJournal journal = openJournal(IntakeSegment.HEADER_BYTES + 3 * 64);
+        String message = "x".repeat(64 - IntakeSegment.RECORD_HEADER_BYTES);
+        List<IntakeEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            entries.add(journal.append(message));
+        }
+        assertThat(segmentFiles()).hasSize(4);
+        
+        // When - everything but the last entry of the second segment is processed
+        for (int i = 0; i < entries.size(); i++) {
+            if (i != 5) {
+                entries.get(i).acknowledge();
+            }
+        }
+        
+        // Then - only the second segment and the one being appended to remain
+        await().atMost(5, TimeUnit.SECONDS).until(() -> segmentFiles().size() == 2);
+        assertThat(segmentFiles()).extracting(path -> path.getFileName().toString())
+                .containsExactly("000000001.intake", "000000003.intake");
+    }
+    
+    @Test
+    @DisplayName("Should reject a message larger than a segment without failing the caller")
+    void shouldRejectOversizedMessage() throws Exception {
+        // Given
+        IntakeJournal journal = openJournal(IntakeSegment.HEADER_BYTES + 64);
+        
+        // When
+        IntakeEntry entry = journal.append("x".repeat(128));
+        
+        // Then
+        assertThat(entry).isNull();
+        assertThat(meterRegistry.get("intake.journal.failed").counter().count()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should keep every entry appended concurrently and acknowledge each exactly once")
+    void shouldAppendConcurrently() throws Exception {
+        // Given
+        IntakeJournal journal = openJournal(64 << 10);
+        int threads = 8;
+        int perThread = 2_000;
+        CountingAcknowledgement sqs = new CountingAcknowledgement();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String prefix = "T" + t + "-";
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    journal.acknowledgeWhenDurable(journal.append(prefix + i), sqs);
+                }
+            }));
+        }
+        
+        // When
+        workers.forEach(Thread::start);
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        journal.close();
+        
+        // Then
+        assertThat(sqs.count.get()).isEqualTo(threads * perThread);
+        Map<String, IntakeEntry> replayed = replay(openJournal(64 << 10));
+        assertThat(replayed).hasSize(threads * perThread).containsKeys("T0-0", "T7-1999");
+    }
+    
+    private IntakeJournal openJournal(int segmentBytes) throws Exception {
+        IntakeJournal journal = new IntakeJournal(directory, segmentBytes, FLUSH_INTERVAL_NANOS, MAX_ATTEMPTS,
+                FLUSH_INTERVAL_NANOS, message -> {
+                    deadLetters.add(message);
+                    return CompletableFuture.completedFuture(null);
+                }, meterRegistry);
+        opened.add(journal);
+        return journal;
+    }
+    
+    private static Map<String, IntakeEntry> replay(IntakeJournal journal) {
+        Map<String, IntakeEntry> replayed = new LinkedHashMap<>();
+        journal.replay((message, entry) -> {
+            replayed.put(message, entry);
+            return true;
+        });
+        return replayed;
+    }
+    
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(IntakeSegment.SUFFIX)).sorted().toList();
+        }
+    }
+    
+    private static final class CountingAcknowledgement implements Acknowledgement {
+        
+        final AtomicInteger count = new AtomicInteger();
+        
+        @Override
+        public void acknowledge() {
+            count.incrementAndGet();
+        }
+        
+        @Override
+        public CompletableFuture<Void> acknowledgeAsync() {
+            count.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
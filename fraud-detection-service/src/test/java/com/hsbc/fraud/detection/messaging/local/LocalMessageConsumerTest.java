@@ -19,19 +19,18 @@ import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for LocalMessageConsumer.
- * Verifies that messages are correctly parsed and published to Disruptor.
+ * Verifies that messages are correctly parsed and published to Disruptor in batches.
  */
 @ActiveProfiles("local")
 @DisplayName("LocalMessageConsumer Tests")
@@ -45,17 +44,14 @@ class LocalMessageConsumerTest {
     
     private ObjectMapper objectMapper;
     private LocalMessageConsumer consumer;
-    private BlockingQueue<String> testQueue;
+    private MpscMessageQueue testQueue;
     
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
-        testQueue = new LinkedBlockingQueue<>();
-        consumer = new LocalMessageConsumer(objectMapper, disruptorService, testQueue);
-        
-        // Clear the queue before each test
-        testQueue.clear();
+        testQueue = new MpscMessageQueue(16);
+        consumer = new LocalMessageConsumer(objectMapper, disruptorService, testQueue, 4);
     }
     
     @AfterEach
@@ -68,8 +64,6 @@ class LocalMessageConsumerTest {
                     .pollInterval(50, TimeUnit.MILLISECONDS)
                     .untilAsserted(() -> assertThat(consumer.isRunning()).isFalse());
         }
-        // Clear the queue after each test
-        testQueue.clear();
     }
     
     @Test
@@ -80,13 +74,13 @@ class LocalMessageConsumerTest {
         String message = objectMapper.writeValueAsString(transaction);
         
         // When
-        consumer.processMessage(message);
+        consumer.processBatch(List.of(message));
         
         // Then
-        ArgumentCaptor<Transaction> txnCaptor = ArgumentCaptor.forClass(Transaction.class);
-        verify(disruptorService).publishEvent(txnCaptor.capture(), isNull());
+        List<Transaction> published = capturePublishedBatch();
+        assertThat(published).hasSize(1);
         
-        Transaction captured = txnCaptor.getValue();
+        Transaction captured = published.get(0);
         assertThat(captured.getTransactionId()).isEqualTo("TXN-001");
         assertThat(captured.getAccountId()).isEqualTo("ACCT123");
         assertThat(captured.getAmount()).isEqualByComparingTo(new BigDecimal("100.00"));
@@ -99,27 +93,46 @@ class LocalMessageConsumerTest {
         String invalidJson = "{invalid json}";
         
         // When
-        consumer.processMessage(invalidJson);
+        consumer.processBatch(List.of(invalidJson));
         
         // Then
+        verify(disruptorService, never()).publishEvents(any());
         verify(disruptorService, never()).publishEvent(any(), any());
     }
     
     @Test
-    @DisplayName("Should handle ring buffer full scenario gracefully")
-    void shouldHandleRingBufferFullGracefully() throws Exception {
+    @DisplayName("Should skip invalid JSON and publish the rest of the batch in order")
+    void shouldSkipInvalidJsonAndPublishRestOfBatch() throws Exception {
+        // Given
+        String first = objectMapper.writeValueAsString(
+                createTransaction("TXN-1", new BigDecimal("10.00"), "ACCT-1"));
+        String second = objectMapper.writeValueAsString(
+                createTransaction("TXN-2", new BigDecimal("20.00"), "ACCT-2"));
+        
+        // When
+        consumer.processBatch(List.of(first, "{invalid json}", second));
+        
+        // Then
+        assertThat(capturePublishedBatch())
+                .extracting(Transaction::getTransactionId)
+                .containsExactly("TXN-1", "TXN-2");
+    }
+    
+    @Test
+    @DisplayName("Should handle unavailable ring buffer gracefully")
+    void shouldHandleUnavailableRingBufferGracefully() throws Exception {
         // Given
         Transaction transaction = createTransaction("TXN-002", new BigDecimal("500.00"), "ACCT456");
         String message = objectMapper.writeValueAsString(transaction);
         
-        doThrow(new IllegalStateException("Ring buffer is full"))
-                .when(disruptorService).publishEvent(any(), any());
+        doThrow(new IllegalStateException("Ring buffer is full or unavailable"))
+                .when(disruptorService).publishEvents(any());
         
         // When - should not throw
-        consumer.processMessage(message);
+        consumer.processBatch(List.of(message));
         
         // Then
-        verify(disruptorService).publishEvent(any(), isNull());
+        verify(disruptorService).publishEvents(any());
     }
     
     @Test
@@ -130,13 +143,13 @@ class LocalMessageConsumerTest {
         String message = objectMapper.writeValueAsString(transaction);
         
         doThrow(new RuntimeException("Unexpected error"))
-                .when(disruptorService).publishEvent(any(), any());
+                .when(disruptorService).publishEvents(any());
         
         // When - should not throw
-        consumer.processMessage(message);
+        consumer.processBatch(List.of(message));
         
         // Then
-        verify(disruptorService).publishEvent(any(), isNull());
+        verify(disruptorService).publishEvents(any());
     }
     
     @Test
@@ -171,48 +184,36 @@ class LocalMessageConsumerTest {
     }
     
     @Test
-    @DisplayName("Should consume messages from shared queue and publish to Disruptor")
+    @DisplayName("Should consume messages from queue and publish to Disruptor")
     void shouldConsumeMessagesFromQueueAndPublishToDisruptor() throws Exception {
         // Given
         Transaction transaction = createTransaction("TXN-004", new BigDecimal("300.00"), "ACCT111");
         String message = objectMapper.writeValueAsString(transaction);
         
-        // Clear the queue to avoid interference from other tests
-        // Drain any existing messages that might be left over
-        testQueue.clear();
+        List<Transaction> published = new ArrayList<>();
+        doAnswer(invocation -> {
+            synchronized (published) {
+                published.addAll(invocation.getArgument(0));
+            }
+            return null;
+        }).when(disruptorService).publishEvents(any());
         
-        // Reset mock to ensure clean state
-        reset(disruptorService);
-        
-        // Start consumer first to ensure it's ready
         consumer.startListening();
         
-        // Wait for consumer to be running and give it time to reach the blocking take() call
-        await().atMost(2, TimeUnit.SECONDS)
-                .pollInterval(10, TimeUnit.MILLISECONDS)
-                .untilAsserted(() -> assertThat(consumer.isRunning()).isTrue());
-        
-        // Add small delay to ensure consumer thread reaches blocking state
-        // This is more reliable than the previous approach
-        await().pollDelay(200, TimeUnit.MILLISECONDS)
-                .atMost(1, TimeUnit.SECONDS)
-                .until(() -> true);
-        
-        // When - add message to queue after consumer is waiting
+        // When
         testQueue.put(message);
         
         // Then - wait for processing
         await().atMost(5, TimeUnit.SECONDS)
-                .pollInterval(100, TimeUnit.MILLISECONDS)
+                .pollInterval(50, TimeUnit.MILLISECONDS)
                 .untilAsserted(() -> {
-                    verify(disruptorService, atLeastOnce()).publishEvent(any(Transaction.class), isNull());
+                    synchronized (published) {
+                        assertThat(published).hasSize(1);
+                    }
                 });
         
         // Verify transaction details
-        ArgumentCaptor<Transaction> txnCaptor = ArgumentCaptor.forClass(Transaction.class);
-        verify(disruptorService, atLeastOnce()).publishEvent(txnCaptor.capture(), isNull());
-        
-        Transaction captured = txnCaptor.getValue();
+        Transaction captured = published.get(0);
         assertThat(captured.getTransactionId()).isEqualTo("TXN-004");
         assertThat(captured.getAmount()).isEqualByComparingTo(new BigDecimal("300.00"));
         assertThat(captured.getAccountId()).isEqualTo("ACCT111");
@@ -224,34 +225,85 @@ class LocalMessageConsumerTest {
     }
     
     @Test
-    @DisplayName("Should pass null acknowledgement to Disruptor for local messages")
-    void shouldPassNullAcknowledgementToDisruptor() throws Exception {
-        // Given
-        Transaction transaction = createTransaction("TXN-005", new BigDecimal("150.00"), "ACCT222");
-        String message = objectMapper.writeValueAsString(transaction);
+    @DisplayName("Should deliver every message in order when the publisher outpaces the queue")
+    void shouldDeliverEveryMessageWhenPublisherOutpacesQueue() throws Exception {
+        // Given - more messages than the queue holds, so the publisher must wait
+        int count = testQueue.capacity() * 8;
+        List<String> ids = new ArrayList<>();
+        List<Transaction> published = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Transaction> batch = invocation.getArgument(0);
+            assertThat(batch).hasSizeLessThanOrEqualTo(4);
+            synchronized (published) {
+                published.addAll(batch);
+            }
+            // Slow ring buffer
+            Thread.sleep(1);
+            return null;
+        }).when(disruptorService).publishEvents(any());
+        
+        consumer.startListening();
         
         // When
-        consumer.processMessage(message);
+        for (int i = 0; i < count; i++) {
+            String id = "TXN-" + i;
+            ids.add(id);
+            testQueue.put(objectMapper.writeValueAsString(createTransaction(id, BigDecimal.TEN, "ACCT-" + i)));
+        }
         
-        // Then - verify null acknowledgement is passed
-        verify(disruptorService).publishEvent(any(Transaction.class), isNull());
+        // Then - nothing dropped, nothing reordered
+        await().atMost(10, TimeUnit.SECONDS)
+                .pollInterval(50, TimeUnit.MILLISECONDS)
+                .untilAsserted(() -> {
+                    synchronized (published) {
+                        assertThat(published).hasSize(count);
+                    }
+                });
+        assertThat(published).extracting(Transaction::getTransactionId).containsExactlyElementsOf(ids);
     }
     
     @Test
-    @DisplayName("Should handle multiple messages correctly")
-    void shouldHandleMultipleMessagesCorrectly() throws Exception {
+    @DisplayName("Should pass a single batch to Disruptor for several messages")
+    void shouldPublishSeveralMessagesAsOneBatch() throws Exception {
         // Given
         Transaction txn1 = createTransaction("TXN-A", new BigDecimal("100.00"), "ACCT-A");
         Transaction txn2 = createTransaction("TXN-B", new BigDecimal("200.00"), "ACCT-B");
         Transaction txn3 = createTransaction("TXN-C", new BigDecimal("300.00"), "ACCT-C");
         
         // When
-        consumer.processMessage(objectMapper.writeValueAsString(txn1));
-        consumer.processMessage(objectMapper.writeValueAsString(txn2));
-        consumer.processMessage(objectMapper.writeValueAsString(txn3));
+        consumer.processBatch(List.of(
+                objectMapper.writeValueAsString(txn1),
+                objectMapper.writeValueAsString(txn2),
+                objectMapper.writeValueAsString(txn3)));
+        
+        // Then
+        assertThat(capturePublishedBatch())
+                .extracting(Transaction::getTransactionId)
+                .containsExactly("TXN-A", "TXN-B", "TXN-C");
+        verify(disruptorService, never()).publishEvent(any(), any());
+    }
+    
+    @Test
+    @DisplayName("Should publish the raw payloads without parsing in raw ingest mode")
+    void shouldPublishRawPayloadInRawIngestMode() throws Exception {
+        // Given
+        String message = objectMapper.writeValueAsString(
+                createTransaction("TXN-RAW", new BigDecimal("10.00"), "ACCT123"));
+        when(disruptorService.isRawIngest()).thenReturn(true);
+        
+        // When
+        consumer.processBatch(List.of(message));
         
         // Then
-        verify(disruptorService, times(3)).publishEvent(any(), isNull());
+        verify(disruptorService).publishRawEvents(List.of(message));
+        verify(disruptorService, never()).publishEvents(any());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Transaction> capturePublishedBatch() {
+        ArgumentCaptor<List<Transaction>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        verify(disruptorService).publishEvents(batchCaptor.capture());
+        return batchCaptor.getValue();
     }
     
     private Transaction createTransaction(String txnId, BigDecimal amount, String accountId) {
@@ -0,0 +1,180 @@
+package com.hsbc.fraud.detection.messaging.local;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for MpscMessageQueue.
+ */
+@DisplayName("MpscMessageQueue Tests")
+class MpscMessageQueueTest {
+
+    @Test
+    @DisplayName("Should round capacity up to a power of two")
+    void shouldRoundCapacityUpToPowerOfTwo() {
+        assertThat(new MpscMessageQueue(2).capacity()).isEqualTo(2);
+        assertThat(new MpscMessageQueue(1000).capacity()).isEqualTo(1024);
+        assertThat(new MpscMessageQueue(1024).capacity()).isEqualTo(1024);
+        assertThatThrownBy(() -> new MpscMessageQueue(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should return messages in order and refuse offers when full")
+    void shouldReturnMessagesInOrderAndRefuseWhenFull() {
+        // Given
+        MpscMessageQueue queue = new MpscMessageQueue(4);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertThat(queue.offer("m" + i)).isTrue();
+        }
+
+        // Then
+        assertThat(queue.offer("m4")).isFalse();
+        assertThat(queue.size()).isEqualTo(4);
+        assertThat(queue.poll()).isEqualTo("m0");
+        assertThat(queue.offer("m4")).isTrue();
+        assertThat(queue.poll()).isEqualTo("m1");
+        assertThat(queue.poll()).isEqualTo("m2");
+        assertThat(queue.poll()).isEqualTo("m3");
+        assertThat(queue.poll()).isEqualTo("m4");
+        assertThat(queue.poll()).isNull();
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should drain at most the requested number of messages across the wrap point")
+    void shouldDrainBatchesAcrossWrapPoint() {
+        // Given
+        MpscMessageQueue queue = new MpscMessageQueue(4);
+        List<String> batch = new ArrayList<>();
+        queue.offer("a");
+        queue.offer("b");
+        queue.offer("c");
+        queue.drainTo(batch, 2);
+        batch.clear();
+        queue.offer("d");
+        queue.offer("e");
+        queue.offer("f");
+
+        // When
+        int drained = queue.drainTo(batch, 3);
+
+        // Then
+        assertThat(drained).isEqualTo(3);
+        assertThat(batch).containsExactly("c", "d", "e");
+        assertThat(queue.drainTo(batch, 10)).isEqualTo(1);
+        assertThat(batch).endsWith("f");
+        assertThat(queue.drainTo(batch, 10)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should block put while full until the consumer frees a slot")
+    void shouldBlockPutWhileFull() throws Exception {
+        // Given
+        MpscMessageQueue queue = new MpscMessageQueue(2);
+        queue.put("a");
+        queue.put("b");
+        CountDownLatch done = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put("c");
+                done.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // When
+        producer.start();
+
+        // Then
+        assertThat(done.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(queue.poll()).isEqualTo("a");
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queue.poll()).isEqualTo("b");
+        assertThat(queue.poll()).isEqualTo("c");
+    }
+
+    @Test
+    @DisplayName("Should stop waiting in put when interrupted")
+    void shouldStopWaitingWhenInterrupted() throws Exception {
+        // Given
+        MpscMessageQueue queue = new MpscMessageQueue(2);
+        queue.put("a");
+        queue.put("b");
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put("c");
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        producer.start();
+
+        // When
+        producer.interrupt();
+
+        // Then
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queue.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should deliver every message from concurrent producers exactly once, in per-producer order")
+    void shouldDeliverEveryMessageFromConcurrentProducers() throws Exception {
+        // Given
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscMessageQueue queue = new MpscMessageQueue(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int p = 0; p < producers; p++) {
+            String prefix = p + ":";
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    queue.put(prefix + i);
+                }
+                return null;
+            }));
+        }
+
+        int[] next = new int[producers];
+        List<String> batch = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        int received = 0;
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            batch.clear();
+            queue.drainTo(batch, 16);
+            for (String message : batch) {
+                int separator = message.indexOf(':');
+                int producer = Integer.parseInt(message.substring(0, separator));
+                // Then - each producer's messages arrive in the order it put them
+                assertThat(Integer.parseInt(message.substring(separator + 1))).isEqualTo(next[producer]++);
+            }
+            received += batch.size();
+        }
+
+        // Then
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertThat(received).isEqualTo(producers * perProducer);
+        assertThat(queue.poll()).isNull();
+    }
+}
@@ -0,0 +1,120 @@
+package com.hsbc.fraud.detection.messaging.mapped;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MappedLogReader Tests")
+class MappedLogReaderTest {
+    
+    private static final int SEGMENT_SIZE = 4096;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    @DisplayName("Should return null until a segment exists")
+    void shouldWaitForFirstSegment() throws IOException {
+        MappedLogReader reader = new MappedLogReader(directory, "test");
+        
+        assertNull(reader.poll());
+    }
+    
+    @Test
+    @DisplayName("Should read records in order across segments")
+    void shouldReadAcrossSegments() throws IOException {
+        writeSegment(0, true, "TX1", "TX2");
+        writeSegment(1, false, "TX3");
+        MappedLogReader reader = new MappedLogReader(directory, "test");
+        
+        assertEquals("TX1", reader.poll());
+        assertEquals("TX2", reader.poll());
+        assertEquals("TX3", reader.poll());
+        assertNull(reader.poll());
+    }
+    
+    @Test
+    @DisplayName("Should continue from the committed position after reopening")
+    void shouldResumeFromCommittedPosition() throws IOException {
+        writeSegment(0, true, "TX1", "TX2");
+        writeSegment(1, false, "TX3", "TX4");
+        
+        MappedLogReader reader = new MappedLogReader(directory, "test");
+        reader.poll();
+        reader.poll();
+        reader.poll();
+        reader.commit();
+        reader.close();
+        
+        MappedLogReader reopened = new MappedLogReader(directory, "test");
+        assertEquals("TX4", reopened.poll());
+        
+        // Other consumers keep their own position
+        assertEquals("TX1", new MappedLogReader(directory, "other").poll());
+    }
+    
+    @Test
+    @DisplayName("Should continue from an earlier position committed while reading ahead")
+    void shouldResumeFromEarlierPosition() throws IOException {
+        writeSegment(0, true, "TX1", "TX2");
+        writeSegment(1, false, "TX3", "TX4");
+        
+        MappedLogReader reader = new MappedLogReader(directory, "test");
+        reader.poll();
+        long afterFirst = reader.position();
+        reader.poll();
+        reader.poll();
+        reader.commit(afterFirst);
+        reader.close();
+        
+        MappedLogReader reopened = new MappedLogReader(directory, "test");
+        assertEquals("TX2", reopened.poll());
+        assertEquals("TX3", reopened.poll());
+    }
+    
+    @Test
+    @DisplayName("Should skip to the oldest segment when its position was deleted")
+    void shouldSkipDeletedSegments() throws IOException {
+        writeSegment(0, true, "TX1", "TX2");
+        writeSegment(1, true, "TX3");
+        writeSegment(2, false, "TX4");
+        MappedLogReader reader = new MappedLogReader(directory, "test");
+        assertEquals("TX1", reader.poll());
+        reader.commit();
+        reader.close();
+        Files.delete(directory.resolve("000000000.seg"));
+        Files.delete(directory.resolve("000000001.seg"));
+        
+        MappedLogReader reopened = new MappedLogReader(directory, "test");
+        
+        assertEquals("TX4", reopened.poll());
+        assertEquals(2, reopened.getSkippedSegments());
+    }
+    
+    /**
+     * Writes a segment in the producer's MappedLogWriter format.
+     */
+    private void writeSegment(long index, boolean ended, String... messages) throws IOException {
+        ByteBuffer segment = ByteBuffer.allocate(SEGMENT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        segment.putInt(0, MappedLogReader.MAGIC).putInt(4, 1).putInt(8, SEGMENT_SIZE).putLong(12, index);
+        int position = MappedLogReader.HEADER_BYTES;
+        for (String message : messages) {
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            segment.putInt(position, bytes.length).put(position + Integer.BYTES, bytes);
+            position += (Integer.BYTES + bytes.length + 7) & ~7;
+        }
+        if (ended) {
+            segment.putInt(position, MappedLogReader.END_OF_SEGMENT);
+        }
+        Files.write(directory.resolve(String.format("%09d.seg", index)), segment.array());
+    }
+}
@@ -0,0 +1,70 @@
+package com.hsbc.fraud.detection.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FraudAlert Tests")
+class FraudAlertTest {
+    
+    @Test
+    @DisplayName("Should render violations once when sinks read the alert concurrently")
+    void shouldRenderOnceAcrossThreads() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            // Given
+            AtomicInteger renders = new AtomicInteger();
+            FraudAlert alert = FraudAlert.builder()
+                    .alertId("ALERT-" + round)
+                    .ruleIds(List.of("LARGE_AMOUNT_RULE"))
+                    .violationRenderer(() -> {
+                        renders.incrementAndGet();
+                        return List.of("LARGE_AMOUNT_RULE: Amount exceeds threshold");
+                    })
+                    .build();
+            CountDownLatch start = new CountDownLatch(1);
+            ConcurrentLinkedQueue<String> messages = new ConcurrentLinkedQueue<>();
+            List<Thread> sinks = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                sinks.add(new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    messages.add(String.valueOf(alert.getMessage()));
+                }));
+            }
+            
+            // When
+            sinks.forEach(Thread::start);
+            start.countDown();
+            for (Thread sink : sinks) {
+                sink.join();
+            }
+            
+            // Then
+            assertThat(renders.get()).isEqualTo(1);
+            assertThat(messages).hasSize(4)
+                    .containsOnly("FRAUD DETECTED: LARGE_AMOUNT_RULE: Amount exceeds threshold");
+        }
+    }
+    
+    @Test
+    @DisplayName("Should keep violations set directly without a renderer")
+    void shouldKeepExplicitViolations() {
+        FraudAlert alert = FraudAlert.builder()
+                .violatedRules(List.of("RULE_1: Violation 1"))
+                .build();
+        
+        assertThat(alert.getViolatedRules()).containsExactly("RULE_1: Violation 1");
+        assertThat(alert.getMessage()).isEqualTo("FRAUD DETECTED: RULE_1: Violation 1");
+        assertThat(alert.getViolationCount()).isEqualTo(1);
+    }
+}
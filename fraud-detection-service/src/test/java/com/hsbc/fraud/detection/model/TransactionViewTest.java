@@ -0,0 +1,143 @@
+package com.hsbc.fraud.detection.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransactionView Tests")
+class TransactionViewTest {
+
+    @Test
+    @DisplayName("Should round-trip a transaction through the view")
+    void shouldRoundTripTransaction() {
+        // Given
+        Transaction transaction = Transaction.builder()
+                .transactionId("TX001")
+                .accountId("ACCT100")
+                .amount(new BigDecimal("1234.56"))
+                .currency("USD")
+                .timestamp(Instant.parse("2024-01-31T12:00:00.123Z"))
+                .merchantId("MERCHANT001")
+                .merchantCategory("RETAIL")
+                .location("New York")
+                .type(Transaction.TransactionType.PURCHASE)
+                .build();
+
+        // When
+        TransactionView view = new TransactionView();
+        view.copyFrom(transaction);
+
+        // Then
+        assertTrue(view.isPresent());
+        assertEquals(12_345_600L, view.getAmountUnits());
+        assertEquals(transaction.getTimestamp().toEpochMilli(), view.getTimestampMillis());
+        assertEquals(Transaction.TransactionType.PURCHASE.ordinal(), view.getTypeOrdinal());
+        assertEquals(transaction, view.toTransaction());
+    }
+
+    @Test
+    @DisplayName("Should keep absent fields absent")
+    void shouldKeepAbsentFieldsAbsent() {
+        TransactionView view = new TransactionView();
+        view.copyFrom(Transaction.builder().transactionId("TX002").build());
+
+        assertFalse(view.hasAmount());
+        assertFalse(view.hasTimestamp());
+        assertFalse(view.hasAccountId());
+        assertEquals(IdHash.NONE, view.getAccountIdHash());
+        assertEquals(Transaction.builder().transactionId("TX002").build(), view.toTransaction());
+
+        view.clear();
+        assertFalse(view.isPresent());
+    }
+
+    @Test
+    @DisplayName("Should round extra decimal places up")
+    void shouldRoundAmountUnitsUp() {
+        assertEquals(100_000_000L, TransactionView.toAmountUnits(new BigDecimal("10000")));
+        assertEquals(100_000_001L, TransactionView.toAmountUnits(new BigDecimal("10000.00001")));
+        assertEquals(-100_000_000L, TransactionView.toAmountUnits(new BigDecimal("-10000.00001")));
+        assertThrows(ArithmeticException.class,
+                () -> TransactionView.toAmountUnits(new BigDecimal("1E+20")));
+    }
+
+    @Test
+    @DisplayName("Should hash ids held in a char buffer like the same strings")
+    void shouldHashIdsWithoutStrings() {
+        // Given
+        char[] buffer = "xxACCT100yyParis".toCharArray();
+        TransactionView view = new TransactionView();
+
+        // When
+        view.setAccountId(buffer, 2, 7);
+        view.setLocation(buffer, 11, 5);
+        buffer[2] = 'Z';
+
+        // Then - the view keeps its own copy of the chars
+        assertEquals(IdHash.of("ACCT100"), view.getAccountIdHash());
+        assertEquals(IdHash.of("Paris"), view.getLocationHash());
+        assertEquals(IdHash.NONE, view.getMerchantIdHash());
+        assertEquals("ACCT100", view.getAccountId());
+        assertEquals("ACCT100", new String(view.getAccountIdChars(), 0, view.getAccountIdLength()));
+        assertNotEquals(IdHash.of("ACCT101"), view.getAccountIdHash());
+    }
+
+    @Test
+    @DisplayName("Should intern character ranges to the same code and string as plain strings")
+    void shouldInternCharacterRanges() {
+        SymbolTable table = new SymbolTable("test");
+        char[] buffer = "xxACCT100yy".toCharArray();
+
+        int code = table.intern(buffer, 2, 7);
+
+        assertEquals(code, table.intern("ACCT100"));
+        assertEquals(code, table.find("ACCT100"));
+        assertSame(table.symbol(code), table.symbol(table.intern(buffer, 2, 7)));
+        assertEquals(SymbolTable.NO_SYMBOL, table.find("ACCT200"));
+        assertNull(table.symbol(SymbolTable.NO_SYMBOL));
+    }
+
+    @Test
+    @DisplayName("Should assign dense codes across table growth")
+    void shouldAssignDenseCodesAcrossGrowth() {
+        SymbolTable table = new SymbolTable("test");
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, table.intern("ACCT" + i));
+        }
+
+        assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("ACCT" + i, table.symbol(i));
+            assertEquals(i, table.find("ACCT" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop interning new symbols once the table is full")
+    void shouldRejectSymbolsPastMaxSize() {
+        SymbolTable table = new SymbolTable("test", 2);
+        table.intern("USD");
+        table.intern("EUR");
+        char[] buffer = "GBP".toCharArray();
+
+        assertEquals(SymbolTable.NO_SYMBOL, table.intern("HKD"));
+        assertEquals(SymbolTable.NO_SYMBOL, table.intern(buffer, 0, buffer.length));
+        assertEquals(1, table.intern("EUR"));
+        assertEquals(2, table.size());
+        assertEquals(2, table.getRejected());
+    }
+
+    @Test
+    @DisplayName("Should resolve transaction types from character ranges")
+    void shouldResolveTypes() {
+        char[] buffer = "WITHDRAWAL".toCharArray();
+
+        assertEquals(Transaction.TransactionType.WITHDRAWAL, TransactionView.typeOf(buffer, 0, buffer.length));
+        assertNull(TransactionView.typeOf(buffer, 0, 4));
+    }
+}
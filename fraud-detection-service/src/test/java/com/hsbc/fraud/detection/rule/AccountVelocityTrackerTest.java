@@ -0,0 +1,157 @@
+package com.hsbc.fraud.detection.rule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AccountVelocityTracker Tests")
+class AccountVelocityTrackerTest {
+
+    private static final long WINDOW = 60_000L;
+
+    @Test
+    @DisplayName("Should flag exactly the events beyond the limit under 20 concurrent writers")
+    void shouldStayExactUnderConcurrentWriters() throws Exception {
+        // Given
+        AccountVelocityTracker tracker = new AccountVelocityTracker(5, WINDOW, 1024);
+        int threads = 20;
+        int eventsPerThread = 5_000;
+        AtomicInteger flagged = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When - all writers hit the same account within one window
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < eventsPerThread; i++) {
+                    if (tracker.record("ACCT100", 1_000L + (i % 1_000))) {
+                        flagged.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then - only the first five events are within the limit
+        assertEquals(threads * eventsPerThread - 5, flagged.get());
+    }
+
+    @Test
+    @DisplayName("Should keep one window per account when its first events race with different timestamps")
+    void shouldNotSplitRacingInserts() throws Exception {
+        // Given - accounts last seen at 0 are idle for events at WINDOW + 1 but not at WINDOW - 1
+        AccountVelocityTracker tracker = new AccountVelocityTracker(3, WINDOW, 4096);
+        for (int i = 0; i < 1024; i++) {
+            tracker.record("OLD" + i, 0);
+        }
+        int threads = 4;
+        int accounts = 1_000;
+        AtomicInteger flagged = new AtomicInteger();
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When - each new account's first events arrive together from all writers
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long timestamp = t % 2 == 0 ? WINDOW - 1 : WINDOW + 1;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < accounts; i++) {
+                    barrier.await();
+                    for (int k = 0; k < 2; k++) {
+                        if (tracker.record("NEW" + i, timestamp)) {
+                            flagged.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then - every account saw all eight events in one window
+        assertEquals(accounts * (threads * 2 - 3), flagged.get());
+        assertEquals(0, tracker.getUntrackedCount());
+    }
+
+    @Test
+    @DisplayName("Should forget events once they leave the window")
+    void shouldSlideWindow() {
+        AccountVelocityTracker tracker = new AccountVelocityTracker(2, WINDOW, 64);
+
+        assertFalse(tracker.record("ACCT100", 0));
+        assertFalse(tracker.record("ACCT100", 30_000));
+        assertTrue(tracker.record("ACCT100", 59_999));
+        // Events at 0 and 30_000 have left the window
+        assertFalse(tracker.record("ACCT100", 90_000));
+    }
+
+    @Test
+    @DisplayName("Should evict idle accounts instead of growing")
+    void shouldEvictIdleAccounts() {
+        AccountVelocityTracker tracker = new AccountVelocityTracker(1, WINDOW, 1024);
+
+        for (int i = 0; i < 400; i++) {
+            tracker.record("OLD" + i, 0);
+        }
+        for (int i = 0; i < 400; i++) {
+            assertFalse(tracker.record("NEW" + i, WINDOW + 1));
+        }
+        for (int i = 0; i < 400; i++) {
+            assertTrue(tracker.record("NEW" + i, WINDOW + 2));
+        }
+
+        assertEquals(1024, tracker.capacity());
+        assertEquals(0, tracker.getUntrackedCount());
+    }
+
+    @Test
+    @DisplayName("Should fail open when the table is saturated with active accounts")
+    void shouldFailOpenWhenSaturated() {
+        AccountVelocityTracker tracker = new AccountVelocityTracker(1, WINDOW, 16);
+
+        for (int i = 0; i < 100; i++) {
+            tracker.record("ACCT" + i, 1_000);
+        }
+
+        assertTrue(tracker.getUntrackedCount() > 0);
+    }
+
+    @Test
+    @DisplayName("Should track a million distinct accounts at half load")
+    void shouldTrackMillionAccounts() {
+        AccountVelocityTracker tracker = new AccountVelocityTracker(5, WINDOW, 1 << 21);
+        String[] accounts = new String[1 << 20];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = "ACCT" + i;
+        }
+
+        for (int round = 0; round < 5; round++) {
+            for (String account : accounts) {
+                assertFalse(tracker.record(account, 1_000L + round));
+            }
+        }
+        assertTrue(tracker.record(accounts[42], 2_000L));
+        assertTrue(tracker.getUntrackedCount() < accounts.length / 1_000);
+    }
+}
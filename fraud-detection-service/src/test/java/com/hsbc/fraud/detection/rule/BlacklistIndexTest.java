@@ -0,0 +1,74 @@
+package com.hsbc.fraud.detection.rule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BlacklistIndex Tests")
+class BlacklistIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should find exactly the indexed ids")
+    void shouldFindIndexedIds() {
+        BlacklistIndex index = BlacklistIndex.of(List.of("ACCT001", "ACCT666", "ACCT001", "", "ÄCCT-Ü"));
+
+        assertEquals(3, index.size());
+        assertTrue(index.contains("ACCT001"));
+        assertTrue(index.contains("ACCT666"));
+        assertTrue(index.contains("ÄCCT-Ü"));
+        assertFalse(index.contains("ACCT002"));
+        assertFalse(index.contains("acct001"));
+        assertFalse(index.contains(""));
+        assertFalse(index.contains(null));
+        assertFalse(BlacklistIndex.empty().contains("ACCT001"));
+    }
+
+    @Test
+    @DisplayName("Should map a large index file without false negatives or positives")
+    void shouldRoundTripLargeIndexThroughFile() throws IOException {
+        List<String> ids = IntStream.range(0, 200_000).mapToObj(i -> "ACCT" + i).toList();
+        Path file = tempDir.resolve("blacklist.idx");
+
+        BlacklistIndex.write(file, ids, BlacklistIndex.DEFAULT_BLOOM_BITS_PER_ENTRY);
+        BlacklistIndex index = BlacklistIndex.open(file);
+
+        assertEquals(ids.size(), index.size());
+        assertTrue(ids.stream().allMatch(index::contains));
+        assertTrue(IntStream.range(200_000, 400_000).noneMatch(i -> index.contains("ACCT" + i)));
+        assertFalse(Files.exists(tempDir.resolve("blacklist.idx.tmp")));
+    }
+
+    @Test
+    @DisplayName("Should work without a Bloom filter")
+    void shouldWorkWithoutBloomFilter() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add("ACCT" + i);
+        }
+        BlacklistIndex index = BlacklistIndex.of(ids, 0);
+
+        assertTrue(index.contains("ACCT999"));
+        assertFalse(index.contains("ACCT1000"));
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not an index")
+    void shouldRejectInvalidFiles() throws IOException {
+        Path file = tempDir.resolve("ids.txt");
+        Files.writeString(file, "ACCT001\nACCT666\nACCT999\nACCT123\n");
+
+        assertThrows(IllegalArgumentException.class, () -> BlacklistIndex.open(file));
+    }
+}
@@ -1,6 +1,7 @@
 package com.hsbc.fraud.detection.rule;
 
 import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -95,6 +96,17 @@ class LargeAmountRuleTest {
         assertTrue(reason.contains("10000"));
     }
     
+    @ParameterizedTest
+    @ValueSource(strings = {"9999.99", "10000", "10000.00", "10000.00001", "10000.01", "50000"})
+    @DisplayName("View evaluation should agree with transaction evaluation")
+    void shouldAgreeOnViews(String amount) {
+        Transaction transaction = createTransaction(amount);
+        TransactionView view = new TransactionView();
+        view.copyFrom(transaction);
+        
+        assertEquals(rule.isFraudulent(transaction), rule.isFraudulent(view));
+    }
+    
     private Transaction createTransaction(String amount) {
         return Transaction.builder()
                 .transactionId("TX001")
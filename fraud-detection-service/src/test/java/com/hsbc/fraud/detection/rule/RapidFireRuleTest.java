@@ -0,0 +1,95 @@
+package com.hsbc.fraud.detection.rule;
+
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RapidFireRule Tests")
+class RapidFireRuleTest {
+    
+    private static final int MAX_PER_MINUTE = 5;
+    private static final Instant START = Instant.parse("2024-01-31T12:00:00Z");
+    
+    private RapidFireRule rule;
+    
+    @BeforeEach
+    void setUp() {
+        rule = new RapidFireRule(MAX_PER_MINUTE, 1024);
+    }
+    
+    @Test
+    @DisplayName("Should flag transactions beyond the per-minute limit")
+    void shouldFlagTransactionsBeyondLimit() {
+        for (int i = 0; i < MAX_PER_MINUTE; i++) {
+            assertFalse(rule.isFraudulent(createTransaction("ACCT100", START.plusSeconds(i))));
+        }
+        
+        assertTrue(rule.isFraudulent(createTransaction("ACCT100", START.plusSeconds(10))));
+    }
+    
+    @Test
+    @DisplayName("Should not flag transactions spread over more than a minute")
+    void shouldNotFlagSpreadTransactions() {
+        for (int i = 0; i < 3 * MAX_PER_MINUTE; i++) {
+            assertFalse(rule.isFraudulent(createTransaction("ACCT100", START.plusSeconds(13L * i))));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should count accounts independently")
+    void shouldCountAccountsIndependently() {
+        for (int i = 0; i < MAX_PER_MINUTE; i++) {
+            rule.isFraudulent(createTransaction("ACCT100", START.plusSeconds(i)));
+        }
+        
+        assertFalse(rule.isFraudulent(createTransaction("ACCT200", START.plusSeconds(10))));
+        assertTrue(rule.isFraudulent(createTransaction("ACCT100", START.plusSeconds(10))));
+    }
+    
+    @Test
+    @DisplayName("Should share state between transaction and view evaluation")
+    void shouldShareStateWithViews() {
+        TransactionView view = new TransactionView();
+        for (int i = 0; i < MAX_PER_MINUTE; i++) {
+            view.copyFrom(createTransaction("ACCT300", START.plusSeconds(i)));
+            assertFalse(rule.isFraudulent(view));
+        }
+        
+        assertTrue(rule.isFraudulent(createTransaction("ACCT300", START.plusSeconds(10))));
+    }
+    
+    @Test
+    @DisplayName("Should not flag transaction with null account ID")
+    void shouldNotFlagNullAccountId() {
+        for (int i = 0; i <= MAX_PER_MINUTE; i++) {
+            assertFalse(rule.isFraudulent(createTransaction(null, START)));
+        }
+    }
+    
+    @Test
+    @DisplayName("Rule name and reason should be correct")
+    void shouldReturnNameAndReason() {
+        assertEquals("RAPID_FIRE_RULE", rule.getRuleName());
+        
+        String reason = rule.getReason(createTransaction("ACCT100", START));
+        assertTrue(reason.contains("ACCT100"));
+        assertTrue(reason.contains(String.valueOf(MAX_PER_MINUTE)));
+    }
+    
+    private Transaction createTransaction(String accountId, Instant timestamp) {
+        return Transaction.builder()
+                .transactionId("TX001")
+                .accountId(accountId)
+                .amount(BigDecimal.valueOf(100))
+                .currency("USD")
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.hsbc.fraud.detection.rule;
+
+import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RulePlan Tests")
+class RulePlanTest {
+
+    private LargeAmountRule largeAmountRule;
+    private SuspiciousAccountRule suspiciousAccountRule;
+    private FraudRule customRule;
+    private RulePlan plan;
+
+    @BeforeEach
+    void setUp() {
+        largeAmountRule = new LargeAmountRule(new BigDecimal("10000"));
+        suspiciousAccountRule = new SuspiciousAccountRule(List.of("ACCT001", "ACCT666"));
+        customRule = new FraudRule() {
+            @Override
+            public boolean isFraudulent(Transaction transaction) {
+                return false;
+            }
+
+            @Override
+            public String getRuleName() {
+                return "CUSTOM_RULE";
+            }
+
+            @Override
+            public String getReason(Transaction transaction) {
+                return "custom";
+            }
+        };
+        plan = RulePlan.compile(List.of(largeAmountRule, customRule, suspiciousAccountRule));
+    }
+
+    @Test
+    @DisplayName("Should fuse built-in rules and leave the rest residual")
+    void shouldSplitFusedAndResidualRules() {
+        assertEquals(List.of(largeAmountRule, suspiciousAccountRule), plan.getFusedRules());
+        assertEquals(List.of(customRule), plan.getResidualRules());
+    }
+
+    @Test
+    @DisplayName("Should return an empty mask for clean transactions")
+    void shouldReturnZeroForCleanTransactions() {
+        Transaction transaction = createTransaction("ACCT100", "500");
+
+        assertEquals(0L, plan.evaluate(transaction));
+        assertEquals(0L, plan.evaluate(viewOf(transaction)));
+    }
+
+    @Test
+    @DisplayName("Should report every violated fused rule in registration order")
+    void shouldReportViolatedRules() {
+        Transaction transaction = createTransaction("ACCT666", "15000");
+
+        long mask = plan.evaluate(viewOf(transaction));
+
+        assertEquals(mask, plan.evaluate(transaction));
+        assertEquals(List.of(largeAmountRule, suspiciousAccountRule), plan.violatedRules(mask));
+        assertEquals(List.of(suspiciousAccountRule),
+                plan.violatedRules(plan.evaluate(createTransaction("ACCT001", "10000"))));
+    }
+
+    @Test
+    @DisplayName("Should see blacklist additions without recompiling")
+    void shouldReadBlacklistLive() {
+        Transaction transaction = createTransaction("ACCT4242", "100");
+        assertEquals(0L, plan.evaluate(viewOf(transaction)));
+
+        suspiciousAccountRule.addToBlacklist("ACCT4242");
+
+        assertEquals(List.of(suspiciousAccountRule), plan.violatedRules(plan.evaluate(viewOf(transaction))));
+    }
+
+    @Test
+    @DisplayName("Should keep updating velocity state through the plan")
+    void shouldRecordVelocity() {
+        RapidFireRule rapidFireRule = new RapidFireRule(2, 1024);
+        RulePlan velocityPlan = RulePlan.compile(List.of(rapidFireRule));
+        TransactionView view = viewOf(createTransaction("ACCT100", "10"));
+
+        assertEquals(0L, velocityPlan.evaluate(view));
+        assertEquals(0L, velocityPlan.evaluate(view));
+        assertEquals(List.of(rapidFireRule), velocityPlan.violatedRules(velocityPlan.evaluate(view)));
+    }
+
+    private TransactionView viewOf(Transaction transaction) {
+        TransactionView view = new TransactionView();
+        view.copyFrom(transaction);
+        return view;
+    }
+
+    private Transaction createTransaction(String accountId, String amount) {
+        return Transaction.builder()
+                .transactionId("TX001")
+                .accountId(accountId)
+                .amount(new BigDecimal(amount))
+                .currency("USD")
+                .timestamp(Instant.now())
+                .build();
+    }
+}
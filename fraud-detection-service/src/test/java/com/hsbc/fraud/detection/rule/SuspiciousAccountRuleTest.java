@@ -1,13 +1,19 @@
 package com.hsbc.fraud.detection.rule;
 
 import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.time.Instant;
 import java.util.List;
 
@@ -96,6 +102,51 @@ class SuspiciousAccountRuleTest {
         assertTrue(rule.isFraudulent(transaction));
     }
     
+    @ParameterizedTest
+    @ValueSource(strings = {"ACCT001", "ACCT100", "acct001"})
+    @DisplayName("View evaluation should agree with transaction evaluation")
+    void shouldAgreeOnViews(String accountId) {
+        Transaction transaction = createTransaction(accountId);
+        TransactionView view = new TransactionView();
+        view.copyFrom(transaction);
+        
+        assertEquals(rule.isFraudulent(transaction), rule.isFraudulent(view));
+    }
+    
+    @Test
+    @DisplayName("Should load and hot-reload accounts from an index file")
+    void shouldReloadIndexFile(@TempDir Path tempDir) throws IOException {
+        Path indexFile = tempDir.resolve("blacklist.idx");
+        BlacklistIndex.write(indexFile, List.of("ACCT500"), BlacklistIndex.DEFAULT_BLOOM_BITS_PER_ENTRY);
+        SuspiciousAccountRule fileRule = new SuspiciousAccountRule(List.of("ACCT001"), indexFile.toString());
+        
+        assertTrue(fileRule.isFraudulent(createTransaction("ACCT500")));
+        assertTrue(fileRule.isFraudulent(createTransaction("ACCT001")));
+        assertFalse(fileRule.isFraudulent(createTransaction("ACCT501")));
+        
+        BlacklistIndex.write(indexFile, List.of("ACCT501", "ACCT502"), BlacklistIndex.DEFAULT_BLOOM_BITS_PER_ENTRY);
+        Files.setLastModifiedTime(indexFile, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        fileRule.reload();
+        
+        assertEquals(2, fileRule.getIndexedAccountCount());
+        assertFalse(fileRule.isFraudulent(createTransaction("ACCT500")));
+        assertTrue(fileRule.isFraudulent(createTransaction("ACCT501")));
+        assertTrue(fileRule.isFraudulent(createTransaction("ACCT001")));
+    }
+    
+    @Test
+    @DisplayName("Should keep the previous index when a reload fails")
+    void shouldKeepIndexWhenReloadFails(@TempDir Path tempDir) throws IOException {
+        Path indexFile = tempDir.resolve("blacklist.idx");
+        BlacklistIndex.write(indexFile, List.of("ACCT500"), BlacklistIndex.DEFAULT_BLOOM_BITS_PER_ENTRY);
+        SuspiciousAccountRule fileRule = new SuspiciousAccountRule(List.of(), indexFile.toString());
+        
+        Files.writeString(indexFile, "not an index, just some account ids");
+        fileRule.reload();
+        
+        assertTrue(fileRule.isFraudulent(createTransaction("ACCT500")));
+    }
+    
     private Transaction createTransaction(String accountId) {
         return Transaction.builder()
                 .transactionId("TX001")
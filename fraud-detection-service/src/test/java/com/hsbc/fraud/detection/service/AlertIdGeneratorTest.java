@@ -0,0 +1,55 @@
+package com.hsbc.fraud.detection.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AlertIdGenerator Tests")
+class AlertIdGeneratorTest {
+    
+    @Test
+    @DisplayName("Should generate fixed-width ids in creation order")
+    void shouldGenerateOrderedIds() {
+        AlertIdGenerator generator = new AlertIdGenerator(0xCAFE);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.nextId());
+        }
+        
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(sorted, ids);
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        assertTrue(ids.stream().allMatch(id -> id.length() == 24 && id.endsWith("0000cafe")));
+    }
+    
+    @Test
+    @DisplayName("Should generate unique ids across threads")
+    void shouldGenerateUniqueIdsConcurrently() throws InterruptedException {
+        AlertIdGenerator generator = new AlertIdGenerator();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        
+        assertEquals(80_000, ids.size());
+    }
+}
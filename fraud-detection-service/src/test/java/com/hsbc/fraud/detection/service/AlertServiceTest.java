@@ -1,20 +1,43 @@
 package com.hsbc.fraud.detection.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.fraud.detection.alert.AlertAggregator;
+import com.hsbc.fraud.detection.alert.AlertEnvelope;
+import com.hsbc.fraud.detection.alert.AlertPipeline;
+import com.hsbc.fraud.detection.alert.AlertSink;
+import com.hsbc.fraud.detection.alert.LoggingAlertSink;
+import com.hsbc.fraud.detection.alert.journal.AlertJournal;
+import com.hsbc.fraud.detection.disruptor.WaitStrategyType;
 import com.hsbc.fraud.detection.metrics.MetricsCollector;
 import com.hsbc.fraud.detection.model.FraudAlert;
 import com.hsbc.fraud.detection.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @DisplayName("AlertService Tests")
 @ExtendWith(MockitoExtension.class)
@@ -67,6 +90,113 @@ class AlertServiceTest {
         assertDoesNotThrow(() -> alertService.handleAlert(alert));
     }
     
+    @Test
+    @DisplayName("Should record rule metrics from rule ids without rendering reasons")
+    void shouldRecordRuleViolationsFromRuleIds() {
+        FraudAlert alert = createAlert(FraudAlert.FraudSeverity.HIGH);
+        alert.setViolatedRules(null);
+        alert.setMessage(null);
+        alert.setRuleIds(Arrays.asList("LARGE_AMOUNT_RULE", "CUSTOM_RULE"));
+        
+        alertService.handleAlert(alert);
+        
+        verify(metricsCollector).recordRuleViolation(MetricsCollector.RULE_LARGE_AMOUNT, "ACCT100");
+        verify(metricsCollector).recordRuleViolation("CUSTOM", "ACCT100");
+    }
+    
+    @Test
+    @DisplayName("Should journal alerts and hand them to the pipeline without logging or recording metrics on the caller's thread")
+    void shouldPublishToPipelineWhenEnabled() {
+        AlertPipeline pipeline = mock(AlertPipeline.class);
+        AlertJournal journal = mock(AlertJournal.class);
+        AlertService asyncAlertService = new AlertService(new LoggingAlertSink(metricsCollector), pipeline, journal, null);
+        FraudAlert alert = createAlert(FraudAlert.FraudSeverity.HIGH);
+        
+        asyncAlertService.handleAlert(alert);
+        
+        verify(journal).append(alert);
+        verify(pipeline).publish(alert);
+        verifyNoInteractions(metricsCollector);
+    }
+    
+    @Test
+    @DisplayName("Should deliver the first alert of a storm at once and the rest as one summary")
+    void shouldAggregateAlertStorm() {
+        AlertPipeline pipeline = mock(AlertPipeline.class);
+        AlertAggregator aggregator = new AlertAggregator(new SimpleMeterRegistry(), 60, 1000);
+        AlertService aggregatingAlertService =
+                new AlertService(new LoggingAlertSink(metricsCollector), pipeline, null, aggregator);
+        
+        for (int i = 0; i < 100; i++) {
+            aggregatingAlertService.handleAlert(createAlert(FraudAlert.FraudSeverity.HIGH));
+        }
+        verify(pipeline, times(1)).publish(any());
+        
+        aggregatingAlertService.shutdown();
+        
+        ArgumentCaptor<FraudAlert> delivered = ArgumentCaptor.forClass(FraudAlert.class);
+        verify(pipeline, times(2)).publish(delivered.capture());
+        FraudAlert summary = delivered.getAllValues().get(1);
+        assertEquals(99, summary.getAggregatedCount());
+        assertEquals("ACCT100", summary.getTransaction().getAccountId());
+        assertTrue(summary.getMessage().contains("99 further alerts"));
+    }
+    
+    @Test
+    @DisplayName("Should flush open aggregation windows into the pipeline before it stops when the context closes")
+    void shouldFlushIntoRunningPipelineOnContextClose(@TempDir Path spillDirectory) throws Exception {
+        // Given
+        List<FraudAlert> delivered = Collections.synchronizedList(new ArrayList<>());
+        AlertSink sink = new AlertSink() {
+            @Override
+            public String getName() {
+                return "recording";
+            }
+            
+            @Override
+            public void deliver(List<AlertEnvelope> alerts) {
+                alerts.forEach(envelope -> delivered.add(envelope.alert()));
+            }
+        };
+        AlertPipeline pipeline = new AlertPipeline(List.of(sink), new SimpleMeterRegistry(), new ObjectMapper(),
+                new MockEnvironment(), 1024, WaitStrategyType.SLEEPING, 100, 10, spillDirectory.toString(), 5);
+        
+        GenericApplicationContext context = new GenericApplicationContext();
+        AnnotationConfigUtils.registerAnnotationConfigProcessors(context);
+        context.registerBean("alertPipeline", AlertPipeline.class, () -> pipeline);
+        context.registerBean("alertAggregator", AlertAggregator.class,
+                () -> new AlertAggregator(new SimpleMeterRegistry(), 60, 1000));
+        context.registerBean("loggingAlertSink", LoggingAlertSink.class, () -> new LoggingAlertSink(metricsCollector));
+        context.registerBean("alertService", AlertService.class);
+        context.refresh();
+        
+        AlertService contextAlertService = context.getBean(AlertService.class);
+        for (int i = 0; i < 10; i++) {
+            contextAlertService.handleAlert(createAlert(FraudAlert.FraudSeverity.HIGH));
+        }
+        assertTrue(Arrays.asList(context.getBeanFactory().getDependentBeans("alertPipeline")).contains("alertService"));
+        
+        // When - the aggregation window is still open
+        context.close();
+        
+        // Then - the pipeline drained the summary on its own shutdown
+        assertEquals(2, delivered.size());
+        assertEquals(9, delivered.get(1).getAggregatedCount());
+    }
+    
+    @Test
+    @DisplayName("Should record metrics for every alert folded into a summary")
+    void shouldRecordMetricsForSummary() {
+        FraudAlert summary = createAlert(FraudAlert.FraudSeverity.HIGH);
+        summary.setRuleIds(List.of("LARGE_AMOUNT_RULE"));
+        summary.setAggregatedCount(99);
+        
+        alertService.handleAlert(summary);
+        
+        verify(metricsCollector).recordFraudDetected("HIGH", 99L);
+        verify(metricsCollector).recordRuleViolations(MetricsCollector.RULE_LARGE_AMOUNT, 99L);
+    }
+    
     private FraudAlert createAlert(FraudAlert.FraudSeverity severity) {
         Transaction transaction = Transaction.builder()
                 .transactionId("TX001")
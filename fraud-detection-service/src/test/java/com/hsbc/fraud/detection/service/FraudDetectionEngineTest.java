@@ -1,17 +1,25 @@
 package com.hsbc.fraud.detection.service;
 
+import com.hsbc.fraud.detection.feature.AccountFeatureStore;
+import com.hsbc.fraud.detection.feature.AccountFeatures;
 import com.hsbc.fraud.detection.model.FraudAlert;
 import com.hsbc.fraud.detection.model.Transaction;
+import com.hsbc.fraud.detection.model.TransactionView;
 import com.hsbc.fraud.detection.rule.FraudRule;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -98,6 +106,24 @@ class FraudDetectionEngineTest {
         assertEquals(FraudAlert.FraudSeverity.HIGH, alert.getSeverity());
     }
     
+    @Test
+    @DisplayName("Should keep a rule whose reason fails in the rendered violations")
+    void shouldRenderRuleWhoseReasonFails() {
+        Transaction transaction = createTransaction();
+        when(rule1.isFraudulent(transaction)).thenReturn(true);
+        when(rule1.getReason(transaction)).thenThrow(new IllegalStateException("no reason"));
+        when(rule2.isFraudulent(transaction)).thenReturn(true);
+        when(rule2.getReason(transaction)).thenReturn("Violation 2");
+        when(rule3.isFraudulent(transaction)).thenReturn(false);
+        
+        FraudAlert alert = engine.analyzeTransaction(transaction);
+        
+        assertEquals(2, alert.getViolatedRules().size());
+        assertTrue(alert.getViolatedRules().stream().anyMatch(rule -> rule.startsWith("RULE_1: reason unavailable")));
+        assertTrue(alert.getViolatedRules().contains("RULE_2: Violation 2"));
+        verify(rule1, times(1)).getReason(transaction);
+    }
+    
     @Test
     @DisplayName("Should set MEDIUM severity for 1 rule violation")
     void shouldSetMediumSeverityForOneViolation() {
@@ -179,6 +205,144 @@ class FraudDetectionEngineTest {
         verify(rule3).isFraudulent(transaction);
     }
     
+    @Test
+    @DisplayName("Should evaluate views without materializing clean transactions")
+    void shouldEvaluateViewAndMaterializeOnlyOnViolation() {
+        TransactionView view = new TransactionView();
+        view.copyFrom(createTransaction());
+        
+        when(rule1.isFraudulent(view)).thenReturn(false);
+        when(rule2.isFraudulent(view)).thenReturn(false);
+        when(rule3.isFraudulent(view)).thenReturn(false);
+        
+        assertNull(engine.analyzeTransaction(view));
+        verify(rule1, never()).getReason(any());
+        
+        when(rule2.isFraudulent(view)).thenReturn(true);
+        when(rule2.getReason(any(Transaction.class))).thenReturn("Rule 2 violated");
+        
+        FraudAlert alert = engine.analyzeTransaction(view);
+        
+        assertNotNull(alert);
+        assertEquals(List.of("RULE_2: Rule 2 violated"), alert.getViolatedRules());
+        assertEquals(createTransaction().getAmount(), alert.getTransaction().getAmount());
+        assertEquals("TX001", alert.getTransaction().getTransactionId());
+        verify(rule1, never()).isFraudulent(any(Transaction.class));
+    }
+    
+    @Test
+    @DisplayName("Should stop at the first match but still run stateful rules")
+    void shouldShortCircuitOnFirstMatchExceptStatefulRules() {
+        Transaction transaction = createTransaction();
+        when(rule1.isFraudulent(transaction)).thenReturn(true);
+        when(rule1.getReason(transaction)).thenReturn("Violation 1");
+        when(rule3.isStateful()).thenReturn(true);
+        when(rule3.isFraudulent(transaction)).thenReturn(false);
+        
+        FraudDetectionEngine firstMatch = new FraudDetectionEngine(List.of(rule1, rule2, rule3),
+                new SimpleMeterRegistry(), ShortCircuitMode.FIRST_MATCH, FraudAlert.FraudSeverity.CRITICAL, true);
+        FraudAlert alert = firstMatch.analyzeTransaction(transaction);
+        
+        assertEquals(List.of("RULE_1: Violation 1"), alert.getViolatedRules());
+        verify(rule2, never()).isFraudulent(transaction);
+        verify(rule3).isFraudulent(transaction);
+    }
+    
+    @Test
+    @DisplayName("Should stop once the severity cap is reached")
+    void shouldShortCircuitAtSeverityCap() {
+        Transaction transaction = createTransaction();
+        when(rule1.isFraudulent(transaction)).thenReturn(true);
+        when(rule1.getReason(transaction)).thenReturn("Violation 1");
+        when(rule2.isFraudulent(transaction)).thenReturn(true);
+        when(rule2.getReason(transaction)).thenReturn("Violation 2");
+        
+        FraudDetectionEngine capped = new FraudDetectionEngine(List.of(rule1, rule2, rule3),
+                new SimpleMeterRegistry(), ShortCircuitMode.SEVERITY_CAP, FraudAlert.FraudSeverity.HIGH, true);
+        FraudAlert alert = capped.analyzeTransaction(transaction);
+        
+        assertEquals(FraudAlert.FraudSeverity.HIGH, alert.getSeverity());
+        verify(rule3, never()).isFraudulent(transaction);
+    }
+    
+    @Test
+    @DisplayName("Should move cheap, selective rules to the front")
+    void shouldReorderRulesByCostPerHit() {
+        FraudRule neverFires = new NamedRule("NEVER_FIRES", false);
+        FraudRule alwaysFires = new NamedRule("ALWAYS_FIRES", true);
+        FraudDetectionEngine adaptive = new FraudDetectionEngine(List.of(neverFires, alwaysFires),
+                new SimpleMeterRegistry(), ShortCircuitMode.FIRST_MATCH, FraudAlert.FraudSeverity.CRITICAL, true);
+        TransactionView view = new TransactionView();
+        view.copyFrom(createTransaction());
+        
+        assertEquals(List.of("NEVER_FIRES", "ALWAYS_FIRES"), adaptive.getEvaluationOrder());
+        for (int i = 0; i < 5000; i++) {
+            adaptive.analyzeTransaction(view);
+        }
+        
+        assertEquals(List.of("ALWAYS_FIRES", "NEVER_FIRES"), adaptive.getEvaluationOrder());
+    }
+    
+    @Test
+    @DisplayName("Should record a latency histogram per rule")
+    void shouldRecordPerRuleLatency() {
+        Transaction transaction = createTransaction();
+        when(rule1.isFraudulent(transaction)).thenReturn(false);
+        when(rule2.isFraudulent(transaction)).thenReturn(false);
+        when(rule3.isFraudulent(transaction)).thenReturn(false);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        
+        new FraudDetectionEngine(List.of(rule1, rule2, rule3), registry,
+                ShortCircuitMode.NONE, FraudAlert.FraudSeverity.CRITICAL, true).analyzeTransaction(transaction);
+        
+        Timer timer = registry.find("fraud.rule.evaluation.time").tag("rule", "RULE_2").timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+    
+    @Test
+    @DisplayName("Should defer reason rendering until the alert is read")
+    void shouldRenderReasonsLazily() {
+        Transaction transaction = createTransaction();
+        when(rule1.isFraudulent(transaction)).thenReturn(true);
+        when(rule1.getReason(transaction)).thenReturn("Violation 1");
+        when(rule2.isFraudulent(transaction)).thenReturn(false);
+        when(rule3.isFraudulent(transaction)).thenReturn(false);
+        
+        FraudAlert alert = engine.analyzeTransaction(transaction);
+        
+        assertEquals(List.of("RULE_1"), alert.getRuleIds());
+        assertEquals(1, alert.getViolationCount());
+        verify(rule1, never()).getReason(any());
+        
+        assertEquals("FRAUD DETECTED: RULE_1: Violation 1", alert.getMessage());
+        assertEquals(List.of("RULE_1: Violation 1"), alert.getViolatedRules());
+        verify(rule1, times(1)).getReason(transaction);
+    }
+    
+    @Test
+    @DisplayName("Should record account features after the rules have run")
+    void shouldRecordAccountFeaturesAfterRules(@TempDir Path directory) {
+        AccountFeatureStore store = new AccountFeatureStore(new SimpleMeterRegistry(), 1024, 60,
+                directory.resolve("features.snapshot").toString());
+        AccountFeatures features = new AccountFeatures();
+        List<Long> countsSeenByRule = new ArrayList<>();
+        when(rule1.isFraudulent(any(Transaction.class))).thenAnswer(invocation -> {
+            store.read("ACCT100", features);
+            countsSeenByRule.add(features.getCount());
+            return false;
+        });
+        FraudDetectionEngine withFeatures = new FraudDetectionEngine(List.of(rule1), new SimpleMeterRegistry(),
+                ShortCircuitMode.NONE, FraudAlert.FraudSeverity.CRITICAL, false, store);
+        
+        withFeatures.analyzeTransaction(createTransaction());
+        withFeatures.analyzeTransaction(createTransaction());
+        
+        assertEquals(List.of(0L, 1L), countsSeenByRule);
+        store.read("ACCT100", features);
+        assertEquals(2, features.getCount());
+    }
+    
     private Transaction createTransaction() {
         return Transaction.builder()
                 .transactionId("TX001")
@@ -188,5 +352,27 @@ class FraudDetectionEngineTest {
                 .timestamp(Instant.now())
                 .build();
     }
+    
+    private record NamedRule(String name, boolean fires) implements FraudRule {
+        
+        @Override
+        public boolean isFraudulent(Transaction transaction) {
+            return fires;
+        }
+        
+        @Override
+        public boolean isFraudulent(TransactionView view) {
+            return fires;
+        }
+        
+        @Override
+        public String getRuleName() {
+            return name;
+        }
+        
+        @Override
+        public String getReason(Transaction transaction) {
+            return name;
+        }
+    }
 }
-
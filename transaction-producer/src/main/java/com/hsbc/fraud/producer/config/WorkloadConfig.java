@@ -0,0 +1,49 @@
+package com.hsbc.fraud.producer.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.hsbc.fraud.producer.workload.WorkloadModel;
+import com.hsbc.fraud.producer.workload.WorkloadSpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Workload model for the transaction generator, from the YAML file at transaction.workload.file
+ * (any Spring resource location, e.g. {@code classpath:workloads/realistic.yml} or {@code file:/etc/workload.yml}).
+ * Without a file the generator keeps its small built-in population.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("!'${transaction.workload.file:}'.isEmpty()")
+public class WorkloadConfig {
+    
+    @Bean
+    public WorkloadModel workloadModel(ResourceLoader resourceLoader,
+                                       @Value("${transaction.workload.file}") String location) throws IOException {
+        WorkloadSpec spec = load(resourceLoader.getResource(location));
+        log.info("Loaded workload model from {}: seed={}, {} accounts (skew {}), {} merchants, {} fraud scenarios per million",
+                location, spec.getSeed(), spec.getAccounts().getCount(), spec.getAccounts().getSkew(),
+                spec.getMerchants().getCount(), spec.getScenarios().getPerMillion());
+        return new WorkloadModel(spec);
+    }
+    
+    /**
+     * Read a workload spec; unknown keys are rejected so typos do not silently fall back to defaults.
+     */
+    public static WorkloadSpec load(Resource resource) throws IOException {
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory())
+                .setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE);
+        try (InputStream in = resource.getInputStream()) {
+            return mapper.readValue(in, WorkloadSpec.class);
+        }
+    }
+}
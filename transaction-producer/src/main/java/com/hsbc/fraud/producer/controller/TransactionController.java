@@ -1,6 +1,8 @@
 package com.hsbc.fraud.producer.controller;
 
 import com.hsbc.fraud.producer.model.Transaction;
+import com.hsbc.fraud.producer.replay.TransactionReplayer;
+import com.hsbc.fraud.producer.scheduler.RateProfile;
 import com.hsbc.fraud.producer.scheduler.TransactionScheduler;
 import com.hsbc.fraud.producer.service.TransactionGenerator;
 import com.hsbc.fraud.producer.service.TransactionPublisherService;
@@ -10,6 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,6 +30,7 @@ public class TransactionController {
     
     private final TransactionGenerator transactionGenerator;
     private final TransactionPublisherService publisherService;
+    private final TransactionReplayer transactionReplayer;
     
     @Autowired(required = false)
     private TransactionScheduler transactionScheduler;
@@ -37,62 +42,145 @@ public class TransactionController {
     @GetMapping("/rate")
     public ResponseEntity<Map<String, Object>> getTransactionRate() {
         if (transactionScheduler == null) {
-            return ResponseEntity.ok(Map.of(
-                    "status", "disabled",
-                    "message", "Transaction auto-generation scheduler is not enabled"
-            ));
+            return schedulerDisabled(false);
         }
         
         Map<String, Object> response = new HashMap<>();
         response.put("status", "enabled");
-        response.put("transactionsPerExecution", transactionScheduler.getTransactionsPerExecution());
-        response.put("executionIntervalMs", 10);
-        response.put("currentQPS", transactionScheduler.getCurrentQPS());
+        response.put("profile", transactionScheduler.getProfile());
+        response.put("targetQPS", transactionScheduler.getTargetQps());
+        response.put("achievedQPS", transactionScheduler.getAchievedQps());
         response.put("totalPublished", transactionScheduler.getTotalPublished());
+        response.put("missedSends", transactionScheduler.getMissedSends());
         
         return ResponseEntity.ok(response);
     }
     
     /**
-     * Update the transaction rate dynamically.
+     * Set a constant target rate.
      * 
-     * @param transactionsPerExecution Number of transactions to generate per execution (1-1000)
-     *                                 Since executions happen every 10ms (100 times/second),
-     *                                 this translates to: transactionsPerExecution * 100 = QPS
-     *                                 Example: 10 -> 1,000 QPS, 100 -> 10,000 QPS
+     * @param qps Target transactions per second (fractional rates are allowed, 0 pauses generation)
+     * @param transactionsPerExecution Deprecated: former 10ms batch size, converted to qps = value * 100
      */
     @PutMapping("/rate")
     public ResponseEntity<Map<String, Object>> updateTransactionRate(
-            @RequestParam int transactionsPerExecution) {
+            @RequestParam(required = false) Double qps,
+            @RequestParam(required = false) Integer transactionsPerExecution) {
         
         if (transactionScheduler == null) {
-            return ResponseEntity.badRequest()
-                    .body(Map.of(
-                            "status", "error",
-                            "message", "Transaction auto-generation scheduler is not enabled"
-                    ));
+            return schedulerDisabled(true);
         }
         
-        boolean success = transactionScheduler.setTransactionsPerExecution(transactionsPerExecution);
+        Double targetQps = qps != null ? qps
+                : transactionsPerExecution != null ? transactionsPerExecution * 100.0 : null;
+        if (targetQps == null || targetQps < 0 || targetQps.isNaN() || targetQps.isInfinite()) {
+            return invalidRate("Specify qps as a non-negative number");
+        }
         
-        if (!success) {
-            return ResponseEntity.badRequest()
-                    .body(Map.of(
-                            "status", "error",
-                            "message", "Invalid value. Must be between 1 and 1000"
-                    ));
+        transactionScheduler.setTargetQps(targetQps);
+        log.info("Transaction rate updated via API to {} QPS", targetQps);
+        return rateUpdated();
+    }
+    
+    /**
+     * Ramp linearly from one rate to another, then hold the end rate.
+     */
+    @PutMapping("/rate/ramp")
+    public ResponseEntity<Map<String, Object>> rampTransactionRate(
+            @RequestParam double fromQps,
+            @RequestParam double toQps,
+            @RequestParam double durationSeconds) {
+        
+        if (transactionScheduler == null) {
+            return schedulerDisabled(true);
         }
         
-        log.info("Transaction rate updated via API to {} transactions per execution ({} QPS)", 
-                transactionsPerExecution, transactionScheduler.getCurrentQPS());
+        try {
+            transactionScheduler.applyProfile(RateProfile.ramp(fromQps, toQps, seconds(durationSeconds)));
+        } catch (IllegalArgumentException e) {
+            return invalidRate(e.getMessage());
+        }
+        return rateUpdated();
+    }
+    
+    /**
+     * Step the rate up by a fixed increment every interval, up to a maximum.
+     */
+    @PutMapping("/rate/steps")
+    public ResponseEntity<Map<String, Object>> stepTransactionRate(
+            @RequestParam double startQps,
+            @RequestParam double stepQps,
+            @RequestParam double stepSeconds,
+            @RequestParam double maxQps) {
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "success");
-        response.put("transactionsPerExecution", transactionScheduler.getTransactionsPerExecution());
-        response.put("currentQPS", transactionScheduler.getCurrentQPS());
-        response.put("message", "Transaction rate updated successfully");
+        if (transactionScheduler == null) {
+            return schedulerDisabled(true);
+        }
         
-        return ResponseEntity.ok(response);
+        try {
+            transactionScheduler.applyProfile(RateProfile.steps(startQps, stepQps, seconds(stepSeconds), maxQps));
+        } catch (IllegalArgumentException e) {
+            return invalidRate(e.getMessage());
+        }
+        return rateUpdated();
+    }
+    
+    /**
+     * Follow a cosine between trough and peak rates, e.g. a compressed day.
+     * 
+     * @param peakAfterSeconds time until the first peak
+     */
+    @PutMapping("/rate/diurnal")
+    public ResponseEntity<Map<String, Object>> diurnalTransactionRate(
+            @RequestParam double troughQps,
+            @RequestParam double peakQps,
+            @RequestParam double periodSeconds,
+            @RequestParam(defaultValue = "0") double peakAfterSeconds) {
+        
+        if (transactionScheduler == null) {
+            return schedulerDisabled(true);
+        }
+        
+        try {
+            transactionScheduler.applyProfile(RateProfile.diurnal(
+                    troughQps, peakQps, seconds(periodSeconds), seconds(peakAfterSeconds)));
+        } catch (IllegalArgumentException e) {
+            return invalidRate(e.getMessage());
+        }
+        return rateUpdated();
+    }
+    
+    /**
+     * Replay a recorded stream from the replay directory.
+     * 
+     * @param speed time compression: 1 for original timing, N for N times faster, max for as fast as possible
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, Object>> startReplay(
+            @RequestParam String file,
+            @RequestParam(defaultValue = "1") String speed) {
+        
+        try {
+            transactionReplayer.start(file, "max".equalsIgnoreCase(speed) ? 0 : Double.parseDouble(speed));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        } catch (IOException e) {
+            log.error("Failed to open replay file {}", file, e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("status", "error", "message", "Failed to open replay file: " + e.getMessage()));
+        }
+        return ResponseEntity.ok(transactionReplayer.getStatus());
+    }
+    
+    @GetMapping("/replay")
+    public ResponseEntity<Map<String, Object>> getReplayStatus() {
+        return ResponseEntity.ok(transactionReplayer.getStatus());
+    }
+    
+    @DeleteMapping("/replay")
+    public ResponseEntity<Map<String, Object>> stopReplay() {
+        transactionReplayer.stop();
+        return ResponseEntity.ok(transactionReplayer.getStatus());
     }
     
     /**
@@ -102,5 +190,32 @@ public class TransactionController {
     public ResponseEntity<Map<String, String>> health() {
         return ResponseEntity.ok(Map.of("status", "UP"));
     }
+    
+    private ResponseEntity<Map<String, Object>> rateUpdated() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("profile", transactionScheduler.getProfile());
+        response.put("targetQPS", transactionScheduler.getTargetQps());
+        response.put("message", "Transaction rate updated successfully");
+        return ResponseEntity.ok(response);
+    }
+    
+    private ResponseEntity<Map<String, Object>> invalidRate(String message) {
+        return ResponseEntity.badRequest()
+                .body(Map.of(
+                        "status", "error",
+                        "message", message
+                ));
+    }
+    
+    private ResponseEntity<Map<String, Object>> schedulerDisabled(boolean error) {
+        String message = "Transaction auto-generation scheduler is not enabled";
+        return error
+                ? ResponseEntity.badRequest().body(Map.of("status", "error", "message", message))
+                : ResponseEntity.ok(Map.of("status", "disabled", "message", message));
+    }
+    
+    private static Duration seconds(double seconds) {
+        return Duration.ofNanos((long) (seconds * 1e9));
+    }
 }
-
@@ -3,32 +3,67 @@ package com.hsbc.fraud.producer.messaging.aws;
 import com.hsbc.fraud.producer.metrics.MetricsCollector;
 import com.hsbc.fraud.producer.messaging.MessagePublisher;
 import io.awspring.cloud.sqs.operations.SqsTemplate;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 
 /**
  * AWS SQS implementation of MessagePublisher.
  * Emits Prometheus metrics via Micrometer for monitoring.
+ * 
+ * With batching enabled (default), messages are handed to a {@link SqsBatchPublisher}
+ * and sent as SendMessageBatch calls; publish() returns once the message is buffered.
+ * Otherwise each message is sent synchronously through the SqsTemplate.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 @ConditionalOnProperty(name = "cloud.provider", havingValue = "aws")
 public class AwsSqsPublisher implements MessagePublisher {
     
     private static final long HIGH_LATENCY_THRESHOLD_MS = 50;
+    private static final long CLOSE_TIMEOUT_MS = 10_000;
     
     private final SqsTemplate sqsTemplate;
     private final MetricsCollector metricsCollector;
+    private final String queueName;
+    private final SqsBatchPublisher batchPublisher;
     
-    @Value("${cloud.aws.sqs.queue-name}")
-    private String queueName;
+    public AwsSqsPublisher(
+            SqsTemplate sqsTemplate,
+            SqsAsyncClient sqsAsyncClient,
+            MetricsCollector metricsCollector,
+            @Value("${cloud.aws.sqs.queue-name}") String queueName,
+            @Value("${cloud.aws.sqs.publish.batching-enabled:true}") boolean batchingEnabled,
+            @Value("${cloud.aws.sqs.publish.max-batch-size:10}") int maxBatchSize,
+            @Value("${cloud.aws.sqs.publish.linger-ms:5}") long lingerMs,
+            @Value("${cloud.aws.sqs.publish.max-in-flight:32}") int maxInFlight,
+            @Value("${cloud.aws.sqs.publish.buffer-capacity:10000}") int bufferCapacity,
+            @Value("${cloud.aws.sqs.publish.max-attempts:3}") int maxAttempts,
+            @Value("${cloud.aws.sqs.publish.timeout-ms:5000}") long publishTimeoutMs) {
+        this.sqsTemplate = sqsTemplate;
+        this.metricsCollector = metricsCollector;
+        this.queueName = queueName;
+        this.batchPublisher = batchingEnabled
+                ? new SqsBatchPublisher(sqsAsyncClient, queueName, metricsCollector,
+                        maxBatchSize, lingerMs, maxInFlight, bufferCapacity, maxAttempts, publishTimeoutMs)
+                : null;
+    }
     
     @Override
     public void publish(String message) {
+        if (batchPublisher != null) {
+            try {
+                batchPublisher.publish(message);
+            } catch (IllegalStateException e) {
+                metricsCollector.recordProcessingError(MetricsCollector.ERROR_TYPE_SQS_PUBLISH, "unknown", e);
+                throw new RuntimeException("Failed to publish to SQS", e);
+            }
+            return;
+        }
+        
         long startTime = System.currentTimeMillis();
         
         try {
@@ -41,18 +76,27 @@ public class AwsSqsPublisher implements MessagePublisher {
             log.debug("Published message to SQS queue: {} ({}ms)", queueName, publishTime);
             
             // Record SQS latency metrics (histogram will capture all latencies)
-            metricsCollector.recordSqsLatency("sqs-publish", publishTime);
+            metricsCollector.recordSqsLatency(MetricsCollector.OPERATION_SQS_PUBLISH, publishTime);
             
             // Check for high latency and emit specific counter if needed
             if (publishTime > HIGH_LATENCY_THRESHOLD_MS) {
-                metricsCollector.recordHighLatency("sqs-publish", publishTime);
+                metricsCollector.recordHighLatency(MetricsCollector.OPERATION_SQS_PUBLISH, publishTime);
             }
             
         } catch (Exception e) {
             log.error("Failed to publish message to SQS", e);
-            metricsCollector.recordProcessingError("SQS_PUBLISH_ERROR", "unknown", e);
+            metricsCollector.recordProcessingError(MetricsCollector.ERROR_TYPE_SQS_PUBLISH, "unknown", e);
             throw new RuntimeException("Failed to publish to SQS", e);
         }
     }
+    
+    /**
+     * Send buffered messages before the SQS client is closed.
+     */
+    @PreDestroy
+    public void close() {
+        if (batchPublisher != null) {
+            batchPublisher.close(CLOSE_TIMEOUT_MS);
+        }
+    }
 }
-
@@ -0,0 +1,274 @@
+package com.hsbc.fraud.producer.messaging.aws;
+
+import com.hsbc.fraud.producer.metrics.MetricsCollector;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces published messages into SendMessageBatch calls.
+ *
+ * {@link #publish(String)} only enqueues the message into a bounded buffer. A
+ * single sender thread takes messages off the buffer and sends a batch when it
+ * has {@code maxBatchSize} (at most 10, the SQS limit) or when the oldest message
+ * has waited {@code lingerMs}. Batches are sent asynchronously with at most
+ * {@code maxInFlight} requests outstanding; when all are in use the sender waits,
+ * the buffer fills up, and publishers block (backpressure).
+ *
+ * Entries that fail on the service side, and whole batches that fail in transit,
+ * are retried with exponential backoff up to {@code maxAttempts} attempts.
+ * Entries rejected as the sender's fault (e.g. too large) are not retried. A
+ * batch keeps its in-flight slot until it has fully succeeded or given up.
+ */
+@Slf4j
+public class SqsBatchPublisher {
+
+    /**
+     * SendMessageBatch accepts at most 10 entries.
+     */
+    public static final int MAX_BATCH_ENTRIES = 10;
+
+    private static final long RETRY_BACKOFF_MS = 50;
+    private static final long HIGH_LATENCY_THRESHOLD_MS = 50;
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final SqsAsyncClient sqsAsyncClient;
+    private final String queueName;
+    private final MetricsCollector metricsCollector;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final long publishTimeoutMs;
+
+    private final BlockingQueue<String> buffer;
+    private final Semaphore inFlight;
+    private final Thread sender;
+    private volatile boolean running = true;
+    private volatile CompletableFuture<String> queueUrl;
+
+    /**
+     * @param maxBatchSize entries per SendMessageBatch call, capped at {@link #MAX_BATCH_ENTRIES}
+     * @param lingerMs longest a message waits for its batch to fill
+     * @param maxInFlight concurrent SendMessageBatch requests
+     * @param bufferCapacity messages buffered before {@link #publish(String)} blocks
+     * @param maxAttempts attempts per entry, including the first
+     * @param publishTimeoutMs how long {@link #publish(String)} blocks on a full buffer before failing
+     */
+    public SqsBatchPublisher(SqsAsyncClient sqsAsyncClient,
+                             String queueName,
+                             MetricsCollector metricsCollector,
+                             int maxBatchSize,
+                             long lingerMs,
+                             int maxInFlight,
+                             int bufferCapacity,
+                             int maxAttempts,
+                             long publishTimeoutMs) {
+        this.sqsAsyncClient = sqsAsyncClient;
+        this.queueName = queueName;
+        this.metricsCollector = metricsCollector;
+        this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, MAX_BATCH_ENTRIES));
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMs));
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.publishTimeoutMs = publishTimeoutMs;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.inFlight = new Semaphore(this.maxInFlight);
+
+        this.sender = new Thread(this::sendLoop, "sqs-batch-publisher");
+        this.sender.setDaemon(true);
+        this.sender.start();
+        log.info("SQS batch publisher started: maxBatchSize={}, lingerMs={}, maxInFlight={}, bufferCapacity={}, maxAttempts={}",
+                this.maxBatchSize, lingerMs, this.maxInFlight, bufferCapacity, this.maxAttempts);
+    }
+
+    /**
+     * Enqueue a message for the next batch. Blocks while the buffer is full.
+     *
+     * @throws IllegalStateException if the publisher is closed or the buffer stayed full for the publish timeout
+     */
+    public void publish(String message) {
+        if (!running) {
+            throw new IllegalStateException("SQS batch publisher is closed");
+        }
+        try {
+            if (!buffer.offer(message, publishTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("SQS publish buffer full for " + publishTimeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the SQS publish buffer", e);
+        }
+    }
+
+    /**
+     * Messages waiting for a batch.
+     */
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Stop accepting messages, send what is buffered and wait for in-flight batches.
+     *
+     * @return whether everything was sent or given up on within the timeout
+     */
+    public boolean close(long timeoutMs) {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            sender.join(Math.max(1, timeoutMs));
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0 && inFlight.tryAcquire(maxInFlight, remaining, TimeUnit.NANOSECONDS)) {
+                inFlight.release(maxInFlight);
+                log.info("SQS batch publisher closed");
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.warn("SQS batch publisher closed with {} buffered and up to {} in-flight batches unsent",
+                buffer.size(), maxInFlight - inFlight.availablePermits());
+        return false;
+    }
+
+    private void sendLoop() {
+        List<String> batch = new ArrayList<>(maxBatchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                String first = buffer.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+
+                inFlight.acquire();
+                sendBatch(List.copyOf(batch), 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Never let the sender thread die; the batch is reported as failed
+                log.error("Unexpected error sending SQS batch of {} messages", batch.size(), e);
+                metricsCollector.recordProcessingErrors(MetricsCollector.ERROR_TYPE_SQS_PUBLISH, batch.size());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Add messages until the batch is full or the linger time since its first message is up.
+     */
+    private void fill(List<String> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            buffer.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0 || !running) {
+                return;
+            }
+            String next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Send one attempt of a batch. Releases the batch's in-flight slot once it
+     * has succeeded or given up.
+     */
+    private void sendBatch(List<String> messages, int attempt) {
+        long startTime = System.currentTimeMillis();
+        try {
+            List<SendMessageBatchRequestEntry> entries = new ArrayList<>(messages.size());
+            for (int i = 0; i < messages.size(); i++) {
+                entries.add(SendMessageBatchRequestEntry.builder()
+                        .id(Integer.toString(i))
+                        .messageBody(messages.get(i))
+                        .build());
+            }
+
+            resolveQueueUrl()
+                    .thenCompose(url -> sqsAsyncClient.sendMessageBatch(SendMessageBatchRequest.builder()
+                            .queueUrl(url)
+                            .entries(entries)
+                            .build()))
+                    .whenComplete((response, error) ->
+                            onBatchComplete(messages, attempt, System.currentTimeMillis() - startTime, response, error));
+        } catch (RuntimeException e) {
+            // Thrown before the request was sent; handled like a failed request so the slot is released
+            onBatchComplete(messages, attempt, System.currentTimeMillis() - startTime, null, e);
+        }
+    }
+
+    private void onBatchComplete(List<String> messages, int attempt, long durationMs,
+                                 SendMessageBatchResponse response, Throwable error) {
+        List<String> retry = new ArrayList<>();
+        int rejected = 0;
+        if (error != null) {
+            log.warn("SQS batch of {} messages failed (attempt {}/{}): {}",
+                    messages.size(), attempt, maxAttempts, error.getMessage());
+            retry.addAll(messages);
+        } else {
+            for (BatchResultErrorEntry failed : response.failed()) {
+                String message = messages.get(Integer.parseInt(failed.id()));
+                if (Boolean.TRUE.equals(failed.senderFault())) {
+                    rejected++;
+                    log.error("SQS rejected message: code={} reason={}", failed.code(), failed.message());
+                } else {
+                    retry.add(message);
+                }
+            }
+        }
+
+        int sent = messages.size() - retry.size() - rejected;
+        metricsCollector.recordBatchPublished(sent, durationMs);
+        if (durationMs > HIGH_LATENCY_THRESHOLD_MS) {
+            metricsCollector.recordHighLatency(MetricsCollector.OPERATION_SQS_PUBLISH_BATCH, durationMs);
+        }
+
+        if (!retry.isEmpty() && attempt < maxAttempts) {
+            metricsCollector.recordPublishRetries(retry.size());
+            long backoffMs = RETRY_BACKOFF_MS << (attempt - 1);
+            CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS)
+                    .execute(() -> sendBatch(List.copyOf(retry), attempt + 1));
+        } else {
+            int failed = retry.size() + rejected;
+            if (failed > 0) {
+                log.error("Giving up on {} of {} messages after {} attempts", failed, messages.size(), attempt);
+                metricsCollector.recordProcessingErrors(MetricsCollector.ERROR_TYPE_SQS_PUBLISH, failed);
+            }
+            inFlight.release();
+        }
+    }
+
+    /**
+     * Queue URL, resolved once. A failed lookup is retried by the next batch.
+     */
+    private CompletableFuture<String> resolveQueueUrl() {
+        CompletableFuture<String> url = queueUrl;
+        if (url == null || url.isCompletedExceptionally()) {
+            url = sqsAsyncClient.getQueueUrl(GetQueueUrlRequest.builder().queueName(queueName).build())
+                    .thenApply(GetQueueUrlResponse::queueUrl);
+            queueUrl = url;
+        }
+        return url;
+    }
+}
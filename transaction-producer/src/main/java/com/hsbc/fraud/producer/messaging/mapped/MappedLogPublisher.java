@@ -0,0 +1,46 @@
+package com.hsbc.fraud.producer.messaging.mapped;
+
+import com.hsbc.fraud.producer.messaging.MessagePublisher;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * MessagePublisher that appends to a memory-mapped log shared with the
+ * detection service on the same machine (cloud.provider=mapped).
+ *
+ * Unlike the local in-memory queue this works across JVMs, and messages survive
+ * restarts of either side. Publishing is a memory copy; the detection service
+ * sees a message within microseconds.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cloud.provider", havingValue = "mapped")
+public class MappedLogPublisher implements MessagePublisher {
+    
+    private final MappedLogWriter writer;
+    
+    public MappedLogPublisher(
+            @Value("${cloud.mapped.directory}") String directory,
+            @Value("${cloud.mapped.segment-size-mb:256}") int segmentSizeMb,
+            @Value("${cloud.mapped.retain-segments:16}") int retainSegments) throws IOException {
+        this.writer = new MappedLogWriter(Path.of(directory), segmentSizeMb << 20, retainSegments);
+        log.info("Publishing to mapped log {} (segment {}, {} MB segments)", directory, writer.getSegmentIndex(), segmentSizeMb);
+    }
+    
+    @Override
+    public void publish(String message) {
+        writer.append(message);
+    }
+    
+    @PreDestroy
+    public void close() throws IOException {
+        writer.close();
+        log.info("Closed mapped log after {} messages", writer.getAppended());
+    }
+}
@@ -0,0 +1,223 @@
+package com.hsbc.fraud.producer.messaging.mapped;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * Appends messages to a memory-mapped, segmented log that another process
+ * (the detection service's MappedLogReader) tails.
+ *
+ * Segments are fixed-size files named {@code 000000000.seg}, {@code 000000001.seg}, ...
+ * Layout, little-endian; kept identical to the detection service's reader:
+ * <pre>
+ *   header   magic "FTLQ", version, segment size (all int), segment index (long), zeros up to 64 bytes
+ *   records  length (int), UTF-8 message, zero padding to a multiple of 8 bytes
+ *   end      -1 (int), within the last 8 bytes at the latest
+ * </pre>
+ * A record becomes visible when its length is stored, with release semantics,
+ * after the message bytes; until then the reader sees 0 and waits. A length of -1
+ * marks the end of a segment: the writer creates the next segment before writing it.
+ *
+ * The log survives restarts: a reopened writer continues in a new segment after the last one.
+ * One writer per directory, enforced with a file lock; within the process
+ * appends are serialized. Segments older than the retained count are deleted when
+ * the log rolls, whether or not readers have caught up.
+ */
+public final class MappedLogWriter implements Closeable {
+
+    static final int MAGIC = 0x514C5446; // "FTLQ" little-endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int END_OF_SEGMENT = -1;
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int retainSegments;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    private long segmentIndex;
+    private MappedByteBuffer segment;
+    private int position;
+    private long appended;
+
+    /**
+     * @param segmentSize bytes per segment file, a multiple of 8; bounds the largest message
+     * @param retainSegments segments kept on disk, including the current one; 0 keeps all
+     * @throws IllegalStateException if another writer, in any process, is open on the directory
+     */
+    public MappedLogWriter(Path directory, int segmentSize, int retainSegments) throws IOException {
+        if (segmentSize % 8 != 0 || segmentSize < HEADER_BYTES * 2) {
+            throw new IllegalArgumentException("Segment size must be a multiple of 8 and at least " + HEADER_BYTES * 2);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.retainSegments = retainSegments;
+        this.lockChannel = FileChannel.open(directory.resolve("writer.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            acquired = null;
+        }
+        if (acquired == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Another writer is open on " + directory);
+        }
+        this.lock = acquired;
+
+        long last = lastSegmentIndex(directory);
+        if (last < 0) {
+            openSegment(0);
+        } else {
+            resume(last);
+        }
+    }
+
+    /**
+     * Append a message.
+     *
+     * @throws IllegalArgumentException if the message cannot fit in a segment
+     */
+    public void append(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        int recordBytes = align(Integer.BYTES + bytes.length);
+        if (recordBytes > segmentSize - HEADER_BYTES - Long.BYTES) {
+            throw new IllegalArgumentException("Message of " + bytes.length + " bytes does not fit in a segment");
+        }
+
+        synchronized (this) {
+            // Always leave room for the end marker
+            if (position + recordBytes > segmentSize - Long.BYTES) {
+                roll();
+            }
+            segment.put(position + Integer.BYTES, bytes);
+            INT.setRelease(segment, position, bytes.length);
+            position += recordBytes;
+            appended++;
+        }
+    }
+
+    public synchronized long getAppended() {
+        return appended;
+    }
+
+    public synchronized long getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    /**
+     * Flush written records to disk; without it they still survive a process crash via the page cache.
+     */
+    public synchronized void force() {
+        segment.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            segment.force();
+        } finally {
+            lock.release();
+            lockChannel.close();
+        }
+    }
+
+    static Path segmentPath(Path directory, long index) {
+        return directory.resolve(String.format("%09d%s", index, SEGMENT_SUFFIX));
+    }
+
+    private void roll() {
+        MappedByteBuffer full = segment;
+        int end = position;
+        try {
+            // The next segment must exist before a reader can see the end marker
+            openSegment(segmentIndex + 1);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create log segment " + (segmentIndex + 1), e);
+        }
+        INT.setRelease(full, end, END_OF_SEGMENT);
+        if (retainSegments > 0 && segmentIndex >= retainSegments) {
+            try {
+                Files.deleteIfExists(segmentPath(directory, segmentIndex - retainSegments));
+            } catch (IOException e) {
+                // Retried implicitly: nothing else depends on the old segment being gone
+            }
+        }
+    }
+
+    private void openSegment(long index) throws IOException {
+        MappedByteBuffer mapped = map(segmentPath(directory, index), true);
+        mapped.putInt(4, VERSION)
+                .putInt(8, segmentSize)
+                .putLong(12, index);
+        INT.setRelease(mapped, 0, MAGIC);
+        segment = mapped;
+        segmentIndex = index;
+        position = HEADER_BYTES;
+    }
+
+    /**
+     * Continue in a fresh segment after the last one. A crash can leave a partly
+     * written message after the last record; ending the segment there means it is
+     * never read or overwritten with something shorter.
+     */
+    private void resume(long index) throws IOException {
+        MappedByteBuffer mapped = map(segmentPath(directory, index), false);
+        if (mapped.getInt(0) != MAGIC || mapped.capacity() != segmentSize) {
+            throw new IOException("Segment " + index + " in " + directory
+                    + " is not a log segment of " + segmentSize + " bytes");
+        }
+        int at = HEADER_BYTES;
+        int length;
+        while (at + Integer.BYTES <= segmentSize && (length = mapped.getInt(at)) != 0 && length != END_OF_SEGMENT) {
+            at += align(Integer.BYTES + length);
+        }
+        segment = mapped;
+        segmentIndex = index;
+        position = at;
+        roll();
+    }
+
+    private MappedByteBuffer map(Path path, boolean create) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            if (create) {
+                file.setLength(segmentSize);
+            }
+            MappedByteBuffer mapped = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            return mapped;
+        }
+    }
+
+    private static long lastSegmentIndex(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .max()
+                    .orElse(-1);
+        }
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+}
@@ -1,16 +1,20 @@
 package com.hsbc.fraud.producer.metrics;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
-import io.micrometer.core.instrument.Tag;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Metrics collection utility using Micrometer for metrics publishing.
@@ -18,7 +22,10 @@ import java.util.concurrent.TimeUnit;
  * Collects:
  * - Counter metrics: transactions_sent_total, processing_errors_total
  * - Timer/Histogram metrics: transaction_publish_duration_seconds
- * - Histogram metrics: sqs_publish_latency_seconds
+ * - Histogram metrics: sqs_publish_latency_seconds, sqs_publish_batch_size
+ * - Counter metrics for batched publishing: sqs_publish_retries_total
+ * - Generator metrics: generator_target_qps, generator_achieved_qps (gauges),
+ *   generator_send_lag_seconds (histogram), generator_missed_sends_total
  * 
  * Metrics Backend:
  * - CloudWatch ONLY - Direct publishing to namespace: FraudDetection/${ENVIRONMENT:test}
@@ -29,6 +36,11 @@ import java.util.concurrent.TimeUnit;
  * CloudWatch metrics can be viewed at:
  * AWS Console > CloudWatch > Metrics > FraudDetection/test (or your ENVIRONMENT value)
  * 
+ * Meters are registered once, up front or on the first use of a tag value, and
+ * cached, so recording is a plain increment with no registry lookup or builder
+ * allocation. transactions_sent_total, recorded for every transaction, counts
+ * into a striped {@link LongAdder} that the registry reads when it publishes.
+ * 
  * Usage:
  * <pre>
  *   metricsCollector.recordTransactionSent(accountId);
@@ -38,7 +50,6 @@ import java.util.concurrent.TimeUnit;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class MetricsCollector {
     
     private final MeterRegistry meterRegistry;
@@ -48,6 +59,90 @@ public class MetricsCollector {
     private static final String PROCESSING_ERRORS = "processing_errors_total";
     private static final String PUBLISH_DURATION = "transaction_publish_duration_seconds";
     private static final String SQS_LATENCY = "sqs_publish_latency_seconds";
+    private static final String HIGH_LATENCY_EVENTS = "high_latency_events_total";
+    private static final String BATCH_SIZE = "sqs_publish_batch_size";
+    private static final String PUBLISH_RETRIES = "sqs_publish_retries_total";
+    private static final String GENERATOR_TARGET_QPS = "generator_target_qps";
+    private static final String GENERATOR_ACHIEVED_QPS = "generator_achieved_qps";
+    private static final String GENERATOR_SEND_LAG = "generator_send_lag_seconds";
+    private static final String GENERATOR_MISSED = "generator_missed_sends_total";
+    
+    // Error/operation constants used by the publishers; registered up front
+    public static final String ERROR_TYPE_PUBLISH = "PUBLISH_ERROR";
+    public static final String ERROR_TYPE_SQS_PUBLISH = "SQS_PUBLISH_ERROR";
+    public static final String OPERATION_SQS_PUBLISH = "sqs-publish";
+    public static final String OPERATION_SQS_PUBLISH_BATCH = "sqs-publish-batch";
+    
+    private static final Duration[] LATENCY_SLOS = {
+            Duration.ofMillis(10),
+            Duration.ofMillis(50),
+            Duration.ofMillis(100),
+            Duration.ofMillis(200),
+            Duration.ofMillis(500),
+            Duration.ofMillis(1000),
+            Duration.ofMillis(2000),
+            Duration.ofMillis(5000)
+    };
+    
+    private final LongAdder transactionsSent = new LongAdder();
+    private final Timer publishDurationTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter publishRetriesCounter;
+    
+    // Gauge value holders for the generator rates (QPS, rounded)
+    private final AtomicLong generatorTargetQps = new AtomicLong(0);
+    private final AtomicLong generatorAchievedQps = new AtomicLong(0);
+    private final Timer generatorSendLagTimer;
+    private final Counter generatorMissedCounter;
+    private final Map<String, Timer> sqsLatencyTimersByOperation = new ConcurrentHashMap<>();
+    private final Map<String, Counter> processingErrorCountersByType = new ConcurrentHashMap<>();
+    private final Map<String, Counter> highLatencyCountersByOperation = new ConcurrentHashMap<>();
+    
+    public MetricsCollector(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        
+        FunctionCounter.builder(TRANSACTIONS_SENT, transactionsSent, LongAdder::sum)
+                .description("Total number of transactions sent to the queue")
+                .register(meterRegistry);
+        
+        publishDurationTimer = Timer.builder(PUBLISH_DURATION)
+                .description("Time taken to publish a transaction (end-to-end)")
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(LATENCY_SLOS)
+                .register(meterRegistry);
+        
+        batchSizeSummary = DistributionSummary.builder(BATCH_SIZE)
+                .description("Messages delivered per SendMessageBatch call")
+                .register(meterRegistry);
+        
+        publishRetriesCounter = Counter.builder(PUBLISH_RETRIES)
+                .description("Messages resent after a failed SendMessageBatch call or entry")
+                .register(meterRegistry);
+        
+        Gauge.builder(GENERATOR_TARGET_QPS, generatorTargetQps, AtomicLong::get)
+                .description("Target transaction generation rate")
+                .register(meterRegistry);
+        
+        Gauge.builder(GENERATOR_ACHIEVED_QPS, generatorAchievedQps, AtomicLong::get)
+                .description("Transactions published per second over the last second")
+                .register(meterRegistry);
+        
+        generatorSendLagTimer = Timer.builder(GENERATOR_SEND_LAG)
+                .description("How late generated transactions were dispatched against their scheduled time")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        
+        generatorMissedCounter = Counter.builder(GENERATOR_MISSED)
+                .description("Scheduled transactions skipped because all senders were busy")
+                .register(meterRegistry);
+        
+        sqsLatencyTimer(OPERATION_SQS_PUBLISH);
+        sqsLatencyTimer(OPERATION_SQS_PUBLISH_BATCH);
+        processingErrorCounter(ERROR_TYPE_PUBLISH);
+        processingErrorCounter(ERROR_TYPE_SQS_PUBLISH);
+        highLatencyCounter(OPERATION_SQS_PUBLISH);
+        highLatencyCounter(OPERATION_SQS_PUBLISH_BATCH);
+    }
     
     // ========================================================================
     // Transaction Counters
@@ -55,15 +150,12 @@ public class MetricsCollector {
     
     /**
      * Records that a transaction was successfully sent to the queue.
-     * Creates counter: transactions_sent_total{account_id="..."}
+     * Counts into transactions_sent_total; the account is not used as a dimension.
      * 
-     * @param accountId The account ID for dimensioning
+     * @param accountId The account ID
      */
     public void recordTransactionSent(String accountId) {
-        Counter.builder(TRANSACTIONS_SENT)
-                .description("Total number of transactions sent to the queue")
-                .register(meterRegistry)
-                .increment();
+        transactionsSent.increment();
     }
     
     /**
@@ -71,10 +163,16 @@ public class MetricsCollector {
      * Creates counter: transactions_sent_total
      */
     public void recordTransactionSent() {
-        Counter.builder(TRANSACTIONS_SENT)
-                .description("Total number of transactions sent to the queue")
-                .register(meterRegistry)
-                .increment();
+        transactionsSent.increment();
+    }
+    
+    /**
+     * Records that a batch of transactions was successfully sent.
+     * 
+     * @param count Number of transactions sent
+     */
+    public void recordTransactionsSent(int count) {
+        transactionsSent.add(count);
     }
     
     // ========================================================================
@@ -90,21 +188,7 @@ public class MetricsCollector {
      * @param durationMs Duration in milliseconds
      */
     public void recordPublishDuration(long durationMs) {
-        Timer.builder(PUBLISH_DURATION)
-                .description("Time taken to publish a transaction (end-to-end)")
-                .publishPercentileHistogram()
-                .serviceLevelObjectives(
-                        Duration.ofMillis(10),
-                        Duration.ofMillis(50),
-                        Duration.ofMillis(100),
-                        Duration.ofMillis(200),
-                        Duration.ofMillis(500),
-                        Duration.ofMillis(1000),
-                        Duration.ofMillis(2000),
-                        Duration.ofMillis(5000)
-                )
-                .register(meterRegistry)
-                .record(durationMs, TimeUnit.MILLISECONDS);
+        publishDurationTimer.record(durationMs, TimeUnit.MILLISECONDS);
     }
     
     /**
@@ -115,22 +199,74 @@ public class MetricsCollector {
      * @param operation The operation name (e.g., "sqs-publish")
      */
     public void recordSqsLatency(String operation, long durationMs) {
-        Timer.builder(SQS_LATENCY)
-                .description("SQS publish latency")
-                .tag("operation", operation)
-                .publishPercentileHistogram()
-                .serviceLevelObjectives(
-                        Duration.ofMillis(10),
-                        Duration.ofMillis(50),
-                        Duration.ofMillis(100),
-                        Duration.ofMillis(200),
-                        Duration.ofMillis(500),
-                        Duration.ofMillis(1000),
-                        Duration.ofMillis(2000),
-                        Duration.ofMillis(5000)
-                )
-                .register(meterRegistry)
-                .record(durationMs, TimeUnit.MILLISECONDS);
+        sqsLatencyTimer(operation).record(durationMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Records one SendMessageBatch call.
+     * Creates histogram: sqs_publish_batch_size
+     * Creates histogram: sqs_publish_latency_seconds{operation="sqs-publish-batch"}
+     * 
+     * @param delivered Messages the call delivered
+     * @param durationMs Duration of the call in milliseconds
+     */
+    public void recordBatchPublished(int delivered, long durationMs) {
+        batchSizeSummary.record(delivered);
+        sqsLatencyTimer(OPERATION_SQS_PUBLISH_BATCH).record(durationMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Records messages scheduled for another SendMessageBatch attempt.
+     * Creates counter: sqs_publish_retries_total
+     * 
+     * @param count Number of messages retried
+     */
+    public void recordPublishRetries(int count) {
+        publishRetriesCounter.increment(count);
+    }
+    
+    // ========================================================================
+    // Generator Metrics
+    // ========================================================================
+    
+    /**
+     * Updates the target rate gauge.
+     * Creates gauge: generator_target_qps
+     * 
+     * @param qps Target transactions per second
+     */
+    public void updateGeneratorTargetRate(double qps) {
+        generatorTargetQps.set(Math.round(qps));
+    }
+    
+    /**
+     * Updates the achieved rate gauge.
+     * Creates gauge: generator_achieved_qps
+     * 
+     * @param qps Transactions published per second
+     */
+    public void updateGeneratorAchievedRate(double qps) {
+        generatorAchievedQps.set(Math.round(qps));
+    }
+    
+    /**
+     * Records how late a generated transaction was dispatched.
+     * Creates histogram: generator_send_lag_seconds
+     * 
+     * @param lagNanos Lag in nanoseconds
+     */
+    public void recordGeneratorSendLag(long lagNanos) {
+        generatorSendLagTimer.record(Math.max(0, lagNanos), TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Records scheduled transactions that were skipped.
+     * Creates counter: generator_missed_sends_total
+     * 
+     * @param count Number of skipped transactions
+     */
+    public void recordGeneratorMissed(long count) {
+        generatorMissedCounter.increment(count);
     }
     
     // ========================================================================
@@ -144,11 +280,17 @@ public class MetricsCollector {
      * @param errorType The type of error (e.g., "SQS_ERROR", "PUBLISH_ERROR")
      */
     public void recordProcessingError(String errorType) {
-        Counter.builder(PROCESSING_ERRORS)
-                .description("Total number of processing errors")
-                .tag("error_type", errorType)
-                .register(meterRegistry)
-                .increment();
+        processingErrorCounter(errorType).increment();
+    }
+    
+    /**
+     * Records several processing errors of one type, e.g. the failed entries of a batch.
+     * 
+     * @param errorType The type of error
+     * @param count Number of errors
+     */
+    public void recordProcessingErrors(String errorType, int count) {
+        processingErrorCounter(errorType).increment(count);
     }
     
     /**
@@ -187,13 +329,39 @@ public class MetricsCollector {
      * @param durationMs The duration in milliseconds
      */
     public void recordHighLatency(String operation, long durationMs) {
-        Counter.builder("high_latency_events_total")
-                .description("Count of high latency events (>500ms)")
-                .tag("operation", operation)
-                .register(meterRegistry)
-                .increment();
+        highLatencyCounter(operation).increment();
         
         log.warn("High latency detected: operation={} durationMs={}", operation, durationMs);
     }
+    
+    // ========================================================================
+    // Meter Cache
+    // ========================================================================
+    
+    /**
+     * Cached meter per tag value. Tag values come from a small fixed set in code,
+     * so the caches stay bounded.
+     */
+    private Timer sqsLatencyTimer(String operation) {
+        return sqsLatencyTimersByOperation.computeIfAbsent(operation, key -> Timer.builder(SQS_LATENCY)
+                .description("SQS publish latency")
+                .tag("operation", key)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(LATENCY_SLOS)
+                .register(meterRegistry));
+    }
+    
+    private Counter processingErrorCounter(String errorType) {
+        return processingErrorCountersByType.computeIfAbsent(errorType, key -> Counter.builder(PROCESSING_ERRORS)
+                .description("Total number of processing errors")
+                .tag("error_type", key)
+                .register(meterRegistry));
+    }
+    
+    private Counter highLatencyCounter(String operation) {
+        return highLatencyCountersByOperation.computeIfAbsent(operation, key -> Counter.builder(HIGH_LATENCY_EVENTS)
+                .description("Count of high latency events (>500ms)")
+                .tag("operation", key)
+                .register(meterRegistry));
+    }
 }
-
@@ -0,0 +1,22 @@
+package com.hsbc.fraud.producer.replay;
+
+/**
+ * Replay file formats.
+ *
+ * BINARY, little-endian:
+ * <pre>
+ *   header   magic "FRPL", version (both int), recording start in epoch millis (long)
+ *   records  offset from the recording start in nanos (long), length (int), UTF-8 message
+ * </pre>
+ *
+ * JSONL: one published message per line. Replay timing comes from each message's
+ * timestamp field, so any capture of the stream (e.g. from the queue) can be replayed.
+ */
+public enum ReplayFormat {
+    BINARY, JSONL;
+
+    static final int MAGIC = 0x4C505246; // "FRPL" little-endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_HEADER_BYTES = 12;
+}
@@ -0,0 +1,208 @@
+package com.hsbc.fraud.producer.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads a replay file through memory-mapped windows of up to 1 GB, so files of
+ * any size replay without read calls or heap copies of the whole file.
+ *
+ * The format is detected from the first bytes: files starting with the binary
+ * magic are {@link ReplayFormat#BINARY}, anything else is read as JSONL. A
+ * truncated last record, e.g. from a recording that was killed, ends the replay.
+ *
+ * Not thread-safe; one reader per replay.
+ */
+public final class ReplayReader implements Closeable {
+
+    private static final long WINDOW_BYTES = 1L << 30;
+    private static final String TIMESTAMP_FIELD = "\"timestamp\":\"";
+
+    private final FileChannel channel;
+    private final long size;
+    private final ReplayFormat format;
+    private final long recordingStartMillis;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    private long offsetNanos;
+    private String message;
+    private long firstTimestampNanos = Long.MIN_VALUE;
+    private long records;
+
+    private ReplayReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        map(0);
+        if (size >= ReplayFormat.HEADER_BYTES && window.getInt(0) == ReplayFormat.MAGIC) {
+            if (window.getInt(4) != ReplayFormat.VERSION) {
+                throw new IOException("Unsupported replay file version " + window.getInt(4));
+            }
+            this.format = ReplayFormat.BINARY;
+            this.recordingStartMillis = window.getLong(8);
+            this.position = ReplayFormat.HEADER_BYTES;
+        } else {
+            this.format = ReplayFormat.JSONL;
+            this.recordingStartMillis = -1;
+        }
+    }
+
+    public static ReplayReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new ReplayReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Advance to the next record.
+     *
+     * @return false at the end of the file
+     */
+    public boolean next() throws IOException {
+        boolean read = format == ReplayFormat.BINARY ? nextBinary() : nextLine();
+        if (read) {
+            records++;
+        }
+        return read;
+    }
+
+    /**
+     * Time of the current record since the first one, in nanos.
+     */
+    public long offsetNanos() {
+        return offsetNanos;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    public ReplayFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * When the binary recording started, in epoch millis; -1 for JSONL.
+     */
+    public long getRecordingStartMillis() {
+        return recordingStartMillis;
+    }
+
+    public long getRecordsRead() {
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean nextBinary() throws IOException {
+        if (size - position < ReplayFormat.RECORD_HEADER_BYTES) {
+            return false;
+        }
+        ensureMapped(ReplayFormat.RECORD_HEADER_BYTES);
+        int at = (int) (position - windowStart);
+        long offset = window.getLong(at);
+        int length = window.getInt(at + 8);
+        if (length < 0 || size - position - ReplayFormat.RECORD_HEADER_BYTES < length) {
+            return false;
+        }
+        ensureMapped(ReplayFormat.RECORD_HEADER_BYTES + (long) length);
+        offsetNanos = offset;
+        message = decode((int) (position - windowStart) + ReplayFormat.RECORD_HEADER_BYTES, length);
+        position += ReplayFormat.RECORD_HEADER_BYTES + length;
+        return true;
+    }
+
+    private boolean nextLine() throws IOException {
+        while (position < size) {
+            int end = findNewline();
+            if (end < 0) {
+                if (windowStart + window.limit() >= size) {
+                    // Last line without a newline
+                    end = window.limit();
+                } else if (position == windowStart) {
+                    throw new IOException("Replay line longer than " + WINDOW_BYTES + " bytes at offset " + position);
+                } else {
+                    map(position);
+                    continue;
+                }
+            }
+            int start = (int) (position - windowStart);
+            position = windowStart + end + 1;
+            if (end > start) {
+                message = decode(start, end - start);
+                offsetNanos = timestampOffset(message);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int findNewline() {
+        for (int i = (int) (position - windowStart); i < window.limit(); i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Offset from the message's timestamp field; messages without one keep the previous offset.
+     */
+    private long timestampOffset(String line) {
+        int start = line.indexOf(TIMESTAMP_FIELD);
+        int end = start >= 0 ? line.indexOf('"', start + TIMESTAMP_FIELD.length()) : -1;
+        if (end < 0) {
+            return offsetNanos;
+        }
+        try {
+            Instant timestamp = Instant.parse(line.substring(start + TIMESTAMP_FIELD.length(), end));
+            long nanos = timestamp.getEpochSecond() * 1_000_000_000L + timestamp.getNano();
+            if (firstTimestampNanos == Long.MIN_VALUE) {
+                firstTimestampNanos = nanos;
+            }
+            // Captures are not always in timestamp order; never go back in time
+            return Math.max(offsetNanos, nanos - firstTimestampNanos);
+        } catch (DateTimeParseException e) {
+            return offsetNanos;
+        }
+    }
+
+    private String decode(int at, int length) {
+        byte[] bytes = new byte[length];
+        window.get(at, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void ensureMapped(long bytes) throws IOException {
+        if (position + bytes > windowStart + window.limit()) {
+            if (bytes > WINDOW_BYTES) {
+                throw new IOException("Replay record of " + bytes + " bytes at offset " + position + " is too large");
+            }
+            map(position);
+        }
+    }
+
+    private void map(long start) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_BYTES, size - start));
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = start;
+    }
+}
@@ -0,0 +1,116 @@
+package com.hsbc.fraud.producer.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends published messages to a replay file in either {@link ReplayFormat}.
+ *
+ * Records are copied into a 1 MB buffer and written when it fills or on
+ * {@link #flush()}. Thread-safe; writes are serialized, which costs a buffer copy
+ * per message under the lock.
+ */
+public final class ReplayWriter implements Closeable {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final ReplayFormat format;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final long startNanos = System.nanoTime();
+    private long records;
+
+    private ReplayWriter(FileChannel channel, ReplayFormat format) {
+        this.channel = channel;
+        this.format = format;
+    }
+
+    /**
+     * Create a new replay file; fails if it already exists so a recording is never overwritten.
+     */
+    public static ReplayWriter create(Path file, ReplayFormat format) throws IOException {
+        ReplayWriter writer = new ReplayWriter(
+                FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), format);
+        if (format == ReplayFormat.BINARY) {
+            writer.buffer.putInt(ReplayFormat.MAGIC)
+                    .putInt(ReplayFormat.VERSION)
+                    .putLong(System.currentTimeMillis());
+        }
+        return writer;
+    }
+
+    /**
+     * Append a message, timestamped now.
+     *
+     * @throws UncheckedIOException if writing to the file fails
+     */
+    public void write(String message) {
+        write(System.nanoTime() - startNanos, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param offsetNanos time since the start of the recording; ignored for JSONL
+     */
+    public synchronized void write(long offsetNanos, byte[] message) {
+        int recordBytes = message.length + (format == ReplayFormat.BINARY ? ReplayFormat.RECORD_HEADER_BYTES : 1);
+        try {
+            if (buffer.remaining() < recordBytes) {
+                drain();
+            }
+            ByteBuffer target = buffer.remaining() >= recordBytes
+                    ? buffer
+                    : ByteBuffer.allocate(recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+            if (format == ReplayFormat.BINARY) {
+                target.putLong(offsetNanos).putInt(message.length).put(message);
+            } else {
+                target.put(message).put((byte) '\n');
+            }
+            if (target != buffer) {
+                write(target.flip());
+            }
+            records++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write buffered records to the file.
+     */
+    public synchronized void flush() throws IOException {
+        drain();
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            drain();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.hsbc.fraud.producer.replay;
+
+import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records every published message to a replay file for {@link TransactionReplayer}.
+ * Enabled by setting transaction.replay.record-file.
+ *
+ * The file must not exist yet. Buffered records are written every second and on
+ * shutdown. A failing write is counted and logged but never fails the publish.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("!'${transaction.replay.record-file:}'.isEmpty()")
+public class TransactionRecorder {
+    
+    private final ReplayWriter writer;
+    private final Path file;
+    private final AtomicLong failedWrites = new AtomicLong();
+    
+    public TransactionRecorder(
+            @Value("${transaction.replay.record-file}") String file,
+            @Value("${transaction.replay.record-format:binary}") String format) throws IOException {
+        this.file = Path.of(file);
+        this.writer = ReplayWriter.create(this.file, ReplayFormat.valueOf(format.toUpperCase()));
+        log.info("Recording published transactions to {} ({})", this.file, format);
+    }
+    
+    public void record(String message) {
+        try {
+            writer.write(message);
+        } catch (UncheckedIOException e) {
+            if (failedWrites.getAndIncrement() == 0) {
+                log.error("Failed to record transaction to {}; further failures are only counted", file, e);
+            }
+        }
+    }
+    
+    public long getRecorded() {
+        return writer.getRecords();
+    }
+    
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+    
+    @Scheduled(fixedRate = 1000)
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            failedWrites.incrementAndGet();
+            log.error("Failed to flush transaction recording to {}", file, e);
+        }
+    }
+    
+    @PreDestroy
+    public void close() throws IOException {
+        writer.close();
+        log.info("Recorded {} transactions to {} ({} failed writes)", writer.getRecords(), file, failedWrites.get());
+    }
+}
@@ -0,0 +1,207 @@
+package com.hsbc.fraud.producer.replay;
+
+import com.hsbc.fraud.producer.service.TransactionPublisherService;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes a recorded stream (see {@link ReplayFormat}) again.
+ *
+ * Each message is sent when its recorded offset, divided by the speed, has
+ * elapsed since the replay started: speed 1 keeps the original timing, 60 plays
+ * an hour in a minute, and 0 sends as fast as max-in-flight senders allow.
+ * Sending is open-loop like the generator's: a slow publish delays only itself,
+ * and how far sends fall behind schedule is reported as the lag.
+ *
+ * Messages are replayed verbatim, including their ids and timestamps.
+ * Files are read from transaction.replay.directory; one replay runs at a time.
+ */
+@Slf4j
+@Component
+public class TransactionReplayer {
+
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final TransactionPublisherService publisherService;
+    private final Path directory;
+    private final int maxInFlight;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile Thread replay;
+    private volatile boolean stopRequested;
+    private volatile String state = "idle";
+    private volatile String file;
+    private volatile double speed;
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile long recordedOffsetNanos;
+    private volatile long maxLagNanos;
+
+    public TransactionReplayer(
+            TransactionPublisherService publisherService,
+            @Value("${transaction.replay.directory:replays}") String directory,
+            @Value("${transaction.replay.max-in-flight:1000}") int maxInFlight) {
+        this.publisherService = publisherService;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Start replaying a file from the replay directory.
+     *
+     * @param fileName file name relative to the replay directory
+     * @param speed time compression factor; 0 for as fast as possible
+     * @throws IllegalArgumentException if the file is outside the directory, missing, or the speed is negative
+     * @throws IllegalStateException if a replay is already running
+     */
+    public synchronized void start(String fileName, double speed) throws IOException {
+        if (speed < 0 || Double.isNaN(speed) || Double.isInfinite(speed)) {
+            throw new IllegalArgumentException("Speed must be a non-negative number");
+        }
+        Path path = directory.resolve(fileName).normalize();
+        if (!path.startsWith(directory) || !Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("No replay file " + fileName + " in " + directory);
+        }
+        if (replay != null && replay.isAlive()) {
+            throw new IllegalStateException("A replay of " + file + " is already running");
+        }
+
+        ReplayReader reader = ReplayReader.open(path);
+        this.file = fileName;
+        this.speed = speed;
+        this.stopRequested = false;
+        this.replayed.set(0);
+        this.failed.set(0);
+        this.recordedOffsetNanos = 0;
+        this.maxLagNanos = 0;
+        this.startNanos = System.nanoTime();
+        this.endNanos = 0;
+        this.state = "running";
+
+        replay = new Thread(() -> run(reader), "transaction-replay");
+        replay.setDaemon(true);
+        replay.start();
+        log.info("Replaying {} ({}) at {}", path, reader.getFormat(), speed > 0 ? speed + "x" : "max speed");
+    }
+
+    /**
+     * Stop the running replay; sends already dispatched still complete.
+     */
+    public void stop() {
+        stopRequested = true;
+        Thread current = replay;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("file", file);
+        status.put("speed", speed > 0 ? speed : "max");
+        status.put("replayed", replayed.get());
+        status.put("failed", failed.get());
+        long elapsedNanos = startNanos == 0 ? 0 : (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+        status.put("elapsedSeconds", elapsedNanos / 1e9);
+        status.put("recordedSeconds", recordedOffsetNanos / 1e9);
+        status.put("maxLagMillis", maxLagNanos / 1e6);
+        return status;
+    }
+
+    @PreDestroy
+    public void close() {
+        stop();
+        senders.shutdown();
+        try {
+            if (!senders.awaitTermination(5, TimeUnit.SECONDS)) {
+                senders.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            senders.shutdownNow();
+        }
+    }
+
+    private void run(ReplayReader reader) {
+        try (reader) {
+            while (!stopRequested && reader.next()) {
+                long offset = reader.offsetNanos();
+                recordedOffsetNanos = offset;
+                if (speed > 0) {
+                    long due = startNanos + (long) (offset / speed);
+                    waitUntil(due);
+                    inFlight.acquire();
+                    maxLagNanos = Math.max(maxLagNanos, System.nanoTime() - due);
+                } else {
+                    inFlight.acquire();
+                }
+                dispatch(reader.message());
+            }
+            // Let in-flight sends finish so the counts are final
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+            state = stopRequested ? "stopped" : "finished";
+        } catch (InterruptedException e) {
+            state = "stopped";
+        } catch (IOException | RuntimeException e) {
+            log.error("Replay of {} failed", file, e);
+            state = "failed";
+        } finally {
+            endNanos = System.nanoTime();
+            log.info("Replay of {} {}: {} published, {} failed in {}s", file, state, replayed.get(), failed.get(),
+                    (endNanos - startNanos) / 1e9);
+        }
+    }
+
+    private void waitUntil(long due) throws InterruptedException {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS / 2);
+            } else {
+                Thread.onSpinWait();
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private void dispatch(String message) {
+        try {
+            senders.execute(() -> {
+                try {
+                    publisherService.publishJson(message);
+                    replayed.incrementAndGet();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Executor shut down while stopping
+            inFlight.release();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.hsbc.fraud.producer.scheduler;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Target transaction rate over time, measured from when the profile was applied.
+ *
+ * - constant: a fixed rate
+ * - ramp: linear from one rate to another over a duration, then holds the end rate
+ * - steps: starts at a rate and adds a fixed increment every step interval, up to a maximum
+ * - diurnal: a cosine between a trough and a peak rate with a fixed period, e.g. a day
+ *
+ * Immutable; replacing the scheduler's profile restarts the clock.
+ */
+public final class RateProfile {
+
+    public enum Type {
+        CONSTANT, RAMP, STEPS, DIURNAL
+    }
+
+    private final Type type;
+    private final double startQps;
+    private final double endQps;
+    private final double stepQps;
+    private final long durationNanos;
+    private final long peakAfterNanos;
+
+    private RateProfile(Type type, double startQps, double endQps, double stepQps, long durationNanos) {
+        this(type, startQps, endQps, stepQps, durationNanos, 0);
+    }
+
+    private RateProfile(Type type, double startQps, double endQps, double stepQps, long durationNanos,
+                        long peakAfterNanos) {
+        if (startQps < 0 || endQps < 0) {
+            throw new IllegalArgumentException("Rates must not be negative");
+        }
+        this.type = type;
+        this.startQps = startQps;
+        this.endQps = endQps;
+        this.stepQps = stepQps;
+        this.durationNanos = durationNanos;
+        this.peakAfterNanos = peakAfterNanos;
+    }
+
+    public static RateProfile constant(double qps) {
+        return new RateProfile(Type.CONSTANT, qps, qps, 0, 0);
+    }
+
+    /**
+     * @param duration time to go from {@code fromQps} to {@code toQps}; the end rate holds afterwards
+     */
+    public static RateProfile ramp(double fromQps, double toQps, Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Ramp duration must be positive");
+        }
+        return new RateProfile(Type.RAMP, fromQps, toQps, 0, duration.toNanos());
+    }
+
+    /**
+     * @param stepInterval how long each rate holds before the next increment
+     */
+    public static RateProfile steps(double startQps, double stepQps, Duration stepInterval, double maxQps) {
+        if (stepInterval.isNegative() || stepInterval.isZero() || stepQps <= 0) {
+            throw new IllegalArgumentException("Step interval and increment must be positive");
+        }
+        return new RateProfile(Type.STEPS, startQps, Math.max(startQps, maxQps), stepQps, stepInterval.toNanos());
+    }
+
+    /**
+     * @param period length of one cycle, e.g. 24 hours (or less, to compress a day into a test run)
+     * @param peakAfter time from applying the profile to the first peak; the rate starts wherever the cycle is then
+     */
+    public static RateProfile diurnal(double troughQps, double peakQps, Duration period, Duration peakAfter) {
+        if (period.isNegative() || period.isZero() || peakQps < troughQps) {
+            throw new IllegalArgumentException("Period must be positive and the peak at least the trough");
+        }
+        return new RateProfile(Type.DIURNAL, troughQps, peakQps, 0, period.toNanos(),
+                Math.floorMod(peakAfter.toNanos(), period.toNanos()));
+    }
+
+    /**
+     * Target rate in transactions per second at the given time since the profile was applied.
+     */
+    public double rateAt(long elapsedNanos) {
+        return switch (type) {
+            case CONSTANT -> startQps;
+            case RAMP -> elapsedNanos >= durationNanos
+                    ? endQps
+                    : startQps + (endQps - startQps) * elapsedNanos / durationNanos;
+            case STEPS -> Math.min(endQps, startQps + stepQps * (elapsedNanos / durationNanos));
+            case DIURNAL -> startQps + (endQps - startQps)
+                    * (1 + Math.cos(2 * Math.PI * (elapsedNanos - peakAfterNanos) / durationNanos)) / 2;
+        };
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Profile parameters for the REST API.
+     */
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("type", type.name().toLowerCase());
+        switch (type) {
+            case CONSTANT -> description.put("qps", startQps);
+            case RAMP -> {
+                description.put("fromQps", startQps);
+                description.put("toQps", endQps);
+                description.put("durationSeconds", durationNanos / 1e9);
+            }
+            case STEPS -> {
+                description.put("startQps", startQps);
+                description.put("stepQps", stepQps);
+                description.put("stepSeconds", durationNanos / 1e9);
+                description.put("maxQps", endQps);
+            }
+            case DIURNAL -> {
+                description.put("troughQps", startQps);
+                description.put("peakQps", endQps);
+                description.put("periodSeconds", durationNanos / 1e9);
+                description.put("peakAfterSeconds", peakAfterNanos / 1e9);
+            }
+        }
+        return description;
+    }
+}
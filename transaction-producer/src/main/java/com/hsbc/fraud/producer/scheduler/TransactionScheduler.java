@@ -1,84 +1,172 @@
 package com.hsbc.fraud.producer.scheduler;
 
+import com.hsbc.fraud.producer.metrics.MetricsCollector;
 import com.hsbc.fraud.producer.model.Transaction;
 import com.hsbc.fraud.producer.service.TransactionGenerator;
 import com.hsbc.fraud.producer.service.TransactionPublisherService;
-import lombok.RequiredArgsConstructor;
+import com.hsbc.fraud.producer.workload.WorkloadModel;
 import lombok.extern.slf4j.Slf4j;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.IntStream;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Scheduled task that continuously generates transactions at a configurable rate.
+ * Open-loop transaction generator driven by a token bucket.
  * Can be enabled/disabled via configuration.
- * The transaction rate can be dynamically adjusted via the REST API.
+ * The target rate (or a ramp/step profile) can be changed at runtime via the REST API.
+ *
+ * A pacer thread adds tokens at the profile's current rate, with nanosecond
+ * resolution, and dispatches one send per token to the sender pool (virtual
+ * threads by default). Sends do not wait for each other, so a slow publish does
+ * not lower the rate. The bucket holds at most burst-ms worth of tokens: when
+ * all max-in-flight senders are busy for longer than that, excess tokens are
+ * dropped and counted as missed rather than released later as a burst.
+ *
+ * A workload model with a diurnal curve replaces initial-qps as the starting profile.
+ *
+ * With payload json (the default) senders publish {@link TransactionGenerator#generateJson()}
+ * and skip building and serializing a Transaction object.
+ *
+ * Metrics: target and achieved rate, send lag (how late each send started
+ * against its token) and missed sends.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 @ConditionalOnProperty(name = "transaction.auto-generate.enabled", havingValue = "true", matchIfMissing = true)
 public class TransactionScheduler {
     
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    
     private final TransactionGenerator transactionGenerator;
     private final TransactionPublisherService publisherService;
-    
-    // Target: configurable QPS
-    // Execution frequency: every 10ms (100 executions per second)
-    // Transactions per execution: configurable (dynamic)
-    // Default: 10 transactions per 10ms = 1,00 QPS
-    private final AtomicInteger transactionsPerExecution = new AtomicInteger(1);
-    private static final long EXECUTION_INTERVAL_MS = 10;
+    private final MetricsCollector metricsCollector;
+    private final ExecutorService senders;
+    private final Semaphore inFlight;
+    private final long burstNanos;
+    private final boolean jsonPayload;
     
     private final AtomicLong totalPublished = new AtomicLong(0);
+    private final AtomicLong missedSends = new AtomicLong(0);
+    private volatile RateProfile profile;
+    private volatile long profileStartNanos;
+    private volatile boolean running;
+    private Thread pacer;
+    
+    private long lastSampleNanos = System.nanoTime();
+    private long lastSamplePublished;
+    private volatile double achievedQps;
     
     /**
-     * Logs when the scheduler is enabled and initialized.
+     * @param senderType virtual (one virtual thread per send) or fixed (a pool of sender-threads)
+     * @param payload json (render messages directly) or object (build a Transaction and serialize it with Jackson)
+     */
+    public TransactionScheduler(
+            TransactionGenerator transactionGenerator,
+            TransactionPublisherService publisherService,
+            MetricsCollector metricsCollector,
+            @Value("${transaction.auto-generate.initial-qps:100}") double initialQps,
+            @Value("${transaction.auto-generate.sender:virtual}") String senderType,
+            @Value("${transaction.auto-generate.sender-threads:64}") int senderThreads,
+            @Value("${transaction.auto-generate.max-in-flight:1000}") int maxInFlight,
+            @Value("${transaction.auto-generate.burst-ms:10}") long burstMs,
+            @Value("${transaction.auto-generate.payload:json}") String payload,
+            ObjectProvider<WorkloadModel> workloadModel) {
+        this.transactionGenerator = transactionGenerator;
+        this.publisherService = publisherService;
+        this.metricsCollector = metricsCollector;
+        this.senders = "fixed".equalsIgnoreCase(senderType)
+                ? Executors.newFixedThreadPool(senderThreads)
+                : Executors.newVirtualThreadPerTaskExecutor();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.burstNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, burstMs));
+        this.jsonPayload = !"object".equalsIgnoreCase(payload);
+        WorkloadModel model = workloadModel.getIfAvailable();
+        applyProfile(model != null
+                ? model.rateProfile(Instant.now()).orElse(RateProfile.constant(initialQps))
+                : RateProfile.constant(initialQps));
+    }
+    
+    /**
+     * Starts the pacer thread.
      */
     @PostConstruct
-    public void init() {
-        log.info("Transaction auto-generation scheduler is ENABLED. Initial rate: {} QPS ({} transactions per {}ms execution)", 
-                getCurrentQPS(), transactionsPerExecution.get(), EXECUTION_INTERVAL_MS);
+    public void start() {
+        running = true;
+        pacer = new Thread(this::pace, "transaction-rate-pacer");
+        pacer.setDaemon(true);
+        pacer.start();
+        log.info("Transaction auto-generation is ENABLED. Initial profile: {}", profile.describe());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (pacer != null) {
+            pacer.interrupt();
+        }
+        senders.shutdown();
+        try {
+            if (!senders.awaitTermination(5, TimeUnit.SECONDS)) {
+                senders.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            senders.shutdownNow();
+        }
+        log.info("Transaction auto-generation stopped after {} transactions", totalPublished.get());
     }
     
     /**
-     * Get the current transactions per execution.
+     * Replace the rate profile; its clock starts now.
      */
-    public int getTransactionsPerExecution() {
-        return transactionsPerExecution.get();
+    public void applyProfile(RateProfile newProfile) {
+        RateProfile oldProfile = profile;
+        profileStartNanos = System.nanoTime();
+        profile = newProfile;
+        metricsCollector.updateGeneratorTargetRate(getTargetQps());
+        if (oldProfile != null) {
+            log.info("Updated transaction rate profile from {} to {}", oldProfile.describe(), newProfile.describe());
+        }
     }
     
     /**
-     * Set the transactions per execution (must be between 1 and 1000).
-     * This dynamically adjusts the transaction generation rate.
-     * 
-     * @param count Number of transactions per execution (1-1000)
-     * @return true if updated successfully, false if invalid
+     * Set a constant target rate.
      */
-    public boolean setTransactionsPerExecution(int count) {
-        int oldValue = transactionsPerExecution.getAndSet(count);
-        log.info("Updated transaction rate from {} QPS to {} QPS ({} -> {} transactions per {}ms)", 
-                calculateQPS(oldValue), calculateQPS(count), oldValue, count, EXECUTION_INTERVAL_MS);
-        return true;
+    public void setTargetQps(double qps) {
+        applyProfile(RateProfile.constant(qps));
     }
     
     /**
-     * Get the current QPS (queries per second) based on current configuration.
+     * Current target rate of the active profile.
      */
-    public int getCurrentQPS() {
-        return calculateQPS(transactionsPerExecution.get());
+    public double getTargetQps() {
+        return profile.rateAt(System.nanoTime() - profileStartNanos);
     }
     
     /**
-     * Calculate QPS from transactions per execution.
+     * Rate achieved over the last sampling second.
      */
-    private int calculateQPS(int transactionsPerExec) {
-        return (int) (transactionsPerExec * (1000.0 / EXECUTION_INTERVAL_MS));
+    public double getAchievedQps() {
+        return achievedQps;
+    }
+    
+    public Map<String, Object> getProfile() {
+        return profile.describe();
     }
     
     /**
@@ -89,39 +177,104 @@ public class TransactionScheduler {
     }
     
     /**
-     * Generates and publishes transactions at a configurable rate.
-     * Executes every 10ms, publishing a dynamically configurable number of transactions per execution.
+     * Sends skipped because all senders were busy for longer than the burst allowance.
      */
-    @Scheduled(fixedRate = EXECUTION_INTERVAL_MS)
-    public void generateTransactions() {
-        try {
-            long startTime = System.currentTimeMillis();
-            int batchSize = transactionsPerExecution.get();
+    public long getMissedSends() {
+        return missedSends.get();
+    }
+    
+    /**
+     * Samples the achieved rate and refreshes the rate gauges once per second.
+     */
+    @Scheduled(fixedRate = 1000)
+    public void sampleRate() {
+        long now = System.nanoTime();
+        long published = totalPublished.get();
+        if (now > lastSampleNanos) {
+            achievedQps = (published - lastSamplePublished) * (double) NANOS_PER_SECOND / (now - lastSampleNanos);
+        }
+        lastSampleNanos = now;
+        lastSamplePublished = published;
+        
+        metricsCollector.updateGeneratorTargetRate(getTargetQps());
+        metricsCollector.updateGeneratorAchievedRate(achievedQps);
+    }
+    
+    /**
+     * Token bucket loop. Tokens accrue continuously at the current target rate;
+     * each whole token dispatches one send.
+     */
+    private void pace() {
+        double tokens = 0;
+        long last = System.nanoTime();
+        
+        while (running) {
+            long now = System.nanoTime();
+            double rate = profile.rateAt(now - profileStartNanos);
+            if (rate <= 0) {
+                tokens = 0;
+                last = now;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
             
-            // Generate and publish transactions in parallel for better throughput
-            IntStream.range(0, batchSize)
-                    .parallel()
-                    .forEach(i -> {
-                        try {
-                            Transaction transaction = transactionGenerator.generateTransaction();
-                            publisherService.publishTransaction(transaction);
-                            totalPublished.incrementAndGet();
-                        } catch (Exception e) {
-                            log.error("Error publishing transaction in batch", e);
-                        }
-                    });
+            tokens += (now - last) * rate / NANOS_PER_SECOND;
+            last = now;
+            double maxTokens = Math.max(1, burstNanos * rate / NANOS_PER_SECOND);
+            if (tokens > maxTokens) {
+                missedSends.addAndGet((long) (tokens - maxTokens));
+                metricsCollector.recordGeneratorMissed((long) (tokens - maxTokens));
+                tokens = maxTokens;
+            }
             
-            long executionTime = System.currentTimeMillis() - startTime;
+            if (tokens < 1) {
+                long waitNanos = (long) ((1 - tokens) * NANOS_PER_SECOND / rate);
+                if (waitNanos > SPIN_THRESHOLD_NANOS) {
+                    LockSupport.parkNanos(waitNanos - SPIN_THRESHOLD_NANOS / 2);
+                } else {
+                    Thread.onSpinWait();
+                }
+                continue;
+            }
             
-            // Log periodically (every 1000 transactions) to avoid log spam
-            long currentTotal = totalPublished.get();
-            if (currentTotal % 1000 == 0) {
-                log.info("Published {} transactions total. Last batch took {}ms (current rate: {} QPS)", 
-                        currentTotal, executionTime, getCurrentQPS());
+            // The oldest whole token became due (tokens - 1) / rate ago
+            long dueNanos = now - (long) ((tokens - 1) * NANOS_PER_SECOND / rate);
+            tokens -= 1;
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             }
-        } catch (Exception e) {
-            log.error("Error in scheduled transaction generation", e);
+            metricsCollector.recordGeneratorSendLag(System.nanoTime() - dueNanos);
+            dispatch();
+        }
+    }
+    
+    private void dispatch() {
+        try {
+            senders.execute(() -> {
+                try {
+                    if (jsonPayload) {
+                        publisherService.publishJson(transactionGenerator.generateJson());
+                    } else {
+                        Transaction transaction = transactionGenerator.generateTransaction();
+                        publisherService.publishTransaction(transaction);
+                    }
+                    long total = totalPublished.incrementAndGet();
+                    if (total % 100_000 == 0) {
+                        log.info("Published {} transactions total (target: {} QPS, achieved: {} QPS)",
+                                total, Math.round(getTargetQps()), Math.round(achievedQps));
+                    }
+                } catch (Exception e) {
+                    log.error("Error publishing generated transaction", e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Executor shut down while stopping
+            inFlight.release();
         }
     }
 }
-
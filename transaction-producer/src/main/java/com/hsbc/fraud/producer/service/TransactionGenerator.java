@@ -1,20 +1,32 @@
 package com.hsbc.fraud.producer.service;
 
 import com.hsbc.fraud.producer.model.Transaction;
+import com.hsbc.fraud.producer.workload.WorkloadModel;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Service that generates random financial transactions for testing.
  * Intentionally creates some fraudulent transactions for demonstration.
+ * 
+ * Generation is cheap enough to run at tens of thousands per second per core:
+ * randomness comes from {@link ThreadLocalRandom} (no contention between sender
+ * threads), ids are random UUIDs without SecureRandom, and amounts are built from
+ * whole cents. {@link #generateJson()} goes further and renders the JSON message
+ * directly from pre-rendered fragments, skipping the Transaction object and
+ * Jackson; its output has the same shape as serializing {@link #generateTransaction()}.
+ * 
+ * When a {@link WorkloadModel} is configured, both methods take transactions from it
+ * instead of the small built-in population.
  */
 @Slf4j
 @Service
@@ -40,77 +52,200 @@ public class TransactionGenerator {
             "NEW_YORK", "LONDON", "HONG_KONG", "SINGAPORE", "TOKYO"
     );
     
-    private final Random random = new Random();
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+    
+    private static final DateTimeFormatter SECOND_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.").withZone(ZoneOffset.UTC);
+    
+    // JSON fragments in the field order Jackson uses for Transaction
+    private static final List<String> NORMAL_ACCOUNT_FRAGMENTS = accountFragments(NORMAL_ACCOUNTS);
+    private static final List<String> SUSPICIOUS_ACCOUNT_FRAGMENTS = accountFragments(SUSPICIOUS_ACCOUNTS);
+    private static final String[] TAIL_FRAGMENTS = tailFragments();
+    
+    /**
+     * Formatted timestamp up to the second, reused within the same second.
+     */
+    private volatile SecondPrefix secondPrefix = new SecondPrefix(Long.MIN_VALUE, "");
+    
+    private final WorkloadModel workloadModel;
+    
+    public TransactionGenerator() {
+        this(null);
+    }
+    
+    @Autowired(required = false)
+    public TransactionGenerator(WorkloadModel workloadModel) {
+        this.workloadModel = workloadModel;
+    }
     
     /**
      * Generates a random transaction.
      * 10% chance of being a suspicious transaction (large amount or suspicious account).
      */
     public Transaction generateTransaction() {
+        if (workloadModel != null) {
+            return workloadModel.next();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         boolean shouldBeFraudulent = random.nextDouble() < 0.1; // 10% fraud rate
         
         String accountId = shouldBeFraudulent && random.nextBoolean()
-                ? getRandomElement(SUSPICIOUS_ACCOUNTS)
-                : getRandomElement(NORMAL_ACCOUNTS);
+                ? getRandomElement(random, SUSPICIOUS_ACCOUNTS)
+                : getRandomElement(random, NORMAL_ACCOUNTS);
         
-        BigDecimal amount = shouldBeFraudulent && random.nextBoolean()
-                ? generateLargeAmount() // Exceeds threshold
-                : generateNormalAmount();
+        BigDecimal amount = BigDecimal.valueOf(shouldBeFraudulent && random.nextBoolean()
+                ? largeAmountCents(random) // Exceeds threshold
+                : normalAmountCents(random), 2);
         
         return Transaction.builder()
-                .transactionId(UUID.randomUUID().toString())
+                .transactionId(randomId(random))
                 .accountId(accountId)
                 .amount(amount)
                 .currency("USD")
                 .timestamp(Instant.now())
-                .merchantId(getRandomElement(MERCHANTS))
-                .merchantCategory(getRandomElement(CATEGORIES))
-                .location(getRandomElement(LOCATIONS))
-                .type(getRandomElement(Transaction.TransactionType.values()))
+                .merchantId(getRandomElement(random, MERCHANTS))
+                .merchantCategory(getRandomElement(random, CATEGORIES))
+                .location(getRandomElement(random, LOCATIONS))
+                .type(TYPES[random.nextInt(TYPES.length)])
                 .build();
     }
     
+    /**
+     * Generates a random transaction directly as its JSON message, with the same
+     * distribution as {@link #generateTransaction()}.
+     */
+    public String generateJson() {
+        if (workloadModel != null) {
+            return toJson(workloadModel.next());
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean shouldBeFraudulent = random.nextDouble() < 0.1;
+        
+        String accountFragment = shouldBeFraudulent && random.nextBoolean()
+                ? getRandomElement(random, SUSPICIOUS_ACCOUNT_FRAGMENTS)
+                : getRandomElement(random, NORMAL_ACCOUNT_FRAGMENTS);
+        long cents = shouldBeFraudulent && random.nextBoolean()
+                ? largeAmountCents(random)
+                : normalAmountCents(random);
+        StringBuilder json = new StringBuilder(256)
+                .append("{\"transactionId\":\"").append(randomId(random))
+                .append(accountFragment);
+        appendCents(json, cents);
+        json.append(",\"currency\":\"USD\",\"timestamp\":\"");
+        appendTimestamp(json, System.currentTimeMillis());
+        return json.append(TAIL_FRAGMENTS[random.nextInt(TAIL_FRAGMENTS.length)]).toString();
+    }
+    
+    /**
+     * Same layout as Jackson. Assumes the string fields need no escaping and amounts have scale 2,
+     * which holds for generated transactions.
+     */
+    private String toJson(Transaction transaction) {
+        StringBuilder json = new StringBuilder(256)
+                .append("{\"transactionId\":\"").append(transaction.getTransactionId())
+                .append("\",\"accountId\":\"").append(transaction.getAccountId())
+                .append("\",\"amount\":");
+        appendCents(json, transaction.getAmount().unscaledValue().longValue());
+        json.append(",\"currency\":\"").append(transaction.getCurrency())
+                .append("\",\"timestamp\":\"");
+        appendTimestamp(json, transaction.getTimestamp().toEpochMilli());
+        return json.append("\",\"merchantId\":\"").append(transaction.getMerchantId())
+                .append("\",\"merchantCategory\":\"").append(transaction.getMerchantCategory())
+                .append("\",\"location\":\"").append(transaction.getLocation())
+                .append("\",\"type\":\"").append(transaction.getType().name())
+                .append("\"}")
+                .toString();
+    }
+    
+    private static void appendCents(StringBuilder json, long cents) {
+        json.append(cents / 100).append('.').append((char) ('0' + cents % 100 / 10)).append((char) ('0' + cents % 10));
+    }
+    
+    private void appendTimestamp(StringBuilder json, long epochMillis) {
+        int millis = (int) Math.floorMod(epochMillis, 1000L);
+        json.append(secondPrefix(epochMillis))
+                .append((char) ('0' + millis / 100)).append((char) ('0' + millis / 10 % 10)).append((char) ('0' + millis % 10))
+                .append('Z');
+    }
+    
     /**
      * Generates a rapid-fire burst of transactions from the same account.
      * Useful for testing the RapidFireRule.
      */
     public List<Transaction> generateRapidFireBurst(int count) {
-        String accountId = getRandomElement(NORMAL_ACCOUNTS);
+        String accountId = getRandomElement(ThreadLocalRandom.current(), NORMAL_ACCOUNTS);
         return java.util.stream.IntStream.range(0, count)
                 .mapToObj(i -> generateTransactionForAccount(accountId))
                 .toList();
     }
     
     private Transaction generateTransactionForAccount(String accountId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         return Transaction.builder()
-                .transactionId(UUID.randomUUID().toString())
+                .transactionId(randomId(random))
                 .accountId(accountId)
-                .amount(generateNormalAmount())
+                .amount(BigDecimal.valueOf(normalAmountCents(random), 2))
                 .currency("USD")
                 .timestamp(Instant.now())
-                .merchantId(getRandomElement(MERCHANTS))
-                .merchantCategory(getRandomElement(CATEGORIES))
-                .location(getRandomElement(LOCATIONS))
-                .type(getRandomElement(Transaction.TransactionType.values()))
+                .merchantId(getRandomElement(random, MERCHANTS))
+                .merchantCategory(getRandomElement(random, CATEGORIES))
+                .location(getRandomElement(random, LOCATIONS))
+                .type(TYPES[random.nextInt(TYPES.length)])
                 .build();
     }
     
-    private BigDecimal generateNormalAmount() {
-        double amount = ThreadLocalRandom.current().nextDouble(1.0, 5000.0);
-        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Random (version 4 layout) UUID from the thread's non-cryptographic generator.
+     */
+    private static String randomId(ThreadLocalRandom random) {
+        long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+    
+    private static long normalAmountCents(ThreadLocalRandom random) {
+        return random.nextLong(100, 500_000);
+    }
+    
+    private static long largeAmountCents(ThreadLocalRandom random) {
+        return random.nextLong(1_000_100, 10_000_000);
     }
     
-    private BigDecimal generateLargeAmount() {
-        double amount = ThreadLocalRandom.current().nextDouble(10001.0, 100000.0);
-        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+    private String secondPrefix(long epochMillis) {
+        long second = Math.floorDiv(epochMillis, 1000L);
+        SecondPrefix prefix = secondPrefix;
+        if (prefix.epochSecond() != second) {
+            prefix = new SecondPrefix(second, SECOND_FORMAT.format(Instant.ofEpochSecond(second)));
+            secondPrefix = prefix;
+        }
+        return prefix.text();
     }
     
-    private <T> T getRandomElement(List<T> list) {
+    private static List<String> accountFragments(List<String> accounts) {
+        return accounts.stream()
+                .map(account -> "\",\"accountId\":\"" + account + "\",\"amount\":")
+                .toList();
+    }
+    
+    /**
+     * Every merchant/category/location/type combination, from the end of the timestamp to the closing brace.
+     */
+    private static String[] tailFragments() {
+        return MERCHANTS.stream()
+                .flatMap(merchant -> CATEGORIES.stream()
+                        .flatMap(category -> LOCATIONS.stream()
+                                .flatMap(location -> java.util.Arrays.stream(TYPES)
+                                        .map(type -> "\",\"merchantId\":\"" + merchant
+                                                + "\",\"merchantCategory\":\"" + category
+                                                + "\",\"location\":\"" + location
+                                                + "\",\"type\":\"" + type.name() + "\"}"))))
+                .toArray(String[]::new);
+    }
+    
+    private static <T> T getRandomElement(ThreadLocalRandom random, List<T> list) {
         return list.get(random.nextInt(list.size()));
     }
     
-    private <T> T getRandomElement(T[] array) {
-        return array[random.nextInt(array.length)];
+    private record SecondPrefix(long epochSecond, String text) {
     }
 }
-
@@ -4,14 +4,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hsbc.fraud.producer.metrics.MetricsCollector;
 import com.hsbc.fraud.producer.model.Transaction;
 import com.hsbc.fraud.producer.messaging.MessagePublisher;
+import com.hsbc.fraud.producer.replay.TransactionRecorder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
  * Service that publishes transactions to the message queue.
  * Uses the MessagePublisher abstraction to support multiple cloud providers.
  * Emits Prometheus metrics via Micrometer for monitoring.
+ * Published messages are also recorded when a {@link TransactionRecorder} is configured.
  */
 @Slf4j
 @Service
@@ -22,12 +25,18 @@ public class TransactionPublisherService {
     private final ObjectMapper objectMapper;
     private final MetricsCollector metricsCollector;
     
+    @Autowired(required = false)
+    private TransactionRecorder recorder;
+    
     public void publishTransaction(Transaction transaction) {
         long startTime = System.currentTimeMillis();
         
         try {
             String message = objectMapper.writeValueAsString(transaction);
             messagePublisher.publish(message);
+            if (recorder != null) {
+                recorder.record(message);
+            }
             
             long publishTime = System.currentTimeMillis() - startTime;
             
@@ -43,7 +52,29 @@ public class TransactionPublisherService {
             
         } catch (Exception e) {
             log.error("Failed to publish transaction: {}", transaction.getTransactionId(), e);
-            metricsCollector.recordProcessingError("PUBLISH_ERROR", transaction.getTransactionId(), e);
+            metricsCollector.recordProcessingError(MetricsCollector.ERROR_TYPE_PUBLISH, transaction.getTransactionId(), e);
+            throw new RuntimeException("Failed to publish transaction", e);
+        }
+    }
+    
+    /**
+     * Publish a transaction that is already serialized, e.g. from {@link TransactionGenerator#generateJson()}.
+     */
+    public void publishJson(String message) {
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            messagePublisher.publish(message);
+            if (recorder != null) {
+                recorder.record(message);
+            }
+            
+            metricsCollector.recordTransactionSent();
+            metricsCollector.recordPublishDuration(System.currentTimeMillis() - startTime);
+            
+        } catch (Exception e) {
+            log.error("Failed to publish serialized transaction", e);
+            metricsCollector.recordProcessingError(MetricsCollector.ERROR_TYPE_PUBLISH);
             throw new RuntimeException("Failed to publish transaction", e);
         }
     }
@@ -0,0 +1,22 @@
+package com.hsbc.fraud.producer.workload;
+
+/**
+ * Fraud patterns the workload model injects into otherwise normal traffic.
+ */
+public enum FraudScenario {
+    
+    /**
+     * A stolen card tried with a quick run of small online purchases at different merchants.
+     */
+    CARD_TESTING,
+    
+    /**
+     * Large transfers and withdrawals from a location the account has never used.
+     */
+    ACCOUNT_TAKEOVER,
+    
+    /**
+     * Purchases on one account from a different city each time, too far apart to travel between.
+     */
+    GEO_HOPPING
+}
@@ -0,0 +1,334 @@
+package com.hsbc.fraud.producer.workload;
+
+import com.hsbc.fraud.producer.model.Transaction;
+import com.hsbc.fraud.producer.scheduler.RateProfile;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synthetic transaction stream with realistic populations, built from a {@link WorkloadSpec}.
+ *
+ * - accounts and merchants are drawn from populations of up to millions with Zipf
+ *   popularity skew, so a few are hot and most are rarely seen
+ * - each account has a home location, which most of its transactions use
+ * - amounts are log-normal around a median
+ * - fraud scenarios ({@link FraudScenario}) are injected at a configured rate
+ *
+ * Transaction n of the stream depends only on the seed and n, never on which thread
+ * asks or in what order, so a run is reproducible from its seed (timestamps aside).
+ * Scenarios are laid out per block of block-size transactions: each block hosts at
+ * most one, chosen from the block number, and its transactions sit at fixed
+ * positions within the block.
+ *
+ * No per-account state is kept; ids, home locations and merchant categories are
+ * derived from the rank, so the population size costs no memory. Thread-safe.
+ */
+public final class WorkloadModel {
+
+    private static final String[] LOCATIONS = {
+            "NEW_YORK", "LONDON", "HONG_KONG", "SINGAPORE", "TOKYO", "SYDNEY",
+            "DUBAI", "PARIS", "FRANKFURT", "TORONTO", "SAO_PAULO", "MUMBAI"
+    };
+
+    private static final String[] CATEGORIES = {
+            "RETAIL", "ONLINE", "RESTAURANT", "TRAVEL", "ENTERTAINMENT", "GROCERY", "FUEL"
+    };
+
+    private static final double AWAY_FROM_HOME_PROBABILITY = 0.03;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long HOME_SALT = 0x2545F4914F6CDD1DL;
+    private static final long CATEGORY_SALT = 0x632BE59BD9B4E019L;
+    private static final long BLOCK_SALT = 0x85157AF5B3A5C6E1L;
+
+    private final WorkloadSpec spec;
+    private final long seed;
+    private final ZipfSampler accounts;
+    private final ZipfSampler merchants;
+    private final int accountDigits;
+    private final int merchantDigits;
+    private final double logMedianCents;
+    private final double sigma;
+    private final long maxCents;
+
+    private final FraudScenario[] scenarios = FraudScenario.values();
+    private final WorkloadSpec.Scenario[] scenarioSpecs;
+    private final double[] cumulativeWeights;
+    private final double scenarioProbability;
+    private final int blockSize;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    public WorkloadModel(WorkloadSpec spec) {
+        this.spec = spec;
+        this.seed = mix64(spec.getSeed());
+        this.accounts = new ZipfSampler(spec.getAccounts().getCount(), spec.getAccounts().getSkew());
+        this.merchants = new ZipfSampler(spec.getMerchants().getCount(), spec.getMerchants().getSkew());
+        this.accountDigits = digits(spec.getAccounts().getCount());
+        this.merchantDigits = digits(spec.getMerchants().getCount());
+
+        WorkloadSpec.Amounts amounts = spec.getAmounts();
+        if (amounts.getMedian().signum() <= 0 || amounts.getMax().compareTo(amounts.getMedian()) < 0
+                || amounts.getSigma() < 0) {
+            throw new IllegalArgumentException("Amounts need 0 < median <= max and a non-negative sigma");
+        }
+        this.logMedianCents = Math.log(amounts.getMedian().movePointRight(2).doubleValue());
+        this.sigma = amounts.getSigma();
+        this.maxCents = amounts.getMax().movePointRight(2).longValue();
+
+        WorkloadSpec.Scenarios scenarioConfig = spec.getScenarios();
+        this.blockSize = scenarioConfig.getBlockSize();
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Scenario block size must be positive");
+        }
+        this.scenarioSpecs = new WorkloadSpec.Scenario[] {
+                scenarioConfig.getCardTesting(), scenarioConfig.getAccountTakeover(), scenarioConfig.getGeoHopping()
+        };
+        this.cumulativeWeights = new double[scenarios.length];
+        double totalWeight = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            WorkloadSpec.Scenario scenario = scenarioSpecs[i];
+            if (scenario.getWeight() > 0) {
+                validate(scenarios[i], scenario);
+                totalWeight += scenario.getWeight();
+            }
+            cumulativeWeights[i] = totalWeight;
+        }
+        this.scenarioProbability = totalWeight > 0
+                ? Math.min(1, scenarioConfig.getPerMillion() * blockSize / 1_000_000)
+                : 0;
+    }
+
+    /**
+     * The next transaction of the stream, timestamped now.
+     */
+    public Transaction next() {
+        return transactionAt(sequence.getAndIncrement(), Instant.now());
+    }
+
+    /**
+     * Transaction number {@code sequence} of the stream.
+     */
+    public Transaction transactionAt(long sequence, Instant timestamp) {
+        SplittableRandom random = new SplittableRandom(mix64(seed + sequence * GOLDEN_GAMMA));
+        ScenarioPlan plan = planFor(Math.floorDiv(sequence, blockSize));
+        int event = plan != null ? plan.eventAt(Math.floorMod(sequence, blockSize)) : -1;
+
+        return event >= 0
+                ? scenarioTransaction(plan, event, random, timestamp)
+                : normalTransaction(random, timestamp);
+    }
+
+    /**
+     * The scenario transaction number {@code sequence} belongs to, or null for normal traffic.
+     */
+    public FraudScenario scenarioAt(long sequence) {
+        ScenarioPlan plan = planFor(Math.floorDiv(sequence, blockSize));
+        return plan != null && plan.eventAt(Math.floorMod(sequence, blockSize)) >= 0 ? plan.type() : null;
+    }
+
+    /**
+     * The configured diurnal rate curve, aligned so its peak falls at the configured UTC hour.
+     */
+    public Optional<RateProfile> rateProfile(Instant now) {
+        WorkloadSpec.Diurnal diurnal = spec.getDiurnal();
+        if (!diurnal.isEnabled()) {
+            return Optional.empty();
+        }
+        long periodMillis = (long) (diurnal.getPeriodHours() * TimeUnit.HOURS.toMillis(1));
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Diurnal period must be positive");
+        }
+        long peakMillis = (long) (diurnal.getPeakHourUtc() * TimeUnit.HOURS.toMillis(1));
+        Duration peakAfter = Duration.ofMillis(peakMillis - Math.floorMod(now.toEpochMilli(), periodMillis));
+        return Optional.of(RateProfile.diurnal(
+                diurnal.getTroughQps(), diurnal.getPeakQps(), Duration.ofMillis(periodMillis), peakAfter));
+    }
+
+    public WorkloadSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Account id of a popularity rank (1 is the most active account).
+     */
+    public String accountId(int rank) {
+        return id(spec.getAccounts().getIdPrefix(), rank, accountDigits);
+    }
+
+    /**
+     * Where the account of this rank usually transacts.
+     */
+    public String homeLocation(int rank) {
+        return LOCATIONS[homeLocationIndex(rank)];
+    }
+
+    private Transaction normalTransaction(SplittableRandom random, Instant timestamp) {
+        int account = accounts.sample(random);
+        int location = random.nextDouble() < AWAY_FROM_HOME_PROBABILITY
+                ? random.nextInt(LOCATIONS.length)
+                : homeLocationIndex(account);
+        return transaction(random, account, merchants.sample(random), normalAmount(random),
+                LOCATIONS[location], normalType(random), timestamp);
+    }
+
+    private Transaction scenarioTransaction(ScenarioPlan plan, int event, SplittableRandom random, Instant timestamp) {
+        return switch (plan.type()) {
+            case CARD_TESTING -> Transaction.builder()
+                    .transactionId(transactionId(random))
+                    .accountId(accountId(plan.account()))
+                    .amount(BigDecimal.valueOf(random.nextLong(100, 500), 2))
+                    .currency("USD")
+                    .timestamp(timestamp)
+                    .merchantId(merchantId(random.nextInt(merchants.getN()) + 1))
+                    .merchantCategory("ONLINE")
+                    .location(homeLocation(plan.account()))
+                    .type(Transaction.TransactionType.PURCHASE)
+                    .build();
+            case ACCOUNT_TAKEOVER -> {
+                long minCents = plan.spec().getMinAmount().movePointRight(2).longValue();
+                yield transaction(random, plan.account(), merchants.sample(random),
+                        minCents + (long) (random.nextDouble() * 2 * minCents),
+                        LOCATIONS[plan.location()],
+                        random.nextBoolean() ? Transaction.TransactionType.TRANSFER : Transaction.TransactionType.WITHDRAWAL,
+                        timestamp);
+            }
+            case GEO_HOPPING -> transaction(random, plan.account(), merchants.sample(random), normalAmount(random),
+                    LOCATIONS[(plan.location() + event) % LOCATIONS.length],
+                    Transaction.TransactionType.PURCHASE, timestamp);
+        };
+    }
+
+    private Transaction transaction(SplittableRandom random, int account, int merchant, long cents,
+                                    String location, Transaction.TransactionType type, Instant timestamp) {
+        return Transaction.builder()
+                .transactionId(transactionId(random))
+                .accountId(accountId(account))
+                .amount(BigDecimal.valueOf(cents, 2))
+                .currency("USD")
+                .timestamp(timestamp)
+                .merchantId(merchantId(merchant))
+                .merchantCategory(CATEGORIES[(int) Long.remainderUnsigned(mix64(seed ^ merchant * CATEGORY_SALT), CATEGORIES.length)])
+                .location(location)
+                .type(type)
+                .build();
+    }
+
+    /**
+     * The scenario of a block, if it has one. Derived from the block number alone.
+     */
+    private ScenarioPlan planFor(long block) {
+        if (scenarioProbability <= 0) {
+            return null;
+        }
+        SplittableRandom random = new SplittableRandom(mix64(seed ^ (block * BLOCK_SALT)));
+        if (random.nextDouble() >= scenarioProbability) {
+            return null;
+        }
+
+        double pick = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int type = 0;
+        while (pick >= cumulativeWeights[type]) {
+            type++;
+        }
+        WorkloadSpec.Scenario scenario = scenarioSpecs[type];
+        int span = (scenario.getTransactions() - 1) * scenario.getSpacing() + 1;
+        int account = random.nextInt(accounts.getN()) + 1;
+        // Somewhere other than home
+        int location = (homeLocationIndex(account) + 1 + random.nextInt(LOCATIONS.length - 1)) % LOCATIONS.length;
+        return new ScenarioPlan(scenarios[type], scenario, random.nextInt(blockSize - span + 1), account, location);
+    }
+
+    private long normalAmount(SplittableRandom random) {
+        long cents = Math.round(Math.exp(logMedianCents + sigma * random.nextGaussian()));
+        return Math.max(1, Math.min(maxCents, cents));
+    }
+
+    private static Transaction.TransactionType normalType(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 80) {
+            return Transaction.TransactionType.PURCHASE;
+        } else if (roll < 90) {
+            return Transaction.TransactionType.WITHDRAWAL;
+        } else if (roll < 97) {
+            return Transaction.TransactionType.TRANSFER;
+        }
+        return Transaction.TransactionType.REFUND;
+    }
+
+    private int homeLocationIndex(int rank) {
+        return (int) Long.remainderUnsigned(mix64(seed ^ rank * HOME_SALT), LOCATIONS.length);
+    }
+
+    private String merchantId(int rank) {
+        return id(spec.getMerchants().getIdPrefix(), rank, merchantDigits);
+    }
+
+    /**
+     * UUID-formatted id from the transaction's own random stream, so ids are reproducible too.
+     */
+    private static String transactionId(SplittableRandom random) {
+        long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+
+    private void validate(FraudScenario type, WorkloadSpec.Scenario scenario) {
+        if (scenario.getTransactions() < 1 || scenario.getSpacing() < 1
+                || (long) (scenario.getTransactions() - 1) * scenario.getSpacing() + 1 > blockSize) {
+            throw new IllegalArgumentException("Scenario " + type + " needs at least one transaction, a positive "
+                    + "spacing and must fit in a block of " + blockSize);
+        }
+        if (type == FraudScenario.ACCOUNT_TAKEOVER
+                && (scenario.getMinAmount() == null || scenario.getMinAmount().signum() <= 0)) {
+            throw new IllegalArgumentException("Scenario " + type + " needs a positive min-amount");
+        }
+    }
+
+    /**
+     * Zero-padded so ids sort by rank.
+     */
+    private static String id(String prefix, int rank, int digits) {
+        String number = Integer.toString(rank);
+        StringBuilder id = new StringBuilder(prefix.length() + digits).append(prefix);
+        for (int i = number.length(); i < digits; i++) {
+            id.append('0');
+        }
+        return id.append(number).toString();
+    }
+
+    private static int digits(int count) {
+        return Integer.toString(count).length();
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record ScenarioPlan(FraudScenario type, WorkloadSpec.Scenario spec, int offset, int account, int location) {
+
+        /**
+         * Index of the scenario transaction at this position in the block, or -1.
+         */
+        int eventAt(int position) {
+            int distance = position - offset;
+            if (distance < 0 || distance % spec.getSpacing() != 0) {
+                return -1;
+            }
+            int event = distance / spec.getSpacing();
+            return event < spec.getTransactions() ? event : -1;
+        }
+    }
+}
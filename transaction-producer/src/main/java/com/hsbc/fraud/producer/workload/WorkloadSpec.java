@@ -0,0 +1,103 @@
+package com.hsbc.fraud.producer.workload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Workload model configuration, read from a YAML file (kebab-case keys).
+ * Every setting has a default, so a file only needs the values it changes.
+ * See {@code classpath:workloads/realistic.yml} for an annotated example.
+ */
+@Data
+public class WorkloadSpec {
+    
+    /**
+     * Seed for every random choice; the same seed gives the same transaction sequence.
+     */
+    private long seed = 42;
+    
+    private Accounts accounts = new Accounts();
+    private Merchants merchants = new Merchants();
+    private Amounts amounts = new Amounts();
+    private Diurnal diurnal = new Diurnal();
+    private Scenarios scenarios = new Scenarios();
+    
+    @Data
+    public static class Accounts {
+        private int count = 1_000_000;
+        /**
+         * Zipf exponent of account activity; 0 is uniform, around 1 is typical of card traffic.
+         */
+        private double skew = 1.0;
+        private String idPrefix = "ACCT";
+    }
+    
+    @Data
+    public static class Merchants {
+        private int count = 50_000;
+        private double skew = 0.8;
+        private String idPrefix = "MERCHANT_";
+    }
+    
+    /**
+     * Log-normal amounts: half the transactions are below the median.
+     */
+    @Data
+    public static class Amounts {
+        private BigDecimal median = new BigDecimal("45.00");
+        private double sigma = 1.0;
+        private BigDecimal max = new BigDecimal("50000.00");
+    }
+    
+    @Data
+    public static class Diurnal {
+        /**
+         * Drive the generator's rate from this curve at startup instead of initial-qps.
+         */
+        private boolean enabled = false;
+        private double troughQps = 50;
+        private double peakQps = 500;
+        private double periodHours = 24;
+        /**
+         * UTC hour of day of the peak, for a 24 hour period.
+         */
+        private double peakHourUtc = 18;
+    }
+    
+    @Data
+    public static class Scenarios {
+        /**
+         * Fraud scenarios started per million transactions.
+         */
+        private double perMillion = 100;
+        /**
+         * Transactions per scheduling block; each block hosts at most one scenario.
+         */
+        private int blockSize = 1000;
+        private Scenario cardTesting = new Scenario(5, 20, 1, null);
+        private Scenario accountTakeover = new Scenario(3, 4, 10, new BigDecimal("12000.00"));
+        private Scenario geoHopping = new Scenario(2, 6, 25, null);
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Scenario {
+        /**
+         * Relative frequency among scenarios; 0 disables the scenario.
+         */
+        private double weight;
+        private int transactions;
+        /**
+         * Distance in the transaction sequence between consecutive scenario transactions.
+         */
+        private int spacing;
+        /**
+         * Smallest amount, for scenarios that move money out.
+         */
+        private BigDecimal minAmount;
+    }
+}
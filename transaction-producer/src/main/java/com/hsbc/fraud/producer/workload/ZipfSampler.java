@@ -0,0 +1,87 @@
+package com.hsbc.fraud.producer.workload;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples ranks 1..n with probability proportional to 1 / rank^exponent.
+ *
+ * Uses rejection-inversion (Hormann and Derflinger, 1996): constant expected time
+ * and no tables, so populations of millions cost nothing to set up.
+ * Immutable and thread-safe; the randomness comes from the caller.
+ */
+public final class ZipfSampler {
+    
+    private final int n;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+    
+    /**
+     * @param exponent 0 for uniform sampling, larger for more skew
+     */
+    public ZipfSampler(int n, double exponent) {
+        if (n < 1 || exponent < 0) {
+            throw new IllegalArgumentException("Zipf sampler needs n >= 1 and a non-negative exponent");
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+    
+    /**
+     * @return a rank between 1 (most frequent) and n
+     */
+    public int sample(RandomGenerator random) {
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > n) {
+                k = n;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+    
+    public int getN() {
+        return n;
+    }
+    
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+    
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1 - exponent) * logX) * logX;
+    }
+    
+    private double hIntegralInverse(double x) {
+        double t = x * (1 - exponent);
+        if (t < -1) {
+            t = -1;
+        }
+        return Math.exp(helper1(t) * x);
+    }
+    
+    /**
+     * log(1 + x) / x, accurate near 0.
+     */
+    private static double helper1(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+    
+    /**
+     * (exp(x) - 1) / x, accurate near 0.
+     */
+    private static double helper2(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
@@ -0,0 +1,131 @@
+package com.hsbc.fraud.producer.messaging.aws;
+
+import com.hsbc.fraud.producer.metrics.MetricsCollector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SqsBatchPublisher Tests")
+class SqsBatchPublisherTest {
+    
+    private static final String QUEUE_URL = "https://sqs.local/000000000000/fraud-detection-queue";
+    
+    @Mock
+    private SqsAsyncClient sqsAsyncClient;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private SqsBatchPublisher publisher;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(sqsAsyncClient.getQueueUrl(any(GetQueueUrlRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(GetQueueUrlResponse.builder().queueUrl(QUEUE_URL).build()));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (publisher != null) {
+            publisher.close(1000);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should coalesce messages into batches of at most 10 entries")
+    void shouldSendFullBatches() {
+        when(sqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(SendMessageBatchResponse.builder().build()));
+        publisher = createPublisher(1000, 3);
+        
+        for (int i = 0; i < 25; i++) {
+            publisher.publish("message-" + i);
+        }
+        
+        ArgumentCaptor<SendMessageBatchRequest> requests = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            verify(sqsAsyncClient, atLeast(3)).sendMessageBatch(requests.capture());
+            assertEquals(25, requests.getAllValues().stream().mapToInt(r -> r.entries().size()).sum());
+        });
+        assertTrue(requests.getAllValues().stream().allMatch(r -> r.entries().size() <= 10));
+        assertEquals(QUEUE_URL, requests.getValue().queueUrl());
+        assertEquals(25.0, meterRegistry.get("sqs_publish_batch_size").summary().totalAmount());
+    }
+    
+    @Test
+    @DisplayName("Should send a partial batch once the linger time is up")
+    void shouldFlushAfterLinger() {
+        when(sqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(SendMessageBatchResponse.builder().build()));
+        publisher = createPublisher(20, 3);
+        
+        publisher.publish("only-message");
+        
+        ArgumentCaptor<SendMessageBatchRequest> request = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(sqsAsyncClient, timeout(2000)).sendMessageBatch(request.capture());
+        assertEquals(List.of("only-message"),
+                request.getValue().entries().stream().map(SendMessageBatchRequestEntry::messageBody).toList());
+    }
+    
+    @Test
+    @DisplayName("Should retry only the entries that failed on the service side")
+    void shouldRetryFailedEntries() {
+        SendMessageBatchResponse partialFailure = SendMessageBatchResponse.builder()
+                .failed(BatchResultErrorEntry.builder().id("1").code("ServiceUnavailable").senderFault(false).build())
+                .build();
+        when(sqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(partialFailure))
+                .thenReturn(CompletableFuture.completedFuture(SendMessageBatchResponse.builder().build()));
+        publisher = createPublisher(20, 3);
+        
+        publisher.publish("first");
+        publisher.publish("second");
+        
+        ArgumentCaptor<SendMessageBatchRequest> requests = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(sqsAsyncClient, timeout(2000).times(2)).sendMessageBatch(requests.capture());
+        assertEquals(List.of("second"),
+                requests.getAllValues().get(1).entries().stream().map(SendMessageBatchRequestEntry::messageBody).toList());
+        assertEquals(1.0, meterRegistry.get("sqs_publish_retries_total").counter().count());
+    }
+    
+    @Test
+    @DisplayName("Should count messages as errors once attempts are exhausted")
+    void shouldGiveUpAfterMaxAttempts() {
+        when(sqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("connection reset")));
+        publisher = createPublisher(20, 2);
+        
+        publisher.publish("doomed");
+        
+        verify(sqsAsyncClient, timeout(2000).times(2)).sendMessageBatch(any(SendMessageBatchRequest.class));
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(() -> assertEquals(1.0, meterRegistry.get("processing_errors_total")
+                .tag("error_type", MetricsCollector.ERROR_TYPE_SQS_PUBLISH).counter().count()));
+    }
+    
+    private SqsBatchPublisher createPublisher(long lingerMs, int maxAttempts) {
+        return new SqsBatchPublisher(sqsAsyncClient, "fraud-detection-queue", new MetricsCollector(meterRegistry),
+                10, lingerMs, 4, 100, maxAttempts, 1000);
+    }
+}
@@ -0,0 +1,110 @@
+package com.hsbc.fraud.producer.messaging.mapped;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MappedLogWriter Tests")
+class MappedLogWriterTest {
+    
+    private static final int SEGMENT_SIZE = 4096;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    @DisplayName("Should write length-prefixed, 8-byte aligned records after the segment header")
+    void shouldWriteRecords() throws IOException {
+        try (MappedLogWriter writer = new MappedLogWriter(directory, SEGMENT_SIZE, 0)) {
+            writer.append("{\"transactionId\":\"TX1\"}");
+            writer.append("{\"transactionId\":\"TX2\"}");
+        }
+        
+        ByteBuffer segment = segment(0);
+        assertEquals(MappedLogWriter.MAGIC, segment.getInt(0));
+        assertEquals(SEGMENT_SIZE, segment.getInt(8));
+        assertEquals(23, segment.getInt(MappedLogWriter.HEADER_BYTES));
+        assertEquals(23, segment.getInt(MappedLogWriter.HEADER_BYTES + 32));
+        assertEquals(List.of("{\"transactionId\":\"TX1\"}", "{\"transactionId\":\"TX2\"}"), readAll());
+    }
+    
+    @Test
+    @DisplayName("Should roll to a new segment and delete segments beyond the retained count")
+    void shouldRollSegments() throws IOException {
+        try (MappedLogWriter writer = new MappedLogWriter(directory, SEGMENT_SIZE, 2)) {
+            for (int i = 0; i < 500; i++) {
+                writer.append("{\"transactionId\":\"TX" + i + "\",\"padding\":\"" + "x".repeat(40) + "\"}");
+            }
+            assertTrue(writer.getSegmentIndex() >= 3);
+            
+            assertFalse(Files.exists(MappedLogWriter.segmentPath(directory, 0)));
+            assertTrue(Files.exists(MappedLogWriter.segmentPath(directory, writer.getSegmentIndex() - 1)));
+            assertEquals(500, writer.getAppended());
+        }
+    }
+    
+    @Test
+    @DisplayName("Should continue in a new segment after a restart")
+    void shouldResumeAfterRestart() throws IOException {
+        try (MappedLogWriter writer = new MappedLogWriter(directory, SEGMENT_SIZE, 0)) {
+            writer.append("first");
+        }
+        try (MappedLogWriter writer = new MappedLogWriter(directory, SEGMENT_SIZE, 0)) {
+            assertEquals(1, writer.getSegmentIndex());
+            writer.append("second");
+        }
+        
+        assertEquals(List.of("first", "second"), readAll());
+    }
+    
+    @Test
+    @DisplayName("Should allow only one writer per directory")
+    void shouldRejectSecondWriter() throws IOException {
+        try (MappedLogWriter writer = new MappedLogWriter(directory, SEGMENT_SIZE, 0)) {
+            assertThrows(IllegalStateException.class, () -> new MappedLogWriter(directory, SEGMENT_SIZE, 0));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should reject messages larger than a segment")
+    void shouldRejectOversizedMessage() throws IOException {
+        try (MappedLogWriter writer = new MappedLogWriter(directory, SEGMENT_SIZE, 0)) {
+            assertThrows(IllegalArgumentException.class, () -> writer.append("x".repeat(SEGMENT_SIZE)));
+        }
+    }
+    
+    /**
+     * Minimal reader of the segment format, independent of the detection service.
+     */
+    private List<String> readAll() throws IOException {
+        List<String> messages = new ArrayList<>();
+        for (long index = 0; Files.exists(MappedLogWriter.segmentPath(directory, index)); index++) {
+            ByteBuffer segment = segment(index);
+            int position = MappedLogWriter.HEADER_BYTES;
+            int length;
+            while ((length = segment.getInt(position)) > 0) {
+                byte[] bytes = new byte[length];
+                segment.get(position + Integer.BYTES, bytes);
+                messages.add(new String(bytes, StandardCharsets.UTF_8));
+                position += (Integer.BYTES + length + 7) & ~7;
+            }
+        }
+        return messages;
+    }
+    
+    private ByteBuffer segment(long index) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(MappedLogWriter.segmentPath(directory, index)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,56 @@
+package com.hsbc.fraud.producer.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MetricsCollector Tests")
+class MetricsCollectorTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private MetricsCollector metricsCollector;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricsCollector = new MetricsCollector(meterRegistry);
+    }
+    
+    @Test
+    @DisplayName("Should expose sent transactions through the registry")
+    void shouldCountTransactionsSent() {
+        metricsCollector.recordTransactionSent();
+        metricsCollector.recordTransactionSent("ACCT100");
+        metricsCollector.recordTransactionsSent(3);
+        
+        assertEquals(5.0, meterRegistry.get("transactions_sent_total").functionCounter().count());
+    }
+    
+    @Test
+    @DisplayName("Should pre-register meters for the known tag values")
+    void shouldPreRegisterMeters() {
+        assertNotNull(meterRegistry.find("transaction_publish_duration_seconds").timer());
+        assertNotNull(meterRegistry.find("sqs_publish_latency_seconds")
+                .tag("operation", MetricsCollector.OPERATION_SQS_PUBLISH).timer());
+        assertNotNull(meterRegistry.find("processing_errors_total")
+                .tag("error_type", MetricsCollector.ERROR_TYPE_PUBLISH).counter());
+    }
+    
+    @Test
+    @DisplayName("Should reuse one meter per tag value")
+    void shouldCacheMetersPerTag() {
+        metricsCollector.recordProcessingError("CUSTOM_ERROR");
+        metricsCollector.recordProcessingError("CUSTOM_ERROR");
+        metricsCollector.recordSqsLatency(MetricsCollector.OPERATION_SQS_PUBLISH, 20);
+        metricsCollector.recordSqsLatency(MetricsCollector.OPERATION_SQS_PUBLISH, 40);
+        
+        assertEquals(2.0, meterRegistry.get("processing_errors_total")
+                .tag("error_type", "CUSTOM_ERROR").counter().count());
+        assertEquals(2, meterRegistry.get("sqs_publish_latency_seconds")
+                .tag("operation", MetricsCollector.OPERATION_SQS_PUBLISH).timer().count());
+        assertEquals(1, meterRegistry.find("sqs_publish_latency_seconds").timers().size());
+    }
+}
@@ -0,0 +1,126 @@
+package com.hsbc.fraud.producer.replay;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Replay file Tests")
+class ReplayReaderTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    @DisplayName("Should read back binary records with their offsets")
+    void shouldRoundTripBinary() throws IOException {
+        Path file = directory.resolve("stream.bin");
+        try (ReplayWriter writer = ReplayWriter.create(file, ReplayFormat.BINARY)) {
+            writer.write(0, bytes("{\"transactionId\":\"TX1\"}"));
+            writer.write(1_500_000, bytes("{\"transactionId\":\"TX2\",\"location\":\"S\u00C3O_PAULO\"}"));
+            writer.write(2_000_000_000L, bytes("{\"transactionId\":\"TX3\"}"));
+        }
+        
+        try (ReplayReader reader = ReplayReader.open(file)) {
+            assertEquals(ReplayFormat.BINARY, reader.getFormat());
+            assertTrue(reader.getRecordingStartMillis() > 0);
+            
+            assertTrue(reader.next());
+            assertEquals(0, reader.offsetNanos());
+            assertEquals("{\"transactionId\":\"TX1\"}", reader.message());
+            assertTrue(reader.next());
+            assertEquals(1_500_000, reader.offsetNanos());
+            assertTrue(reader.message().contains("S\u00C3O_PAULO"));
+            assertTrue(reader.next());
+            assertEquals(2_000_000_000L, reader.offsetNanos());
+            assertFalse(reader.next());
+            assertEquals(3, reader.getRecordsRead());
+        }
+    }
+    
+    @Test
+    @DisplayName("Should stop at a truncated last record")
+    void shouldStopAtTruncatedRecord() throws IOException {
+        Path file = directory.resolve("truncated.bin");
+        try (ReplayWriter writer = ReplayWriter.create(file, ReplayFormat.BINARY)) {
+            writer.write(0, bytes("{\"transactionId\":\"TX1\"}"));
+            writer.write(10, bytes("{\"transactionId\":\"TX2\"}"));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        
+        assertEquals(List.of("{\"transactionId\":\"TX1\"}"), readAll(file));
+    }
+    
+    @Test
+    @DisplayName("Should time JSONL lines from their timestamp field")
+    void shouldReadJsonlWithTimestampOffsets() throws IOException {
+        Path file = directory.resolve("capture.jsonl");
+        Files.writeString(file, """
+                {"transactionId":"TX1","timestamp":"2024-01-15T10:00:00.000Z"}
+                {"transactionId":"TX2","timestamp":"2024-01-15T10:00:01.250Z"}
+                
+                {"transactionId":"TX3","timestamp":"2024-01-15T10:00:01.000Z"}
+                {"transactionId":"TX4","timestamp":"2024-01-15T10:00:03.000Z"}""");
+        
+        try (ReplayReader reader = ReplayReader.open(file)) {
+            assertEquals(ReplayFormat.JSONL, reader.getFormat());
+            List<Long> offsets = new ArrayList<>();
+            while (reader.next()) {
+                offsets.add(reader.offsetNanos());
+            }
+            // Blank lines are skipped and out-of-order timestamps do not go back in time
+            assertEquals(List.of(0L, 1_250_000_000L, 1_250_000_000L, 3_000_000_000L), offsets);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should write JSONL that reads back line by line")
+    void shouldRoundTripJsonl() throws IOException {
+        Path file = directory.resolve("stream.jsonl");
+        try (ReplayWriter writer = ReplayWriter.create(file, ReplayFormat.JSONL)) {
+            for (int i = 0; i < 10_000; i++) {
+                writer.write("{\"transactionId\":\"TX" + i + "\"}");
+            }
+            assertEquals(10_000, writer.getRecords());
+        }
+        
+        List<String> messages = readAll(file);
+        assertEquals(10_000, messages.size());
+        assertEquals("{\"transactionId\":\"TX9999\"}", messages.get(9_999));
+    }
+    
+    @Test
+    @DisplayName("Should never overwrite an existing recording")
+    void shouldRefuseExistingFile() throws IOException {
+        Path file = Files.writeString(directory.resolve("existing.bin"), "keep");
+        
+        assertThrows(IOException.class, () -> ReplayWriter.create(file, ReplayFormat.BINARY));
+        assertEquals("keep", Files.readString(file));
+    }
+    
+    private static List<String> readAll(Path file) throws IOException {
+        List<String> messages = new ArrayList<>();
+        try (ReplayReader reader = ReplayReader.open(file)) {
+            while (reader.next()) {
+                messages.add(reader.message());
+            }
+        }
+        return messages;
+    }
+    
+    private static byte[] bytes(String message) {
+        return message.getBytes(StandardCharsets.UTF_8);
+    }
+}
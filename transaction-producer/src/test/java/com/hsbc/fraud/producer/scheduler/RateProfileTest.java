@@ -0,0 +1,67 @@
+package com.hsbc.fraud.producer.scheduler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RateProfile Tests")
+class RateProfileTest {
+    
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    @Test
+    @DisplayName("Should keep a constant rate, including fractional rates")
+    void shouldKeepConstantRate() {
+        RateProfile profile = RateProfile.constant(1234.5);
+        
+        assertEquals(1234.5, profile.rateAt(0));
+        assertEquals(1234.5, profile.rateAt(3600 * SECOND));
+    }
+    
+    @Test
+    @DisplayName("Should ramp linearly and hold the end rate")
+    void shouldRampLinearly() {
+        RateProfile profile = RateProfile.ramp(1000, 11000, Duration.ofSeconds(10));
+        
+        assertEquals(1000, profile.rateAt(0));
+        assertEquals(6000, profile.rateAt(5 * SECOND), 1e-6);
+        assertEquals(11000, profile.rateAt(10 * SECOND));
+        assertEquals(11000, profile.rateAt(60 * SECOND));
+    }
+    
+    @Test
+    @DisplayName("Should step up by the increment each interval up to the maximum")
+    void shouldStepUp() {
+        RateProfile profile = RateProfile.steps(1000, 500, Duration.ofSeconds(30), 2000);
+        
+        assertEquals(1000, profile.rateAt(29 * SECOND));
+        assertEquals(1500, profile.rateAt(30 * SECOND));
+        assertEquals(2000, profile.rateAt(61 * SECOND));
+        assertEquals(2000, profile.rateAt(600 * SECOND));
+    }
+    
+    @Test
+    @DisplayName("Should follow a cosine between trough and peak")
+    void shouldFollowDiurnalCurve() {
+        RateProfile profile = RateProfile.diurnal(100, 1100, Duration.ofHours(24), Duration.ofHours(6));
+        
+        assertEquals(1100, profile.rateAt(6 * 3600 * SECOND), 1e-6);
+        assertEquals(100, profile.rateAt(18 * 3600 * SECOND), 1e-6);
+        assertEquals(600, profile.rateAt(0), 1e-6);
+        assertEquals(1100, profile.rateAt(30 * 3600 * SECOND), 1e-6);
+    }
+    
+    @Test
+    @DisplayName("Should reject invalid profiles")
+    void shouldRejectInvalidProfiles() {
+        assertThrows(IllegalArgumentException.class, () -> RateProfile.constant(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> RateProfile.diurnal(500, 100, Duration.ofHours(24), Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> RateProfile.ramp(0, 100, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> RateProfile.steps(0, 0, Duration.ofSeconds(1), 100));
+    }
+}
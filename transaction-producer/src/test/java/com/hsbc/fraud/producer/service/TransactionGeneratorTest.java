@@ -1,11 +1,16 @@
 package com.hsbc.fraud.producer.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.hsbc.fraud.producer.model.Transaction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.RepeatedTest;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -117,5 +122,34 @@ class TransactionGeneratorTest {
         assertTrue(totalFraudulent > 0, "Should generate some fraudulent transactions");
         assertTrue(totalFraudulent < total * 0.3, "Fraudulent rate should be reasonable");
     }
+    
+    @RepeatedTest(20)
+    @DisplayName("Should render JSON that deserializes to a complete transaction")
+    void shouldGenerateJsonMatchingTransactionFormat() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        
+        Transaction transaction = objectMapper.readValue(generator.generateJson(), Transaction.class);
+        
+        assertNotNull(transaction.getTransactionId());
+        assertTrue(transaction.getAccountId().startsWith("ACCT"));
+        assertEquals(2, transaction.getAmount().scale());
+        assertTrue(transaction.getAmount().compareTo(BigDecimal.ZERO) > 0);
+        assertEquals("USD", transaction.getCurrency());
+        assertTrue(Duration.between(transaction.getTimestamp(), Instant.now()).abs().toSeconds() < 5);
+        assertNotNull(transaction.getMerchantId());
+        assertNotNull(transaction.getMerchantCategory());
+        assertNotNull(transaction.getLocation());
+        assertNotNull(transaction.getType());
+    }
+    
+    @Test
+    @DisplayName("Should render JSON with the same field layout as Jackson")
+    void shouldRenderJsonLikeJackson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        String json = generator.generateJson();
+        
+        Transaction transaction = objectMapper.readValue(json, Transaction.class);
+        
+        assertEquals(objectMapper.writeValueAsString(transaction), json);
+    }
 }
-
@@ -0,0 +1,195 @@
+package com.hsbc.fraud.producer.workload;
+
+import com.hsbc.fraud.producer.config.WorkloadConfig;
+import com.hsbc.fraud.producer.model.Transaction;
+import com.hsbc.fraud.producer.scheduler.RateProfile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WorkloadModel Tests")
+class WorkloadModelTest {
+    
+    private static final Instant NOW = Instant.parse("2024-01-15T12:00:00Z");
+    
+    @Test
+    @DisplayName("Should generate the same sequence for the same seed")
+    void shouldBeReproducible() {
+        WorkloadModel first = new WorkloadModel(new WorkloadSpec());
+        WorkloadModel second = new WorkloadModel(new WorkloadSpec());
+        
+        for (long sequence = 0; sequence < 5_000; sequence++) {
+            assertEquals(first.transactionAt(sequence, NOW), second.transactionAt(sequence, NOW));
+        }
+        assertEquals(first.transactionAt(7, NOW), first.transactionAt(7, NOW));
+    }
+    
+    @Test
+    @DisplayName("Should generate a different sequence for a different seed")
+    void shouldDependOnSeed() {
+        WorkloadSpec other = new WorkloadSpec();
+        other.setSeed(7);
+        
+        assertNotEquals(new WorkloadModel(new WorkloadSpec()).transactionAt(0, NOW),
+                new WorkloadModel(other).transactionAt(0, NOW));
+    }
+    
+    @Test
+    @DisplayName("Should skew activity towards popular accounts across a large population")
+    void shouldSkewAccounts() {
+        WorkloadSpec spec = new WorkloadSpec();
+        spec.getScenarios().setPerMillion(0);
+        WorkloadModel model = new WorkloadModel(spec);
+        
+        Map<String, Integer> counts = new HashMap<>();
+        int total = 100_000;
+        for (long sequence = 0; sequence < total; sequence++) {
+            counts.merge(model.transactionAt(sequence, NOW).getAccountId(), 1, Integer::sum);
+        }
+        
+        // Rank 1 dominates, yet most transactions are spread over many accounts
+        int top = counts.get(model.accountId(1));
+        assertTrue(top > total / 30, "Most popular account had " + top);
+        assertTrue(counts.size() > 10_000, "Distinct accounts: " + counts.size());
+        assertTrue(counts.keySet().stream().allMatch(id -> id.matches("ACCT\\d{7}")));
+    }
+    
+    @Test
+    @DisplayName("Should keep amounts positive, at scale 2 and within the maximum")
+    void shouldGenerateBoundedAmounts() {
+        WorkloadModel model = new WorkloadModel(new WorkloadSpec());
+        
+        for (long sequence = 0; sequence < 10_000; sequence++) {
+            BigDecimal amount = model.transactionAt(sequence, NOW).getAmount();
+            assertEquals(2, amount.scale());
+            assertTrue(amount.signum() > 0);
+            assertTrue(amount.compareTo(new BigDecimal("50000.00")) <= 0 || model.scenarioAt(sequence) != null);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should inject card-testing bursts of small online purchases on one account")
+    void shouldInjectCardTesting() {
+        WorkloadSpec spec = onlyScenario(FraudScenario.CARD_TESTING);
+        WorkloadModel model = new WorkloadModel(spec);
+        
+        List<Transaction> burst = scenarioTransactions(model, 0, spec.getScenarios().getBlockSize());
+        
+        assertEquals(20, burst.size());
+        assertEquals(1, burst.stream().map(Transaction::getAccountId).distinct().count());
+        assertTrue(burst.stream().allMatch(tx -> "ONLINE".equals(tx.getMerchantCategory())
+                && tx.getAmount().compareTo(new BigDecimal("5.00")) < 0));
+    }
+    
+    @Test
+    @DisplayName("Should inject account takeover as large transfers away from home")
+    void shouldInjectAccountTakeover() {
+        WorkloadSpec spec = onlyScenario(FraudScenario.ACCOUNT_TAKEOVER);
+        WorkloadModel model = new WorkloadModel(spec);
+        
+        List<Transaction> takeover = scenarioTransactions(model, 0, spec.getScenarios().getBlockSize());
+        
+        assertEquals(4, takeover.size());
+        String accountId = takeover.get(0).getAccountId();
+        int rank = Integer.parseInt(accountId.substring("ACCT".length()));
+        assertTrue(takeover.stream().allMatch(tx -> tx.getAccountId().equals(accountId)
+                && tx.getAmount().compareTo(new BigDecimal("12000.00")) >= 0
+                && tx.getType() != Transaction.TransactionType.PURCHASE
+                && !tx.getLocation().equals(model.homeLocation(rank))));
+    }
+    
+    @Test
+    @DisplayName("Should inject geo-hopping as a different location each time")
+    void shouldInjectGeoHopping() {
+        WorkloadSpec spec = onlyScenario(FraudScenario.GEO_HOPPING);
+        WorkloadModel model = new WorkloadModel(spec);
+        
+        List<Transaction> hops = scenarioTransactions(model, 0, spec.getScenarios().getBlockSize());
+        
+        assertEquals(6, hops.size());
+        Set<String> locations = new HashSet<>();
+        hops.forEach(tx -> locations.add(tx.getLocation()));
+        assertEquals(6, locations.size());
+    }
+    
+    @Test
+    @DisplayName("Should start scenarios at roughly the configured rate")
+    void shouldInjectScenariosAtConfiguredRate() {
+        WorkloadSpec spec = new WorkloadSpec();
+        spec.getScenarios().setPerMillion(100);
+        WorkloadModel model = new WorkloadModel(spec);
+        
+        int blocks = 20_000;
+        int withScenario = 0;
+        for (int block = 0; block < blocks; block++) {
+            if (!scenarioTransactions(model, block, spec.getScenarios().getBlockSize()).isEmpty()) {
+                withScenario++;
+            }
+        }
+        
+        // 100 per million transactions = 0.1 per block of 1000
+        assertEquals(blocks * 0.1, withScenario, blocks * 0.02);
+    }
+    
+    @Test
+    @DisplayName("Should align the diurnal curve peak to the configured UTC hour")
+    void shouldAlignDiurnalPeak() {
+        WorkloadSpec spec = new WorkloadSpec();
+        spec.getDiurnal().setEnabled(true);
+        spec.getDiurnal().setPeakHourUtc(18);
+        
+        RateProfile profile = new WorkloadModel(spec).rateProfile(NOW).orElseThrow();
+        
+        // NOW is 12:00 UTC, six hours before the peak
+        assertEquals(500, profile.rateAt(Duration.ofHours(6).toNanos()), 1e-6);
+        assertEquals(50, profile.rateAt(Duration.ofHours(18).toNanos()), 1e-6);
+        assertTrue(new WorkloadModel(new WorkloadSpec()).rateProfile(NOW).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should load the bundled workload file")
+    void shouldLoadBundledWorkload() throws Exception {
+        WorkloadSpec spec = WorkloadConfig.load(new ClassPathResource("workloads/realistic.yml"));
+        
+        assertEquals(1_000_000, spec.getAccounts().getCount());
+        assertEquals(new BigDecimal("12000.00").compareTo(spec.getScenarios().getAccountTakeover().getMinAmount()), 0);
+        assertNotNull(new WorkloadModel(spec).transactionAt(0, NOW));
+    }
+    
+    @Test
+    @DisplayName("Should reject scenarios that do not fit in a block")
+    void shouldRejectInvalidSpec() {
+        WorkloadSpec spec = new WorkloadSpec();
+        spec.getScenarios().getGeoHopping().setSpacing(500);
+        
+        assertThrows(IllegalArgumentException.class, () -> new WorkloadModel(spec));
+    }
+    
+    private static WorkloadSpec onlyScenario(FraudScenario scenario) {
+        WorkloadSpec spec = new WorkloadSpec();
+        WorkloadSpec.Scenarios scenarios = spec.getScenarios();
+        scenarios.setPerMillion(1_000_000);
+        scenarios.getCardTesting().setWeight(scenario == FraudScenario.CARD_TESTING ? 1 : 0);
+        scenarios.getAccountTakeover().setWeight(scenario == FraudScenario.ACCOUNT_TAKEOVER ? 1 : 0);
+        scenarios.getGeoHopping().setWeight(scenario == FraudScenario.GEO_HOPPING ? 1 : 0);
+        return spec;
+    }
+    
+    private static List<Transaction> scenarioTransactions(WorkloadModel model, long block, int blockSize) {
+        return java.util.stream.LongStream.range(block * blockSize, (block + 1) * blockSize)
+                .filter(sequence -> model.scenarioAt(sequence) != null)
+                .mapToObj(sequence -> model.transactionAt(sequence, NOW))
+                .toList();
+    }
+}